@@ -0,0 +1,299 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.benchmark.compute.operator;
+
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.logging.LogConfigurator;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.compute.data.Block;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BooleanBlock;
+import org.elasticsearch.compute.data.BooleanVector;
+import org.elasticsearch.compute.data.DoubleBlock;
+import org.elasticsearch.compute.data.DoubleVector;
+import org.elasticsearch.compute.data.LongBlock;
+import org.elasticsearch.compute.data.LongVector;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.DriverContext;
+import org.elasticsearch.compute.operator.EvalOperator;
+import org.elasticsearch.compute.operator.EvalOperator.ExpressionEvaluator;
+import org.elasticsearch.compute.operator.FilterOperator;
+import org.elasticsearch.compute.operator.Operator;
+import org.elasticsearch.logging.LogManager;
+import org.elasticsearch.logging.Logger;
+import org.elasticsearch.xpack.esql.core.expression.FieldAttribute;
+import org.elasticsearch.xpack.esql.core.expression.FoldContext;
+import org.elasticsearch.xpack.esql.core.expression.Literal;
+import org.elasticsearch.xpack.esql.core.tree.Source;
+import org.elasticsearch.xpack.esql.core.type.DataType;
+import org.elasticsearch.xpack.esql.core.type.EsField;
+import org.elasticsearch.xpack.esql.evaluator.EvalMapper;
+import org.elasticsearch.xpack.esql.expression.predicate.operator.arithmetic.Add;
+import org.elasticsearch.xpack.esql.expression.predicate.operator.arithmetic.AddDoublesEvaluator;
+import org.elasticsearch.xpack.esql.expression.predicate.operator.arithmetic.AddLongsEvaluator;
+import org.elasticsearch.xpack.esql.expression.predicate.operator.arithmetic.Mul;
+import org.elasticsearch.xpack.esql.expression.predicate.operator.arithmetic.MulDoublesEvaluator;
+import org.elasticsearch.xpack.esql.expression.predicate.operator.arithmetic.Sub;
+import org.elasticsearch.xpack.esql.expression.predicate.operator.arithmetic.SubLongsEvaluator;
+import org.elasticsearch.xpack.esql.expression.predicate.operator.comparison.GreaterThan;
+import org.elasticsearch.xpack.esql.expression.predicate.operator.comparison.GreaterThanDoublesEvaluator;
+import org.elasticsearch.xpack.esql.expression.predicate.operator.comparison.LessThan;
+import org.elasticsearch.xpack.esql.expression.predicate.operator.comparison.LessThanLongsEvaluator;
+import org.elasticsearch.xpack.esql.planner.Layout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the evaluators generated for the operators that have SIMD kernels with
+ * the kernels themselves: {@code long} and {@code double} addition and subtraction,
+ * {@code double} multiplication and comparisons. {@code scalar} uses the generated
+ * evaluator directly and {@code vectorized} uses whatever ESQL plans.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 7)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsPrepend = { "--add-modules=jdk.incubator.vector" })
+public class VectorizedEvalBenchmark {
+    private static final BlockFactory blockFactory = BlockFactory.getInstance(
+        new NoopCircuitBreaker("noop"),
+        BigArrays.NON_RECYCLING_INSTANCE
+    );
+
+    private static final FoldContext FOLD_CONTEXT = FoldContext.small();
+
+    private static final int BLOCK_LENGTH = 8 * 1024;
+
+    static final DriverContext driverContext = new DriverContext(BigArrays.NON_RECYCLING_INSTANCE, blockFactory);
+
+    static {
+        LogConfigurator.configureESLogging();
+        // Smoke test all the expected values and force loading subclasses more like prod
+        selfTest();
+    }
+
+    static void selfTest() {
+        Logger log = LogManager.getLogger(VectorizedEvalBenchmark.class);
+        try {
+            for (String operation : VectorizedEvalBenchmark.class.getField("operation").getAnnotationsByType(Param.class)[0].value()) {
+                for (String impl : VectorizedEvalBenchmark.class.getField("impl").getAnnotationsByType(Param.class)[0].value()) {
+                    log.info("self testing {} {}", operation, impl);
+                    run(operation, impl);
+                }
+            }
+        } catch (NoSuchFieldException e) {
+            throw new AssertionError();
+        }
+    }
+
+    @Param({ "add_longs", "sub_longs_const", "add_doubles", "mul_doubles_const", "lt_longs_const", "gt_doubles", "filter_lt_longs" })
+    public String operation;
+
+    @Param({ "scalar", "vectorized" })
+    public String impl;
+
+    private static Operator operator(String operation, String impl) {
+        ExpressionEvaluator evaluator = evaluator(operation, impl).get(driverContext);
+        if (operation.startsWith("filter")) {
+            return new FilterOperator(evaluator);
+        }
+        return new EvalOperator(driverContext.blockFactory(), evaluator);
+    }
+
+    private static ExpressionEvaluator.Factory evaluator(String operation, String impl) {
+        boolean scalar = impl.equals("scalar");
+        FieldAttribute lhs = operation.contains("doubles") ? doubleField("lhs") : longField("lhs");
+        FieldAttribute rhs = operation.contains("doubles") ? doubleField("rhs") : longField("rhs");
+        Layout layout = layout(lhs, rhs);
+        ExpressionEvaluator.Factory lhsEval = EvalMapper.toEvaluator(FOLD_CONTEXT, lhs, layout);
+        ExpressionEvaluator.Factory rhsEval = EvalMapper.toEvaluator(FOLD_CONTEXT, rhs, layout);
+        return switch (operation) {
+            case "add_longs" -> scalar
+                ? new AddLongsEvaluator.Factory(Source.EMPTY, lhsEval, rhsEval)
+                : EvalMapper.toEvaluator(FOLD_CONTEXT, new Add(Source.EMPTY, lhs, rhs), layout);
+            case "sub_longs_const" -> {
+                Literal one = new Literal(Source.EMPTY, 1L, DataType.LONG);
+                yield scalar
+                    ? new SubLongsEvaluator.Factory(Source.EMPTY, lhsEval, EvalMapper.toEvaluator(FOLD_CONTEXT, one, layout))
+                    : EvalMapper.toEvaluator(FOLD_CONTEXT, new Sub(Source.EMPTY, lhs, one), layout);
+            }
+            case "add_doubles" -> scalar
+                ? new AddDoublesEvaluator.Factory(Source.EMPTY, lhsEval, rhsEval)
+                : EvalMapper.toEvaluator(FOLD_CONTEXT, new Add(Source.EMPTY, lhs, rhs), layout);
+            case "mul_doubles_const" -> {
+                Literal two = new Literal(Source.EMPTY, 2D, DataType.DOUBLE);
+                yield scalar
+                    ? new MulDoublesEvaluator.Factory(Source.EMPTY, lhsEval, EvalMapper.toEvaluator(FOLD_CONTEXT, two, layout))
+                    : EvalMapper.toEvaluator(FOLD_CONTEXT, new Mul(Source.EMPTY, lhs, two), layout);
+            }
+            case "lt_longs_const", "filter_lt_longs" -> {
+                Literal half = new Literal(Source.EMPTY, (long) BLOCK_LENGTH / 2, DataType.LONG);
+                yield scalar
+                    ? new LessThanLongsEvaluator.Factory(Source.EMPTY, lhsEval, EvalMapper.toEvaluator(FOLD_CONTEXT, half, layout))
+                    : EvalMapper.toEvaluator(FOLD_CONTEXT, new LessThan(Source.EMPTY, lhs, half), layout);
+            }
+            case "gt_doubles" -> scalar
+                ? new GreaterThanDoublesEvaluator.Factory(Source.EMPTY, lhsEval, rhsEval)
+                : EvalMapper.toEvaluator(FOLD_CONTEXT, new GreaterThan(Source.EMPTY, lhs, rhs), layout);
+            default -> throw new UnsupportedOperationException();
+        };
+    }
+
+    private static FieldAttribute longField(String name) {
+        return new FieldAttribute(Source.EMPTY, name, new EsField(name, DataType.LONG, Map.of(), true));
+    }
+
+    private static FieldAttribute doubleField(String name) {
+        return new FieldAttribute(Source.EMPTY, name, new EsField(name, DataType.DOUBLE, Map.of(), true));
+    }
+
+    private static Layout layout(FieldAttribute... fields) {
+        Layout.Builder layout = new Layout.Builder();
+        layout.append(Arrays.asList(fields));
+        return layout.build();
+    }
+
+    private static void checkExpected(String operation, Page actual) {
+        switch (operation) {
+            case "add_longs" -> {
+                LongVector v = actual.<LongBlock>getBlock(2).asVector();
+                for (int i = 0; i < BLOCK_LENGTH; i++) {
+                    if (v.getLong(i) != 3L * i) {
+                        throw new AssertionError("[" + operation + "] expected [" + (3L * i) + "] but was [" + v.getLong(i) + "]");
+                    }
+                }
+            }
+            case "sub_longs_const" -> {
+                LongVector v = actual.<LongBlock>getBlock(2).asVector();
+                for (int i = 0; i < BLOCK_LENGTH; i++) {
+                    if (v.getLong(i) != i - 1) {
+                        throw new AssertionError("[" + operation + "] expected [" + (i - 1) + "] but was [" + v.getLong(i) + "]");
+                    }
+                }
+            }
+            case "add_doubles" -> {
+                DoubleVector v = actual.<DoubleBlock>getBlock(2).asVector();
+                for (int i = 0; i < BLOCK_LENGTH; i++) {
+                    if (v.getDouble(i) != 3D * i) {
+                        throw new AssertionError("[" + operation + "] expected [" + (3D * i) + "] but was [" + v.getDouble(i) + "]");
+                    }
+                }
+            }
+            case "mul_doubles_const" -> {
+                DoubleVector v = actual.<DoubleBlock>getBlock(2).asVector();
+                for (int i = 0; i < BLOCK_LENGTH; i++) {
+                    if (v.getDouble(i) != 2D * i) {
+                        throw new AssertionError("[" + operation + "] expected [" + (2D * i) + "] but was [" + v.getDouble(i) + "]");
+                    }
+                }
+            }
+            case "lt_longs_const" -> {
+                BooleanVector v = actual.<BooleanBlock>getBlock(2).asVector();
+                for (int i = 0; i < BLOCK_LENGTH; i++) {
+                    boolean expected = i < BLOCK_LENGTH / 2;
+                    if (v.getBoolean(i) != expected) {
+                        throw new AssertionError("[" + operation + "] expected [" + expected + "] but was [" + v.getBoolean(i) + "]");
+                    }
+                }
+            }
+            case "gt_doubles" -> {
+                BooleanVector v = actual.<BooleanBlock>getBlock(2).asVector();
+                for (int i = 0; i < BLOCK_LENGTH; i++) {
+                    boolean expected = i > 0;
+                    if (v.getBoolean(i) != expected) {
+                        throw new AssertionError("[" + operation + "] expected [" + expected + "] but was [" + v.getBoolean(i) + "]");
+                    }
+                }
+            }
+            case "filter_lt_longs" -> {
+                if (actual.getPositionCount() != BLOCK_LENGTH / 2) {
+                    throw new AssertionError("[" + operation + "] expected [" + (BLOCK_LENGTH / 2) + "] but was " + actual);
+                }
+                LongVector v = actual.<LongBlock>getBlock(0).asVector();
+                for (int i = 0; i < BLOCK_LENGTH / 2; i++) {
+                    if (v.getLong(i) != i) {
+                        throw new AssertionError("[" + operation + "] expected [" + i + "] but was [" + v.getLong(i) + "]");
+                    }
+                }
+            }
+            default -> throw new UnsupportedOperationException(operation);
+        }
+    }
+
+    private static Page page(String operation) {
+        if (operation.contains("doubles")) {
+            var lhs = blockFactory.newDoubleVectorFixedBuilder(BLOCK_LENGTH);
+            var rhs = blockFactory.newDoubleVectorFixedBuilder(BLOCK_LENGTH);
+            for (int i = 0; i < BLOCK_LENGTH; i++) {
+                lhs.appendDouble(i);
+                rhs.appendDouble(2D * i);
+            }
+            if (operation.equals("gt_doubles")) {
+                // lhs > rhs for all but the first position
+                return new Page(rhs.build().asBlock(), lhs.build().asBlock());
+            }
+            return new Page(lhs.build().asBlock(), rhs.build().asBlock());
+        }
+        var lhs = blockFactory.newLongVectorFixedBuilder(BLOCK_LENGTH);
+        var rhs = blockFactory.newLongVectorFixedBuilder(BLOCK_LENGTH);
+        for (int i = 0; i < BLOCK_LENGTH; i++) {
+            lhs.appendLong(i);
+            rhs.appendLong(2L * i);
+        }
+        return new Page(lhs.build().asBlock(), rhs.build().asBlock());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024 * BLOCK_LENGTH)
+    public void run() {
+        run(operation, impl);
+    }
+
+    private static void run(String operation, String impl) {
+        boolean filter = operation.startsWith("filter");
+        try (Operator operator = operator(operation, impl)) {
+            Page page = page(operation);
+            Page output = null;
+            for (int i = 0; i < 1024; i++) {
+                if (filter) {
+                    if (output != null) {
+                        output.releaseBlocks();
+                    }
+                    // The filter releases its input so give it a fresh reference every time
+                    Block[] blocks = new Block[page.getBlockCount()];
+                    for (int b = 0; b < blocks.length; b++) {
+                        blocks[b] = page.getBlock(b);
+                        blocks[b].incRef();
+                    }
+                    operator.addInput(new Page(blocks));
+                } else {
+                    operator.addInput(page);
+                }
+                output = operator.getOutput();
+            }
+            // We only check the last one
+            checkExpected(operation, output);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.benchmark.index.fielddata;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.logging.LogConfigurator;
+import org.elasticsearch.core.IOUtils;
+import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.fielddata.IndexOrdinalsFieldData;
+import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsBuilder;
+import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsIndexFieldData;
+import org.elasticsearch.index.fielddata.ordinals.TieredOrdinalMap;
+import org.elasticsearch.index.fielddata.plain.SortedSetOrdinalsIndexFieldData;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.search.aggregations.support.CoreValuesSourceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building the global ordinals of a keyword field from scratch with extending the global ordinals of a previous reader
+ * with the segments of a refresh. Every document has a single random term, so the terms of the added segments are spread evenly
+ * among the terms of the base. Whether {@link #extend} actually extends depends on the cost estimate of
+ * {@link GlobalOrdinalsBuilder}, the log says which one it picked.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class GlobalOrdinalsBuilderBenchmark {
+
+    static {
+        LogConfigurator.configureESLogging();
+    }
+
+    private static final Logger logger = LogManager.getLogger(GlobalOrdinalsBuilderBenchmark.class);
+    private static final String FIELD = "field";
+
+    @Param({ "1000000" })
+    private int baseTerms;
+
+    @Param({ "2", "20" })
+    private int baseSegments;
+
+    @Param({ "1000", "10000", "100000" })
+    private int addedTerms;
+
+    @Param({ "1", "5" })
+    private int addedSegments;
+
+    private final CircuitBreaker breaker = new NoopCircuitBreaker(CircuitBreaker.FIELDDATA);
+    private Path path;
+    private Directory directory;
+    private DirectoryReader baseReader;
+    private DirectoryReader reader;
+    private IndexOrdinalsFieldData fieldData;
+    private TieredOrdinalMap previous;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        path = Files.createTempDirectory("global-ordinals");
+        directory = FSDirectory.open(path);
+        Random random = new Random(17);
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+            addSegments(writer, random, baseTerms, baseSegments);
+            baseReader = DirectoryReader.open(writer);
+            addSegments(writer, random, addedTerms, addedSegments);
+            reader = DirectoryReader.openIfChanged(baseReader, writer);
+        }
+        fieldData = new SortedSetOrdinalsIndexFieldData(
+            new IndexFieldDataCache.None(),
+            FIELD,
+            CoreValuesSourceType.KEYWORD,
+            new NoneCircuitBreakerService(),
+            null
+        );
+        previous = ((GlobalOrdinalsIndexFieldData) build(baseReader, null)).getTieredOrdinalMap();
+        boolean extended = ((GlobalOrdinalsIndexFieldData) build(reader, previous)).getTieredOrdinalMap().hasSameBase(previous);
+        logger.info("global ordinals are {}", extended ? "extended" : "built from scratch");
+    }
+
+    private static void addSegments(IndexWriter writer, Random random, int terms, int segments) throws IOException {
+        for (int segment = 0; segment < segments; segment++) {
+            for (int i = 0; i < terms / segments; i++) {
+                Document doc = new Document();
+                doc.add(new SortedSetDocValuesField(FIELD, new BytesRef(Long.toString(random.nextLong() & Long.MAX_VALUE, 36))));
+                writer.addDocument(doc);
+            }
+            writer.flush();
+        }
+    }
+
+    private IndexOrdinalsFieldData build(DirectoryReader reader, TieredOrdinalMap previous) throws IOException {
+        return GlobalOrdinalsBuilder.build(reader, fieldData, breaker, logger, null, previous);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        IOUtils.close(reader, baseReader, directory);
+        IOUtils.rm(path);
+    }
+
+    @Benchmark
+    public IndexOrdinalsFieldData fullRebuild() throws IOException {
+        return build(reader, null);
+    }
+
+    @Benchmark
+    public IndexOrdinalsFieldData extend() throws IOException {
+        return build(reader, previous);
+    }
+}
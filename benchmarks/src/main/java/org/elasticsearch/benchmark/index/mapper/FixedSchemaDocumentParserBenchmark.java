@@ -0,0 +1,119 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.benchmark.index.mapper;
+
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.index.mapper.LuceneDocument;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.SourceToParse;
+import org.elasticsearch.xcontent.XContentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many log lines with a fixed schema we can parse per second. {@code mapped} documents only contain mapped fields,
+ * {@code runtime} documents also contain values for a field that's shadowed by a runtime field and {@code unmapped} documents
+ * contain a field that isn't in the mapping and goes through dynamic mapping.
+ */
+@Fork(value = 1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class FixedSchemaDocumentParserBenchmark {
+
+    @Param({ "mapped", "runtime", "unmapped" })
+    private String fields;
+
+    @Param({ "1600172297" })
+    private long seed;
+
+    private Random random;
+    private MapperService mapperService;
+    private SourceToParse[] sources;
+
+    @Setup
+    public void setUp() {
+        this.random = new Random(seed);
+        this.mapperService = MapperServiceFactory.create("""
+            {
+              "_doc": {
+                "dynamic": "true",
+                "runtime": {
+                  "duration": { "type": "long" }
+                },
+                "properties": {
+                  "@timestamp": { "type": "date" },
+                  "host": { "type": "keyword" },
+                  "level": { "type": "keyword" },
+                  "logger": { "type": "keyword" },
+                  "client_ip": { "type": "ip" },
+                  "method": { "type": "keyword" },
+                  "status": { "type": "long" },
+                  "bytes": { "type": "long" },
+                  "path": { "type": "keyword" },
+                  "message": { "type": "text" }
+                }
+              }
+            }""");
+        this.sources = new SourceToParse[10_000];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = generateDocument();
+        }
+    }
+
+    private SourceToParse generateDocument() {
+        StringBuilder doc = new StringBuilder();
+        doc.append("{\"@timestamp\": ").append(System.currentTimeMillis());
+        doc.append(", \"host\": \"").append(randomFrom("host-1", "host-2", "host-3")).append('"');
+        doc.append(", \"level\": \"").append(randomFrom("INFO", "WARN", "ERROR")).append('"');
+        doc.append(", \"logger\": \"org.example.requests\"");
+        doc.append(", \"client_ip\": \"").append(random.nextInt(255)).append('.').append(random.nextInt(255)).append(".0.1\"");
+        doc.append(", \"method\": \"").append(randomFrom("GET", "POST")).append('"');
+        doc.append(", \"status\": ").append(randomFrom(200, 204, 404, 500));
+        doc.append(", \"bytes\": ").append(random.nextInt(1024));
+        doc.append(", \"path\": \"/api/").append(random.nextInt(100)).append('"');
+        doc.append(", \"message\": \"request served in ").append(random.nextInt(1000)).append(" ms\"");
+        switch (fields) {
+            case "mapped" -> {}
+            case "runtime" -> doc.append(", \"duration\": ").append(random.nextInt(1000));
+            case "unmapped" -> doc.append(", \"trace_id\": \"").append(UUIDs.randomBase64UUID()).append('"');
+            default -> throw new IllegalArgumentException("unknown fields [" + fields + "]");
+        }
+        doc.append('}');
+        return new SourceToParse(UUIDs.randomBase64UUID(), new BytesArray(doc.toString()), XContentType.JSON);
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    private <T> T randomFrom(T... items) {
+        return items[random.nextInt(items.length)];
+    }
+
+    @Benchmark
+    public List<LuceneDocument> parse() {
+        return mapperService.documentMapper().parse(randomFrom(sources)).docs();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.simdvec;
+
+/**
+ * Comparisons supported by {@link ESVectorUtil#compare}. Doubles compare like
+ * the java operators do so {@code NaN} isn't equal to anything, even itself.
+ */
+public enum Comparison {
+    EQ,
+    NEQ,
+    LT,
+    LTE,
+    GT,
+    GTE;
+
+    /**
+     * The comparison that gives the same result with its operands swapped.
+     */
+    public Comparison swap() {
+        return switch (this) {
+            case EQ, NEQ -> this;
+            case LT -> GT;
+            case LTE -> GTE;
+            case GT -> LT;
+            case GTE -> LTE;
+        };
+    }
+
+    public boolean test(long lhs, long rhs) {
+        return switch (this) {
+            case EQ -> lhs == rhs;
+            case NEQ -> lhs != rhs;
+            case LT -> lhs < rhs;
+            case LTE -> lhs <= rhs;
+            case GT -> lhs > rhs;
+            case GTE -> lhs >= rhs;
+        };
+    }
+
+    public boolean test(double lhs, double rhs) {
+        return switch (this) {
+            case EQ -> lhs == rhs;
+            case NEQ -> lhs != rhs;
+            case LT -> lhs < rhs;
+            case LTE -> lhs <= rhs;
+            case GT -> lhs > rhs;
+            case GTE -> lhs >= rhs;
+        };
+    }
+}
@@ -93,6 +93,140 @@ public class ESVectorUtil {
         return IMPL.ipFloatByte(q, d);
     }
 
+    /**
+     * Add {@code lhs} and {@code rhs} into {@code result} like {@link Math#addExact}, but rather
+     * than throwing on overflow this returns {@code false} if any value overflowed. In that case
+     * {@code result} is garbage and callers should fall back to adding each value on its own.
+     */
+    public static boolean addExact(long[] lhs, long[] rhs, long[] result, int length) {
+        checkLength(lhs.length, rhs.length, result.length, length);
+        return IMPL.addExact(lhs, rhs, result, length);
+    }
+
+    /**
+     * Add {@code rhs} to each of {@code lhs} like {@link #addExact(long[], long[], long[], int)}.
+     */
+    public static boolean addExact(long[] lhs, long rhs, long[] result, int length) {
+        checkLength(lhs.length, length, result.length, length);
+        return IMPL.addExact(lhs, rhs, result, length);
+    }
+
+    /**
+     * Subtract {@code rhs} from {@code lhs} into {@code result} like {@link Math#subtractExact}, but
+     * returning {@code false} if any value overflowed like {@link #addExact(long[], long[], long[], int)}.
+     */
+    public static boolean subtractExact(long[] lhs, long[] rhs, long[] result, int length) {
+        checkLength(lhs.length, rhs.length, result.length, length);
+        return IMPL.subtractExact(lhs, rhs, result, length);
+    }
+
+    /**
+     * Subtract {@code rhs} from each of {@code lhs} like {@link #subtractExact(long[], long[], long[], int)}.
+     */
+    public static boolean subtractExact(long[] lhs, long rhs, long[] result, int length) {
+        checkLength(lhs.length, length, result.length, length);
+        return IMPL.subtractExact(lhs, rhs, result, length);
+    }
+
+    /**
+     * Add {@code lhs} and {@code rhs} into {@code result}, returning {@code false} if any result is
+     * infinite or {@code NaN}.
+     */
+    public static boolean add(double[] lhs, double[] rhs, double[] result, int length) {
+        checkLength(lhs.length, rhs.length, result.length, length);
+        return IMPL.add(lhs, rhs, result, length);
+    }
+
+    /**
+     * Add {@code rhs} to each of {@code lhs} like {@link #add(double[], double[], double[], int)}.
+     */
+    public static boolean add(double[] lhs, double rhs, double[] result, int length) {
+        checkLength(lhs.length, length, result.length, length);
+        return IMPL.add(lhs, rhs, result, length);
+    }
+
+    /**
+     * Subtract {@code rhs} from {@code lhs} into {@code result}, returning {@code false} if any result
+     * is infinite or {@code NaN}.
+     */
+    public static boolean subtract(double[] lhs, double[] rhs, double[] result, int length) {
+        checkLength(lhs.length, rhs.length, result.length, length);
+        return IMPL.subtract(lhs, rhs, result, length);
+    }
+
+    /**
+     * Subtract {@code rhs} from each of {@code lhs} like {@link #subtract(double[], double[], double[], int)}.
+     */
+    public static boolean subtract(double[] lhs, double rhs, double[] result, int length) {
+        checkLength(lhs.length, length, result.length, length);
+        return IMPL.subtract(lhs, rhs, result, length);
+    }
+
+    /**
+     * Multiply {@code lhs} and {@code rhs} into {@code result}, returning {@code false} if any result
+     * is infinite or {@code NaN}.
+     */
+    public static boolean multiply(double[] lhs, double[] rhs, double[] result, int length) {
+        checkLength(lhs.length, rhs.length, result.length, length);
+        return IMPL.multiply(lhs, rhs, result, length);
+    }
+
+    /**
+     * Multiply each of {@code lhs} by {@code rhs} like {@link #multiply(double[], double[], double[], int)}.
+     */
+    public static boolean multiply(double[] lhs, double rhs, double[] result, int length) {
+        checkLength(lhs.length, length, result.length, length);
+        return IMPL.multiply(lhs, rhs, result, length);
+    }
+
+    /**
+     * Compare {@code lhs} to {@code rhs}, writing the results to {@code result}.
+     */
+    public static void compare(Comparison comparison, long[] lhs, long[] rhs, boolean[] result, int length) {
+        checkLength(lhs.length, rhs.length, result.length, length);
+        IMPL.compare(comparison, lhs, rhs, result, length);
+    }
+
+    /**
+     * Compare each of {@code lhs} to {@code rhs}, writing the results to {@code result}.
+     */
+    public static void compare(Comparison comparison, long[] lhs, long rhs, boolean[] result, int length) {
+        checkLength(lhs.length, length, result.length, length);
+        IMPL.compare(comparison, lhs, rhs, result, length);
+    }
+
+    /**
+     * Compare {@code lhs} to {@code rhs}, writing the results to {@code result}.
+     */
+    public static void compare(Comparison comparison, double[] lhs, double[] rhs, boolean[] result, int length) {
+        checkLength(lhs.length, rhs.length, result.length, length);
+        IMPL.compare(comparison, lhs, rhs, result, length);
+    }
+
+    /**
+     * Compare each of {@code lhs} to {@code rhs}, writing the results to {@code result}.
+     */
+    public static void compare(Comparison comparison, double[] lhs, double rhs, boolean[] result, int length) {
+        checkLength(lhs.length, length, result.length, length);
+        IMPL.compare(comparison, lhs, rhs, result, length);
+    }
+
+    /**
+     * The number of {@code true} values in the first {@code length} {@code values}.
+     */
+    public static int trueCount(boolean[] values, int length) {
+        checkLength(values.length, length, length, length);
+        return IMPL.trueCount(values, length);
+    }
+
+    private static void checkLength(int lhs, int rhs, int result, int length) {
+        if (length < 0 || lhs < length || rhs < length || result < length) {
+            throw new IllegalArgumentException(
+                "arrays too short: lhs=" + lhs + ", rhs=" + rhs + ", result=" + result + " but length=" + length
+            );
+        }
+    }
+
     /**
      * AND bit count computed over signed bytes.
      * Copied from Lucene's XOR implementation
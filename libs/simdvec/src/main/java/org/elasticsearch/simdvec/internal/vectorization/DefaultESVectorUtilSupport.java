@@ -11,6 +11,7 @@ package org.elasticsearch.simdvec.internal.vectorization;
 
 import org.apache.lucene.util.BitUtil;
 import org.apache.lucene.util.Constants;
+import org.elasticsearch.simdvec.Comparison;
 
 final class DefaultESVectorUtilSupport implements ESVectorUtilSupport {
 
@@ -44,6 +45,81 @@ final class DefaultESVectorUtilSupport implements ESVectorUtilSupport {
         return ipFloatByteImpl(q, d);
     }
 
+    @Override
+    public boolean addExact(long[] lhs, long[] rhs, long[] result, int length) {
+        return addExactImpl(lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public boolean addExact(long[] lhs, long rhs, long[] result, int length) {
+        return addExactImpl(lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public boolean subtractExact(long[] lhs, long[] rhs, long[] result, int length) {
+        return subtractExactImpl(lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public boolean subtractExact(long[] lhs, long rhs, long[] result, int length) {
+        return subtractExactImpl(lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public boolean add(double[] lhs, double[] rhs, double[] result, int length) {
+        return addImpl(lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public boolean add(double[] lhs, double rhs, double[] result, int length) {
+        return addImpl(lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public boolean subtract(double[] lhs, double[] rhs, double[] result, int length) {
+        return subtractImpl(lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public boolean subtract(double[] lhs, double rhs, double[] result, int length) {
+        return subtractImpl(lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public boolean multiply(double[] lhs, double[] rhs, double[] result, int length) {
+        return multiplyImpl(lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public boolean multiply(double[] lhs, double rhs, double[] result, int length) {
+        return multiplyImpl(lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public void compare(Comparison comparison, long[] lhs, long[] rhs, boolean[] result, int length) {
+        compareImpl(comparison, lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public void compare(Comparison comparison, long[] lhs, long rhs, boolean[] result, int length) {
+        compareImpl(comparison, lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public void compare(Comparison comparison, double[] lhs, double[] rhs, boolean[] result, int length) {
+        compareImpl(comparison, lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public void compare(Comparison comparison, double[] lhs, double rhs, boolean[] result, int length) {
+        compareImpl(comparison, lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public int trueCount(boolean[] values, int length) {
+        return trueCountImpl(values, 0, length);
+    }
+
     public static int ipByteBitImpl(byte[] q, byte[] d) {
         assert q.length == d.length * Byte.SIZE;
         int acc0 = 0;
@@ -114,4 +190,142 @@ final class DefaultESVectorUtilSupport implements ESVectorUtilSupport {
         }
         return ret;
     }
+
+    /*
+     * The arithmetic below collects overflows in the sign bit of a single long rather than branching on
+     * each value so the JIT has a chance to unroll it. Like Math.addExact, a sum overflowed if both of
+     * its operands have a different sign than the result.
+     */
+
+    public static boolean addExactImpl(long[] lhs, long[] rhs, long[] result, int from, int to) {
+        long overflow = 0;
+        for (int i = from; i < to; i++) {
+            long r = lhs[i] + rhs[i];
+            overflow |= (lhs[i] ^ r) & (rhs[i] ^ r);
+            result[i] = r;
+        }
+        return overflow >= 0;
+    }
+
+    public static boolean addExactImpl(long[] lhs, long rhs, long[] result, int from, int to) {
+        long overflow = 0;
+        for (int i = from; i < to; i++) {
+            long r = lhs[i] + rhs;
+            overflow |= (lhs[i] ^ r) & (rhs ^ r);
+            result[i] = r;
+        }
+        return overflow >= 0;
+    }
+
+    public static boolean subtractExactImpl(long[] lhs, long[] rhs, long[] result, int from, int to) {
+        long overflow = 0;
+        for (int i = from; i < to; i++) {
+            long r = lhs[i] - rhs[i];
+            overflow |= (lhs[i] ^ rhs[i]) & (lhs[i] ^ r);
+            result[i] = r;
+        }
+        return overflow >= 0;
+    }
+
+    public static boolean subtractExactImpl(long[] lhs, long rhs, long[] result, int from, int to) {
+        long overflow = 0;
+        for (int i = from; i < to; i++) {
+            long r = lhs[i] - rhs;
+            overflow |= (lhs[i] ^ rhs) & (lhs[i] ^ r);
+            result[i] = r;
+        }
+        return overflow >= 0;
+    }
+
+    public static boolean addImpl(double[] lhs, double[] rhs, double[] result, int from, int to) {
+        boolean finite = true;
+        for (int i = from; i < to; i++) {
+            double r = lhs[i] + rhs[i];
+            finite &= Double.isFinite(r);
+            result[i] = r;
+        }
+        return finite;
+    }
+
+    public static boolean addImpl(double[] lhs, double rhs, double[] result, int from, int to) {
+        boolean finite = true;
+        for (int i = from; i < to; i++) {
+            double r = lhs[i] + rhs;
+            finite &= Double.isFinite(r);
+            result[i] = r;
+        }
+        return finite;
+    }
+
+    public static boolean subtractImpl(double[] lhs, double[] rhs, double[] result, int from, int to) {
+        boolean finite = true;
+        for (int i = from; i < to; i++) {
+            double r = lhs[i] - rhs[i];
+            finite &= Double.isFinite(r);
+            result[i] = r;
+        }
+        return finite;
+    }
+
+    public static boolean subtractImpl(double[] lhs, double rhs, double[] result, int from, int to) {
+        boolean finite = true;
+        for (int i = from; i < to; i++) {
+            double r = lhs[i] - rhs;
+            finite &= Double.isFinite(r);
+            result[i] = r;
+        }
+        return finite;
+    }
+
+    public static boolean multiplyImpl(double[] lhs, double[] rhs, double[] result, int from, int to) {
+        boolean finite = true;
+        for (int i = from; i < to; i++) {
+            double r = lhs[i] * rhs[i];
+            finite &= Double.isFinite(r);
+            result[i] = r;
+        }
+        return finite;
+    }
+
+    public static boolean multiplyImpl(double[] lhs, double rhs, double[] result, int from, int to) {
+        boolean finite = true;
+        for (int i = from; i < to; i++) {
+            double r = lhs[i] * rhs;
+            finite &= Double.isFinite(r);
+            result[i] = r;
+        }
+        return finite;
+    }
+
+    public static void compareImpl(Comparison comparison, long[] lhs, long[] rhs, boolean[] result, int from, int to) {
+        for (int i = from; i < to; i++) {
+            result[i] = comparison.test(lhs[i], rhs[i]);
+        }
+    }
+
+    public static void compareImpl(Comparison comparison, long[] lhs, long rhs, boolean[] result, int from, int to) {
+        for (int i = from; i < to; i++) {
+            result[i] = comparison.test(lhs[i], rhs);
+        }
+    }
+
+    public static void compareImpl(Comparison comparison, double[] lhs, double[] rhs, boolean[] result, int from, int to) {
+        for (int i = from; i < to; i++) {
+            result[i] = comparison.test(lhs[i], rhs[i]);
+        }
+    }
+
+    public static void compareImpl(Comparison comparison, double[] lhs, double rhs, boolean[] result, int from, int to) {
+        for (int i = from; i < to; i++) {
+            result[i] = comparison.test(lhs[i], rhs);
+        }
+    }
+
+    public static int trueCountImpl(boolean[] values, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            count += values[i] ? 1 : 0;
+        }
+        return count;
+    }
 }
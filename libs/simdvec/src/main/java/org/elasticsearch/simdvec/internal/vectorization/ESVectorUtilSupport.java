@@ -9,6 +9,8 @@
 
 package org.elasticsearch.simdvec.internal.vectorization;
 
+import org.elasticsearch.simdvec.Comparison;
+
 public interface ESVectorUtilSupport {
 
     short B_QUERY = 4;
@@ -20,4 +22,34 @@ public interface ESVectorUtilSupport {
     float ipFloatBit(float[] q, byte[] d);
 
     float ipFloatByte(float[] q, byte[] d);
+
+    boolean addExact(long[] lhs, long[] rhs, long[] result, int length);
+
+    boolean addExact(long[] lhs, long rhs, long[] result, int length);
+
+    boolean subtractExact(long[] lhs, long[] rhs, long[] result, int length);
+
+    boolean subtractExact(long[] lhs, long rhs, long[] result, int length);
+
+    boolean add(double[] lhs, double[] rhs, double[] result, int length);
+
+    boolean add(double[] lhs, double rhs, double[] result, int length);
+
+    boolean subtract(double[] lhs, double[] rhs, double[] result, int length);
+
+    boolean subtract(double[] lhs, double rhs, double[] result, int length);
+
+    boolean multiply(double[] lhs, double[] rhs, double[] result, int length);
+
+    boolean multiply(double[] lhs, double rhs, double[] result, int length);
+
+    void compare(Comparison comparison, long[] lhs, long[] rhs, boolean[] result, int length);
+
+    void compare(Comparison comparison, long[] lhs, long rhs, boolean[] result, int length);
+
+    void compare(Comparison comparison, double[] lhs, double[] rhs, boolean[] result, int length);
+
+    void compare(Comparison comparison, double[] lhs, double rhs, boolean[] result, int length);
+
+    int trueCount(boolean[] values, int length);
 }
@@ -10,14 +10,17 @@
 package org.elasticsearch.simdvec.internal.vectorization;
 
 import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.DoubleVector;
 import jdk.incubator.vector.FloatVector;
 import jdk.incubator.vector.IntVector;
 import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
 import jdk.incubator.vector.VectorOperators;
 import jdk.incubator.vector.VectorShape;
 import jdk.incubator.vector.VectorSpecies;
 
 import org.apache.lucene.util.Constants;
+import org.elasticsearch.simdvec.Comparison;
 
 public final class PanamaESVectorUtilSupport implements ESVectorUtilSupport {
 
@@ -206,4 +209,233 @@ public final class PanamaESVectorUtilSupport implements ESVectorUtilSupport {
 
         return sum;
     }
+
+    private static final VectorSpecies<Long> LONG_SPECIES = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLE_SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BOOLEAN_SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    @Override
+    public boolean addExact(long[] lhs, long[] rhs, long[] result, int length) {
+        if (length >= LONG_SPECIES.length() && HAS_FAST_INTEGER_VECTORS) {
+            return exactImpl(VectorOperators.ADD, lhs, rhs, 0, result, length);
+        }
+        return DefaultESVectorUtilSupport.addExactImpl(lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public boolean addExact(long[] lhs, long rhs, long[] result, int length) {
+        if (length >= LONG_SPECIES.length() && HAS_FAST_INTEGER_VECTORS) {
+            return exactImpl(VectorOperators.ADD, lhs, null, rhs, result, length);
+        }
+        return DefaultESVectorUtilSupport.addExactImpl(lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public boolean subtractExact(long[] lhs, long[] rhs, long[] result, int length) {
+        if (length >= LONG_SPECIES.length() && HAS_FAST_INTEGER_VECTORS) {
+            return exactImpl(VectorOperators.SUB, lhs, rhs, 0, result, length);
+        }
+        return DefaultESVectorUtilSupport.subtractExactImpl(lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public boolean subtractExact(long[] lhs, long rhs, long[] result, int length) {
+        if (length >= LONG_SPECIES.length() && HAS_FAST_INTEGER_VECTORS) {
+            return exactImpl(VectorOperators.SUB, lhs, null, rhs, result, length);
+        }
+        return DefaultESVectorUtilSupport.subtractExactImpl(lhs, rhs, result, 0, length);
+    }
+
+    /**
+     * Add or subtract {@code lhs} and either {@code rhs} or, if that's {@code null}, {@code rhsScalar}.
+     * Overflows are collected in the sign bits of a vector so the loop doesn't branch.
+     */
+    private static boolean exactImpl(VectorOperators.Binary op, long[] lhs, long[] rhs, long rhsScalar, long[] result, int length) {
+        LongVector overflow = LongVector.zero(LONG_SPECIES);
+        LongVector broadcast = LongVector.broadcast(LONG_SPECIES, rhsScalar);
+        int i = 0;
+        int limit = LONG_SPECIES.loopBound(length);
+        for (; i < limit; i += LONG_SPECIES.length()) {
+            LongVector a = LongVector.fromArray(LONG_SPECIES, lhs, i);
+            LongVector b = rhs == null ? broadcast : LongVector.fromArray(LONG_SPECIES, rhs, i);
+            LongVector r = a.lanewise(op, b);
+            if (op == VectorOperators.ADD) {
+                // Like Math.addExact, overflowed if both operands have a different sign than the result
+                overflow = overflow.or(a.lanewise(VectorOperators.XOR, r).and(b.lanewise(VectorOperators.XOR, r)));
+            } else {
+                // Like Math.subtractExact, overflowed if the operands have different signs and the result's sign differs from lhs
+                overflow = overflow.or(a.lanewise(VectorOperators.XOR, b).and(a.lanewise(VectorOperators.XOR, r)));
+            }
+            r.intoArray(result, i);
+        }
+        boolean ok = overflow.compare(VectorOperators.LT, 0).anyTrue() == false;
+        if (op == VectorOperators.ADD) {
+            return (rhs == null
+                ? DefaultESVectorUtilSupport.addExactImpl(lhs, rhsScalar, result, i, length)
+                : DefaultESVectorUtilSupport.addExactImpl(lhs, rhs, result, i, length)) && ok;
+        }
+        return (rhs == null
+            ? DefaultESVectorUtilSupport.subtractExactImpl(lhs, rhsScalar, result, i, length)
+            : DefaultESVectorUtilSupport.subtractExactImpl(lhs, rhs, result, i, length)) && ok;
+    }
+
+    @Override
+    public boolean add(double[] lhs, double[] rhs, double[] result, int length) {
+        if (length >= DOUBLE_SPECIES.length()) {
+            return finiteImpl(VectorOperators.ADD, lhs, rhs, 0, result, length);
+        }
+        return DefaultESVectorUtilSupport.addImpl(lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public boolean add(double[] lhs, double rhs, double[] result, int length) {
+        if (length >= DOUBLE_SPECIES.length()) {
+            return finiteImpl(VectorOperators.ADD, lhs, null, rhs, result, length);
+        }
+        return DefaultESVectorUtilSupport.addImpl(lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public boolean subtract(double[] lhs, double[] rhs, double[] result, int length) {
+        if (length >= DOUBLE_SPECIES.length()) {
+            return finiteImpl(VectorOperators.SUB, lhs, rhs, 0, result, length);
+        }
+        return DefaultESVectorUtilSupport.subtractImpl(lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public boolean subtract(double[] lhs, double rhs, double[] result, int length) {
+        if (length >= DOUBLE_SPECIES.length()) {
+            return finiteImpl(VectorOperators.SUB, lhs, null, rhs, result, length);
+        }
+        return DefaultESVectorUtilSupport.subtractImpl(lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public boolean multiply(double[] lhs, double[] rhs, double[] result, int length) {
+        if (length >= DOUBLE_SPECIES.length()) {
+            return finiteImpl(VectorOperators.MUL, lhs, rhs, 0, result, length);
+        }
+        return DefaultESVectorUtilSupport.multiplyImpl(lhs, rhs, result, 0, length);
+    }
+
+    @Override
+    public boolean multiply(double[] lhs, double rhs, double[] result, int length) {
+        if (length >= DOUBLE_SPECIES.length()) {
+            return finiteImpl(VectorOperators.MUL, lhs, null, rhs, result, length);
+        }
+        return DefaultESVectorUtilSupport.multiplyImpl(lhs, rhs, result, 0, length);
+    }
+
+    /**
+     * Apply {@code op} to {@code lhs} and either {@code rhs} or, if that's {@code null}, {@code rhsScalar}.
+     */
+    private static boolean finiteImpl(
+        VectorOperators.Binary op,
+        double[] lhs,
+        double[] rhs,
+        double rhsScalar,
+        double[] result,
+        int length
+    ) {
+        VectorMask<Double> notFinite = DOUBLE_SPECIES.maskAll(false);
+        DoubleVector broadcast = DoubleVector.broadcast(DOUBLE_SPECIES, rhsScalar);
+        int i = 0;
+        int limit = DOUBLE_SPECIES.loopBound(length);
+        for (; i < limit; i += DOUBLE_SPECIES.length()) {
+            DoubleVector a = DoubleVector.fromArray(DOUBLE_SPECIES, lhs, i);
+            DoubleVector b = rhs == null ? broadcast : DoubleVector.fromArray(DOUBLE_SPECIES, rhs, i);
+            DoubleVector r = a.lanewise(op, b);
+            notFinite = notFinite.or(r.test(VectorOperators.IS_FINITE).not());
+            r.intoArray(result, i);
+        }
+        boolean ok = notFinite.anyTrue() == false;
+        boolean tailOk;
+        if (op == VectorOperators.ADD) {
+            tailOk = rhs == null
+                ? DefaultESVectorUtilSupport.addImpl(lhs, rhsScalar, result, i, length)
+                : DefaultESVectorUtilSupport.addImpl(lhs, rhs, result, i, length);
+        } else if (op == VectorOperators.SUB) {
+            tailOk = rhs == null
+                ? DefaultESVectorUtilSupport.subtractImpl(lhs, rhsScalar, result, i, length)
+                : DefaultESVectorUtilSupport.subtractImpl(lhs, rhs, result, i, length);
+        } else {
+            tailOk = rhs == null
+                ? DefaultESVectorUtilSupport.multiplyImpl(lhs, rhsScalar, result, i, length)
+                : DefaultESVectorUtilSupport.multiplyImpl(lhs, rhs, result, i, length);
+        }
+        return ok && tailOk;
+    }
+
+    @Override
+    public void compare(Comparison comparison, long[] lhs, long[] rhs, boolean[] result, int length) {
+        int i = 0;
+        if (HAS_FAST_INTEGER_VECTORS) {
+            VectorOperators.Comparison op = op(comparison);
+            int limit = LONG_SPECIES.loopBound(length);
+            for (; i < limit; i += LONG_SPECIES.length()) {
+                LongVector a = LongVector.fromArray(LONG_SPECIES, lhs, i);
+                a.compare(op, LongVector.fromArray(LONG_SPECIES, rhs, i)).intoArray(result, i);
+            }
+        }
+        DefaultESVectorUtilSupport.compareImpl(comparison, lhs, rhs, result, i, length);
+    }
+
+    @Override
+    public void compare(Comparison comparison, long[] lhs, long rhs, boolean[] result, int length) {
+        int i = 0;
+        if (HAS_FAST_INTEGER_VECTORS) {
+            VectorOperators.Comparison op = op(comparison);
+            int limit = LONG_SPECIES.loopBound(length);
+            for (; i < limit; i += LONG_SPECIES.length()) {
+                LongVector.fromArray(LONG_SPECIES, lhs, i).compare(op, rhs).intoArray(result, i);
+            }
+        }
+        DefaultESVectorUtilSupport.compareImpl(comparison, lhs, rhs, result, i, length);
+    }
+
+    @Override
+    public void compare(Comparison comparison, double[] lhs, double[] rhs, boolean[] result, int length) {
+        VectorOperators.Comparison op = op(comparison);
+        int i = 0;
+        int limit = DOUBLE_SPECIES.loopBound(length);
+        for (; i < limit; i += DOUBLE_SPECIES.length()) {
+            DoubleVector a = DoubleVector.fromArray(DOUBLE_SPECIES, lhs, i);
+            a.compare(op, DoubleVector.fromArray(DOUBLE_SPECIES, rhs, i)).intoArray(result, i);
+        }
+        DefaultESVectorUtilSupport.compareImpl(comparison, lhs, rhs, result, i, length);
+    }
+
+    @Override
+    public void compare(Comparison comparison, double[] lhs, double rhs, boolean[] result, int length) {
+        VectorOperators.Comparison op = op(comparison);
+        int i = 0;
+        int limit = DOUBLE_SPECIES.loopBound(length);
+        for (; i < limit; i += DOUBLE_SPECIES.length()) {
+            DoubleVector.fromArray(DOUBLE_SPECIES, lhs, i).compare(op, rhs).intoArray(result, i);
+        }
+        DefaultESVectorUtilSupport.compareImpl(comparison, lhs, rhs, result, i, length);
+    }
+
+    private static VectorOperators.Comparison op(Comparison comparison) {
+        return switch (comparison) {
+            case EQ -> VectorOperators.EQ;
+            case NEQ -> VectorOperators.NE;
+            case LT -> VectorOperators.LT;
+            case LTE -> VectorOperators.LE;
+            case GT -> VectorOperators.GT;
+            case GTE -> VectorOperators.GE;
+        };
+    }
+
+    @Override
+    public int trueCount(boolean[] values, int length) {
+        int count = 0;
+        int i = 0;
+        int limit = BOOLEAN_SPECIES.loopBound(length);
+        for (; i < limit; i += BOOLEAN_SPECIES.length()) {
+            count += VectorMask.fromArray(BOOLEAN_SPECIES, values, i).trueCount();
+        }
+        return count + DefaultESVectorUtilSupport.trueCountImpl(values, i, length);
+    }
 }
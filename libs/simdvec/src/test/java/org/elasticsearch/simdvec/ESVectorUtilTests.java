@@ -166,6 +166,132 @@ public class ESVectorUtilTests extends BaseVectorizationTests {
         }
     }
 
+    public void testAddExact() {
+        for (ESVectorizationProvider provider : new ESVectorizationProvider[] { defaultedProvider, defOrPanamaProvider }) {
+            var support = provider.getVectorUtilSupport();
+            int length = between(0, 1000);
+            long[] lhs = randomLongArray(length, 1L << 60);
+            long[] rhs = randomLongArray(length, 1L << 60);
+            long[] result = new long[length];
+            assertTrue(support.addExact(lhs, rhs, result, length));
+            long c = randomLongBetween(-1L << 60, 1L << 60);
+            long[] scalarResult = new long[length];
+            assertTrue(support.addExact(lhs, c, scalarResult, length));
+            for (int i = 0; i < length; i++) {
+                assertEquals(Math.addExact(lhs[i], rhs[i]), result[i]);
+                assertEquals(Math.addExact(lhs[i], c), scalarResult[i]);
+            }
+            if (length > 0) {
+                lhs[randomInt(length - 1)] = Long.MAX_VALUE;
+                assertFalse(support.addExact(lhs, Long.MAX_VALUE, result, length));
+            }
+        }
+    }
+
+    public void testSubtractExact() {
+        for (ESVectorizationProvider provider : new ESVectorizationProvider[] { defaultedProvider, defOrPanamaProvider }) {
+            var support = provider.getVectorUtilSupport();
+            int length = between(0, 1000);
+            long[] lhs = randomLongArray(length, 1L << 60);
+            long[] rhs = randomLongArray(length, 1L << 60);
+            long[] result = new long[length];
+            assertTrue(support.subtractExact(lhs, rhs, result, length));
+            for (int i = 0; i < length; i++) {
+                assertEquals(Math.subtractExact(lhs[i], rhs[i]), result[i]);
+            }
+            if (length > 0) {
+                int overflow = randomInt(length - 1);
+                lhs[overflow] = Long.MIN_VALUE;
+                rhs[overflow] = 1;
+                assertFalse(support.subtractExact(lhs, rhs, result, length));
+            }
+        }
+    }
+
+    public void testDoubleArithmetic() {
+        for (ESVectorizationProvider provider : new ESVectorizationProvider[] { defaultedProvider, defOrPanamaProvider }) {
+            var support = provider.getVectorUtilSupport();
+            int length = between(0, 1000);
+            double[] lhs = randomDoubleArray(length);
+            double[] rhs = randomDoubleArray(length);
+            double[] sum = new double[length];
+            double[] difference = new double[length];
+            double[] product = new double[length];
+            assertTrue(support.add(lhs, rhs, sum, length));
+            assertTrue(support.subtract(lhs, rhs, difference, length));
+            assertTrue(support.multiply(lhs, rhs, product, length));
+            for (int i = 0; i < length; i++) {
+                assertEquals(lhs[i] + rhs[i], sum[i], 0);
+                assertEquals(lhs[i] - rhs[i], difference[i], 0);
+                assertEquals(lhs[i] * rhs[i], product[i], 0);
+            }
+            if (length > 0) {
+                lhs[randomInt(length - 1)] = Double.MAX_VALUE;
+                assertFalse(support.multiply(lhs, 2, product, length));
+            }
+        }
+    }
+
+    public void testCompare() {
+        for (ESVectorizationProvider provider : new ESVectorizationProvider[] { defaultedProvider, defOrPanamaProvider }) {
+            var support = provider.getVectorUtilSupport();
+            int length = between(0, 1000);
+            long[] lhs = randomLongArray(length, 10);
+            long[] rhs = randomLongArray(length, 10);
+            double[] lhsDoubles = new double[length];
+            double[] rhsDoubles = new double[length];
+            for (int i = 0; i < length; i++) {
+                lhsDoubles[i] = randomBoolean() ? Double.NaN : lhs[i];
+                rhsDoubles[i] = rhs[i];
+            }
+            for (Comparison comparison : Comparison.values()) {
+                boolean[] result = new boolean[length];
+                boolean[] doubleResult = new boolean[length];
+                boolean[] scalarResult = new boolean[length];
+                support.compare(comparison, lhs, rhs, result, length);
+                support.compare(comparison, lhsDoubles, rhsDoubles, doubleResult, length);
+                support.compare(comparison, lhs, 5L, scalarResult, length);
+                for (int i = 0; i < length; i++) {
+                    assertEquals(comparison.test(lhs[i], rhs[i]), result[i]);
+                    assertEquals(comparison.test(lhsDoubles[i], rhsDoubles[i]), doubleResult[i]);
+                    assertEquals(comparison.test(lhs[i], 5L), scalarResult[i]);
+                    assertEquals(comparison.test(lhs[i], rhs[i]), comparison.swap().test(rhs[i], lhs[i]));
+                }
+            }
+        }
+    }
+
+    public void testTrueCount() {
+        for (ESVectorizationProvider provider : new ESVectorizationProvider[] { defaultedProvider, defOrPanamaProvider }) {
+            int length = between(0, 1000);
+            boolean[] values = new boolean[length + between(0, 10)];
+            int expected = 0;
+            for (int i = 0; i < values.length; i++) {
+                values[i] = randomBoolean();
+                if (values[i] && i < length) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, provider.getVectorUtilSupport().trueCount(values, length));
+        }
+    }
+
+    private static long[] randomLongArray(int length, long bound) {
+        long[] values = new long[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = randomLongBetween(-bound, bound);
+        }
+        return values;
+    }
+
+    private static double[] randomDoubleArray(int length) {
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = randomDoubleBetween(-1e6, 1e6, true);
+        }
+        return values;
+    }
+
     static int scalarIpByteBin(byte[] q, byte[] d) {
         int res = 0;
         for (int i = 0; i < B_QUERY; i++) {
@@ -15,12 +15,17 @@ import org.elasticsearch.action.support.broadcast.BroadcastResponse;
 import org.elasticsearch.client.internal.Client;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.time.DateFormatter;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.MergePolicyConfig;
 import org.elasticsearch.index.cache.request.RequestCacheStats;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.aggregations.bucket.MultiBucketsAggregation.Bucket;
 import org.elasticsearch.search.aggregations.bucket.global.GlobalAggregationBuilder;
 import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramInterval;
 import org.elasticsearch.search.aggregations.bucket.histogram.Histogram;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.metrics.Sum;
 import org.elasticsearch.test.ESIntegTestCase;
 import org.elasticsearch.test.hamcrest.ElasticsearchAssertions;
 
@@ -34,6 +39,9 @@ import java.util.List;
 import static org.elasticsearch.search.aggregations.AggregationBuilders.dateHistogram;
 import static org.elasticsearch.search.aggregations.AggregationBuilders.dateRange;
 import static org.elasticsearch.search.aggregations.AggregationBuilders.filter;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.sum;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.terms;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.topHits;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertNoFailuresAndResponse;
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertResponse;
@@ -607,6 +615,174 @@ public class IndicesRequestCacheIT extends ESIntegTestCase {
         }
     }
 
+    public void testSegmentAggregationsMatchWholeShard() throws Exception {
+        Client client = client();
+        for (String index : List.of("per_segment", "whole_shard")) {
+            assertAcked(
+                indicesAdmin().prepareCreate(index)
+                    .setMapping("k", "type=keyword", "v", "type=long")
+                    .setSettings(
+                        indexSettings(1, 0).put(IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING.getKey(), true)
+                            .put(IndicesRequestCache.INDEX_CACHE_REQUEST_SEGMENT_AGGREGATIONS_SETTING.getKey(), index.equals("per_segment"))
+                            .put(IndexSettings.INDEX_REFRESH_INTERVAL_SETTING.getKey(), -1)
+                            // keep one segment per refresh
+                            .put(MergePolicyConfig.INDEX_MERGE_ENABLED, false)
+                    )
+            );
+        }
+        int id = 0;
+        for (int segment = 0; segment < 3; segment++) {
+            id = indexSegment(client, id);
+        }
+        assertThat(indicesAdmin().prepareStats("per_segment").setSegments(true).get().getTotal().getSegments().getCount(), equalTo(3L));
+        assertSameSegmentAggregations(client);
+        // served from the cache
+        assertSameSegmentAggregations(client);
+
+        // only the new segment is collected
+        indexSegment(client, id);
+        assertSameSegmentAggregations(client);
+
+        // deletes change the live docs of an existing segment
+        for (String index : List.of("per_segment", "whole_shard")) {
+            for (int i = 0; i < id; i += 7) {
+                client.prepareDelete(index, Integer.toString(i)).get();
+            }
+        }
+        indicesAdmin().prepareRefresh("per_segment", "whole_shard").get();
+        assertSameSegmentAggregations(client);
+
+        // aggregations that need scores use the whole shard entry
+        RequestCacheStats before = indicesAdmin().prepareStats("per_segment").setRequestCache(true).get().getTotal().getRequestCache();
+        for (int i = 0; i < 2; i++) {
+            assertNoFailuresAndResponse(
+                client.prepareSearch("per_segment").setSize(0).addAggregation(topHits("top").size(1)),
+                response -> assertThat(response.getHits().getTotalHits().value(), greaterThan(0L))
+            );
+        }
+        RequestCacheStats after = indicesAdmin().prepareStats("per_segment").setRequestCache(true).get().getTotal().getRequestCache();
+        assertThat(after.getMissCount() - before.getMissCount(), equalTo(1L));
+        assertThat(after.getHitCount() - before.getHitCount(), equalTo(1L));
+    }
+
+    public void testNowRoundingSharesEntriesWithinAnInterval() throws Exception {
+        Client client = client();
+        TimeValue nowRounding = TimeValue.timeValueSeconds(2);
+        for (String index : List.of("per_segment", "whole_shard")) {
+            assertAcked(
+                indicesAdmin().prepareCreate(index)
+                    .setMapping("d", "type=date", "v", "type=long")
+                    .setSettings(
+                        indexSettings(1, 0).put(IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING.getKey(), true)
+                            .put(IndicesRequestCache.INDEX_CACHE_REQUEST_SEGMENT_AGGREGATIONS_SETTING.getKey(), index.equals("per_segment"))
+                            .put(IndicesRequestCache.INDEX_CACHE_REQUEST_NOW_ROUNDING_SETTING.getKey(), nowRounding)
+                            .put(IndexSettings.INDEX_REFRESH_INTERVAL_SETTING.getKey(), -1)
+                            .put(MergePolicyConfig.INDEX_MERGE_ENABLED, false)
+                    )
+            );
+            // one document on either side of "now-1d" so that the range query isn't rewritten and keeps reading "now"
+            long now = System.currentTimeMillis();
+            client.prepareIndex(index).setId("1").setSource("d", now, "v", 1).get();
+            client.prepareIndex(index).setId("2").setSource("d", now - TimeValue.timeValueDays(3).millis(), "v", 2).get();
+        }
+        indicesAdmin().prepareRefresh("per_segment", "whole_shard").get();
+
+        for (String index : List.of("per_segment", "whole_shard")) {
+            long[] lastInterval = new long[1];
+            assertBusy(() -> {
+                long start = System.currentTimeMillis();
+                searchLastDay(client, index);
+                RequestCacheStats before = requestCacheStats(client, index);
+                searchLastDay(client, index);
+                RequestCacheStats after = requestCacheStats(client, index);
+                long end = System.currentTimeMillis();
+                lastInterval[0] = roundUp(end, nowRounding);
+                // both requests must have resolved "now" in the same interval, otherwise try again in the next one
+                assertThat(roundUp(start, nowRounding), equalTo(lastInterval[0]));
+                assertThat(after.getHitCount() - before.getHitCount(), greaterThan(0L));
+                assertThat(after.getMissCount() - before.getMissCount(), equalTo(0L));
+            });
+
+            // a request in the next interval resolves "now" to another rounded time, which is part of the cache key
+            assertBusy(() -> assertThat(System.currentTimeMillis(), greaterThan(lastInterval[0])));
+            RequestCacheStats before = requestCacheStats(client, index);
+            searchLastDay(client, index);
+            RequestCacheStats after = requestCacheStats(client, index);
+            assertThat(after.getMissCount() - before.getMissCount(), greaterThan(0L));
+            assertThat(after.getHitCount() - before.getHitCount(), equalTo(0L));
+        }
+    }
+
+    private static long roundUp(long millis, TimeValue rounding) {
+        return Math.ceilDiv(millis, rounding.millis()) * rounding.millis();
+    }
+
+    private static void searchLastDay(Client client, String index) {
+        assertNoFailuresAndResponse(
+            client.prepareSearch(index)
+                .setSize(0)
+                .setQuery(QueryBuilders.rangeQuery("d").gte("now-1d"))
+                .addAggregation(sum("v").field("v")),
+            response -> {
+                assertThat(response.getHits().getTotalHits().value(), equalTo(1L));
+                Sum sum = response.getAggregations().get("v");
+                assertThat(sum.value(), equalTo(1.0));
+            }
+        );
+    }
+
+    private static RequestCacheStats requestCacheStats(Client client, String index) {
+        return client.admin().indices().prepareStats(index).setRequestCache(true).get().getTotal().getRequestCache();
+    }
+
+    private static int indexSegment(Client client, int firstId) {
+        int id = firstId;
+        int docs = between(5, 50);
+        for (int d = 0; d < docs; d++, id++) {
+            String k = "k" + between(0, 4);
+            long v = between(0, 100);
+            for (String index : List.of("per_segment", "whole_shard")) {
+                client.prepareIndex(index).setId(Integer.toString(id)).setSource("k", k, "v", v).get();
+            }
+        }
+        indicesAdmin().prepareRefresh("per_segment", "whole_shard").get();
+        return id;
+    }
+
+    private static void assertSameSegmentAggregations(Client client) {
+        long min = between(0, 50);
+        assertNoFailuresAndResponse(
+            client.prepareSearch("per_segment")
+                .setSize(0)
+                .setQuery(QueryBuilders.rangeQuery("v").gte(min))
+                .addAggregation(terms("k").field("k").subAggregation(sum("v").field("v")))
+                .addAggregation(sum("v").field("v")),
+            perSegment -> assertNoFailuresAndResponse(
+                client.prepareSearch("whole_shard")
+                    .setSize(0)
+                    .setQuery(QueryBuilders.rangeQuery("v").gte(min))
+                    .addAggregation(terms("k").field("k").subAggregation(sum("v").field("v")))
+                    .addAggregation(sum("v").field("v")),
+                wholeShard -> {
+                    assertThat(perSegment.getHits().getTotalHits(), equalTo(wholeShard.getHits().getTotalHits()));
+                    Sum perSegmentSum = perSegment.getAggregations().get("v");
+                    Sum wholeShardSum = wholeShard.getAggregations().get("v");
+                    assertThat(perSegmentSum.value(), equalTo(wholeShardSum.value()));
+                    Terms perSegmentTerms = perSegment.getAggregations().get("k");
+                    Terms wholeShardTerms = wholeShard.getAggregations().get("k");
+                    assertThat(perSegmentTerms.getBuckets().size(), equalTo(wholeShardTerms.getBuckets().size()));
+                    for (Terms.Bucket wholeShardBucket : wholeShardTerms.getBuckets()) {
+                        Terms.Bucket perSegmentBucket = perSegmentTerms.getBucketByKey(wholeShardBucket.getKeyAsString());
+                        assertThat(perSegmentBucket.getDocCount(), equalTo(wholeShardBucket.getDocCount()));
+                        Sum perSegmentBucketSum = perSegmentBucket.getAggregations().get("v");
+                        Sum wholeShardBucketSum = wholeShardBucket.getAggregations().get("v");
+                        assertThat(perSegmentBucketSum.value(), equalTo(wholeShardBucketSum.value()));
+                    }
+                }
+            )
+        );
+    }
+
     private static void assertCacheState(Client client, String index, long expectedHits, long expectedMisses) {
         RequestCacheStats requestCacheStats = client.admin()
             .indices()
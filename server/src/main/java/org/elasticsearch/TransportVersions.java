@@ -199,6 +199,10 @@ public class TransportVersions {
     public static final TransportVersion INDEXING_STATS_INCLUDES_RECENT_WRITE_LOAD = def(9_034_0_00);
     public static final TransportVersion ESQL_AGGREGATE_METRIC_DOUBLE_LITERAL = def(9_035_0_00);
     public static final TransportVersion INDEX_METADATA_INCLUDES_RECENT_WRITE_LOAD = def(9_036_0_00);
+    public static final TransportVersion ESQL_LOOKUP_JOIN_SCAN = def(9_037_0_00);
+    public static final TransportVersion INGEST_STATS_QUEUE_TIME = def(9_038_0_00);
+    public static final TransportVersion INDEXING_PRESSURE_STAGE_STATS = def(9_039_0_00);
+    public static final TransportVersion QUERY_CACHE_SHAPE_STATS = def(9_040_0_00);
 
     /*
      * STOP! READ THIS FIRST! No, really,
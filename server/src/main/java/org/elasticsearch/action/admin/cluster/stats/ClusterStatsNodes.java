@@ -850,7 +850,8 @@ public class ClusterStatsNodes implements ToXContentFragment {
                 lowWaterMarkSplits,
                 highWaterMarkSplits,
                 largeOpsRejections,
-                totalLargeRejectedOpsBytes
+                totalLargeRejectedOpsBytes,
+                null
             );
         }
 
@@ -103,6 +103,7 @@ final class BulkOperation extends ActionRunnable<BulkResponse> {
     private final Map<ShardId, Exception> shortCircuitShardFailures = ConcurrentCollections.newConcurrentMap();
     private final FailureStoreMetrics failureStoreMetrics;
     private final DataStreamFailureStoreSettings dataStreamFailureStoreSettings;
+    private final ShardBulkCoalescer shardBulkCoalescer;
 
     BulkOperation(
         Task task,
@@ -118,7 +119,8 @@ final class BulkOperation extends ActionRunnable<BulkResponse> {
         long startTimeNanos,
         ActionListener<BulkResponse> listener,
         FailureStoreMetrics failureStoreMetrics,
-        DataStreamFailureStoreSettings dataStreamFailureStoreSettings
+        DataStreamFailureStoreSettings dataStreamFailureStoreSettings,
+        ShardBulkCoalescer shardBulkCoalescer
     ) {
         this(
             task,
@@ -136,7 +138,8 @@ final class BulkOperation extends ActionRunnable<BulkResponse> {
             new ClusterStateObserver(clusterService, bulkRequest.timeout(), logger, threadPool.getThreadContext()),
             new FailureStoreDocumentConverter(),
             failureStoreMetrics,
-            dataStreamFailureStoreSettings
+            dataStreamFailureStoreSettings,
+            shardBulkCoalescer
         );
     }
 
@@ -156,7 +159,8 @@ final class BulkOperation extends ActionRunnable<BulkResponse> {
         ClusterStateObserver observer,
         FailureStoreDocumentConverter failureStoreDocumentConverter,
         FailureStoreMetrics failureStoreMetrics,
-        DataStreamFailureStoreSettings dataStreamFailureStoreSettings
+        DataStreamFailureStoreSettings dataStreamFailureStoreSettings,
+        ShardBulkCoalescer shardBulkCoalescer
     ) {
         super(listener);
         this.task = task;
@@ -177,6 +181,7 @@ final class BulkOperation extends ActionRunnable<BulkResponse> {
         this.shortCircuitShardFailures.putAll(bulkRequest.incrementalState().shardLevelFailures());
         this.failureStoreMetrics = failureStoreMetrics;
         this.dataStreamFailureStoreSettings = dataStreamFailureStoreSettings;
+        this.shardBulkCoalescer = shardBulkCoalescer;
     }
 
     @Override
@@ -396,27 +401,71 @@ final class BulkOperation extends ActionRunnable<BulkResponse> {
                 final ShardId shardId = entry.getKey();
                 final List<BulkItemRequest> requests = entry.getValue();
 
-                BulkShardRequest bulkShardRequest = new BulkShardRequest(
-                    shardId,
-                    bulkRequest.getRefreshPolicy(),
-                    requests.toArray(new BulkItemRequest[0]),
-                    bulkRequest.isSimulated()
-                );
-                var indexMetadata = project.index(shardId.getIndexName());
-                if (indexMetadata != null && indexMetadata.getInferenceFields().isEmpty() == false) {
-                    bulkShardRequest.setInferenceFieldMap(indexMetadata.getInferenceFields());
-                }
-                bulkShardRequest.waitForActiveShards(bulkRequest.waitForActiveShards());
-                bulkShardRequest.timeout(bulkRequest.timeout());
-                bulkShardRequest.routedBasedOnClusterVersion(clusterState.version());
-                if (task != null) {
-                    bulkShardRequest.setParentTask(nodeId, task.getId());
+                final int maxItemsPerRequest = shardBulkCoalescer.maxItemsPerRequest(shardId);
+                if (requests.size() <= maxItemsPerRequest) {
+                    BulkShardRequest bulkShardRequest = newBulkShardRequest(shardId, requests, project, clusterState, nodeId);
+                    executeBulkShardRequest(bulkShardRequest, project.id(), bulkItemRequestCompleteRefCount.acquire());
+                } else {
+                    // The shard has been slow for requests of this size, send the items in several smaller requests instead. They
+                    // go one after the other to keep the order of the operations on the shard.
+                    List<BulkShardRequest> bulkShardRequests = new ArrayList<>();
+                    for (int from = 0; from < requests.size(); from += maxItemsPerRequest) {
+                        List<BulkItemRequest> split = requests.subList(from, Math.min(requests.size(), from + maxItemsPerRequest));
+                        bulkShardRequests.add(newBulkShardRequest(shardId, split, project, clusterState, nodeId));
+                    }
+                    executeBulkShardRequestsInSequence(
+                        bulkShardRequests.iterator(),
+                        project.id(),
+                        bulkItemRequestCompleteRefCount.acquire()
+                    );
                 }
-                executeBulkShardRequest(bulkShardRequest, project.id(), bulkItemRequestCompleteRefCount.acquire());
             }
         }
     }
 
+    private BulkShardRequest newBulkShardRequest(
+        ShardId shardId,
+        List<BulkItemRequest> requests,
+        ProjectMetadata project,
+        ClusterState clusterState,
+        String nodeId
+    ) {
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(
+            shardId,
+            bulkRequest.getRefreshPolicy(),
+            requests.toArray(new BulkItemRequest[0]),
+            bulkRequest.isSimulated()
+        );
+        var indexMetadata = project.index(shardId.getIndexName());
+        if (indexMetadata != null && indexMetadata.getInferenceFields().isEmpty() == false) {
+            bulkShardRequest.setInferenceFieldMap(indexMetadata.getInferenceFields());
+        }
+        bulkShardRequest.waitForActiveShards(bulkRequest.waitForActiveShards());
+        bulkShardRequest.timeout(bulkRequest.timeout());
+        bulkShardRequest.routedBasedOnClusterVersion(clusterState.version());
+        if (task != null) {
+            bulkShardRequest.setParentTask(nodeId, task.getId());
+        }
+        return bulkShardRequest;
+    }
+
+    private void executeBulkShardRequestsInSequence(
+        Iterator<BulkShardRequest> bulkShardRequests,
+        ProjectId projectId,
+        Releasable releaseOnFinish
+    ) {
+        BulkShardRequest bulkShardRequest = bulkShardRequests.next();
+        if (bulkShardRequests.hasNext()) {
+            executeBulkShardRequest(
+                bulkShardRequest,
+                projectId,
+                () -> executeBulkShardRequestsInSequence(bulkShardRequests, projectId, releaseOnFinish)
+            );
+        } else {
+            executeBulkShardRequest(bulkShardRequest, projectId, releaseOnFinish);
+        }
+    }
+
     private void redirectFailuresOrCompleteBulkOperation() {
         if (DataStream.isFailureStoreFeatureFlagEnabled() && failureStoreRedirects.isEmpty() == false) {
             doRedirectFailures();
@@ -472,7 +521,7 @@ final class BulkOperation extends ActionRunnable<BulkResponse> {
             );
             releaseOnFinish.close();
         } else {
-            client.executeLocally(TransportShardBulkAction.TYPE, bulkShardRequest, new ActionListener<>() {
+            shardBulkCoalescer.execute(bulkShardRequest, new ActionListener<>() {
 
                 // Lazily get the project metadata to avoid keeping it around longer than it is needed
                 private ProjectMetadata projectMetadata = null;
@@ -527,7 +576,7 @@ final class BulkOperation extends ActionRunnable<BulkResponse> {
                     projectMetadata = null;
                     releaseOnFinish.close();
                 }
-            });
+            }, (request, listener) -> client.executeLocally(TransportShardBulkAction.TYPE, request, listener));
         }
     }
 
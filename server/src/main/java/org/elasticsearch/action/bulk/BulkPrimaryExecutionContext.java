@@ -16,6 +16,7 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.support.replication.ReplicationResponse;
 import org.elasticsearch.action.support.replication.TransportWriteAction;
+import org.elasticsearch.index.IndexingStageMetrics;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.translog.Translog;
@@ -55,6 +56,7 @@ class BulkPrimaryExecutionContext {
 
     private final BulkShardRequest request;
     private final IndexShard primary;
+    private final IndexingStageMetrics stageMetrics;
     private Translog.Location locationToSync = null;
     private int currentIndex = -1;
 
@@ -65,8 +67,13 @@ class BulkPrimaryExecutionContext {
     private long noopMappingUpdateRetryForMappingVersion;
 
     BulkPrimaryExecutionContext(BulkShardRequest request, IndexShard primary) {
+        this(request, primary, IndexingStageMetrics.NOOP);
+    }
+
+    BulkPrimaryExecutionContext(BulkShardRequest request, IndexShard primary, IndexingStageMetrics stageMetrics) {
         this.request = request;
         this.primary = primary;
+        this.stageMetrics = stageMetrics;
         advance();
     }
 
@@ -183,6 +190,11 @@ class BulkPrimaryExecutionContext {
         assert assertInvariants(ItemProcessingState.WAIT_FOR_MAPPING_UPDATE);
     }
 
+    /** records how long it took to update the mapping on the master and wait for it to be applied for the current item */
+    public void recordMappingUpdate(long tookNanos) {
+        stageMetrics.record(IndexingStageMetrics.Stage.MAPPING_UPDATE, tookNanos);
+    }
+
     public void resetForUpdateRetry() {
         assert assertInvariants(ItemProcessingState.EXECUTED);
         updateRetryCounter++;
@@ -263,6 +275,9 @@ class BulkPrimaryExecutionContext {
                 final DocWriteResponse response;
                 if (result.getOperationType() == Engine.Operation.TYPE.INDEX) {
                     Engine.IndexResult indexResult = (Engine.IndexResult) result;
+                    stageMetrics.record(IndexingStageMetrics.Stage.PARSE, indexResult.getParseTook());
+                    stageMetrics.record(IndexingStageMetrics.Stage.LUCENE, indexResult.getLuceneTook());
+                    stageMetrics.record(IndexingStageMetrics.Stage.TRANSLOG, indexResult.getTranslogTook());
                     List<String> executedPipelines;
                     if (docWriteRequest instanceof IndexRequest indexRequest) {
                         executedPipelines = indexRequest.getExecutedPipelines();
@@ -13,6 +13,7 @@ import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.cluster.routing.IndexRouting;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.logging.DeprecationLogger;
 import org.elasticsearch.common.lucene.uid.Versions;
@@ -25,19 +26,24 @@ import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 import org.elasticsearch.xcontent.ParseField;
 import org.elasticsearch.xcontent.XContent;
+import org.elasticsearch.xcontent.XContentBuilder;
 import org.elasticsearch.xcontent.XContentEOFException;
+import org.elasticsearch.xcontent.XContentFactory;
 import org.elasticsearch.xcontent.XContentParser;
 import org.elasticsearch.xcontent.XContentParserConfiguration;
 import org.elasticsearch.xcontent.XContentType;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
+import static org.elasticsearch.common.xcontent.XContentParserUtils.ensureExpectedToken;
 import static org.elasticsearch.index.seqno.SequenceNumbers.UNASSIGNED_PRIMARY_TERM;
 
 /**
@@ -49,7 +55,7 @@ public final class BulkRequestParser {
     // Remove deprecation logger when its usages in checkBulkActionIsProperlyClosed are removed
     private static final DeprecationLogger deprecationLogger = DeprecationLogger.getLogger(BulkRequestParser.class);
 
-    private static final Set<String> SUPPORTED_ACTIONS = Set.of("create", "index", "update", "delete");
+    private static final Set<String> SUPPORTED_ACTIONS = Set.of("create", "index", "update", "delete", "time_series");
     private static final String STRICT_ACTION_PARSING_WARNING_KEY = "bulk_request_strict_action_parsing";
 
     private static final ParseField INDEX = new ParseField("_index");
@@ -68,6 +74,8 @@ public final class BulkRequestParser {
     private static final ParseField REQUIRE_DATA_STREAM = new ParseField(DocWriteRequest.REQUIRE_DATA_STREAM);
     private static final ParseField LIST_EXECUTED_PIPELINES = new ParseField(DocWriteRequest.LIST_EXECUTED_PIPELINES);
     private static final ParseField DYNAMIC_TEMPLATES = new ParseField("dynamic_templates");
+    private static final ParseField DIMENSIONS = new ParseField("dimensions");
+    private static final ParseField COLUMNS = new ParseField("columns");
 
     // TODO: Remove this parameter once the BulkMonitoring endpoint has been removed
     // for CompatibleApi V7 this means to deprecate on type, for V8+ it means to throw an error
@@ -221,6 +229,7 @@ public final class BulkRequestParser {
         private String currentPipeline = null;
         private boolean currentListExecutedPipelines = false;
         private FetchSourceContext currentFetchSourceContext = null;
+        private boolean currentTimeSeries = false;
 
         private IncrementalParser(
             @Nullable String defaultIndex,
@@ -304,6 +313,7 @@ public final class BulkRequestParser {
             currentPipeline = defaultPipeline;
             currentListExecutedPipelines = defaultListExecutedPipelines != null && defaultListExecutedPipelines;
             currentFetchSourceContext = defaultFetchSourceContext;
+            currentTimeSeries = false;
 
             try (XContentParser parser = createParser(xContentType.xContent(), data, from, to)) {
 
@@ -471,7 +481,31 @@ public final class BulkRequestParser {
                 } else {
                     // we use internalAdd so we don't fork here, this allows us not to copy over the big byte array to small chunks
                     // of index request.
-                    if ("index".equals(action) || "create".equals(action)) {
+                    if ("time_series".equals(action)) {
+                        if (id != null
+                            || opType != null
+                            || version != Versions.MATCH_ANY
+                            || versionType != VersionType.INTERNAL
+                            || ifSeqNo != SequenceNumbers.UNASSIGNED_SEQ_NO
+                            || ifPrimaryTerm != UNASSIGNED_PRIMARY_TERM) {
+                            throw new IllegalArgumentException(
+                                "Time series request in line ["
+                                    + line
+                                    + "] creates a document for each row and does not accept [_id], [op_type], [version], "
+                                    + "[version_type], [if_seq_no] or [if_primary_term]"
+                            );
+                        }
+                        // a template for the index requests of the rows, see parseAndConsumeTimeSeriesLine
+                        currentRequest = new IndexRequest(index).routing(routing)
+                            .setPipeline(currentPipeline)
+                            .setDynamicTemplates(dynamicTemplates)
+                            .setRequireAlias(requireAlias)
+                            .setRequireDataStream(requireDataStream)
+                            .setListExecutedPipelines(currentListExecutedPipelines)
+                            .setIncludeSourceOnError(config.includeSourceOnError())
+                            .create(true);
+                        currentTimeSeries = true;
+                    } else if ("index".equals(action) || "create".equals(action)) {
                         var indexRequest = new IndexRequest(index).id(id)
                             .routing(routing)
                             .version(version)
@@ -525,7 +559,9 @@ public final class BulkRequestParser {
 
         private void parseAndConsumeDocumentLine(BytesReference data, int from, int to) throws IOException {
             assert currentRequest != null && currentRequest instanceof DeleteRequest == false;
-            if (currentRequest instanceof IndexRequest indexRequest) {
+            if (currentTimeSeries) {
+                parseAndConsumeTimeSeriesLine((IndexRequest) currentRequest, sliceTrimmingCarriageReturn(data, from, to, xContentType));
+            } else if (currentRequest instanceof IndexRequest indexRequest) {
                 indexRequest.source(sliceTrimmingCarriageReturn(data, from, to, xContentType), xContentType);
                 indexRequestConsumer.accept(indexRequest, currentType);
             } else if (currentRequest instanceof UpdateRequest updateRequest) {
@@ -548,6 +584,117 @@ public final class BulkRequestParser {
             }
         }
 
+        /**
+         * Parses the body of a {@code time_series} action, the values that a batch of documents of a single time series has in
+         * common and the values that differ between the documents, one column per field:
+         * <pre>
+         * {"dimensions": {"host": "a", "region": "eu"}, "columns": {"@timestamp": [1, 2], "cpu": [0.5, 0.7]}}
+         * </pre>
+         * and creates a document for each row of the columns that holds the dimensions and the row's values. The documents all
+         * have the same routing path values, provided these are dimensions, so the routing path values are only extracted from the
+         * first of them. On the shard, consecutive documents with the same dimensions reuse the same {@code _tsid}.
+         */
+        private void parseAndConsumeTimeSeriesLine(IndexRequest template, BytesReference body) throws IOException {
+            Map<String, Object> dimensions = Map.of();
+            Map<String, List<Object>> columns = null;
+            try (XContentParser parser = createParser(xContentType.xContent(), body)) {
+                ensureExpectedToken(XContentParser.Token.START_OBJECT, parser.nextToken(), parser);
+                while (parser.nextToken() != XContentParser.Token.END_OBJECT) {
+                    ensureExpectedToken(XContentParser.Token.FIELD_NAME, parser.currentToken(), parser);
+                    String fieldName = parser.currentName();
+                    ensureExpectedToken(XContentParser.Token.START_OBJECT, parser.nextToken(), parser);
+                    if (DIMENSIONS.match(fieldName, parser.getDeprecationHandler())) {
+                        dimensions = parser.mapOrdered();
+                    } else if (COLUMNS.match(fieldName, parser.getDeprecationHandler())) {
+                        columns = parseTimeSeriesColumns(parser);
+                    } else {
+                        throw new IllegalArgumentException(
+                            "Time series request in line [" + line + "] contains an unknown field [" + fieldName + "]"
+                        );
+                    }
+                }
+            }
+            if (columns == null || columns.isEmpty()) {
+                throw new IllegalArgumentException(
+                    "Time series request in line [" + line + "] requires [" + COLUMNS.getPreferredName() + "]"
+                );
+            }
+            int rows = -1;
+            for (Map.Entry<String, List<Object>> column : columns.entrySet()) {
+                if (dimensions.containsKey(column.getKey())) {
+                    throw new IllegalArgumentException(
+                        "Time series request in line [" + line + "] has both a dimension and a column for [" + column.getKey() + "]"
+                    );
+                }
+                if (rows == -1) {
+                    rows = column.getValue().size();
+                } else if (rows != column.getValue().size()) {
+                    throw new IllegalArgumentException(
+                        "Time series request in line ["
+                            + line
+                            + "] has columns of different lengths, expected ["
+                            + rows
+                            + "] values but column ["
+                            + column.getKey()
+                            + "] has ["
+                            + column.getValue().size()
+                            + "]"
+                    );
+                }
+            }
+
+            var sharedRoutingHash = new IndexRouting.ExtractFromSource.SharedRoutingHash(List.copyOf(columns.keySet()));
+            for (int row = 0; row < rows; row++) {
+                XContentBuilder source = XContentFactory.contentBuilder(xContentType);
+                source.startObject();
+                for (Map.Entry<String, Object> dimension : dimensions.entrySet()) {
+                    source.field(dimension.getKey(), dimension.getValue());
+                }
+                for (Map.Entry<String, List<Object>> column : columns.entrySet()) {
+                    source.field(column.getKey(), column.getValue().get(row));
+                }
+                source.endObject();
+                IndexRequest indexRequest = new IndexRequest(template.index()).routing(template.routing())
+                    .setPipeline(template.getPipeline())
+                    .setDynamicTemplates(template.getDynamicTemplates())
+                    .setRequireAlias(template.isRequireAlias())
+                    .setRequireDataStream(template.isRequireDataStream())
+                    .setListExecutedPipelines(template.getListExecutedPipelines())
+                    .setIncludeSourceOnError(template.getIncludeSourceOnError())
+                    .create(true)
+                    .source(source)
+                    .setSharedRoutingHash(sharedRoutingHash);
+                indexRequestConsumer.accept(indexRequest, currentType);
+            }
+        }
+
+        private Map<String, List<Object>> parseTimeSeriesColumns(XContentParser parser) throws IOException {
+            Map<String, List<Object>> columns = new LinkedHashMap<>();
+            while (parser.nextToken() != XContentParser.Token.END_OBJECT) {
+                ensureExpectedToken(XContentParser.Token.FIELD_NAME, parser.currentToken(), parser);
+                String column = parser.currentName();
+                ensureExpectedToken(XContentParser.Token.START_ARRAY, parser.nextToken(), parser);
+                List<Object> values = parser.list();
+                for (Object value : values) {
+                    // the documents only share the routing hash if the columns can't hide routing path values in objects
+                    if (containsObject(value)) {
+                        throw new IllegalArgumentException(
+                            "Time series request in line [" + line + "] has an object in column [" + column + "], columns hold values"
+                        );
+                    }
+                }
+                columns.put(column, values);
+            }
+            return columns;
+        }
+
+    }
+
+    private static boolean containsObject(Object value) {
+        if (value instanceof List<?> list) {
+            return list.stream().anyMatch(BulkRequestParser::containsObject);
+        }
+        return value instanceof Map<?, ?>;
     }
 
     @UpdateForV10(owner = UpdateForV10.Owner.DATA_MANAGEMENT) // Remove lenient parsing in V8 BWC mode
@@ -22,6 +22,8 @@ public class BulkShardResponse extends ReplicationResponse implements WriteRespo
 
     private final ShardId shardId;
     private final BulkItemResponse[] responses;
+    // when the primary finished executing the request, on the node that holds the primary only
+    private transient long primaryCompletedNanos = -1;
 
     BulkShardResponse(StreamInput in) throws IOException {
         super(in);
@@ -39,6 +41,14 @@ public class BulkShardResponse extends ReplicationResponse implements WriteRespo
         return responses;
     }
 
+    long getPrimaryCompletedNanos() {
+        return primaryCompletedNanos;
+    }
+
+    void setPrimaryCompletedNanos(long primaryCompletedNanos) {
+        this.primaryCompletedNanos = primaryCompletedNanos;
+    }
+
     @Override
     public void setForcedRefresh(boolean forcedRefresh) {
         /*
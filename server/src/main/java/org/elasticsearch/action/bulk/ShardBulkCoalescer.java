@@ -0,0 +1,259 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.ActiveShardCount;
+import org.elasticsearch.action.support.ContextPreservingActionListener;
+import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.ShardBulkSizer;
+import org.elasticsearch.index.shard.ShardId;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Shapes the shard level requests that this node sends when it coordinates bulk requests. Requests for a shard that are too big
+ * for the latency that {@link ShardBulkSizer} observed on the shard are split by {@link BulkOperation}, and this merges the small
+ * ones. Once {@link #COALESCE_BULK_SHARD_MAX_IN_FLIGHT} shard level requests to a shard are in flight, the next ones to that shard
+ * wait for one of them to complete and are then sent together as a single shard level request. Thousands of clients that each
+ * send a few documents at a time then cost the shard a few large requests rather than many tiny ones. A request never waits
+ * longer than one in flight request to its shard, and a merged request never holds more items than {@link ShardBulkSizer} allows.
+ * <p>
+ * Shard level requests run in the thread context of the bulk request that they came from, so only requests with the same
+ * thread context headers, which carry the authenticated user, and with the same refresh policy, timeout and wait for active
+ * shards are merged. The merged request runs in the thread context of the first of them.
+ */
+public final class ShardBulkCoalescer {
+
+    /**
+     * How many shard level requests to a shard can be in flight before the next ones to that shard are merged. {@code 0}, the
+     * default, sends every shard level request as soon as it is ready.
+     */
+    public static final Setting<Integer> COALESCE_BULK_SHARD_MAX_IN_FLIGHT = Setting.intSetting(
+        "indexing_pressure.coalesce_bulk.shard_max_in_flight",
+        0,
+        0,
+        Setting.Property.NodeScope
+    );
+
+    static final ShardBulkCoalescer DISABLED = new ShardBulkCoalescer(Settings.EMPTY, ShardBulkSizer.DISABLED, null);
+
+    private final int maxInFlight;
+    private final ShardBulkSizer shardBulkSizer;
+    private final ThreadContext threadContext;
+    private final ConcurrentMap<ShardId, ShardQueue> queues = ConcurrentCollections.newConcurrentMap();
+
+    ShardBulkCoalescer(Settings settings, ShardBulkSizer shardBulkSizer, @Nullable ThreadContext threadContext) {
+        this.maxInFlight = COALESCE_BULK_SHARD_MAX_IN_FLIGHT.get(settings);
+        this.shardBulkSizer = shardBulkSizer;
+        this.threadContext = threadContext;
+        assert isEnabled() == false || threadContext != null : "coalescing needs the thread context";
+    }
+
+    boolean isEnabled() {
+        return maxInFlight > 0;
+    }
+
+    /**
+     * The most items to put in a single shard level request to the given shard, see {@link ShardBulkSizer#maxItemsPerRequest}.
+     */
+    int maxItemsPerRequest(ShardId shardId) {
+        return shardBulkSizer.maxItemsPerRequest(shardId);
+    }
+
+    /**
+     * Sends {@code request} with {@code sender}, either on its own or merged with other requests to the same shard.
+     */
+    void execute(
+        BulkShardRequest request,
+        ActionListener<BulkShardResponse> listener,
+        BiConsumer<BulkShardRequest, ActionListener<BulkShardResponse>> sender
+    ) {
+        if (isEnabled() == false || request.getInferenceFieldMap() != null) {
+            // Inference runs on the coordinating node per shard level request, we leave those alone
+            send(request, listener, sender);
+            return;
+        }
+        final ShardId shardId = request.shardId();
+        final Pending pending = new Pending(
+            request,
+            ContextPreservingActionListener.wrapPreservingContext(listener, threadContext),
+            sender,
+            threadContext.newStoredContext(),
+            new Key(
+                request.getRefreshPolicy(),
+                request.timeout(),
+                request.waitForActiveShards(),
+                request.isSimulated(),
+                threadContext.getHeaders()
+            )
+        );
+        final int maxItems = maxItemsPerRequest(shardId);
+        final List<List<Pending>> batches = new ArrayList<>(1);
+        queues.compute(shardId, (id, queue) -> {
+            if (queue == null) {
+                queue = new ShardQueue();
+            }
+            queue.pending.add(pending);
+            queue.pendingItems += request.items().length;
+            queue.takeBatches(batches, maxInFlight, maxItems);
+            return queue;
+        });
+        batches.forEach(batch -> sendBatch(shardId, batch));
+    }
+
+    private void onCompleted(ShardId shardId) {
+        final int maxItems = maxItemsPerRequest(shardId);
+        final List<List<Pending>> batches = new ArrayList<>(1);
+        queues.compute(shardId, (id, queue) -> {
+            assert queue != null && queue.inFlight > 0 : "completed a request to [" + shardId + "] that wasn't in flight";
+            queue.inFlight--;
+            queue.takeBatches(batches, maxInFlight, maxItems);
+            return queue.inFlight == 0 && queue.pending.isEmpty() ? null : queue;
+        });
+        batches.forEach(batch -> sendBatch(shardId, batch));
+    }
+
+    private void sendBatch(ShardId shardId, List<Pending> batch) {
+        final Pending first = batch.get(0);
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            first.context.restore();
+            if (batch.size() == 1) {
+                send(first.request, ActionListener.runAfter(first.listener, () -> onCompleted(shardId)), first.sender);
+                return;
+            }
+            BulkShardRequest merged = merge(shardId, batch);
+            send(merged, ActionListener.runAfter(new ActionListener<>() {
+                @Override
+                public void onResponse(BulkShardResponse response) {
+                    assert response.getResponses().length == merged.items().length;
+                    int from = 0;
+                    for (Pending pending : batch) {
+                        int to = from + pending.request.items().length;
+                        BulkShardResponse slice = new BulkShardResponse(shardId, Arrays.copyOfRange(response.getResponses(), from, to));
+                        slice.setShardInfo(response.getShardInfo());
+                        ActionListener.onResponse(List.of(pending.listener), slice);
+                        from = to;
+                    }
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    ActionListener.onFailure(batch.stream().map(Pending::listener).toList(), e);
+                }
+            }, () -> onCompleted(shardId)), first.sender);
+        }
+    }
+
+    private static BulkShardRequest merge(ShardId shardId, List<Pending> batch) {
+        BulkShardRequest first = batch.get(0).request;
+        BulkItemRequest[] items = batch.stream().flatMap(p -> Arrays.stream(p.request.items())).toArray(BulkItemRequest[]::new);
+        BulkShardRequest merged = new BulkShardRequest(shardId, first.getRefreshPolicy(), items, first.isSimulated());
+        merged.waitForActiveShards(first.waitForActiveShards());
+        merged.timeout(first.timeout());
+        long routedBasedOnClusterVersion = Long.MAX_VALUE;
+        for (Pending pending : batch) {
+            routedBasedOnClusterVersion = Math.min(routedBasedOnClusterVersion, pending.request.routedBasedOnClusterVersion());
+        }
+        merged.routedBasedOnClusterVersion(routedBasedOnClusterVersion);
+        // No parent task, the merged request runs on behalf of all the bulk requests in the batch
+        return merged;
+    }
+
+    private void send(
+        BulkShardRequest request,
+        ActionListener<BulkShardResponse> listener,
+        BiConsumer<BulkShardRequest, ActionListener<BulkShardResponse>> sender
+    ) {
+        final long startNanos = System.nanoTime();
+        sender.accept(request, listener.delegateFailure((l, response) -> {
+            shardBulkSizer.onRequestCompleted(request.shardId(), request.items().length, System.nanoTime() - startNanos);
+            l.onResponse(response);
+        }));
+    }
+
+    int queuedRequests(ShardId shardId) {
+        ShardQueue queue = queues.get(shardId);
+        return queue == null ? 0 : queue.pending.size();
+    }
+
+    /**
+     * Only shard level requests with equal keys may be merged.
+     */
+    private record Key(
+        RefreshPolicy refreshPolicy,
+        TimeValue timeout,
+        ActiveShardCount waitForActiveShards,
+        boolean simulated,
+        Map<String, String> headers
+    ) {}
+
+    private record Pending(
+        BulkShardRequest request,
+        ActionListener<BulkShardResponse> listener,
+        BiConsumer<BulkShardRequest, ActionListener<BulkShardResponse>> sender,
+        ThreadContext.StoredContext context,
+        Key key
+    ) {}
+
+    /**
+     * The requests waiting for a shard. Only accessed under {@link ConcurrentMap#compute} on the shard's entry.
+     */
+    private static final class ShardQueue {
+        private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+        private int pendingItems;
+        private int inFlight;
+
+        /**
+         * Takes batches of pending requests to send while the shard has room for another request in flight, or while there are
+         * enough requests pending to fill a request to {@code maxItems}.
+         */
+        void takeBatches(List<List<Pending>> batches, int maxInFlight, int maxItems) {
+            while (pending.isEmpty() == false && (inFlight < maxInFlight || pendingItems >= maxItems)) {
+                batches.add(takeBatch(maxItems));
+            }
+        }
+
+        /**
+         * Takes the oldest pending request, and as many of the following ones that can be merged with it as fit in
+         * {@code maxItems}, and counts them as one request in flight.
+         */
+        private List<Pending> takeBatch(int maxItems) {
+            List<Pending> batch = new ArrayList<>();
+            Pending first = pending.poll();
+            batch.add(first);
+            long items = first.request.items().length;
+            for (Iterator<Pending> itr = pending.iterator(); itr.hasNext();) {
+                Pending next = itr.next();
+                if (next.key.equals(first.key) && items + next.request.items().length <= maxItems) {
+                    itr.remove();
+                    batch.add(next);
+                    items += next.request.items().length;
+                }
+            }
+            pendingItems -= (int) items;
+            inFlight++;
+            return batch;
+        }
+    }
+}
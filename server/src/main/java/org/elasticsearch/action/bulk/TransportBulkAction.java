@@ -85,6 +85,7 @@ public class TransportBulkAction extends TransportAbstractBulkAction {
     private final OriginSettingClient rolloverClient;
     private final FailureStoreMetrics failureStoreMetrics;
     private final DataStreamFailureStoreSettings dataStreamFailureStoreSettings;
+    private final ShardBulkCoalescer shardBulkCoalescer;
 
     @Inject
     public TransportBulkAction(
@@ -188,6 +189,11 @@ public class TransportBulkAction extends TransportAbstractBulkAction {
         this.indexNameExpressionResolver = indexNameExpressionResolver;
         this.rolloverClient = new OriginSettingClient(client, LAZY_ROLLOVER_ORIGIN);
         this.failureStoreMetrics = failureStoreMetrics;
+        this.shardBulkCoalescer = new ShardBulkCoalescer(
+            clusterService.getSettings(),
+            indexingPressure.shardBulkSizer(),
+            threadPool.getThreadContext()
+        );
     }
 
     public static <Response extends ReplicationResponse & WriteResponse> ActionListener<BulkResponse> unwrappingSingleItemBulkResponse(
@@ -604,7 +610,8 @@ public class TransportBulkAction extends TransportAbstractBulkAction {
             startTimeNanos,
             listener,
             failureStoreMetrics,
-            dataStreamFailureStoreSettings
+            dataStreamFailureStoreSettings,
+            shardBulkCoalescer
         ).run();
     }
 
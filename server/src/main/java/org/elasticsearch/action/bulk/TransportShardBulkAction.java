@@ -45,6 +45,7 @@ import org.elasticsearch.core.Strings;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.core.Tuple;
 import org.elasticsearch.index.IndexingPressure;
+import org.elasticsearch.index.IndexingStageMetrics;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.VersionConflictEngineException;
 import org.elasticsearch.index.get.GetResult;
@@ -176,7 +177,10 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
                 getMaxOperationMemoryOverhead(request),
                 force(request)
             ),
-            outerListener
+            outerListener.<PrimaryResult<BulkShardRequest, BulkShardResponse>>map(result -> {
+                result.replicationResponse.setPrimaryCompletedNanos(System.nanoTime());
+                return result;
+            })
         );
         ClusterStateObserver observer = new ClusterStateObserver(clusterService, request.timeout(), logger, threadPool.getThreadContext());
         performOnPrimary(request, primary, updateHelper, threadPool::absoluteTimeInMillis, (update, shardId, mappingListener) -> {
@@ -202,7 +206,16 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
             var index = primary.shardId().getIndex();
             var indexMetadata = clusterState.metadata().lookupProject(index).map(p -> p.index(index)).orElse(null);
             return indexMetadata == null || (indexMetadata.mapping() != null && indexMetadata.getMappingVersion() != initialMappingVersion);
-        }), listener, executor(primary), postWriteRefresh, postWriteAction, documentParsingProvider);
+        }), listener, executor(primary), postWriteRefresh, postWriteAction, documentParsingProvider, indexingPressure.stageMetrics());
+    }
+
+    @Override
+    protected void adaptResponse(BulkShardResponse response, IndexShard indexShard) {
+        super.adaptResponse(response, indexShard);
+        if (response.getPrimaryCompletedNanos() != -1) {
+            indexingPressure.stageMetrics()
+                .record(IndexingStageMetrics.Stage.REPLICATION, System.nanoTime() - response.getPrimaryCompletedNanos());
+        }
     }
 
     @Override
@@ -262,10 +275,40 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         @Nullable PostWriteRefresh postWriteRefresh,
         @Nullable Consumer<Runnable> postWriteAction,
         DocumentParsingProvider documentParsingProvider
+    ) {
+        performOnPrimary(
+            request,
+            primary,
+            updateHelper,
+            nowInMillisSupplier,
+            mappingUpdater,
+            waitForMappingUpdate,
+            listener,
+            executor,
+            postWriteRefresh,
+            postWriteAction,
+            documentParsingProvider,
+            IndexingStageMetrics.NOOP
+        );
+    }
+
+    public static void performOnPrimary(
+        BulkShardRequest request,
+        IndexShard primary,
+        UpdateHelper updateHelper,
+        LongSupplier nowInMillisSupplier,
+        MappingUpdatePerformer mappingUpdater,
+        ObjLongConsumer<ActionListener<Void>> waitForMappingUpdate,
+        ActionListener<PrimaryResult<BulkShardRequest, BulkShardResponse>> listener,
+        Executor executor,
+        @Nullable PostWriteRefresh postWriteRefresh,
+        @Nullable Consumer<Runnable> postWriteAction,
+        DocumentParsingProvider documentParsingProvider,
+        IndexingStageMetrics stageMetrics
     ) {
         new ActionRunnable<>(listener) {
 
-            private final BulkPrimaryExecutionContext context = new BulkPrimaryExecutionContext(request, primary);
+            private final BulkPrimaryExecutionContext context = new BulkPrimaryExecutionContext(request, primary, stageMetrics);
 
             final long startBulkTime = System.nanoTime();
 
@@ -483,6 +526,7 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
             return true;
         }
 
+        final long mappingUpdateStartNanos = System.nanoTime();
         mappingUpdater.updateMappings(result.getRequiredMappingUpdate(), primary.shardId(), new ActionListener<>() {
             @Override
             public void onResponse(Void v) {
@@ -491,11 +535,13 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
                     @Override
                     public void onResponse(Void v) {
                         assert context.requiresWaitingForMappingUpdate();
+                        context.recordMappingUpdate(System.nanoTime() - mappingUpdateStartNanos);
                         context.resetForMappingUpdateRetry();
                     }
 
                     @Override
                     public void onFailure(Exception e) {
+                        context.recordMappingUpdate(System.nanoTime() - mappingUpdateStartNanos);
                         context.failOnMappingUpdate(e);
                     }
                 }, () -> itemDoneListener.onResponse(null)), initialMappingVersion);
@@ -503,6 +549,7 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
 
             @Override
             public void onFailure(Exception e) {
+                context.recordMappingUpdate(System.nanoTime() - mappingUpdateStartNanos);
                 onComplete(exceptionToResult(e, primary, false, version, result.getId()), context, updateResult);
                 // Requesting mapping update failed, so we don't have to wait for a cluster state update
                 assert context.isInitial();
@@ -123,6 +123,13 @@ public class IndexRequest extends ReplicatedWriteRequest<IndexRequest> implement
      */
     private boolean writeToFailureStore = false;
 
+    /**
+     * The routing hash this request shares with other requests for the same time series, dropped when the source changes. Not
+     * persisted across the wire.
+     */
+    @Nullable
+    private IndexRouting.ExtractFromSource.SharedRoutingHash sharedRoutingHash;
+
     /**
      * This indicates whether the response to this request ought to list the ingest pipelines that were executed on the document
      */
@@ -539,6 +546,17 @@ public class IndexRequest extends ReplicatedWriteRequest<IndexRequest> implement
     public IndexRequest source(BytesReference source, XContentType xContentType) {
         this.source = Objects.requireNonNull(source);
         this.contentType = Objects.requireNonNull(xContentType);
+        this.sharedRoutingHash = null;
+        return this;
+    }
+
+    /**
+     * Marks this request as having the same values for all the fields that could be routing paths as the other requests that
+     * share {@code sharedRoutingHash}, so it can be routed without parsing its source. Must be set after the source, changing
+     * the source drops it.
+     */
+    public IndexRequest setSharedRoutingHash(@Nullable IndexRouting.ExtractFromSource.SharedRoutingHash sharedRoutingHash) {
+        this.sharedRoutingHash = sharedRoutingHash;
         return this;
     }
 
@@ -917,6 +935,9 @@ public class IndexRequest extends ReplicatedWriteRequest<IndexRequest> implement
 
     @Override
     public int route(IndexRouting indexRouting) {
+        if (sharedRoutingHash != null && indexRouting instanceof IndexRouting.ExtractFromSource extractFromSource) {
+            return extractFromSource.indexShard(id, routing, contentType, source, sharedRoutingHash);
+        }
         return indexRouting.indexShard(id, routing, contentType, source);
     }
 
@@ -1942,6 +1942,9 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         public void onResponse(SearchResponse searchResponse) {
             try {
                 searchResponseMetrics.recordTookTime(searchResponse.getTookInMillis());
+                if (searchResponse.getHits() != null) {
+                    searchResponseMetrics.recordHitsSourceSize(searchResponse.getHits().sourceBytes());
+                }
                 SearchResponseMetrics.ResponseCountTotalStatus responseCountTotalStatus =
                     SearchResponseMetrics.ResponseCountTotalStatus.SUCCESS;
                 if (searchResponse.getShardFailures() != null && searchResponse.getShardFailures().length > 0) {
@@ -168,7 +168,7 @@ public abstract class ReplicationRequest<Request extends ReplicationRequest<Requ
         return (Request) this;
     }
 
-    long routedBasedOnClusterVersion() {
+    public long routedBasedOnClusterVersion() {
         return routedBasedOnClusterVersion;
     }
 
@@ -271,6 +271,7 @@ public abstract class IndexRouting {
     }
 
     public static class ExtractFromSource extends IndexRouting {
+        private final List<String> routingPaths;
         private final Predicate<String> isRoutingPath;
         private final XContentParserConfiguration parserConfig;
         private final IndexMode indexMode;
@@ -287,7 +288,7 @@ public abstract class IndexRouting {
             trackTimeSeriesRoutingHash = indexMode == IndexMode.TIME_SERIES
                 && metadata.getCreationVersion().onOrAfter(IndexVersions.TIME_SERIES_ROUTING_HASH_IN_ID);
             addIdWithRoutingHash = indexMode == IndexMode.LOGSDB;
-            List<String> routingPaths = metadata.getRoutingPaths();
+            routingPaths = metadata.getRoutingPaths();
             isRoutingPath = Regex.simpleMatcher(routingPaths.toArray(String[]::new));
             this.parserConfig = XContentParserConfiguration.EMPTY.withFiltering(null, Set.copyOf(routingPaths), null, true);
         }
@@ -316,6 +317,33 @@ public abstract class IndexRouting {
             return hashToShardId(hash);
         }
 
+        /**
+         * Like {@link #indexShard} for a document that has the same values as the other documents that share {@code sharedHash} for
+         * all the fields that could be routing paths. Only the first of these documents gets its source parsed, the others reuse
+         * its routing hash.
+         */
+        public int indexShard(
+            String id,
+            @Nullable String routing,
+            XContentType sourceType,
+            BytesReference source,
+            SharedRoutingHash sharedHash
+        ) {
+            assert Transports.assertNotTransportThread("parsing the _source can get slow");
+            checkNoRouting(routing);
+            SharedRoutingHash.Entry entry = sharedHash.entry;
+            if (entry != null && entry.shareable() && entry.routingPaths().equals(routingPaths)) {
+                hash = entry.hash();
+            } else {
+                hash = hashSource(sourceType, source).buildHash(IndexRouting.ExtractFromSource::defaultOnEmpty);
+                if (entry == null || entry.routingPaths().equals(routingPaths) == false) {
+                    boolean shareable = sharedHash.varyingFields.stream().noneMatch(isRoutingPath);
+                    sharedHash.entry = new SharedRoutingHash.Entry(routingPaths, shareable, hash);
+                }
+            }
+            return hashToShardId(hash);
+        }
+
         public String createId(XContentType sourceType, BytesReference source, byte[] suffix) {
             return hashSource(sourceType, source).createId(suffix, IndexRouting.ExtractFromSource::defaultOnEmpty);
         }
@@ -360,6 +388,22 @@ public abstract class IndexRouting {
             return b;
         }
 
+        /**
+         * The routing hash of a group of documents that only differ in the values of {@code varyingFields}, like the rows of a time
+         * series that were sent together. The hash is only reused by indices with the same routing paths as the index that computed
+         * it, and only if none of the varying fields is a routing path.
+         */
+        public static final class SharedRoutingHash {
+            private record Entry(List<String> routingPaths, boolean shareable, int hash) {}
+
+            private final List<String> varyingFields;
+            private volatile Entry entry;
+
+            public SharedRoutingHash(List<String> varyingFields) {
+                this.varyingFields = varyingFields;
+            }
+        }
+
         public class Builder {
             private final List<NameAndHash> hashes = new ArrayList<>();
 
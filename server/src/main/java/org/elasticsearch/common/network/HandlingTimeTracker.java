@@ -12,52 +12,72 @@ package org.elasticsearch.common.network;
 import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Tracks how long message handling takes on a transport thread as a histogram with fixed buckets.
+ * Tracks how long something takes as a histogram with fixed, power of two buckets. By default it tracks how long message handling
+ * takes on a transport thread in milliseconds, but the times can be in any unit as long as the caller sticks to one.
  */
 public class HandlingTimeTracker {
 
+    private static final int DEFAULT_BOUND_COUNT = 17;
+
     public static int[] getBucketUpperBounds() {
-        int[] bounds = new int[17];
+        return getBucketUpperBounds(DEFAULT_BOUND_COUNT);
+    }
+
+    /**
+     * @return The upper bounds of the buckets of a tracker with {@code boundCount} bounds, which are {@code 1, 2, 4, ...} up to
+     *         {@code 2^(boundCount-1)}.
+     */
+    public static int[] getBucketUpperBounds(int boundCount) {
+        int[] bounds = new int[boundCount];
         for (int i = 0; i < bounds.length; i++) {
             bounds[i] = 1 << i;
         }
         return bounds;
     }
 
-    private static int getBucket(long handlingTimeMillis) {
-        if (handlingTimeMillis <= 0) {
-            return 0;
-        } else if (LAST_BUCKET_LOWER_BOUND <= handlingTimeMillis) {
-            return BUCKET_COUNT - 1;
-        } else {
-            return Long.SIZE - Long.numberOfLeadingZeros(handlingTimeMillis);
-        }
-    }
-
     public static final int BUCKET_COUNT = getBucketUpperBounds().length + 1;
 
-    private static final long LAST_BUCKET_LOWER_BOUND = getBucketUpperBounds()[BUCKET_COUNT - 2];
-
     private final LongAdder[] buckets;
+    private final long lastBucketLowerBound;
 
     public HandlingTimeTracker() {
-        buckets = new LongAdder[BUCKET_COUNT];
-        for (int i = 0; i < BUCKET_COUNT; i++) {
+        this(DEFAULT_BOUND_COUNT);
+    }
+
+    /**
+     * @param boundCount The number of bucket upper bounds, see {@link #getBucketUpperBounds(int)}. The tracker has an extra bucket for
+     *                   times longer than the longest upper bound.
+     */
+    public HandlingTimeTracker(int boundCount) {
+        assert boundCount > 0 && boundCount < Integer.SIZE : boundCount;
+        buckets = new LongAdder[boundCount + 1];
+        for (int i = 0; i < buckets.length; i++) {
             buckets[i] = new LongAdder();
         }
+        lastBucketLowerBound = 1L << (boundCount - 1);
+    }
+
+    private int getBucket(long handlingTime) {
+        if (handlingTime <= 0) {
+            return 0;
+        } else if (lastBucketLowerBound <= handlingTime) {
+            return buckets.length - 1;
+        } else {
+            return Long.SIZE - Long.numberOfLeadingZeros(handlingTime);
+        }
     }
 
-    public void addHandlingTime(long handlingTimeMillis) {
-        buckets[getBucket(handlingTimeMillis)].increment();
+    public void addHandlingTime(long handlingTime) {
+        buckets[getBucket(handlingTime)].increment();
     }
 
     /**
-     * @return An array of frequencies of handling times in buckets with upper bounds as returned by {@link #getBucketUpperBounds()}, plus
-     *         an extra bucket for handling times longer than the longest upper bound.
+     * @return An array of frequencies of handling times in buckets with upper bounds as returned by
+     *         {@link #getBucketUpperBounds(int)}, plus an extra bucket for handling times longer than the longest upper bound.
      */
     public long[] getHistogram() {
-        final long[] histogram = new long[BUCKET_COUNT];
-        for (int i = 0; i < BUCKET_COUNT; i++) {
+        final long[] histogram = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
             histogram[i] = buckets[i].longValue();
         }
         return histogram;
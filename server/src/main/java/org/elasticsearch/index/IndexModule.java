@@ -55,6 +55,7 @@ import org.elasticsearch.index.shard.SearchOperationListener;
 import org.elasticsearch.index.shard.ShardPath;
 import org.elasticsearch.index.similarity.SimilarityService;
 import org.elasticsearch.index.store.FsDirectoryFactory;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.indices.IndicesQueryCache;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
@@ -136,6 +137,13 @@ public final class IndexModule {
         Property.IndexScope
     );
 
+    // whether to decide what to cache based on the measured cost of caching rather than on usage only
+    public static final Setting<Boolean> INDEX_QUERY_CACHE_COST_AWARE_SETTING = Setting.boolSetting(
+        "index.queries.cache.cost_aware",
+        false,
+        Property.IndexScope
+    );
+
     // for test purposes only
     public static final Setting<Boolean> INDEX_QUERY_CACHE_EVERYTHING_SETTING = Setting.boolSetting(
         "index.queries.cache.everything",
@@ -179,6 +187,7 @@ public final class IndexModule {
     private final SetOnce<Engine.IndexCommitListener> indexCommitListener = new SetOnce<>();
     private final MapperMetrics mapperMetrics;
     private final IndexingStatsSettings indexingStatsSettings;
+    private final TranslogSyncCoordinator translogSyncCoordinator;
 
     /**
      * Construct the index module for the index with the specified index settings. The index module contains extension points for plugins
@@ -200,7 +209,8 @@ public final class IndexModule {
         final SlowLogFieldProvider slowLogFieldProvider,
         final MapperMetrics mapperMetrics,
         final List<SearchOperationListener> searchOperationListeners,
-        final IndexingStatsSettings indexingStatsSettings
+        final IndexingStatsSettings indexingStatsSettings,
+        final TranslogSyncCoordinator translogSyncCoordinator
     ) {
         this.indexSettings = indexSettings;
         this.analysisRegistry = analysisRegistry;
@@ -216,6 +226,7 @@ public final class IndexModule {
         this.recoveryStateFactories = recoveryStateFactories;
         this.mapperMetrics = mapperMetrics;
         this.indexingStatsSettings = indexingStatsSettings;
+        this.translogSyncCoordinator = translogSyncCoordinator;
     }
 
     /**
@@ -552,7 +563,8 @@ public final class IndexModule {
                 indexCommitListener.get(),
                 mapperMetrics,
                 queryRewriteInterceptor,
-                indexingStatsSettings
+                indexingStatsSettings,
+                translogSyncCoordinator
             );
             success = true;
             return indexService;
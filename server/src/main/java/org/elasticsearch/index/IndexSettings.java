@@ -300,6 +300,19 @@ public final class IndexSettings {
         return DEFAULT_REFRESH_INTERVAL;
     }, new RefreshIntervalValidator(), Property.Dynamic, Property.IndexScope, Property.ServerlessPublic);
 
+    /**
+     * How stale search results on a shard may get before its scheduled refreshes stop being deferred. Scheduled refreshes are
+     * deferred while the shard wasn't searched since its last refresh, or while merges can't keep up with indexing, so write heavy
+     * shards produce fewer, larger segments. {@code -1}, the default, refreshes every {@link #INDEX_REFRESH_INTERVAL_SETTING}.
+     */
+    public static final Setting<TimeValue> INDEX_REFRESH_VISIBILITY_TARGET_SETTING = Setting.timeSetting(
+        "index.refresh.visibility_target",
+        TimeValue.MINUS_ONE,
+        TimeValue.MINUS_ONE,
+        Property.Dynamic,
+        Property.IndexScope
+    );
+
     static class RefreshIntervalValidator implements Setting.Validator<TimeValue> {
 
         static final String STATELESS_ALLOW_INDEX_REFRESH_INTERVAL_OVERRIDE = "es.stateless.allow.index.refresh_interval.override";
@@ -855,6 +868,7 @@ public final class IndexSettings {
     private volatile Translog.Durability durability;
     private volatile TimeValue syncInterval;
     private volatile TimeValue refreshInterval;
+    private volatile TimeValue refreshVisibilityTarget;
     private final boolean fastRefresh;
     private volatile ByteSizeValue flushThresholdSize;
     private volatile TimeValue flushThresholdAge;
@@ -1038,6 +1052,7 @@ public final class IndexSettings {
         defaultFields = scopedSettings.get(DEFAULT_FIELD_SETTING);
         syncInterval = INDEX_TRANSLOG_SYNC_INTERVAL_SETTING.get(settings);
         refreshInterval = scopedSettings.get(INDEX_REFRESH_INTERVAL_SETTING);
+        refreshVisibilityTarget = scopedSettings.get(INDEX_REFRESH_VISIBILITY_TARGET_SETTING);
         fastRefresh = scopedSettings.get(INDEX_FAST_REFRESH_SETTING);
         if (fastRefresh) {
             if (DiscoveryNode.isStateless(nodeSettings) == false) {
@@ -1176,6 +1191,7 @@ public final class IndexSettings {
         scopedSettings.addSettingsUpdateConsumer(INDEX_FLUSH_AFTER_MERGE_THRESHOLD_SIZE_SETTING, this::setFlushAfterMergeThresholdSize);
         scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_GENERATION_THRESHOLD_SIZE_SETTING, this::setGenerationThresholdSize);
         scopedSettings.addSettingsUpdateConsumer(INDEX_REFRESH_INTERVAL_SETTING, this::setRefreshInterval);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_REFRESH_VISIBILITY_TARGET_SETTING, this::setRefreshVisibilityTarget);
         scopedSettings.addSettingsUpdateConsumer(MAX_REFRESH_LISTENERS_PER_SHARD, this::setMaxRefreshListeners);
         scopedSettings.addSettingsUpdateConsumer(MAX_ANALYZED_OFFSET_SETTING, this::setHighlightMaxAnalyzedOffset);
         scopedSettings.addSettingsUpdateConsumer(WEIGHT_MATCHES_MODE_ENABLED_SETTING, this::setWeightMatchesEnabled);
@@ -1233,6 +1249,10 @@ public final class IndexSettings {
         this.refreshInterval = timeValue;
     }
 
+    private void setRefreshVisibilityTarget(TimeValue timeValue) {
+        this.refreshVisibilityTarget = timeValue;
+    }
+
     /**
      * Returns the settings for this index. These settings contain the node and index level settings where
      * settings that are specified on both index and node level are overwritten by the index settings.
@@ -1424,6 +1444,13 @@ public final class IndexSettings {
         return refreshInterval;
     }
 
+    /**
+     * Returns how long scheduled refreshes of the shards of this index may be deferred. {@code -1} means they are never deferred.
+     */
+    public TimeValue getRefreshVisibilityTarget() {
+        return refreshVisibilityTarget;
+    }
+
     /**
      * Only intended for stateless.
      */
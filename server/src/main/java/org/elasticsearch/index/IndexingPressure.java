@@ -18,6 +18,7 @@ import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.index.stats.IndexingPressureStats;
+import org.elasticsearch.telemetry.metric.MeterRegistry;
 
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -126,8 +127,14 @@ public class IndexingPressure {
     private final long primaryLimit;
     private final long replicaLimit;
     private final long operationLimit;
+    private final ShardBulkSizer shardBulkSizer;
+    private final IndexingStageMetrics stageMetrics;
 
     public IndexingPressure(Settings settings) {
+        this(settings, MeterRegistry.NOOP);
+    }
+
+    public IndexingPressure(Settings settings, MeterRegistry meterRegistry) {
         this.lowWatermark = SPLIT_BULK_LOW_WATERMARK.get(settings).getBytes();
         this.lowWatermarkSize = SPLIT_BULK_LOW_WATERMARK_SIZE.get(settings).getBytes();
         this.highWatermark = SPLIT_BULK_HIGH_WATERMARK.get(settings).getBytes();
@@ -136,6 +143,22 @@ public class IndexingPressure {
         this.primaryLimit = MAX_PRIMARY_BYTES.get(settings).getBytes();
         this.replicaLimit = MAX_REPLICA_BYTES.get(settings).getBytes();
         this.operationLimit = MAX_OPERATION_SIZE.get(settings).getBytes();
+        this.shardBulkSizer = new ShardBulkSizer(settings);
+        this.stageMetrics = new IndexingStageMetrics(meterRegistry);
+    }
+
+    /**
+     * Sizes the shard level requests of the bulk requests that this node coordinates.
+     */
+    public ShardBulkSizer shardBulkSizer() {
+        return shardBulkSizer;
+    }
+
+    /**
+     * Tracks the time that the shard level bulk requests executed on this node spend in each stage on the primary.
+     */
+    public IndexingStageMetrics stageMetrics() {
+        return stageMetrics;
     }
 
     private static Releasable wrapReleasable(Releasable releasable) {
@@ -482,7 +505,8 @@ public class IndexingPressure {
             lowWaterMarkSplits.get(),
             highWaterMarkSplits.get(),
             largeOpsRejections.get(),
-            totalRejectedLargeOpsBytes.get()
+            totalRejectedLargeOpsBytes.get(),
+            stageMetrics.stats()
         );
     }
 }
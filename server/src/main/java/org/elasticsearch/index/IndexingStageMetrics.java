@@ -0,0 +1,114 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index;
+
+import org.elasticsearch.common.network.HandlingTimeTracker;
+import org.elasticsearch.index.stats.IndexingStageStats;
+import org.elasticsearch.telemetry.metric.LongHistogram;
+import org.elasticsearch.telemetry.metric.MeterRegistry;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks where the time goes when this node executes shard level bulk requests on a primary, broken down by {@link Stage}. Each
+ * stage keeps a {@link HandlingTimeTracker} histogram with microsecond buckets that is reported in the node stats, and every recorded
+ * time is also reported to the {@link MeterRegistry}. Recording a time is a couple of uncontended {@link LongAdder} increments.
+ */
+public class IndexingStageMetrics {
+
+    public enum Stage {
+        /** Updating the mapping on the master and waiting for the updated mapping to be applied locally. */
+        MAPPING_UPDATE,
+        /** Parsing the document, and anything else that happens before the operation reaches the engine. */
+        PARSE,
+        /** Adding or updating the document in Lucene. */
+        LUCENE,
+        /** Adding the operation to the translog. */
+        TRANSLOG,
+        /** Replicating the shard level request and running the post write actions once the primary is done with it. */
+        REPLICATION;
+
+        public String displayName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        public String histogramName() {
+            return "es.indexing.primary.stage." + displayName() + ".time.histogram";
+        }
+    }
+
+    public static final IndexingStageMetrics NOOP = new IndexingStageMetrics(MeterRegistry.NOOP) {
+        @Override
+        public void record(Stage stage, long tookNanos) {}
+    };
+
+    private static final int BUCKET_BOUND_COUNT = 25;
+
+    public static int[] getBucketUpperBoundsMicros() {
+        return HandlingTimeTracker.getBucketUpperBounds(BUCKET_BOUND_COUNT);
+    }
+
+    public static final int BUCKET_COUNT = BUCKET_BOUND_COUNT + 1;
+
+    private final Map<Stage, StageTracker> trackers = new EnumMap<>(Stage.class);
+
+    public IndexingStageMetrics(MeterRegistry meterRegistry) {
+        for (Stage stage : Stage.values()) {
+            trackers.put(
+                stage,
+                new StageTracker(
+                    meterRegistry.registerLongHistogram(
+                        stage.histogramName(),
+                        "Time spent in the " + stage.displayName() + " stage of shard level bulk requests on the primary",
+                        "micros"
+                    )
+                )
+            );
+        }
+    }
+
+    /**
+     * Records that an operation spent {@code tookNanos} in the given stage.
+     */
+    public void record(Stage stage, long tookNanos) {
+        trackers.get(stage).record(TimeUnit.NANOSECONDS.toMicros(Math.max(0, tookNanos)));
+    }
+
+    public IndexingStageStats stats() {
+        Map<String, IndexingStageStats.StageStats> stats = new LinkedHashMap<>();
+        trackers.forEach((stage, tracker) -> stats.put(stage.displayName(), tracker.stats()));
+        return new IndexingStageStats(stats);
+    }
+
+    private static class StageTracker {
+        private final HandlingTimeTracker buckets = new HandlingTimeTracker(BUCKET_BOUND_COUNT);
+        private final LongAdder totalMicros = new LongAdder();
+        private final LongHistogram histogram;
+
+        StageTracker(LongHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        void record(long micros) {
+            buckets.addHandlingTime(micros);
+            totalMicros.add(micros);
+            histogram.record(micros);
+        }
+
+        IndexingStageStats.StageStats stats() {
+            return new IndexingStageStats.StageStats(totalMicros.longValue(), buckets.getHistogram());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index;
+
+import org.elasticsearch.common.ExponentiallyWeightedMovingAverage;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.shard.ShardId;
+
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Sizes the shard level requests that this node sends when it coordinates a bulk request. It keeps a moving average of how long
+ * each shard took per item for the shard level requests it sent to it, and caps the number of items in the next shard level
+ * request to that shard so that it should take about {@link #SPLIT_BULK_SHARD_LATENCY_TARGET}. A huge bulk request to a slow
+ * shard is then sent as a sequence of smaller shard level requests instead of a single one that holds the shard's write thread,
+ * and the indexing pressure memory for all of its items, for a long time.
+ */
+public class ShardBulkSizer {
+
+    /**
+     * How long a shard level bulk request should take. {@code -1}, the default, sends all the items for a shard in one request.
+     */
+    public static final Setting<TimeValue> SPLIT_BULK_SHARD_LATENCY_TARGET = Setting.timeSetting(
+        "indexing_pressure.split_bulk.shard_latency_target",
+        TimeValue.MINUS_ONE,
+        TimeValue.MINUS_ONE,
+        Setting.Property.NodeScope
+    );
+
+    /**
+     * The fewest items to send in a shard level bulk request when splitting, so a slow shard isn't flooded with tiny requests.
+     */
+    public static final Setting<Integer> SPLIT_BULK_SHARD_MIN_ITEMS = Setting.intSetting(
+        "indexing_pressure.split_bulk.shard_min_items",
+        100,
+        1,
+        Setting.Property.NodeScope
+    );
+
+    public static final ShardBulkSizer DISABLED = new ShardBulkSizer(Settings.EMPTY);
+
+    static final double ALPHA = 0.3;
+    static final int MAX_TRACKED_SHARDS = 10_000;
+
+    private final long targetNanos;
+    private final int minItems;
+    private final ConcurrentMap<ShardId, ExponentiallyWeightedMovingAverage> nanosPerItem = ConcurrentCollections.newConcurrentMap();
+
+    public ShardBulkSizer(Settings settings) {
+        this.targetNanos = SPLIT_BULK_SHARD_LATENCY_TARGET.get(settings).nanos();
+        this.minItems = SPLIT_BULK_SHARD_MIN_ITEMS.get(settings);
+    }
+
+    public boolean isEnabled() {
+        return targetNanos >= 0;
+    }
+
+    /**
+     * The most items to put in a single shard level request to the given shard. {@link Integer#MAX_VALUE} if the requests to the
+     * shard shouldn't be split, either because splitting is disabled or because we haven't sent a request to the shard yet.
+     */
+    public int maxItemsPerRequest(ShardId shardId) {
+        if (isEnabled() == false) {
+            return Integer.MAX_VALUE;
+        }
+        ExponentiallyWeightedMovingAverage average = nanosPerItem.get(shardId);
+        if (average == null || average.getAverage() <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        long items = (long) (targetNanos / average.getAverage());
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(minItems, items));
+    }
+
+    /**
+     * Records that a shard level request with {@code items} items to the given shard took {@code tookNanos} to complete.
+     */
+    public void onRequestCompleted(ShardId shardId, int items, long tookNanos) {
+        if (isEnabled() == false || items == 0) {
+            return;
+        }
+        double perItem = (double) Math.max(0, tookNanos) / items;
+        ExponentiallyWeightedMovingAverage average = nanosPerItem.get(shardId);
+        if (average == null) {
+            if (nanosPerItem.size() >= MAX_TRACKED_SHARDS) {
+                // forget the shards that moved away or were deleted, the ones we still write to come back with their next request
+                nanosPerItem.clear();
+            }
+            average = nanosPerItem.putIfAbsent(shardId, new ExponentiallyWeightedMovingAverage(ALPHA, perItem));
+            if (average == null) {
+                return;
+            }
+        }
+        average.addValue(perItem);
+    }
+
+    int trackedShards() {
+        return nanosPerItem.size();
+    }
+}
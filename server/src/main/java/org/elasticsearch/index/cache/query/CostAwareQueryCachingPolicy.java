@@ -0,0 +1,304 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.cache.query;
+
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.FieldExistsQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.MultiTermQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryCachingPolicy;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.UsageTrackingQueryCachingPolicy;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link QueryCachingPolicy} that takes into account what caching a filter has cost so far. Like
+ * {@link UsageTrackingQueryCachingPolicy}, filters are only admitted once they have been used a number of times, but usage is tracked
+ * in a TinyLFU-style frequency sketch that ages over time rather than in a ring buffer of recently used filters, and the number of
+ * uses that is required depends on the shape (the class) of the query: shapes that turned out to be expensive to build per byte of
+ * cached {@link org.apache.lucene.search.DocIdSet} are admitted earlier, while shapes that are cheap to build or whose cached entries
+ * are rarely reused need more uses. Build times, sizes of the built doc id sets, hits and misses are reported by
+ * {@link org.elasticsearch.indices.IndicesQueryCache}.
+ */
+public final class CostAwareQueryCachingPolicy implements QueryCachingPolicy {
+
+    /** Number of cached entries of a shape that must have been built before we trust its measured cost. */
+    static final int MIN_BUILDS = 16;
+    /** Below this many nanoseconds per KiB of cached doc id set, building a filter is considered cheap. */
+    static final long CHEAP_BUILD_NANOS_PER_KB = 2_000L;
+    /** Above this many nanoseconds per KiB of cached doc id set, building a filter is considered expensive. */
+    static final long EXPENSIVE_BUILD_NANOS_PER_KB = 50_000L;
+
+    /** The sketch never gets narrower than this, even for tiny caches. */
+    static final int MIN_SKETCH_WIDTH = 256;
+    /** Nor wider than this, which would cost memory per shard for little gain on nodes configured with very large caches. */
+    static final int MAX_SKETCH_WIDTH = 1 << 16;
+
+    private final FrequencySketch sketch;
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxCachedFilters the maximum number of filters that the query cache holds, used to size the frequency sketch
+     */
+    public CostAwareQueryCachingPolicy(int maxCachedFilters) {
+        this.sketch = new FrequencySketch(sketchWidth(maxCachedFilters));
+    }
+
+    static int sketchWidth(int maxCachedFilters) {
+        final int width = Math.max(MIN_SKETCH_WIDTH, Math.min(MAX_SKETCH_WIDTH, maxCachedFilters));
+        return Integer.highestOneBit(width - 1) << 1;
+    }
+
+    @Override
+    public void onUse(Query query) {
+        if (shouldNeverCache(query)) {
+            return;
+        }
+        synchronized (sketch) {
+            sketch.increment(query.hashCode());
+        }
+    }
+
+    @Override
+    public boolean shouldCache(Query query) {
+        if (shouldNeverCache(query)) {
+            return false;
+        }
+        final int frequency;
+        synchronized (sketch) {
+            frequency = sketch.frequency(query.hashCode());
+        }
+        return frequency >= minFrequencyToCache(query);
+    }
+
+    /**
+     * Called when the cached doc id set of a filter was found for a segment.
+     */
+    public void onHit(Query query) {
+        shapeStats(query).hitCount.increment();
+    }
+
+    /**
+     * Called when no cached doc id set of a filter was found for a segment.
+     */
+    public void onMiss(Query query) {
+        shapeStats(query).missCount.increment();
+    }
+
+    /**
+     * Called when the doc id set of a filter was built for a segment and added to the cache.
+     */
+    public void onCache(Query query, long buildTimeInNanos, long ramBytesUsed) {
+        final ShapeStats stats = shapeStats(query);
+        stats.cacheCount.increment();
+        stats.buildTimeInNanos.add(buildTimeInNanos);
+        stats.builtBytes.add(ramBytesUsed);
+    }
+
+    /**
+     * Usage statistics per query shape, sorted by shape.
+     */
+    public Map<String, QueryCacheShapeStats> shapeStats() {
+        final Map<String, QueryCacheShapeStats> result = new TreeMap<>();
+        for (Map.Entry<String, ShapeStats> entry : shapes.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().toQueryCacheShapeStats());
+        }
+        return result;
+    }
+
+    int minFrequencyToCache(Query query) {
+        final int minFrequency = baseMinFrequencyToCache(query);
+        final ShapeStats stats = shapes.get(shape(query));
+        if (stats == null) {
+            return minFrequency;
+        }
+        final long cacheCount = stats.cacheCount.sum();
+        if (cacheCount < MIN_BUILDS) {
+            return minFrequency;
+        }
+        final long buildNanosPerKb = stats.buildTimeInNanos.sum() / Math.max(1L, stats.builtBytes.sum() / 1024);
+        if (buildNanosPerKb >= EXPENSIVE_BUILD_NANOS_PER_KB) {
+            // never admit on first use, a filter that is not reused is not worth caching however expensive it is
+            return Math.max(2, minFrequency / 2);
+        }
+        if (buildNanosPerKb <= CHEAP_BUILD_NANOS_PER_KB || stats.hitCount.sum() < cacheCount) {
+            return Math.min(FrequencySketch.MAX_COUNT, minFrequency * 2);
+        }
+        return minFrequency;
+    }
+
+    private static int baseMinFrequencyToCache(Query query) {
+        // same defaults as UsageTrackingQueryCachingPolicy
+        if (isCostly(query)) {
+            return 2;
+        } else if (query instanceof BooleanQuery || query instanceof DisjunctionMaxQuery) {
+            return 4;
+        } else {
+            return 5;
+        }
+    }
+
+    private static boolean isCostly(Query query) {
+        if (query instanceof MultiTermQuery) {
+            return true;
+        }
+        for (Class<?> clazz = query.getClass(); clazz != Query.class; clazz = clazz.getSuperclass()) {
+            final String name = clazz.getSimpleName();
+            if (name.startsWith("Point") || name.startsWith("LatLon") || name.startsWith("XY") || name.contains("Shape")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean shouldNeverCache(Query query) {
+        if (query instanceof TermQuery || query instanceof FieldExistsQuery) {
+            // cheap to evaluate from the index directly
+            return true;
+        }
+        if (query instanceof MatchAllDocsQuery || query instanceof MatchNoDocsQuery) {
+            return true;
+        }
+        if (query instanceof BooleanQuery bq && bq.clauses().isEmpty()) {
+            return true;
+        }
+        return query instanceof DisjunctionMaxQuery dmq && dmq.getDisjuncts().isEmpty();
+    }
+
+    static String shape(Query query) {
+        final Class<?> clazz = query.getClass();
+        final String name = clazz.getSimpleName();
+        return name.isEmpty() ? clazz.getName() : name;
+    }
+
+    private ShapeStats shapeStats(Query query) {
+        return shapes.computeIfAbsent(shape(query), k -> new ShapeStats());
+    }
+
+    private static class ShapeStats {
+        final LongAdder hitCount = new LongAdder();
+        final LongAdder missCount = new LongAdder();
+        final LongAdder cacheCount = new LongAdder();
+        final LongAdder buildTimeInNanos = new LongAdder();
+        final LongAdder builtBytes = new LongAdder();
+
+        QueryCacheShapeStats toQueryCacheShapeStats() {
+            return new QueryCacheShapeStats(
+                hitCount.sum(),
+                missCount.sum(),
+                cacheCount.sum(),
+                buildTimeInNanos.sum(),
+                builtBytes.sum()
+            );
+        }
+    }
+
+    /**
+     * A count-min sketch of 4-bit counters in front of which sits a doorkeeper, a bloom filter that absorbs the first use of every
+     * filter so that the many filters that are only ever used once do not pollute the counters. Every {@code width} uses, all counters
+     * are halved and the doorkeeper is cleared so that filters that used to be popular eventually make room for new ones. Aging that
+     * often also bounds how full the counters get: with at most {@code width} increments between two resets, the count of a filter
+     * that has never been seen is almost always zero even after many distinct filters went through the sketch.
+     */
+    static final class FrequencySketch {
+
+        static final int MAX_COUNT = 15;
+        private static final int DEPTH = 4;
+        private static final int[] SEEDS = { 0x97cb3127, 0x5c9d8e5f, 0x2a6b37c1, 0xe3779b97 };
+        /** Bits of the doorkeeper per counter of a row of the sketch, which keeps its false positive rate around 5%. */
+        private static final int DOORKEEPER_BITS_PER_WIDTH = 8;
+
+        private final int width;
+        private final byte[] counters;
+        private final long[] doorkeeper;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int width) {
+            assert Integer.bitCount(width) == 1 : "width must be a power of two but was " + width;
+            assert width >= Long.SIZE : "width must be at least " + Long.SIZE + " but was " + width;
+            this.width = width;
+            this.counters = new byte[DEPTH * width];
+            this.doorkeeper = new long[width * DOORKEEPER_BITS_PER_WIDTH / Long.SIZE];
+            this.sampleSize = width;
+        }
+
+        void increment(int hash) {
+            if (admitToDoorkeeper(hash)) {
+                for (int i = 0; i < DEPTH; i++) {
+                    final int index = index(hash, i);
+                    if (counters[index] < MAX_COUNT) {
+                        counters[index]++;
+                    }
+                }
+            }
+            if (++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(int hash) {
+            int frequency = MAX_COUNT;
+            for (int i = 0; i < DEPTH; i++) {
+                frequency = Math.min(frequency, counters[index(hash, i)]);
+            }
+            // the doorkeeper holds the first use since the last reset
+            return inDoorkeeper(hash) ? Math.min(MAX_COUNT, frequency + 1) : frequency;
+        }
+
+        /**
+         * Adds the hash to the doorkeeper, returns {@code true} if it was already there and its counters should be incremented.
+         */
+        private boolean admitToDoorkeeper(int hash) {
+            final long first = doorkeeperBit(hash, 0);
+            final long second = doorkeeperBit(hash, 1);
+            final boolean present = isSet(first) && isSet(second);
+            doorkeeper[(int) (first >>> 6)] |= 1L << first;
+            doorkeeper[(int) (second >>> 6)] |= 1L << second;
+            return present;
+        }
+
+        private boolean inDoorkeeper(int hash) {
+            return isSet(doorkeeperBit(hash, 0)) && isSet(doorkeeperBit(hash, 1));
+        }
+
+        private boolean isSet(long bit) {
+            return (doorkeeper[(int) (bit >>> 6)] & (1L << bit)) != 0;
+        }
+
+        private long doorkeeperBit(int hash, int i) {
+            int h = (hash ^ SEEDS[DEPTH - 1 - i]) * 0x85ebca6b;
+            h ^= h >>> 13;
+            return h & ((long) doorkeeper.length * Long.SIZE - 1);
+        }
+
+        private void reset() {
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] >>>= 1;
+            }
+            Arrays.fill(doorkeeper, 0L);
+            additions = 0;
+        }
+
+        private int index(int hash, int row) {
+            int h = (hash ^ SEEDS[row]) * 0x9e3779b9;
+            h ^= h >>> 16;
+            return row * width + (h & (width - 1));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.cache.query;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.xcontent.ToXContentObject;
+import org.elasticsearch.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Query cache usage of the filters of a single query shape, as tracked by {@link CostAwareQueryCachingPolicy}.
+ */
+public class QueryCacheShapeStats implements Writeable, ToXContentObject {
+
+    private long hitCount;
+    private long missCount;
+    private long cacheCount;
+    private long buildTimeInNanos;
+    private long builtBytes;
+
+    public QueryCacheShapeStats(long hitCount, long missCount, long cacheCount, long buildTimeInNanos, long builtBytes) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.cacheCount = cacheCount;
+        this.buildTimeInNanos = buildTimeInNanos;
+        this.builtBytes = builtBytes;
+    }
+
+    public QueryCacheShapeStats(StreamInput in) throws IOException {
+        hitCount = in.readVLong();
+        missCount = in.readVLong();
+        cacheCount = in.readVLong();
+        buildTimeInNanos = in.readVLong();
+        builtBytes = in.readVLong();
+    }
+
+    public void add(QueryCacheShapeStats stats) {
+        hitCount += stats.hitCount;
+        missCount += stats.missCount;
+        cacheCount += stats.cacheCount;
+        buildTimeInNanos += stats.buildTimeInNanos;
+        builtBytes += stats.builtBytes;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * The number of doc id sets of this shape that have been built and cached.
+     */
+    public long getCacheCount() {
+        return cacheCount;
+    }
+
+    /**
+     * The total time spent building the doc id sets that have been cached.
+     */
+    public TimeValue getBuildTime() {
+        return TimeValue.timeValueNanos(buildTimeInNanos);
+    }
+
+    /**
+     * The total size of the doc id sets that have been built and cached. This is a cumulative count that includes the ones that have
+     * since been evicted, it is not the amount of memory that the cache currently uses for this shape.
+     */
+    public ByteSizeValue getBuiltSize() {
+        return ByteSizeValue.ofBytes(builtBytes);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(hitCount);
+        out.writeVLong(missCount);
+        out.writeVLong(cacheCount);
+        out.writeVLong(buildTimeInNanos);
+        out.writeVLong(builtBytes);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject();
+        builder.field("hit_count", hitCount);
+        builder.field("miss_count", missCount);
+        builder.field("cache_count", cacheCount);
+        builder.humanReadableField("build_time_in_millis", "build_time", getBuildTime());
+        builder.humanReadableField("built_size_in_bytes", "built_size", getBuiltSize());
+        builder.endObject();
+        return builder;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        QueryCacheShapeStats that = (QueryCacheShapeStats) o;
+        return hitCount == that.hitCount
+            && missCount == that.missCount
+            && cacheCount == that.cacheCount
+            && buildTimeInNanos == that.buildTimeInNanos
+            && builtBytes == that.builtBytes;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(hitCount, missCount, cacheCount, buildTimeInNanos, builtBytes);
+    }
+}
@@ -10,6 +10,7 @@
 package org.elasticsearch.index.cache.query;
 
 import org.apache.lucene.search.DocIdSet;
+import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -19,7 +20,10 @@ import org.elasticsearch.xcontent.ToXContentFragment;
 import org.elasticsearch.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 
 public class QueryCacheStats implements Writeable, ToXContentFragment {
 
@@ -28,6 +32,7 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
     private long missCount;
     private long cacheCount;
     private long cacheSize;
+    private Map<String, QueryCacheShapeStats> shapeStats = Map.of();
 
     public QueryCacheStats() {}
 
@@ -37,6 +42,9 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
         missCount = in.readLong();
         cacheCount = in.readLong();
         cacheSize = in.readLong();
+        if (in.getTransportVersion().onOrAfter(TransportVersions.QUERY_CACHE_SHAPE_STATS)) {
+            shapeStats = in.readImmutableMap(QueryCacheShapeStats::new);
+        }
     }
 
     public QueryCacheStats(long ramBytesUsed, long hitCount, long missCount, long cacheCount, long cacheSize) {
@@ -56,6 +64,21 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
         missCount += stats.missCount;
         cacheCount += stats.cacheCount;
         cacheSize += stats.cacheSize;
+        addShapeStats(stats.shapeStats);
+    }
+
+    public void addShapeStats(Map<String, QueryCacheShapeStats> stats) {
+        if (stats.isEmpty()) {
+            return;
+        }
+        // copy rather than mutate the entries, they may be shared with the stats we got them from
+        final Map<String, QueryCacheShapeStats> merged = new TreeMap<>();
+        for (Map<String, QueryCacheShapeStats> source : List.of(shapeStats, stats)) {
+            for (Map.Entry<String, QueryCacheShapeStats> entry : source.entrySet()) {
+                merged.computeIfAbsent(entry.getKey(), k -> new QueryCacheShapeStats(0, 0, 0, 0, 0)).add(entry.getValue());
+            }
+        }
+        shapeStats = merged;
     }
 
     public void addRamBytesUsed(long additionalRamBytesUsed) {
@@ -112,6 +135,13 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
         return cacheCount - cacheSize;
     }
 
+    /**
+     * Usage of the cache per query shape, only tracked by shards that use the {@link CostAwareQueryCachingPolicy}.
+     */
+    public Map<String, QueryCacheShapeStats> getShapeStats() {
+        return shapeStats;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeLong(ramBytesUsed);
@@ -119,6 +149,9 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
         out.writeLong(missCount);
         out.writeLong(cacheCount);
         out.writeLong(cacheSize);
+        if (out.getTransportVersion().onOrAfter(TransportVersions.QUERY_CACHE_SHAPE_STATS)) {
+            out.writeMap(shapeStats, StreamOutput::writeWriteable);
+        }
     }
 
     @Override
@@ -130,12 +163,13 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
             && hitCount == that.hitCount
             && missCount == that.missCount
             && cacheCount == that.cacheCount
-            && cacheSize == that.cacheSize;
+            && cacheSize == that.cacheSize
+            && shapeStats.equals(that.shapeStats);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(ramBytesUsed, hitCount, missCount, cacheCount, cacheSize);
+        return Objects.hash(ramBytesUsed, hitCount, missCount, cacheCount, cacheSize, shapeStats);
     }
 
     @Override
@@ -148,6 +182,13 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
         builder.field(Fields.CACHE_SIZE, getCacheSize());
         builder.field(Fields.CACHE_COUNT, getCacheCount());
         builder.field(Fields.EVICTIONS, getEvictions());
+        if (shapeStats.isEmpty() == false) {
+            builder.startObject(Fields.SHAPES);
+            for (Map.Entry<String, QueryCacheShapeStats> entry : new TreeMap<>(shapeStats).entrySet()) {
+                builder.field(entry.getKey(), entry.getValue());
+            }
+            builder.endObject();
+        }
         builder.endObject();
         return builder;
     }
@@ -162,6 +203,7 @@ public class QueryCacheStats implements Writeable, ToXContentFragment {
         static final String CACHE_SIZE = "cache_size";
         static final String CACHE_COUNT = "cache_count";
         static final String EVICTIONS = "evictions";
+        static final String SHAPES = "shapes";
     }
 
 }
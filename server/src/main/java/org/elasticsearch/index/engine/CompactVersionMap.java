@@ -0,0 +1,294 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.engine;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.ByteArray;
+import org.elasticsearch.common.util.BytesRefHash;
+import org.elasticsearch.common.util.IntArray;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.index.translog.Translog;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A map from _uid to {@link VersionValue} for the {@link LiveVersionMap} that keeps its entries in a few large, paged primitive
+ * arrays instead of a map entry, a {@link BytesRef}, a {@code byte[]}, a {@link VersionValue} and a {@link Translog.Location}
+ * per document. The keys live in a {@link BytesRefHash} and the values in fixed width columns indexed by the key's id in that hash.
+ * That is a fraction of the memory and, more importantly for update heavy indices with long refresh intervals, a handful of
+ * objects for the garbage collector to trace rather than several per indexed document.
+ * <p>
+ * The map is split into segments that each have their own {@link StampedLock}. Writes take the write lock. Reads don't lock at
+ * all unless they race with a write to the same segment, see {@link Segment#get}. Keys are never removed from a segment's hash,
+ * removing a key only marks its slot as empty, so the memory is only reclaimed when the whole map is dropped. The
+ * {@link LiveVersionMap} does that on every refresh. The arrays come from {@link BigArrays#NON_RECYCLING_INSTANCE} so dropping
+ * the map is enough to free them.
+ * <p>
+ * {@link #ramBytesUsed} only counts the slots that keys occupy, not the capacity the map was created with or has grown to, so a map
+ * that's presized for the next refresh doesn't look full before anything is written to it.
+ * <p>
+ * Every read materializes a new {@link VersionValue} and the entry set is a point in time copy.
+ */
+final class CompactVersionMap extends AbstractMap<BytesRef, VersionValue> implements Accountable {
+    private static final long SHALLOW_SIZE = RamUsageEstimator.shallowSizeOfInstance(CompactVersionMap.class);
+    private static final int SEGMENT_BITS = 4;
+
+    private static final byte ABSENT = 0;
+    private static final byte INDEX = 1;
+    private static final byte INDEX_WITH_LOCATION = 2;
+    private static final byte DELETE = 3;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+    private final AtomicLong ramBytesUsed = new AtomicLong(
+        SHALLOW_SIZE + RamUsageEstimator.shallowSizeOf(segments) + Segment.SHALLOW_SIZE * segments.length
+    );
+
+    CompactVersionMap(int expectedSize) {
+        int segmentCapacity = Math.max(16, expectedSize >> SEGMENT_BITS);
+        for (int s = 0; s < segments.length; s++) {
+            segments[s] = new Segment(segmentCapacity, ramBytesUsed);
+        }
+    }
+
+    private Segment segment(int code) {
+        return segments[code >>> (Integer.SIZE - SEGMENT_BITS)];
+    }
+
+    @Override
+    public VersionValue get(Object key) {
+        if (key instanceof BytesRef uid) {
+            return segment(uid.hashCode()).get(uid);
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public VersionValue put(BytesRef key, VersionValue value) {
+        int code = key.hashCode();
+        return segment(code).put(key, code, value);
+    }
+
+    @Override
+    public VersionValue remove(Object key) {
+        if (key instanceof BytesRef uid) {
+            int code = uid.hashCode();
+            return segment(code).remove(uid, code);
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Entry<BytesRef, VersionValue>> entrySet() {
+        Map<BytesRef, VersionValue> copy = new HashMap<>();
+        for (Segment segment : segments) {
+            segment.copyTo(copy);
+        }
+        return Collections.unmodifiableSet(copy.entrySet());
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        return ramBytesUsed.get();
+    }
+
+    private static final class Segment {
+        private static final long SHALLOW_SIZE = RamUsageEstimator.shallowSizeOfInstance(Segment.class)
+            + RamUsageEstimator.shallowSizeOfInstance(BytesRefHash.class) + RamUsageEstimator.shallowSizeOfInstance(StampedLock.class);
+        /**
+         * The bytes each key occupies in the columns and in the hash, besides the key itself. The hash keeps its table at most
+         * 60% full so each key accounts for a little under two of its slots.
+         */
+        private static final long BYTES_PER_ENTRY = Byte.BYTES + 5 * Long.BYTES + Integer.BYTES // the columns
+            + 2 * Long.BYTES + Integer.BYTES + Long.BYTES; // the hash's table, cached hash, and offset of the key bytes
+
+        private final BigArrays bigArrays = BigArrays.NON_RECYCLING_INSTANCE;
+        private final StampedLock lock = new StampedLock();
+        private final AtomicLong mapRamBytesUsed;
+        private final BytesRefHash keys;
+        private ByteArray kinds;
+        private LongArray versions;
+        private LongArray seqNos;
+        private LongArray terms;
+        /** The translog generation for index operations, the timestamp for deletes. */
+        private LongArray generationsOrTimes;
+        private LongArray translogLocations;
+        private IntArray sizes;
+        private volatile int size;
+
+        Segment(int capacity, AtomicLong mapRamBytesUsed) {
+            this.mapRamBytesUsed = mapRamBytesUsed;
+            keys = new BytesRefHash(capacity, bigArrays);
+            kinds = bigArrays.newByteArray(capacity, false);
+            versions = bigArrays.newLongArray(capacity, false);
+            seqNos = bigArrays.newLongArray(capacity, false);
+            terms = bigArrays.newLongArray(capacity, false);
+            generationsOrTimes = bigArrays.newLongArray(capacity, false);
+            translogLocations = bigArrays.newLongArray(capacity, false);
+            sizes = bigArrays.newIntArray(capacity, false);
+        }
+
+        /**
+         * Reads without locking and then checks that no write to this segment started in the meantime. A read that races with a
+         * write may see the hash and the columns half updated, in the middle of growing even, so it may return garbage or throw.
+         * Either way the check fails and the read is retried under the read lock. Each read finds its key with its own
+         * {@link BytesRefHash.Finder} so concurrent reads don't share any scratch state.
+         */
+        VersionValue get(BytesRef key) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                try {
+                    VersionValue value = find(key);
+                    if (lock.validate(stamp)) {
+                        return value;
+                    }
+                } catch (RuntimeException e) {
+                    if (lock.validate(stamp)) {
+                        throw e;
+                    }
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return find(key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private VersionValue find(BytesRef key) {
+            long id = keys.newFinder().find(key);
+            return id < 0 ? null : read(id);
+        }
+
+        VersionValue put(BytesRef key, int code, VersionValue value) {
+            long stamp = lock.writeLock();
+            try {
+                long id = keys.add(key, code);
+                VersionValue previous = null;
+                if (id < 0) {
+                    id = -1 - id;
+                    previous = read(id);
+                } else {
+                    grow(id + 1);
+                    mapRamBytesUsed.addAndGet(key.length + BYTES_PER_ENTRY);
+                }
+                if (previous == null) {
+                    size++;
+                }
+                write(id, value);
+                return previous;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        VersionValue remove(BytesRef key, int code) {
+            long stamp = lock.writeLock();
+            try {
+                long id = keys.find(key, code);
+                if (id < 0) {
+                    return null;
+                }
+                VersionValue previous = read(id);
+                if (previous != null) {
+                    kinds.set(id, ABSENT);
+                    size--;
+                }
+                return previous;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void copyTo(Map<BytesRef, VersionValue> copy) {
+            BytesRef scratch = new BytesRef();
+            long stamp = lock.readLock();
+            try {
+                for (long id = 0; id < keys.size(); id++) {
+                    VersionValue value = read(id);
+                    if (value != null) {
+                        copy.put(BytesRef.deepCopyOf(keys.get(id, scratch)), value);
+                    }
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void grow(long minSize) {
+            kinds = bigArrays.grow(kinds, minSize);
+            versions = bigArrays.grow(versions, minSize);
+            seqNos = bigArrays.grow(seqNos, minSize);
+            terms = bigArrays.grow(terms, minSize);
+            generationsOrTimes = bigArrays.grow(generationsOrTimes, minSize);
+            translogLocations = bigArrays.grow(translogLocations, minSize);
+            sizes = bigArrays.grow(sizes, minSize);
+        }
+
+        private VersionValue read(long id) {
+            return switch (kinds.get(id)) {
+                case ABSENT -> null;
+                case INDEX -> new IndexVersionValue(null, versions.get(id), seqNos.get(id), terms.get(id));
+                case INDEX_WITH_LOCATION -> new IndexVersionValue(
+                    new Translog.Location(generationsOrTimes.get(id), translogLocations.get(id), sizes.get(id)),
+                    versions.get(id),
+                    seqNos.get(id),
+                    terms.get(id)
+                );
+                case DELETE -> new DeleteVersionValue(versions.get(id), seqNos.get(id), terms.get(id), generationsOrTimes.get(id));
+                default -> throw new IllegalStateException("unknown version value kind [" + kinds.get(id) + "]");
+            };
+        }
+
+        private void write(long id, VersionValue value) {
+            versions.set(id, value.version);
+            seqNos.set(id, value.seqNo);
+            terms.set(id, value.term);
+            if (value instanceof DeleteVersionValue delete) {
+                generationsOrTimes.set(id, delete.time);
+                kinds.set(id, DELETE);
+                return;
+            }
+            assert value instanceof IndexVersionValue : "unexpected version value " + value;
+            Translog.Location location = value.getLocation();
+            if (location == null) {
+                kinds.set(id, INDEX);
+            } else {
+                generationsOrTimes.set(id, location.generation());
+                translogLocations.set(id, location.translogLocation());
+                sizes.set(id, location.size());
+                kinds.set(id, INDEX_WITH_LOCATION);
+            }
+        }
+    }
+}
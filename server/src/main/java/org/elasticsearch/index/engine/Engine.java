@@ -654,6 +654,12 @@ public abstract class Engine implements Closeable {
             }
         }
 
+        void ensureNotFrozen() {
+            if (freeze.get() != null) {
+                throw new IllegalStateException("result is already frozen");
+            }
+        }
+
         void freeze() {
             freeze.set(true);
         }
@@ -668,6 +674,9 @@ public abstract class Engine implements Closeable {
     public static class IndexResult extends Result {
 
         private final boolean created;
+        private long parseTook;
+        private long luceneTook;
+        private long translogTook;
 
         public IndexResult(long version, long term, long seqNo, boolean created, String id) {
             super(Operation.TYPE.INDEX, version, term, seqNo, id);
@@ -694,6 +703,28 @@ public abstract class Engine implements Closeable {
         public boolean isCreated() {
             return created;
         }
+
+        /** get the time in nanoseconds between the start of the operation and it reaching the engine, mostly spent parsing */
+        public long getParseTook() {
+            return parseTook;
+        }
+
+        /** get the time in nanoseconds spent adding the document to Lucene */
+        public long getLuceneTook() {
+            return luceneTook;
+        }
+
+        /** get the time in nanoseconds spent adding the operation to the translog */
+        public long getTranslogTook() {
+            return translogTook;
+        }
+
+        void setStageTook(long parseTook, long luceneTook, long translogTook) {
+            ensureNotFrozen();
+            this.parseTook = parseTook;
+            this.luceneTook = luceneTook;
+            this.translogTook = translogTook;
+        }
     }
 
     public static class DeleteResult extends Result {
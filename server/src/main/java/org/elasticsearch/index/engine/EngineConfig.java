@@ -121,6 +121,17 @@ public final class EngineConfig {
         }
     }, Property.IndexScope, Property.NodeScope, Property.ServerlessPublic);
 
+    /**
+     * Keeps the live version map in a few paged primitive arrays instead of several objects per document. That takes much
+     * less heap and leaves much less for the garbage collector to trace when indices with custom ids see heavy updates between
+     * refreshes, at the cost of a little more work per version lookup.
+     */
+    public static final Setting<Boolean> INDEX_COMPACT_VERSION_MAP_SETTING = Setting.boolSetting(
+        "index.engine.compact_version_map",
+        false,
+        Property.IndexScope
+    );
+
     // don't convert to Setting<> and register... we only set this in tests and register via a test plugin
     public static final String USE_COMPOUND_FILE = "index.use_compound_file";
 
@@ -146,6 +157,8 @@ public final class EngineConfig {
 
     private final boolean promotableToPrimary;
 
+    private final boolean compactVersionMap;
+
     /**
      * Creates a new {@link org.elasticsearch.index.engine.EngineConfig}
      */
@@ -191,6 +204,7 @@ public final class EngineConfig {
         this.codecProvider = codecProvider;
         this.eventListener = eventListener;
         this.codecName = indexSettings.getValue(INDEX_CODEC_SETTING);
+        this.compactVersionMap = indexSettings.getValue(INDEX_COMPACT_VERSION_MAP_SETTING);
         this.mapperService = mapperService;
         // We need to make the indexing buffer for this shard at least as large
         // as the amount of memory that is available for all engines on the
@@ -458,6 +472,13 @@ public final class EngineConfig {
         return promotableToPrimary;
     }
 
+    /**
+     * Whether the engine should keep its live version map in a {@link CompactVersionMap}.
+     */
+    public boolean isCompactVersionMap() {
+        return compactVersionMap;
+    }
+
     /**
      * @return whether the Engine's index writer should pack newly written segments in a compound file. Default is true.
      */
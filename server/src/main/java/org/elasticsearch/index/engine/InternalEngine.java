@@ -101,6 +101,7 @@ import org.elasticsearch.index.translog.TranslogConfig;
 import org.elasticsearch.index.translog.TranslogCorruptedException;
 import org.elasticsearch.index.translog.TranslogDeletionPolicy;
 import org.elasticsearch.index.translog.TranslogStats;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.indices.recovery.RecoverySettings;
 import org.elasticsearch.search.suggest.completion.CompletionStats;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -194,6 +195,9 @@ public class InternalEngine extends Engine {
     private final LastRefreshedCheckpointListener lastRefreshedCheckpointListener;
     private final FlushListeners flushListener;
     private final AsyncIOProcessor<Tuple<Long, Translog.Location>> translogSyncProcessor;
+    @Nullable
+    private final TranslogSyncCoordinator.Group translogSyncGroup;
+    private final TranslogSyncCoordinator.SyncTarget translogSyncTarget = this::syncTranslogUpTo;
 
     private final CompletionStatsCache completionStatsCache;
 
@@ -243,7 +247,7 @@ public class InternalEngine extends Engine {
         this.relativeTimeInNanosSupplier = config().getRelativeTimeInNanosSupplier();
         this.lastFlushTimestamp = relativeTimeInNanosSupplier.getAsLong(); // default to creation timestamp
         this.liveVersionMapArchive = createLiveVersionMapArchive();
-        this.versionMap = new LiveVersionMap(liveVersionMapArchive);
+        this.versionMap = new LiveVersionMap(liveVersionMapArchive, engineConfig.isCompactVersionMap());
         final TranslogDeletionPolicy translogDeletionPolicy = new TranslogDeletionPolicy();
         store.incRef();
         IndexWriter writer = null;
@@ -335,6 +339,7 @@ public class InternalEngine extends Engine {
             this.externalReaderManager.addListener(completionStatsCache);
             this.flushListener = new FlushListeners(logger, engineConfig.getThreadPool().getThreadContext());
             this.translogSyncProcessor = createTranslogSyncProcessor(logger, engineConfig.getThreadPool().getThreadContext());
+            this.translogSyncGroup = engineConfig.getTranslogConfig().getSyncGroup();
             success = true;
         } finally {
             if (success == false) {
@@ -691,41 +696,53 @@ public class InternalEngine extends Engine {
         return new AsyncIOProcessor<>(logger, 1024, threadContext) {
             @Override
             protected void write(List<Tuple<Tuple<Long, Translog.Location>, Consumer<Exception>>> candidates) throws IOException {
-                try {
-                    Translog.Location location = Translog.Location.EMPTY;
-                    long processGlobalCheckpoint = SequenceNumbers.UNASSIGNED_SEQ_NO;
-                    for (Tuple<Tuple<Long, Translog.Location>, Consumer<Exception>> syncMarkers : candidates) {
-                        Tuple<Long, Translog.Location> marker = syncMarkers.v1();
-                        long globalCheckpointToSync = marker.v1();
-                        if (globalCheckpointToSync != SequenceNumbers.UNASSIGNED_SEQ_NO) {
-                            processGlobalCheckpoint = SequenceNumbers.max(processGlobalCheckpoint, globalCheckpointToSync);
-                        }
-                        location = location.compareTo(marker.v2()) >= 0 ? location : marker.v2();
-                    }
-
-                    final boolean synced = translog.ensureSynced(location, processGlobalCheckpoint);
-                    if (synced) {
-                        revisitIndexDeletionPolicyOnTranslogSynced();
+                Translog.Location location = Translog.Location.EMPTY;
+                long processGlobalCheckpoint = SequenceNumbers.UNASSIGNED_SEQ_NO;
+                for (Tuple<Tuple<Long, Translog.Location>, Consumer<Exception>> syncMarkers : candidates) {
+                    Tuple<Long, Translog.Location> marker = syncMarkers.v1();
+                    long globalCheckpointToSync = marker.v1();
+                    if (globalCheckpointToSync != SequenceNumbers.UNASSIGNED_SEQ_NO) {
+                        processGlobalCheckpoint = SequenceNumbers.max(processGlobalCheckpoint, globalCheckpointToSync);
                     }
-                } catch (AlreadyClosedException ex) {
-                    // that's fine since we already synced everything on engine close - this also is conform with the methods
-                    // documentation
-                } catch (IOException ex) { // if this fails we are in deep shit - fail the request
-                    logger.debug("failed to sync translog", ex);
-                    throw ex;
+                    location = location.compareTo(marker.v2()) >= 0 ? location : marker.v2();
                 }
+                syncTranslogUpTo(location, processGlobalCheckpoint);
             }
         };
     }
 
+    private void syncTranslogUpTo(Translog.Location location, long globalCheckpoint) throws IOException {
+        try {
+            final boolean synced = translog.ensureSynced(location, globalCheckpoint);
+            if (synced) {
+                revisitIndexDeletionPolicyOnTranslogSynced();
+            }
+        } catch (AlreadyClosedException ex) {
+            // that's fine since we already synced everything on engine close - this also is conform with the methods
+            // documentation
+        } catch (IOException ex) { // if this fails we are in deep shit - fail the request
+            logger.debug("failed to sync translog", ex);
+            throw ex;
+        }
+    }
+
     @Override
     public void asyncEnsureTranslogSynced(Translog.Location location, Consumer<Exception> listener) {
-        translogSyncProcessor.put(new Tuple<>(SequenceNumbers.NO_OPS_PERFORMED, location), listener);
+        asyncSyncTranslog(SequenceNumbers.NO_OPS_PERFORMED, location, listener);
     }
 
     @Override
     public void asyncEnsureGlobalCheckpointSynced(long globalCheckpoint, Consumer<Exception> listener) {
-        translogSyncProcessor.put(new Tuple<>(globalCheckpoint, Translog.Location.EMPTY), listener);
+        asyncSyncTranslog(globalCheckpoint, Translog.Location.EMPTY, listener);
+    }
+
+    private void asyncSyncTranslog(long globalCheckpoint, Translog.Location location, Consumer<Exception> listener) {
+        if (translogSyncGroup != null && translogSyncGroup.isEnabled()) {
+            // share the fsync window with the other shards on this data path
+            translogSyncGroup.sync(translogSyncTarget, location, globalCheckpoint, listener);
+        } else {
+            translogSyncProcessor.put(new Tuple<>(globalCheckpoint, location), listener);
+        }
     }
 
     @Override
@@ -1144,6 +1161,7 @@ public class InternalEngine extends Engine {
 
     @Override
     public IndexResult index(Index index) throws IOException {
+        final long engineStartTime = relativeTimeInNanosSupplier.getAsLong();
         final boolean doThrottle = index.origin().isRecovery() == false;
         try (var ignored1 = acquireEnsureOpenRef()) {
             assert assertIncomingSequenceNumber(index.origin(), index.seqNo());
@@ -1183,6 +1201,8 @@ public class InternalEngine extends Engine {
                 reservedDocs = plan.reservedDocs;
 
                 final IndexResult indexResult;
+                long luceneTook = 0;
+                long translogTook = 0;
                 if (plan.earlyResultOnPreFlightError.isPresent()) {
                     assert index.origin() == Operation.Origin.PRIMARY : index.origin();
                     indexResult = plan.earlyResultOnPreFlightError.get();
@@ -1216,7 +1236,9 @@ public class InternalEngine extends Engine {
                     assert index.seqNo() >= 0 : "ops should have an assigned seq no.; origin: " + index.origin();
 
                     if (plan.indexIntoLucene || plan.addStaleOpToLucene) {
+                        final long luceneStartTime = relativeTimeInNanosSupplier.getAsLong();
                         indexResult = indexIntoLucene(index, plan);
+                        luceneTook = relativeTimeInNanosSupplier.getAsLong() - luceneStartTime;
                     } else {
                         indexResult = new IndexResult(
                             plan.versionForIndexing,
@@ -1230,7 +1252,9 @@ public class InternalEngine extends Engine {
                 if (index.origin().isFromTranslog() == false) {
                     final Translog.Location location;
                     if (indexResult.getResultType() == Result.Type.SUCCESS) {
+                        final long translogStartTime = relativeTimeInNanosSupplier.getAsLong();
                         location = translog.add(new Translog.Index(index, indexResult));
+                        translogTook = relativeTimeInNanosSupplier.getAsLong() - translogStartTime;
                     } else if (indexResult.getSeqNo() != SequenceNumbers.UNASSIGNED_SEQ_NO) {
                         // if we have document failure, record it as a no-op in the translog and Lucene with the generated seq_no
                         final NoOp noOp = new NoOp(
@@ -1260,6 +1284,7 @@ public class InternalEngine extends Engine {
                     localCheckpointTracker.markSeqNoAsPersisted(indexResult.getSeqNo());
                 }
                 indexResult.setTook(relativeTimeInNanosSupplier.getAsLong() - index.startTime());
+                indexResult.setStageTook(engineStartTime - index.startTime(), luceneTook, translogTook);
                 indexResult.freeze();
                 return indexResult;
             } finally {
@@ -29,19 +29,28 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
 
     private final LiveVersionMapArchive archive;
 
+    /** Whether the current and old maps are {@link CompactVersionMap}s. */
+    private final boolean compact;
+
     LiveVersionMap() {
         this(LiveVersionMapArchive.NOOP_ARCHIVE);
     }
 
     LiveVersionMap(LiveVersionMapArchive archive) {
+        this(archive, false);
+    }
+
+    LiveVersionMap(LiveVersionMapArchive archive, boolean compact) {
         this.archive = archive;
+        this.compact = compact;
+        this.maps = new Maps(compact);
     }
 
     public static final class VersionLookup {
 
         /** Tracks bytes used by current map, i.e. what is freed on refresh. For deletes, which are also added to tombstones,
          *  we only account for the CHM entry here, and account for BytesRef/VersionValue against the tombstones, since refresh would not
-         *  clear this from RAM. */
+         *  clear this from RAM. A {@link CompactVersionMap} tracks its own memory instead. */
         final AtomicLong ramBytesUsed = new AtomicLong();
 
         private static final VersionLookup EMPTY = new VersionLookup(Collections.emptyMap());
@@ -65,13 +74,20 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
 
         // Modifies the map of this instance by merging with the given VersionLookup
         public void merge(VersionLookup versionLookup) {
-            long existingEntriesSize = 0;
-            for (var entry : versionLookup.map.entrySet()) {
-                var existingValue = map.get(entry.getKey());
-                existingEntriesSize += existingValue == null ? 0 : mapEntryBytesUsed(entry.getKey(), existingValue);
+            if (map instanceof CompactVersionMap || versionLookup.map instanceof CompactVersionMap) {
+                // the two maps account for their entries differently so we have to go entry by entry
+                for (var entry : versionLookup.map.entrySet()) {
+                    put(entry.getKey(), entry.getValue());
+                }
+            } else {
+                long existingEntriesSize = 0;
+                for (var entry : versionLookup.map.entrySet()) {
+                    var existingValue = map.get(entry.getKey());
+                    existingEntriesSize += existingValue == null ? 0 : mapEntryBytesUsed(entry.getKey(), existingValue);
+                }
+                map.putAll(versionLookup.map);
+                adjustRamUsage(versionLookup.ramBytesUsed() - existingEntriesSize);
             }
-            map.putAll(versionLookup.map);
-            adjustRamUsage(versionLookup.ramBytesUsed() - existingEntriesSize);
             minDeleteTimestamp.accumulateAndGet(versionLookup.minDeleteTimestamp(), Math::min);
         }
 
@@ -85,6 +101,9 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         }
 
         VersionValue put(BytesRef key, VersionValue value) {
+            if (map instanceof CompactVersionMap) {
+                return map.put(key, value);
+            }
             long ramAccounting = mapEntryBytesUsed(key, value);
             VersionValue previousValue = map.put(key, value);
             ramAccounting += previousValue == null ? 0 : -mapEntryBytesUsed(key, previousValue);
@@ -110,7 +129,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
 
         VersionValue remove(BytesRef uid) {
             VersionValue previousValue = map.remove(uid);
-            if (previousValue != null) {
+            if (previousValue != null && map instanceof CompactVersionMap == false) {
                 adjustRamUsage(-mapEntryBytesUsed(uid, previousValue));
             }
             return previousValue;
@@ -132,7 +151,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         }
 
         public long ramBytesUsed() {
-            return ramBytesUsed.get();
+            return map instanceof CompactVersionMap compact ? compact.ramBytesUsed() : ramBytesUsed.get();
         }
 
         public static long mapEntryBytesUsed(BytesRef key, VersionValue value) {
@@ -157,15 +176,22 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         // have the volatile read of the Maps reference to make it visible even across threads.
         boolean needsSafeAccess;
         final boolean previousMapsNeededSafeAccess;
+        final boolean compact;
 
-        Maps(VersionLookup current, VersionLookup old, boolean previousMapsNeededSafeAccess) {
+        Maps(VersionLookup current, VersionLookup old, boolean previousMapsNeededSafeAccess, boolean compact) {
             this.current = current;
             this.old = old;
             this.previousMapsNeededSafeAccess = previousMapsNeededSafeAccess;
+            this.compact = compact;
         }
 
-        Maps() {
-            this(new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency()), VersionLookup.EMPTY, false);
+        Maps(boolean compact) {
+            this(
+                new VersionLookup(compact ? new CompactVersionMap(0) : ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency()),
+                VersionLookup.EMPTY,
+                false,
+                compact
+            );
         }
 
         boolean isSafeAccessMode() {
@@ -184,9 +210,14 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
          */
         Maps buildTransitionMap() {
             return new Maps(
-                new VersionLookup(ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(current.size())),
+                new VersionLookup(
+                    compact
+                        ? new CompactVersionMap(current.size())
+                        : ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency(current.size())
+                ),
                 current,
-                shouldInheritSafeAccess()
+                shouldInheritSafeAccess(),
+                compact
             );
         }
 
@@ -194,7 +225,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
          * similar to `invalidateOldMap` but used only for the `unsafeKeysMap` used for assertions
          */
         Maps invalidateOldMapForAssert() {
-            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess);
+            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess, compact);
         }
 
         /**
@@ -202,7 +233,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
          */
         Maps invalidateOldMap(LiveVersionMapArchive archive) {
             archive.afterRefresh(old);
-            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess);
+            return new Maps(current, VersionLookup.EMPTY, previousMapsNeededSafeAccess, compact);
         }
 
         void put(BytesRef uid, VersionValue version) {
@@ -224,17 +255,17 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
         }
 
         long ramBytesUsed() {
-            return current.ramBytesUsed.get() + old.ramBytesUsed.get();
+            return current.ramBytesUsed() + old.ramBytesUsed();
         }
     }
 
     // All deletes also go here, and delete "tombstones" are retained after refresh:
     private final Map<BytesRef, DeleteVersionValue> tombstones = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
 
-    private volatile Maps maps = new Maps();
+    private volatile Maps maps;
     // we maintain a second map that only receives the updates that we skip on the actual map (unsafe ops)
     // this map is only maintained if assertions are enabled
-    private volatile Maps unsafeKeysMap = new Maps();
+    private volatile Maps unsafeKeysMap = new Maps(false);
 
     /**
      * Bytes consumed for each BytesRef UID:
@@ -463,7 +494,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
      * Called when this index is closed.
      */
     synchronized void clear() {
-        maps = new Maps();
+        maps = new Maps(compact);
         tombstones.clear();
         // NOTE: we can't zero this here, because a refresh thread could be calling InternalEngine.pruneDeletedTombstones at the same time,
         // and this will lead to an assert trip. Presumably it's fine if our ramBytesUsedForTombstones is non-zero after clear since the
@@ -495,7 +526,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
      */
     long reclaimableRefreshRamBytes() {
         return archive == LiveVersionMapArchive.NOOP_ARCHIVE
-            ? maps.current.ramBytesUsed.get()
+            ? maps.current.ramBytesUsed()
             : maps.ramBytesUsed() + archive.getReclaimableRamBytes();
     }
 
@@ -512,7 +543,7 @@ public final class LiveVersionMap implements ReferenceManager.RefreshListener, A
      * fraction of the Archive entries that are kept around until an ongoing unpromotable refresh is finished.
      */
     long getRefreshingBytes() {
-        return archive == LiveVersionMapArchive.NOOP_ARCHIVE ? maps.old.ramBytesUsed.get() : archive.getRefreshingRamBytes();
+        return archive == LiveVersionMapArchive.NOOP_ARCHIVE ? maps.old.ramBytesUsed() : archive.getRefreshingRamBytes();
     }
 
     /**
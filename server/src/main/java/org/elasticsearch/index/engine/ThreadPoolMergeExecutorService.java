@@ -9,11 +9,16 @@
 
 package org.elasticsearch.index.engine;
 
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.index.engine.ThreadPoolMergeScheduler.MergeTask;
+import org.elasticsearch.telemetry.metric.LongCounter;
+import org.elasticsearch.telemetry.metric.LongWithAttributes;
+import org.elasticsearch.telemetry.metric.MeterRegistry;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.Comparator;
@@ -21,6 +26,7 @@ import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.LongUnaryOperator;
@@ -30,6 +36,19 @@ import static org.elasticsearch.index.engine.ThreadPoolMergeScheduler.Schedule.B
 import static org.elasticsearch.index.engine.ThreadPoolMergeScheduler.Schedule.RUN;
 
 public class ThreadPoolMergeExecutorService {
+    /**
+     * The most disk IO, in bytes per sec, that all the IO throttled merge tasks on this node may write together. Each running IO
+     * throttled merge task gets an equal share of it, but no less than {@link #MIN_IO_RATE}. {@code -1}, the default, doesn't limit
+     * the total and every merge task is throttled to the target IO rate on its own.
+     */
+    public static final Setting<ByteSizeValue> NODE_MERGE_IO_RATE_LIMIT_SETTING = Setting.byteSizeSetting(
+        "indices.merge.scheduler.node_io_rate_limit",
+        ByteSizeValue.MINUS_ONE,
+        Setting.Property.Dynamic,
+        Setting.Property.NodeScope
+    );
+    public static final String MERGE_BACKLOG_SIZE_METRIC = "es.merge.executor.backlog.size";
+    public static final String MERGE_THROTTLED_TIME_METRIC = "es.merge.executor.throttled_time.total";
     /**
      * Floor for IO write rate limit of individual merge tasks (we will never go any lower than this)
      */
@@ -47,14 +66,31 @@ public class ThreadPoolMergeExecutorService {
      * This includes merge tasks that are currently running and that are backlogged (by their respective merge schedulers).
      */
     private final AtomicInteger ioThrottledMergeTasksCount = new AtomicInteger();
+    /**
+     * Number of currently running merge tasks that support IO auto throttling, they share the {@link #NODE_MERGE_IO_RATE_LIMIT_SETTING}.
+     */
+    private final AtomicInteger runningIOThrottledMergeTasksCount = new AtomicInteger();
     /**
      * The merge tasks that are waiting execution. This does NOT include backlogged or currently executing merge tasks.
      * For instance, this can be empty while there are backlogged merge tasks awaiting re-enqueuing.
+     * Smaller merges run first. Merges of about the same size, see {@link #sizeClass}, run in the order of their fairness tickets, so
+     * that a shard that submits lots of merges doesn't hold up the merges of the other shards.
      */
     private final PriorityBlockingQueue<MergeTask> queuedMergeTasks = new PriorityBlockingQueue<>(
         64,
-        Comparator.comparingLong(MergeTask::estimatedMergeSize)
+        Comparator.comparingInt((MergeTask mergeTask) -> sizeClass(mergeTask.estimatedMergeSize()))
+            .thenComparingLong(MergeTask::fairnessTicket)
+            .thenComparingLong(MergeTask::estimatedMergeSize)
     );
+    /**
+     * The highest fairness ticket of the merge tasks that started running. Merge schedulers hand out tickets no lower than this, so
+     * a shard that had no merges in a while can't get ahead of everyone else for long.
+     */
+    private final AtomicLong fairnessVirtualTime = new AtomicLong();
+    /**
+     * Total estimated size of the merge tasks that were submitted but haven't yet started running (or were aborted).
+     */
+    private final AtomicLong backlogBytes = new AtomicLong();
     /**
      * The set of all merge tasks currently being executed by merge threads from the pool.
      * These are tracked notably in order to be able to update their disk IO throttle rate, after they have started, while executing.
@@ -72,23 +108,56 @@ public class ThreadPoolMergeExecutorService {
     private final int maxConcurrentMerges;
     private final int concurrentMergesFloorLimitForThrottling;
     private final int concurrentMergesCeilLimitForThrottling;
+    private final LongCounter throttledTimeMillis;
+    private volatile long nodeIORateLimitBytesPerSec;
 
     public static @Nullable ThreadPoolMergeExecutorService maybeCreateThreadPoolMergeExecutorService(
         ThreadPool threadPool,
         Settings settings
+    ) {
+        return maybeCreateThreadPoolMergeExecutorService(
+            threadPool,
+            settings,
+            ClusterSettings.createBuiltInClusterSettings(settings),
+            MeterRegistry.NOOP
+        );
+    }
+
+    public static @Nullable ThreadPoolMergeExecutorService maybeCreateThreadPoolMergeExecutorService(
+        ThreadPool threadPool,
+        Settings settings,
+        ClusterSettings clusterSettings,
+        MeterRegistry meterRegistry
     ) {
         if (ThreadPoolMergeScheduler.USE_THREAD_POOL_MERGE_SCHEDULER_SETTING.get(settings)) {
-            return new ThreadPoolMergeExecutorService(threadPool);
+            return new ThreadPoolMergeExecutorService(threadPool, clusterSettings, meterRegistry);
         } else {
             return null;
         }
     }
 
-    private ThreadPoolMergeExecutorService(ThreadPool threadPool) {
+    private ThreadPoolMergeExecutorService(ThreadPool threadPool, ClusterSettings clusterSettings, MeterRegistry meterRegistry) {
         this.executorService = threadPool.executor(ThreadPool.Names.MERGE);
         this.maxConcurrentMerges = threadPool.info(ThreadPool.Names.MERGE).getMax();
         this.concurrentMergesFloorLimitForThrottling = maxConcurrentMerges * 2;
         this.concurrentMergesCeilLimitForThrottling = maxConcurrentMerges * 4;
+        meterRegistry.registerLongGauge(
+            MERGE_BACKLOG_SIZE_METRIC,
+            "Estimated size of the merges that are waiting to run on this node",
+            "bytes",
+            () -> new LongWithAttributes(backlogBytes.get())
+        );
+        this.throttledTimeMillis = meterRegistry.registerLongCounter(
+            MERGE_THROTTLED_TIME_METRIC,
+            "Time that merges on this node were paused to stay under their IO rate limit",
+            "ms"
+        );
+        clusterSettings.initializeAndWatch(NODE_MERGE_IO_RATE_LIMIT_SETTING, this::setNodeIORateLimit);
+    }
+
+    private void setNodeIORateLimit(ByteSizeValue nodeIORateLimit) {
+        this.nodeIORateLimitBytesPerSec = nodeIORateLimit.getBytes();
+        updateIORateLimitOfRunningMergeTasks(targetIORateBytesPerSec.get());
     }
 
     boolean submitMergeTask(MergeTask mergeTask) {
@@ -115,16 +184,14 @@ public class ThreadPoolMergeExecutorService {
                         // For performance reasons, we don't synchronize the updates to targetMBPerSec values with the update of running
                         // merges.
                         if (prevTargetIORateBytesPerSec != newTargetIORateBytesPerSec) {
-                            runningMergeTasks.forEach(runningMergeTask -> {
-                                if (runningMergeTask.supportsIOThrottling()) {
-                                    runningMergeTask.setIORateLimit(newTargetIORateBytesPerSec);
-                                }
-                            });
+                            updateIORateLimitOfRunningMergeTasks(newTargetIORateBytesPerSec);
                         }
                     }
                 );
             }
             // then enqueue the merge task proper
+            backlogBytes.addAndGet(mergeTask.estimatedMergeSize());
+            mergeTask.assignFairnessTicket(fairnessVirtualTime.get());
             queuedMergeTasks.add(mergeTask);
             return true;
         }
@@ -186,18 +253,31 @@ public class ThreadPoolMergeExecutorService {
 
     private void runMergeTask(MergeTask mergeTask) {
         assert mergeTask.isRunning() == false;
+        backlogBytes.addAndGet(-mergeTask.estimatedMergeSize());
+        fairnessVirtualTime.accumulateAndGet(mergeTask.fairnessTicket(), Math::max);
         boolean added = runningMergeTasks.add(mergeTask);
         assert added : "starting merge task [" + mergeTask + "] registered as already running";
         try {
             if (mergeTask.supportsIOThrottling()) {
-                mergeTask.setIORateLimit(targetIORateBytesPerSec.get());
+                runningIOThrottledMergeTasksCount.incrementAndGet();
+                if (nodeIORateLimitBytesPerSec >= 0) {
+                    // the share of the node's IO budget of the other running merge tasks shrinks
+                    updateIORateLimitOfRunningMergeTasks(targetIORateBytesPerSec.get());
+                } else {
+                    mergeTask.setIORateLimit(targetIORateBytesPerSec.get());
+                }
             }
             mergeTask.run();
         } finally {
             boolean removed = runningMergeTasks.remove(mergeTask);
             assert removed : "completed merge task [" + mergeTask + "] not registered as running";
+            throttledTimeMillis.incrementBy(TimeUnit.NANOSECONDS.toMillis(mergeTask.getThrottledTimeNanos()));
             if (mergeTask.supportsIOThrottling()) {
+                runningIOThrottledMergeTasksCount.decrementAndGet();
                 ioThrottledMergeTasksCount.decrementAndGet();
+                if (nodeIORateLimitBytesPerSec >= 0) {
+                    updateIORateLimitOfRunningMergeTasks(targetIORateBytesPerSec.get());
+                }
             }
         }
     }
@@ -205,6 +285,7 @@ public class ThreadPoolMergeExecutorService {
     private void abortMergeTask(MergeTask mergeTask) {
         assert mergeTask.isRunning() == false;
         assert runningMergeTasks.contains(mergeTask) == false;
+        backlogBytes.addAndGet(-mergeTask.estimatedMergeSize());
         try {
             mergeTask.abort();
         } finally {
@@ -214,6 +295,38 @@ public class ThreadPoolMergeExecutorService {
         }
     }
 
+    // it's OK to have this method update merge tasks concurrently, with different IO rates, as it's not important that all merge
+    // tasks are throttled to the same IO rate at all time
+    private void updateIORateLimitOfRunningMergeTasks(long targetIORateBytesPerSec) {
+        long ioRateLimitBytesPerSec = ioRateLimitPerMergeTask(
+            targetIORateBytesPerSec,
+            nodeIORateLimitBytesPerSec,
+            runningIOThrottledMergeTasksCount.get()
+        );
+        runningMergeTasks.forEach(runningMergeTask -> {
+            if (runningMergeTask.supportsIOThrottling()) {
+                runningMergeTask.setIORateLimit(ioRateLimitBytesPerSec);
+            }
+        });
+    }
+
+    // exposed for tests
+    static long ioRateLimitPerMergeTask(long targetIORateBytesPerSec, long nodeIORateLimitBytesPerSec, int runningIOThrottledMergeTasks) {
+        if (nodeIORateLimitBytesPerSec < 0) {
+            return targetIORateBytesPerSec;
+        }
+        long share = nodeIORateLimitBytesPerSec / Math.max(1, runningIOThrottledMergeTasks);
+        return Math.max(MIN_IO_RATE.getBytes(), Math.min(targetIORateBytesPerSec, share));
+    }
+
+    /**
+     * Merges whose estimated sizes are within a factor of 4 of each other are in the same size class, the queue orders merges in the
+     * same size class for fairness between shards rather than by size.
+     */
+    static int sizeClass(long estimatedMergeSize) {
+        return (Long.SIZE - Long.numberOfLeadingZeros(Math.max(0L, estimatedMergeSize))) / 2;
+    }
+
     private static long newTargetIORateBytesPerSec(
         long currentTargetIORateBytesPerSec,
         int currentlySubmittedIOThrottledMergeTasks,
@@ -282,6 +395,11 @@ public class ThreadPoolMergeExecutorService {
         return queuedMergeTasks;
     }
 
+    // exposed for tests and stats
+    long getBacklogBytes() {
+        return backlogBytes.get();
+    }
+
     // exposed for tests and stats
     long getTargetIORateBytesPerSec() {
         return targetIORateBytesPerSec.get();
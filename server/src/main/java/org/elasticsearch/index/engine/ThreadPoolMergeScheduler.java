@@ -63,6 +63,8 @@ public class ThreadPoolMergeScheduler extends MergeScheduler implements Elastics
     // how many {@link MergeTask}s have kicked off (this is used to name them).
     private final AtomicLong submittedMergeTaskCount = new AtomicLong();
     private final AtomicLong doneMergeTaskCount = new AtomicLong();
+    // one past the fairness ticket of the latest merge task of this scheduler that started running, see {@link #nextFairnessTicket}
+    private long nextFairnessTicket = 0L;
     private final CountDownLatch closedWithNoRunningMerges = new CountDownLatch(1);
     private volatile boolean closed = false;
 
@@ -218,6 +220,7 @@ public class ThreadPoolMergeScheduler extends MergeScheduler implements Elastics
         } else if (runningMergeTasks.size() < config.getMaxThreadCount()) {
             boolean added = runningMergeTasks.put(mergeTask.onGoingMerge.getMerge(), mergeTask) == null;
             assert added : "starting merge task [" + mergeTask + "] registered as already running";
+            nextFairnessTicket = Math.max(nextFairnessTicket, mergeTask.fairnessTicket) + 1;
             return Schedule.RUN;
         } else {
             backloggedMergeTasks.add(mergeTask);
@@ -235,6 +238,16 @@ public class ThreadPoolMergeScheduler extends MergeScheduler implements Elastics
         maybeSignalAllMergesDoneAfterClose();
     }
 
+    /**
+     * Hands out the fairness ticket for a merge task of this scheduler that's submitted when the node's merge executor has gotten to
+     * {@code virtualTime}. The ticket goes up by one for every merge task of this scheduler that starts running, so among the queued
+     * merge tasks of about the same size, the ones of shards that ran fewer merges lately run first. The queued merge tasks of a
+     * single scheduler usually share a ticket and run smallest first.
+     */
+    private synchronized long nextFairnessTicket(long virtualTime) {
+        return Math.max(nextFairnessTicket, virtualTime);
+    }
+
     private void mergeTaskDone() {
         doneMergeTaskCount.incrementAndGet();
         checkMergeTaskThrottling();
@@ -309,6 +322,7 @@ public class ThreadPoolMergeScheduler extends MergeScheduler implements Elastics
         private final OnGoingMerge onGoingMerge;
         private final MergeRateLimiter rateLimiter;
         private final boolean supportsIOThrottling;
+        private long fairnessTicket;
 
         MergeTask(MergeSource mergeSource, MergePolicy.OneMerge merge, boolean supportsIOThrottling, String name) {
             this.name = name;
@@ -338,6 +352,25 @@ public class ThreadPoolMergeScheduler extends MergeScheduler implements Elastics
             return mergeStartTimeNS.get() > 0L;
         }
 
+        /**
+         * Assigns the ticket that orders this merge task among the merge tasks of about the same size from other shards. MUST be
+         * invoked before the task is first enqueued, the ticket doesn't change when the task is backlogged and enqueued again.
+         */
+        void assignFairnessTicket(long virtualTime) {
+            this.fairnessTicket = nextFairnessTicket(virtualTime);
+        }
+
+        long fairnessTicket() {
+            return fairnessTicket;
+        }
+
+        /**
+         * The time this merge was paused to stay under its IO rate limit so far.
+         */
+        long getThrottledTimeNanos() {
+            return rateLimiter.getTotalPausedNS();
+        }
+
         /**
          * Runs the merge associated to this task. MUST be invoked after {@link #schedule()} returned {@link Schedule#RUN},
          * to confirm that the associated {@link MergeScheduler} assents to run the merge.
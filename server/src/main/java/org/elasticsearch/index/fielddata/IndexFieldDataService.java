@@ -38,6 +38,14 @@ public class IndexFieldDataService extends AbstractIndexComponent implements Clo
         },
         Property.IndexScope
     );
+    /**
+     * Whether to extend the global ordinals of a shard with the segments of a refresh rather than build them from scratch.
+     */
+    public static final Setting<Boolean> INDEX_FIELDDATA_INCREMENTAL_GLOBAL_ORDINALS_SETTING = Setting.boolSetting(
+        "index.fielddata.incremental_global_ordinals",
+        false,
+        Property.IndexScope
+    );
 
     private final CircuitBreakerService circuitBreakerService;
 
@@ -102,7 +110,12 @@ public class IndexFieldDataService extends AbstractIndexComponent implements Clo
             if (cache == null) {
                 String cacheType = indexSettings.getValue(INDEX_FIELDDATA_CACHE_KEY);
                 if (FIELDDATA_CACHE_VALUE_NODE.equals(cacheType)) {
-                    cache = indicesFieldDataCache.buildIndexFieldDataCache(listener, index(), fieldName);
+                    cache = indicesFieldDataCache.buildIndexFieldDataCache(
+                        listener,
+                        index(),
+                        fieldName,
+                        indexSettings.getValue(INDEX_FIELDDATA_INCREMENTAL_GLOBAL_ORDINALS_SETTING)
+                    );
                 } else if ("none".equals(cacheType)) {
                     cache = new IndexFieldDataCache.None();
                 } else {
@@ -9,7 +9,6 @@
 
 package org.elasticsearch.index.fielddata.ordinals;
 
-import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.util.BytesRef;
@@ -24,11 +23,11 @@ import java.io.IOException;
 final class GlobalOrdinalMapping extends SortedSetDocValues {
 
     private final SortedSetDocValues values;
-    private final OrdinalMap ordinalMap;
+    private final TieredOrdinalMap ordinalMap;
     private final LongValues mapping;
     private final TermsEnum[] lookups;
 
-    GlobalOrdinalMapping(OrdinalMap ordinalMap, SortedSetDocValues values, TermsEnum[] lookups, int segmentIndex) {
+    GlobalOrdinalMapping(TieredOrdinalMap ordinalMap, SortedSetDocValues values, TermsEnum[] lookups, int segmentIndex) {
         super();
         this.values = values;
         this.lookups = lookups;
@@ -62,10 +61,7 @@ final class GlobalOrdinalMapping extends SortedSetDocValues {
 
     @Override
     public BytesRef lookupOrd(long globalOrd) throws IOException {
-        final long segmentOrd = ordinalMap.getFirstSegmentOrd(globalOrd);
-        int readerIndex = ordinalMap.getFirstSegmentNumber(globalOrd);
-        lookups[readerIndex].seekExact(segmentOrd);
-        return lookups[readerIndex].term();
+        return ordinalMap.lookupOrd(globalOrd, lookups);
     }
 
     @Override
@@ -13,12 +13,15 @@ import org.apache.logging.log4j.Logger;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.FilterLeafReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.packed.PackedInts;
+import org.apache.lucene.util.packed.PackedLongValues;
 import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.fielddata.IndexOrdinalsFieldData;
 import org.elasticsearch.index.fielddata.LeafOrdinalsFieldData;
@@ -34,6 +37,16 @@ import java.util.concurrent.TimeUnit;
 public enum GlobalOrdinalsBuilder {
     ;
 
+    /**
+     * The number of terms per block of the terms dictionary of sorted set doc values. Seeking to an ordinal in the current block only
+     * reads the terms up to it while seeking to an ordinal in another block decompresses that block first.
+     */
+    static final int TERMS_PER_BLOCK = 64;
+    /**
+     * The cost of seeking to the term of an ordinal in another block of the terms dictionary, relative to reading the next term.
+     */
+    static final int SEEK_COST = 16;
+
     /**
      * Build global ordinals for the provided {@link IndexReader}.
      */
@@ -43,16 +56,66 @@ public enum GlobalOrdinalsBuilder {
         CircuitBreaker breaker,
         Logger logger,
         ToScriptFieldFactory<SortedSetDocValues> toScriptFieldFactory
+    ) throws IOException {
+        return build(indexReader, indexFieldData, breaker, logger, toScriptFieldFactory, null);
+    }
+
+    /**
+     * Build global ordinals for the provided {@link IndexReader}. If {@code previous} global ordinals were built for a reader whose
+     * base segments are all still part of this reader, then they are extended with the terms of the other segments instead of
+     * merging the terms of all segments again.
+     */
+    public static IndexOrdinalsFieldData build(
+        final IndexReader indexReader,
+        IndexOrdinalsFieldData indexFieldData,
+        CircuitBreaker breaker,
+        Logger logger,
+        ToScriptFieldFactory<SortedSetDocValues> toScriptFieldFactory,
+        @Nullable TieredOrdinalMap previous
     ) throws IOException {
         assert indexReader.leaves().size() > 1;
         long startTimeNS = System.nanoTime();
 
         final LeafOrdinalsFieldData[] atomicFD = new LeafOrdinalsFieldData[indexReader.leaves().size()];
         final SortedSetDocValues[] subs = new SortedSetDocValues[indexReader.leaves().size()];
+        final IndexReader.CacheKey[] coreKeys = new IndexReader.CacheKey[indexReader.leaves().size()];
         for (int i = 0; i < indexReader.leaves().size(); ++i) {
-            atomicFD[i] = indexFieldData.load(indexReader.leaves().get(i));
+            final LeafReaderContext context = indexReader.leaves().get(i);
+            atomicFD[i] = indexFieldData.load(context);
             subs[i] = atomicFD[i].getOrdinalsValues();
+            final IndexReader.CacheHelper cacheHelper = context.reader().getCoreCacheHelper();
+            coreKeys[i] = cacheHelper == null ? null : cacheHelper.getKey();
+        }
+
+        TieredOrdinalMap ordinalMap = previous == null ? null : extend(previous, subs, coreKeys, breaker);
+        if (ordinalMap == null) {
+            ordinalMap = TieredOrdinalMap.of(buildOrdinalMap(subs, breaker), coreKeys);
+        }
+        final long memorySizeInBytes = ordinalMap.ramBytesUsed();
+        breaker.addWithoutBreaking(memorySizeInBytes);
+
+        TimeValue took = new TimeValue(System.nanoTime() - startTimeNS, TimeUnit.NANOSECONDS);
+        if (logger.isDebugEnabled()) {
+            logger.debug(
+                "global-ordinals [{}][{}] took [{}]{}",
+                indexFieldData.getFieldName(),
+                ordinalMap.getValueCount(),
+                took,
+                ordinalMap.hasAddedSegments() ? " (incremental)" : ""
+            );
         }
+        return new GlobalOrdinalsIndexFieldData(
+            indexFieldData.getFieldName(),
+            indexFieldData.getValuesSourceType(),
+            atomicFD,
+            ordinalMap,
+            memorySizeInBytes,
+            toScriptFieldFactory,
+            took
+        );
+    }
+
+    private static OrdinalMap buildOrdinalMap(SortedSetDocValues[] subs, CircuitBreaker breaker) throws IOException {
         final TermsEnum[] termsEnums = new TermsEnum[subs.length];
         final long[] weights = new long[subs.length];
         // we assume that TermsEnum are visited sequentially, so we can share the counter between them
@@ -70,25 +133,177 @@ public enum GlobalOrdinalsBuilder {
             };
             weights[i] = subs[i].getValueCount();
         }
-        final OrdinalMap ordinalMap = OrdinalMap.build(null, termsEnums, weights, PackedInts.DEFAULT);
-        final long memorySizeInBytes = ordinalMap.ramBytesUsed();
-        breaker.addWithoutBreaking(memorySizeInBytes);
+        return OrdinalMap.build(null, termsEnums, weights, PackedInts.DEFAULT);
+    }
 
-        TimeValue took = new TimeValue(System.nanoTime() - startTimeNS, TimeUnit.NANOSECONDS);
-        if (logger.isDebugEnabled()) {
-            logger.debug("global-ordinals [{}][{}] took [{}]", indexFieldData.getFieldName(), ordinalMap.getValueCount(), took);
+    /**
+     * Extends the base of {@code previous} with the segments of {@code subs} that are not part of it. Returns {@code null} if a
+     * segment of the base is no longer part of the reader, or once extending the base has cost more than building global ordinals
+     * from scratch would, see {@link #extensionCost}.
+     */
+    @Nullable
+    static TieredOrdinalMap extend(
+        TieredOrdinalMap previous,
+        SortedSetDocValues[] subs,
+        IndexReader.CacheKey[] coreKeys,
+        CircuitBreaker breaker
+    ) throws IOException {
+        final OrdinalMap base = previous.base();
+        final IndexReader.CacheKey[] baseCoreKeys = previous.baseCoreKeys();
+        final int[] readerToBase = new int[subs.length];
+        final int[] readerToAdded = new int[subs.length];
+        int baseSegments = 0;
+        int addedSegments = 0;
+        long addedValueCount = 0;
+        long totalValueCount = 0;
+        for (int i = 0; i < subs.length; i++) {
+            totalValueCount += subs[i].getValueCount();
+            readerToBase[i] = -1;
+            readerToAdded[i] = -1;
+            if (coreKeys[i] == null) {
+                return null;
+            }
+            for (int b = 0; b < baseCoreKeys.length; b++) {
+                if (baseCoreKeys[b] == coreKeys[i]) {
+                    readerToBase[i] = b;
+                    baseSegments++;
+                    break;
+                }
+            }
+            if (readerToBase[i] == -1) {
+                readerToAdded[i] = addedSegments++;
+                addedValueCount += subs[i].getValueCount();
+            }
         }
-        return new GlobalOrdinalsIndexFieldData(
-            indexFieldData.getFieldName(),
-            indexFieldData.getValuesSourceType(),
-            atomicFD,
-            ordinalMap,
-            memorySizeInBytes,
-            toScriptFieldFactory,
-            took
+        if (baseSegments != baseCoreKeys.length) {
+            return null;
+        }
+        final long cost = extensionCost(base.getValueCount(), addedValueCount, addedSegments);
+        if (cost < 0) {
+            return null;
+        }
+        final long extensionCost = previous.extensionCost() + cost;
+        if (extensionCost > rebuildCost(totalValueCount, subs.length)) {
+            return null;
+        }
+        final PackedLongValues empty = PackedLongValues.monotonicBuilder(0f).build();
+        if (addedSegments == 0) {
+            return new TieredOrdinalMap(base, baseCoreKeys, readerToBase, null, readerToAdded, empty, empty, empty, extensionCost);
+        }
+
+        final TermsEnum[] baseLookups = new TermsEnum[baseCoreKeys.length];
+        final SortedSetDocValues[] addedSubs = new SortedSetDocValues[addedSegments];
+        final TermsEnum[] addedLookups = new TermsEnum[addedSegments];
+        for (int i = 0; i < subs.length; i++) {
+            if (readerToBase[i] >= 0) {
+                baseLookups[readerToBase[i]] = subs[i].termsEnum();
+            } else {
+                addedSubs[readerToAdded[i]] = subs[i];
+                addedLookups[readerToAdded[i]] = subs[i].termsEnum();
+            }
+        }
+        final OrdinalMap added = buildOrdinalMap(addedSubs, breaker);
+
+        // Find where the terms of the added segments go among the terms of the base. Terms are visited in order, so every
+        // search gallops from where the previous one ended: it costs the logarithm of the distance between two consecutive
+        // insertion points rather than the logarithm of the number of base terms, and it stays within the block of the terms
+        // dictionary that the previous search ended in whenever the added terms are dense.
+        final PackedLongValues.Builder addedToGlobal = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+        final PackedLongValues.Builder insertionPoints = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+        final PackedLongValues.Builder insertedTerms = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+        final long baseValueCount = base.getValueCount();
+        long from = 0;
+        long inserted = 0;
+        for (long addedOrd = 0; addedOrd < added.getValueCount(); addedOrd++) {
+            if ((addedOrd & 0xFFFF) == 0) {
+                breaker.addEstimateBytesAndMaybeBreak(0L, "Global Ordinals");
+            }
+            final BytesRef term = lookupOrd(added, addedLookups, addedOrd);
+            long low = from;
+            long high = baseValueCount;
+            for (long step = 1; low < baseValueCount; step <<= 1) {
+                final long probe = Math.min(from + step - 1, baseValueCount - 1);
+                if (lookupOrd(base, baseLookups, probe).compareTo(term) >= 0) {
+                    high = probe;
+                    break;
+                }
+                low = probe + 1;
+            }
+            while (low < high) {
+                final long mid = (low + high) >>> 1;
+                if (lookupOrd(base, baseLookups, mid).compareTo(term) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            if (low == baseValueCount || lookupOrd(base, baseLookups, low).equals(term) == false) {
+                insertionPoints.add(low);
+                insertedTerms.add(addedOrd);
+                inserted++;
+                addedToGlobal.add(low + inserted - 1);
+            } else {
+                addedToGlobal.add(low + inserted);
+            }
+            from = low;
+        }
+        return new TieredOrdinalMap(
+            base,
+            baseCoreKeys,
+            readerToBase,
+            added,
+            readerToAdded,
+            addedToGlobal.build(),
+            insertionPoints.build(),
+            insertedTerms.build(),
+            extensionCost
         );
     }
 
+    /**
+     * The estimated cost of extending a base with the given number of terms in total with the terms of the added segments, counted
+     * in terms read from the terms dictionaries. It reads and merges the terms of the added segments, and then gallops to the
+     * insertion point of each of them among the base terms, which takes about twice the logarithm of the number of base terms between
+     * two insertion points. Probes only stay within a block of the terms dictionary if insertion points are close to one another.
+     * <p>
+     * Every refresh merges the terms of all the segments that were added since the base was built again, so extending gets more
+     * expensive with every refresh while building global ordinals from scratch would make the next extensions cheap again. Like
+     * renting rather than buying, global ordinals are extended until the extensions of the base have cost as much as building them
+     * from scratch ({@link #rebuildCost}) would, which is never more than twice as expensive as the best choice in hindsight.
+     * Returns a negative value if there are more added terms than base terms, global ordinals are always built from scratch then.
+     */
+    static long extensionCost(long baseValueCount, long addedValueCount, int addedSegments) {
+        if (addedValueCount == 0) {
+            return 0;
+        }
+        if (addedValueCount > baseValueCount) {
+            return -1;
+        }
+        final long gap = baseValueCount / addedValueCount;
+        final long probes = 2L * (Long.SIZE - Long.numberOfLeadingZeros(gap)) + 1;
+        final long probeCost = gap < TERMS_PER_BLOCK ? 1 : SEEK_COST;
+        return addedValueCount * (mergeCost(addedSegments) + probes * probeCost);
+    }
+
+    /**
+     * The estimated cost of building global ordinals from scratch, which reads the terms of all segments and merges them, which
+     * costs about the logarithm of the number of segments per term.
+     */
+    static long rebuildCost(long totalValueCount, int segments) {
+        return totalValueCount * mergeCost(segments);
+    }
+
+    private static long mergeCost(int segments) {
+        // reading the term plus comparing it with the terms of the other segments
+        return 1 + (Integer.SIZE - Integer.numberOfLeadingZeros(segments - 1));
+    }
+
+    private static BytesRef lookupOrd(OrdinalMap ordinalMap, TermsEnum[] lookups, long ord) throws IOException {
+        final TermsEnum lookup = lookups[ordinalMap.getFirstSegmentNumber(ord)];
+        lookup.seekExact(ordinalMap.getFirstSegmentOrd(ord));
+        return lookup.term();
+    }
+
     public static IndexOrdinalsFieldData buildEmpty(
         IndexReader indexReader,
         IndexOrdinalsFieldData indexFieldData,
@@ -114,13 +329,14 @@ public enum GlobalOrdinalsBuilder {
             };
             subs[i] = atomicFD[i].getOrdinalsValues();
         }
+        final IndexReader.CacheKey[] coreKeys = new IndexReader.CacheKey[indexReader.leaves().size()];
         final OrdinalMap ordinalMap = OrdinalMap.build(null, subs, PackedInts.DEFAULT);
         TimeValue took = new TimeValue(System.nanoTime() - startTimeNS, TimeUnit.NANOSECONDS);
         return new GlobalOrdinalsIndexFieldData(
             indexFieldData.getFieldName(),
             indexFieldData.getValuesSourceType(),
             atomicFD,
-            ordinalMap,
+            TieredOrdinalMap.of(ordinalMap, coreKeys),
             0,
             toScriptFieldFactory,
             took
@@ -15,6 +15,8 @@ import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.LongValues;
+import org.apache.lucene.util.packed.PackedInts;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.TimeValue;
@@ -48,16 +50,18 @@ public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldDat
     private final ValuesSourceType valuesSourceType;
     private final long memorySizeInBytes;
 
-    private final OrdinalMap ordinalMap;
+    private final TieredOrdinalMap ordinalMap;
     private final LeafOrdinalsFieldData[] segmentAfd;
     private final ToScriptFieldFactory<SortedSetDocValues> toScriptFieldFactory;
     private final TimeValue took;
+    // only built when asked for, if global ordinals were extended from a previous reader
+    private OrdinalMap luceneOrdinalMap;
 
     GlobalOrdinalsIndexFieldData(
         String fieldName,
         ValuesSourceType valuesSourceType,
         LeafOrdinalsFieldData[] segmentAfd,
-        OrdinalMap ordinalMap,
+        TieredOrdinalMap ordinalMap,
         long memorySizeInBytes,
         ToScriptFieldFactory<SortedSetDocValues> toScriptFieldFactory,
         TimeValue took
@@ -129,8 +133,46 @@ public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldDat
         throw new IllegalStateException("load(LeafReaderContext) should not be called in this context");
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If global ordinals were extended from the ones of a previous reader, then this builds a full {@link OrdinalMap} the first time
+     * it is called. This map is not accounted for, prefer {@link #getGlobalOrds} to map segment ordinals to global ordinals. Fields
+     * whose queries need the map opt out of extending global ordinals, see
+     * {@link org.elasticsearch.index.fielddata.plain.AbstractIndexOrdinalsFieldData#supportsIncrementalGlobalOrdinals()}.
+     */
     @Override
     public OrdinalMap getOrdinalMap() {
+        if (ordinalMap.isBase()) {
+            return ordinalMap.base();
+        }
+        return getOrBuildLuceneOrdinalMap();
+    }
+
+    private synchronized OrdinalMap getOrBuildLuceneOrdinalMap() {
+        if (luceneOrdinalMap == null) {
+            final SortedSetDocValues[] subs = new SortedSetDocValues[segmentAfd.length];
+            for (int i = 0; i < subs.length; i++) {
+                subs[i] = segmentAfd[i].getOrdinalsValues();
+            }
+            try {
+                luceneOrdinalMap = OrdinalMap.build(null, subs, PackedInts.DEFAULT);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to build ordinal map", e);
+            }
+        }
+        return luceneOrdinalMap;
+    }
+
+    @Override
+    public LongValues getGlobalOrds(int segmentIndex) {
+        return ordinalMap.getGlobalOrds(segmentIndex);
+    }
+
+    /**
+     * The mapping between segment and global ordinals, which may be extended when global ordinals are built for the next reader.
+     */
+    public TieredOrdinalMap getTieredOrdinalMap() {
         return ordinalMap;
     }
 
@@ -268,7 +310,16 @@ public final class GlobalOrdinalsIndexFieldData implements IndexOrdinalsFieldDat
 
         @Override
         public OrdinalMap getOrdinalMap() {
-            return ordinalMap;
+            return GlobalOrdinalsIndexFieldData.this.getOrdinalMap();
+        }
+
+        @Override
+        public LongValues getGlobalOrds(int segmentIndex) {
+            return ordinalMap.getGlobalOrds(segmentIndex);
+        }
+
+        public long getValueCount() {
+            return ordinalMap.getValueCount();
         }
 
     }
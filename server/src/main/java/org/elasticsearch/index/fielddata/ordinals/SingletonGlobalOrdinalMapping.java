@@ -9,7 +9,6 @@
 package org.elasticsearch.index.fielddata.ordinals;
 
 import org.apache.lucene.index.DocValues;
-import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.index.TermsEnum;
@@ -28,10 +27,15 @@ class SingletonGlobalOrdinalMapping extends SortedDocValues {
      * Lots of other code tries to unwrap the singleton with
      * {@link DocValues#unwrapSingleton} and it'll take a fast path if
      * it gets a singleton. This'll return a singleton that can be
-     * unwrapped or {@code null} if the {@link OrdinalMap} and
+     * unwrapped or {@code null} if the {@link TieredOrdinalMap} and
      * {@link SortedSetDocValues} aren't compatible with {@link SortedDocValues}.
      */
-    static SortedSetDocValues singletonIfPossible(OrdinalMap ordinalMap, SortedSetDocValues values, TermsEnum[] lookups, int segmentIndex) {
+    static SortedSetDocValues singletonIfPossible(
+        TieredOrdinalMap ordinalMap,
+        SortedSetDocValues values,
+        TermsEnum[] lookups,
+        int segmentIndex
+    ) {
         /*
          * We can manage a singleton if the total value count
          * fits in an `int` *and* the segment ords are a singleton.
@@ -49,11 +53,11 @@ class SingletonGlobalOrdinalMapping extends SortedDocValues {
     }
 
     private final SortedDocValues values;
-    private final OrdinalMap ordinalMap;
+    private final TieredOrdinalMap ordinalMap;
     private final LongValues mapping;
     private final TermsEnum[] lookups;
 
-    private SingletonGlobalOrdinalMapping(OrdinalMap ordinalMap, SortedDocValues values, TermsEnum[] lookups, int segmentIndex) {
+    private SingletonGlobalOrdinalMapping(TieredOrdinalMap ordinalMap, SortedDocValues values, TermsEnum[] lookups, int segmentIndex) {
         this.values = values;
         this.lookups = lookups;
         this.ordinalMap = ordinalMap;
@@ -77,10 +81,7 @@ class SingletonGlobalOrdinalMapping extends SortedDocValues {
 
     @Override
     public BytesRef lookupOrd(int globalOrd) throws IOException {
-        final long segmentOrd = ordinalMap.getFirstSegmentOrd(globalOrd);
-        int readerIndex = ordinalMap.getFirstSegmentNumber(globalOrd);
-        lookups[readerIndex].seekExact(segmentOrd);
-        return lookups[readerIndex].term();
+        return ordinalMap.lookupOrd(globalOrd, lookups);
     }
 
     @Override
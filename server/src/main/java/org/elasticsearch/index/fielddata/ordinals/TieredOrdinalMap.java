@@ -0,0 +1,271 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.fielddata.ordinals;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.OrdinalMap;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.LongValues;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.packed.PackedLongValues;
+import org.elasticsearch.core.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Maps the ordinals of the segments of a reader to global ordinals. It is made of a base {@link OrdinalMap}, which may have been
+ * built for an earlier reader that shared segments with this one, and of the terms of the segments that are not part of the base.
+ * This allows global ordinals to be extended with the segments of a refresh without merging the terms of all segments again.
+ * Global ordinals keep the properties of a single {@link OrdinalMap}: they are dense and sorted in the order of terms.
+ * <p>
+ * Terms of the added segments that aren't in the base are inserted between the terms of the base, so the global ordinal of a
+ * base term is its ordinal in the base plus the number of terms inserted before it.
+ */
+public final class TieredOrdinalMap implements Accountable {
+
+    private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(TieredOrdinalMap.class);
+    private static final int BLOCK_SHIFT = 10;
+
+    private final OrdinalMap base;
+    private final IndexReader.CacheKey[] baseCoreKeys;
+    private final int[] readerToBase;
+    private final int[] baseToReader;
+    @Nullable
+    private final OrdinalMap added;
+    private final int[] readerToAdded;
+    private final int[] addedToReader;
+    // the global ordinal of every term of the added segments
+    private final PackedLongValues addedToGlobal;
+    // for every term of the added segments that isn't in the base, in order: the number of base terms that sort before it ...
+    private final PackedLongValues insertionPoints;
+    // ... and its ordinal in the added segments
+    private final PackedLongValues insertedTerms;
+    // the number of insertion points before each block of 2^BLOCK_SHIFT base ordinals
+    private final long[] insertionsBeforeBlock;
+    private final long valueCount;
+    private final boolean isBase;
+    // the estimated cost of all the extensions of the base so far, see GlobalOrdinalsBuilder#extensionCost
+    private final long extensionCost;
+
+    TieredOrdinalMap(
+        OrdinalMap base,
+        IndexReader.CacheKey[] baseCoreKeys,
+        int[] readerToBase,
+        @Nullable OrdinalMap added,
+        int[] readerToAdded,
+        PackedLongValues addedToGlobal,
+        PackedLongValues insertionPoints,
+        PackedLongValues insertedTerms,
+        long extensionCost
+    ) {
+        assert base.getValueCount() == 0 || baseCoreKeys.length > 0;
+        this.base = base;
+        this.baseCoreKeys = baseCoreKeys;
+        this.readerToBase = readerToBase;
+        this.baseToReader = invert(readerToBase, baseCoreKeys.length);
+        this.added = added;
+        this.readerToAdded = readerToAdded;
+        this.addedToReader = invert(readerToAdded, added == null ? 0 : (int) countSegments(readerToAdded));
+        this.addedToGlobal = addedToGlobal;
+        this.insertionPoints = insertionPoints;
+        this.insertedTerms = insertedTerms;
+        this.extensionCost = extensionCost;
+        this.valueCount = base.getValueCount() + insertionPoints.size();
+        boolean isBase = added == null && readerToBase.length == baseCoreKeys.length;
+        for (int i = 0; isBase && i < readerToBase.length; i++) {
+            isBase = readerToBase[i] == i;
+        }
+        this.isBase = isBase;
+
+        this.insertionsBeforeBlock = new long[Math.toIntExact((base.getValueCount() >>> BLOCK_SHIFT) + 2)];
+        final PackedLongValues.Iterator it = insertionPoints.iterator();
+        long insertions = 0;
+        long next = it.hasNext() ? it.next() : Long.MAX_VALUE;
+        for (int block = 0; block < insertionsBeforeBlock.length; block++) {
+            final long blockStart = (long) block << BLOCK_SHIFT;
+            while (next < blockStart) {
+                insertions++;
+                next = it.hasNext() ? it.next() : Long.MAX_VALUE;
+            }
+            insertionsBeforeBlock[block] = insertions;
+        }
+    }
+
+    /**
+     * Global ordinals that are all in the given {@link OrdinalMap}, which was built for segments with the given core cache keys,
+     * in the order of the reader.
+     */
+    static TieredOrdinalMap of(OrdinalMap ordinalMap, IndexReader.CacheKey[] coreKeys) {
+        final int[] readerToBase = new int[coreKeys.length];
+        final int[] readerToAdded = new int[coreKeys.length];
+        for (int i = 0; i < coreKeys.length; i++) {
+            readerToBase[i] = i;
+            readerToAdded[i] = -1;
+        }
+        final PackedLongValues empty = PackedLongValues.monotonicBuilder(0f).build();
+        return new TieredOrdinalMap(ordinalMap, coreKeys, readerToBase, null, readerToAdded, empty, empty, empty, 0);
+    }
+
+    private static long countSegments(int[] readerToSegment) {
+        long count = 0;
+        for (int segment : readerToSegment) {
+            if (segment >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int[] invert(int[] readerToSegment, int numSegments) {
+        final int[] segmentToReader = new int[numSegments];
+        for (int i = 0; i < readerToSegment.length; i++) {
+            if (readerToSegment[i] >= 0) {
+                segmentToReader[readerToSegment[i]] = i;
+            }
+        }
+        return segmentToReader;
+    }
+
+    /**
+     * The {@link OrdinalMap} of the base segments.
+     */
+    OrdinalMap base() {
+        return base;
+    }
+
+    /**
+     * The core cache keys of the base segments, in the order of the segments of {@link #base()}.
+     */
+    IndexReader.CacheKey[] baseCoreKeys() {
+        return baseCoreKeys;
+    }
+
+    /**
+     * The estimated cost of building this map and the previous ones that extended the same base, in terms read.
+     */
+    long extensionCost() {
+        return extensionCost;
+    }
+
+    /**
+     * Whether both maps extend the same base.
+     */
+    public boolean hasSameBase(TieredOrdinalMap other) {
+        return base == other.base;
+    }
+
+    /**
+     * Whether some segments are not part of the base.
+     */
+    public boolean hasAddedSegments() {
+        return added != null;
+    }
+
+    /**
+     * Whether global ordinals are the ordinals of {@link #base()}, with segments in the same order.
+     */
+    boolean isBase() {
+        return isBase;
+    }
+
+    public long getValueCount() {
+        return valueCount;
+    }
+
+    /**
+     * Returns the mapping from the ordinals of the segment at {@code segmentIndex} in the reader to global ordinals.
+     */
+    public LongValues getGlobalOrds(int segmentIndex) {
+        final int baseSegment = readerToBase[segmentIndex];
+        if (baseSegment >= 0) {
+            final LongValues baseOrds = base.getGlobalOrds(baseSegment);
+            if (insertionPoints.size() == 0) {
+                return baseOrds;
+            }
+            return new LongValues() {
+                @Override
+                public long get(long segmentOrd) {
+                    final long baseOrd = baseOrds.get(segmentOrd);
+                    return baseOrd + insertionsUpTo(baseOrd);
+                }
+            };
+        }
+        final LongValues addedOrds = added.getGlobalOrds(readerToAdded[segmentIndex]);
+        return new LongValues() {
+            @Override
+            public long get(long segmentOrd) {
+                return addedToGlobal.get(addedOrds.get(segmentOrd));
+            }
+        };
+    }
+
+    /**
+     * Returns the term of the given global ordinal, looking it up with one of the given {@link TermsEnum}s, one per segment of the reader.
+     */
+    public BytesRef lookupOrd(long globalOrd, TermsEnum[] lookups) throws IOException {
+        // find the number of inserted terms that sort before globalOrd, the global ordinal of the i-th inserted term is its
+        // insertion point + i
+        long low = 0;
+        long high = insertionPoints.size();
+        while (low < high) {
+            final long mid = (low + high) >>> 1;
+            if (insertionPoints.get(mid) + mid < globalOrd) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        final int segmentIndex;
+        final long segmentOrd;
+        if (low < insertionPoints.size() && insertionPoints.get(low) + low == globalOrd) {
+            final long addedOrd = insertedTerms.get(low);
+            segmentIndex = addedToReader[added.getFirstSegmentNumber(addedOrd)];
+            segmentOrd = added.getFirstSegmentOrd(addedOrd);
+        } else {
+            final long baseOrd = globalOrd - low;
+            segmentIndex = baseToReader[base.getFirstSegmentNumber(baseOrd)];
+            segmentOrd = base.getFirstSegmentOrd(baseOrd);
+        }
+        lookups[segmentIndex].seekExact(segmentOrd);
+        return lookups[segmentIndex].term();
+    }
+
+    /**
+     * The number of inserted terms that sort before the base term with the given ordinal.
+     */
+    private long insertionsUpTo(long baseOrd) {
+        final int block = (int) (baseOrd >>> BLOCK_SHIFT);
+        long low = insertionsBeforeBlock[block];
+        long high = insertionsBeforeBlock[block + 1];
+        while (low < high) {
+            final long mid = (low + high) >>> 1;
+            if (insertionPoints.get(mid) <= baseOrd) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        long size = BASE_RAM_BYTES_USED + base.ramBytesUsed() + RamUsageEstimator.shallowSizeOf(baseCoreKeys);
+        size += RamUsageEstimator.sizeOf(readerToBase) + RamUsageEstimator.sizeOf(baseToReader);
+        if (added != null) {
+            size += added.ramBytesUsed();
+        }
+        size += RamUsageEstimator.sizeOf(readerToAdded) + RamUsageEstimator.sizeOf(addedToReader);
+        size += addedToGlobal.ramBytesUsed() + insertionPoints.ramBytesUsed() + insertedTerms.ramBytesUsed();
+        return size + RamUsageEstimator.sizeOf(insertionsBeforeBlock);
+    }
+}
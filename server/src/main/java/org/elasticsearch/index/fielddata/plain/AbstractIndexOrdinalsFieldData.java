@@ -19,12 +19,14 @@ import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.index.fielddata.IndexFieldDataCache;
 import org.elasticsearch.index.fielddata.IndexOrdinalsFieldData;
 import org.elasticsearch.index.fielddata.LeafOrdinalsFieldData;
 import org.elasticsearch.index.fielddata.RamAccountingTermsEnum;
 import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsBuilder;
 import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsIndexFieldData;
+import org.elasticsearch.index.fielddata.ordinals.TieredOrdinalMap;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.script.field.ToScriptFieldFactory;
 import org.elasticsearch.search.aggregations.support.ValuesSourceType;
@@ -131,12 +133,21 @@ public abstract class AbstractIndexOrdinalsFieldData implements IndexOrdinalsFie
 
     @Override
     public IndexOrdinalsFieldData loadGlobalDirect(DirectoryReader indexReader) throws Exception {
+        return loadGlobalDirect(indexReader, null);
+    }
+
+    /**
+     * Load global ordinals for the given reader, extending the {@code previous} ones if they were built for a reader whose
+     * segments are still part of this one.
+     */
+    public IndexOrdinalsFieldData loadGlobalDirect(DirectoryReader indexReader, @Nullable TieredOrdinalMap previous) throws Exception {
         return GlobalOrdinalsBuilder.build(
             indexReader,
             this,
             breakerService.getBreaker(CircuitBreaker.FIELDDATA),
             logger,
-            toScriptFieldFactory
+            toScriptFieldFactory,
+            previous
         );
     }
 
@@ -145,6 +156,15 @@ public abstract class AbstractIndexOrdinalsFieldData implements IndexOrdinalsFie
         return false;
     }
 
+    /**
+     * Whether the global ordinals of this field may be extended from the ones of a previous reader. Extended global ordinals only
+     * build a Lucene {@link org.apache.lucene.index.OrdinalMap} when {@link IndexOrdinalsFieldData#getOrdinalMap()} is called, and that
+     * map is not accounted for, so fields whose queries need it must not extend their global ordinals.
+     */
+    public boolean supportsIncrementalGlobalOrdinals() {
+        return true;
+    }
+
     private static ElasticsearchException handleCacheLoadException(Exception e) {
         if (e instanceof ElasticsearchException ese) {
             return ese;
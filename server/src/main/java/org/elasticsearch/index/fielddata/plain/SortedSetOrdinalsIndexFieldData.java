@@ -38,27 +38,63 @@ public class SortedSetOrdinalsIndexFieldData extends AbstractIndexOrdinalsFieldD
         private final String name;
         private final ToScriptFieldFactory<SortedSetDocValues> toScriptFieldFactory;
         private final ValuesSourceType valuesSourceType;
+        private final boolean incrementalGlobalOrdinals;
 
         public Builder(String name, ValuesSourceType valuesSourceType, ToScriptFieldFactory<SortedSetDocValues> toScriptFieldFactory) {
+            this(name, valuesSourceType, toScriptFieldFactory, true);
+        }
+
+        /**
+         * @param incrementalGlobalOrdinals whether global ordinals may be extended from the ones of a previous reader, see
+         *                                  {@link AbstractIndexOrdinalsFieldData#supportsIncrementalGlobalOrdinals()}
+         */
+        public Builder(
+            String name,
+            ValuesSourceType valuesSourceType,
+            ToScriptFieldFactory<SortedSetDocValues> toScriptFieldFactory,
+            boolean incrementalGlobalOrdinals
+        ) {
             this.name = name;
             this.toScriptFieldFactory = toScriptFieldFactory;
             this.valuesSourceType = valuesSourceType;
+            this.incrementalGlobalOrdinals = incrementalGlobalOrdinals;
         }
 
         @Override
         public SortedSetOrdinalsIndexFieldData build(IndexFieldDataCache cache, CircuitBreakerService breakerService) {
-            return new SortedSetOrdinalsIndexFieldData(cache, name, valuesSourceType, breakerService, toScriptFieldFactory);
+            return new SortedSetOrdinalsIndexFieldData(
+                cache,
+                name,
+                valuesSourceType,
+                breakerService,
+                toScriptFieldFactory,
+                incrementalGlobalOrdinals
+            );
         }
     }
 
+    private final boolean incrementalGlobalOrdinals;
+
     public SortedSetOrdinalsIndexFieldData(
         IndexFieldDataCache cache,
         String fieldName,
         ValuesSourceType valuesSourceType,
         CircuitBreakerService breakerService,
         ToScriptFieldFactory<SortedSetDocValues> toScriptFieldFactory
+    ) {
+        this(cache, fieldName, valuesSourceType, breakerService, toScriptFieldFactory, true);
+    }
+
+    public SortedSetOrdinalsIndexFieldData(
+        IndexFieldDataCache cache,
+        String fieldName,
+        ValuesSourceType valuesSourceType,
+        CircuitBreakerService breakerService,
+        ToScriptFieldFactory<SortedSetDocValues> toScriptFieldFactory,
+        boolean incrementalGlobalOrdinals
     ) {
         super(fieldName, valuesSourceType, cache, breakerService, toScriptFieldFactory);
+        this.incrementalGlobalOrdinals = incrementalGlobalOrdinals;
     }
 
     @Override
@@ -112,4 +148,9 @@ public class SortedSetOrdinalsIndexFieldData extends AbstractIndexOrdinalsFieldD
     public boolean supportsGlobalOrdinalsMapping() {
         return true;
     }
+
+    @Override
+    public boolean supportsIncrementalGlobalOrdinals() {
+        return incrementalGlobalOrdinals;
+    }
 }
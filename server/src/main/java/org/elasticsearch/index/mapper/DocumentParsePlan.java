@@ -0,0 +1,66 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.mapper;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lookups that the {@link DocumentParser} resolves once per {@link MappingLookup} rather than once per parsed field. Documents
+ * with a stable schema hit the same handful of fields over and over again, so the parser resolves their names through these
+ * tables and only falls back to the generic, dynamic mapping aware path for fields that the mapping doesn't know about.
+ * <ul>
+ *     <li>The mappers of the root object, metadata fields included, in a single table. The generic path checks the metadata
+ *     fields and then the root object's fields for every top level field.</li>
+ *     <li>The mappers that swallow values of fields that are shadowed by runtime fields. The generic path builds a new one for
+ *     every such value.</li>
+ * </ul>
+ * Both tables are built from the same immutable mapping that the generic path reads so they always resolve to the same mappers.
+ */
+final class DocumentParsePlan {
+    private final Map<String, Mapper> rootMappers;
+    private final Map<String, FieldMapper> runtimeFieldMappers;
+
+    private DocumentParsePlan(Map<String, Mapper> rootMappers, Map<String, FieldMapper> runtimeFieldMappers) {
+        this.rootMappers = rootMappers;
+        this.runtimeFieldMappers = runtimeFieldMappers;
+    }
+
+    static DocumentParsePlan build(Mapping mapping) {
+        RootObjectMapper root = mapping.getRoot();
+        Map<String, Mapper> rootMappers = new HashMap<>(root.mappers);
+        for (MetadataFieldMapper metadataMapper : mapping.getSortedMetadataMappers()) {
+            if (metadataMapper != null) {
+                // metadata fields take precedence over the root object's fields, just like in the generic path
+                rootMappers.put(metadataMapper.fullPath(), metadataMapper);
+            }
+        }
+        Map<String, FieldMapper> runtimeFieldMappers = new HashMap<>();
+        for (RuntimeField runtimeField : root.runtimeFields()) {
+            runtimeField.asMappedFieldTypes().forEach(ft -> runtimeFieldMappers.put(ft.name(), DocumentParser.noopFieldMapper(ft.name())));
+        }
+        return new DocumentParsePlan(Map.copyOf(rootMappers), Map.copyOf(runtimeFieldMappers));
+    }
+
+    /**
+     * The mapper for a field of the root object, including metadata fields, or {@code null} if the mapping doesn't know it.
+     */
+    Mapper rootMapper(String name) {
+        return rootMappers.get(name);
+    }
+
+    /**
+     * The mapper that swallows the values of a field that's shadowed by a runtime field, or {@code null} if there isn't a runtime
+     * field with this path in the mapping.
+     */
+    FieldMapper runtimeFieldMapper(String path) {
+        return runtimeFieldMappers.get(path);
+    }
+}
@@ -946,12 +946,13 @@ public final class DocumentParser {
         if (fieldType != null) {
             // we haven't found a mapper with this name above, which means if a field type is found it is for sure a runtime field.
             assert fieldType.hasDocValues() == false && fieldType.isAggregatable() && fieldType.isSearchable();
-            return noopFieldMapper(fieldPath);
+            FieldMapper runtimeFieldMapper = context.mappingLookup().parsePlan().runtimeFieldMapper(fieldPath);
+            return runtimeFieldMapper != null ? runtimeFieldMapper : noopFieldMapper(fieldPath);
         }
         return null;
     }
 
-    private static FieldMapper noopFieldMapper(String path) {
+    static FieldMapper noopFieldMapper(String path) {
         return new FieldMapper(
             NOOP_FIELD_MAPPER_NAME,
             new MappedFieldType(NOOP_FIELD_MAPPER_NAME, false, false, false, TextSearchInfo.NONE, Collections.emptyMap()) {
@@ -1070,6 +1071,7 @@ public final class DocumentParser {
     private static class RootDocumentParserContext extends DocumentParserContext {
         private final ContentPath path = new ContentPath();
         private final XContentParser parser;
+        private final DocumentParsePlan parsePlan;
         private final LuceneDocument document;
         private final List<LuceneDocument> documents = new ArrayList<>();
         private final long maxAllowedNumNestedDocs;
@@ -1094,6 +1096,7 @@ public final class DocumentParser {
             } else {
                 this.parser = parser;
             }
+            this.parsePlan = mappingLookup.parsePlan();
             this.document = new LuceneDocument();
             this.documents.add(document);
             this.maxAllowedNumNestedDocs = indexSettings().getMappingNestedDocsLimit();
@@ -1102,11 +1105,7 @@ public final class DocumentParser {
 
         @Override
         public Mapper getMapper(String name) {
-            Mapper mapper = getMetadataMapper(name);
-            if (mapper != null) {
-                return mapper;
-            }
-            return super.getMapper(name);
+            return parsePlan.rootMapper(name);
         }
 
         @Override
@@ -59,6 +59,7 @@ public final class MappingLookup {
     private final List<FieldMapper> indexTimeScriptMappers;
     private final Mapping mapping;
     private final int totalFieldsCount;
+    private volatile DocumentParsePlan parsePlan;
 
     /**
      * Creates a new {@link MappingLookup} instance by parsing the provided mapping and extracting its field definitions.
@@ -237,6 +238,19 @@ public final class MappingLookup {
         return fieldMappers.get(field);
     }
 
+    /**
+     * The lookups that the {@link DocumentParser} resolves once per mapping, built the first time a document is parsed.
+     */
+    DocumentParsePlan parsePlan() {
+        DocumentParsePlan plan = parsePlan;
+        if (plan == null) {
+            // racing threads build equivalent plans, we keep whichever comes last
+            plan = DocumentParsePlan.build(mapping);
+            parsePlan = plan;
+        }
+        return plan;
+    }
+
     FieldTypeLookup fieldTypesLookup() {
         return fieldTypeLookup;
     }
@@ -25,6 +25,7 @@ import org.elasticsearch.client.internal.Client;
 import org.elasticsearch.common.ParsingException;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.lucene.search.Queries;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.IndexSortConfig;
@@ -96,6 +97,8 @@ public class SearchExecutionContext extends QueryRewriteContext {
     private final IndexSearcher searcher;
     private boolean cacheable = true;
     private final SetOnce<Boolean> frozen = new SetOnce<>();
+    private long nowRoundingMillis = -1L;
+    private boolean usesRoundedNow = false;
     private Set<String> fieldsInIndex = null;
 
     private final Map<String, Query> namedQueries = new HashMap<>();
@@ -231,6 +234,7 @@ public class SearchExecutionContext extends QueryRewriteContext {
             source.requestSize,
             source.mapperMetrics
         );
+        this.nowRoundingMillis = source.nowRoundingMillis;
     }
 
     private SearchExecutionContext(
@@ -655,12 +659,35 @@ public class SearchExecutionContext extends QueryRewriteContext {
 
     /**
      * Returns the time in milliseconds that is shared across all resources involved. Even across shards and nodes.
+     * If {@link #roundNowInMillis} was called, this is the time rounded up to the end of its rounding interval and using it keeps
+     * this context cacheable.
      */
     public long nowInMillis() {
+        if (nowRoundingMillis > 0 && frozen.get() == null) {
+            usesRoundedNow = true;
+            return Math.ceilDiv(nowInMillis.getAsLong(), nowRoundingMillis) * nowRoundingMillis;
+        }
         failIfFrozen();
         return nowInMillis.getAsLong();
     }
 
+    /**
+     * Rounds {@link #nowInMillis()} up to a multiple of {@code nowRounding}, so that the requests of a rounding interval resolve "now"
+     * to the same time and remain cacheable. The request cache then keys entries on {@link #roundedNowInMillis()}. This MUST be called
+     * before the request is parsed.
+     */
+    public void roundNowInMillis(TimeValue nowRounding) {
+        assert frozen.get() == null : "now is rounded after the context was frozen";
+        this.nowRoundingMillis = nowRounding.millis();
+    }
+
+    /**
+     * Returns the rounded time that {@link #nowInMillis()} returned, or {@code -1} if this context didn't use a rounded now.
+     */
+    public long roundedNowInMillis() {
+        return usesRoundedNow ? Math.ceilDiv(nowInMillis.getAsLong(), nowRoundingMillis) * nowRoundingMillis : -1L;
+    }
+
     public Client getClient() {
         failIfFrozen(); // we somebody uses a terms filter with lookup for instance can't be cached...
         return client;
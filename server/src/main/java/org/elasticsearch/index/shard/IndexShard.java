@@ -46,6 +46,7 @@ import org.elasticsearch.cluster.routing.RecoverySource.SnapshotRecoverySource;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.allocation.decider.DiskThresholdDecider;
 import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.io.DiskIoBufferPool;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
@@ -81,6 +82,8 @@ import org.elasticsearch.index.bulk.stats.BulkStats;
 import org.elasticsearch.index.bulk.stats.ShardBulkStats;
 import org.elasticsearch.index.cache.IndexCache;
 import org.elasticsearch.index.cache.bitset.ShardBitsetFilterCache;
+import org.elasticsearch.index.cache.query.CostAwareQueryCachingPolicy;
+import org.elasticsearch.index.cache.query.QueryCacheShapeStats;
 import org.elasticsearch.index.cache.query.TrivialQueryCachingPolicy;
 import org.elasticsearch.index.cache.request.ShardRequestCache;
 import org.elasticsearch.index.codec.CodecService;
@@ -135,9 +138,11 @@ import org.elasticsearch.index.store.StoreStats;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.index.translog.TranslogConfig;
 import org.elasticsearch.index.translog.TranslogStats;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.index.warmer.ShardIndexWarmerService;
 import org.elasticsearch.index.warmer.WarmerStats;
 import org.elasticsearch.indices.IndexingMemoryController;
+import org.elasticsearch.indices.IndicesQueryCache;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
@@ -293,6 +298,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     private final RefreshListeners refreshListeners;
 
     private final AtomicLong lastSearcherAccess = new AtomicLong();
+    private final AtomicLong lastRefreshedMillis = new AtomicLong();
     private final AtomicReference<Translog.Location> pendingRefreshLocation = new AtomicReference<>();
     private final RefreshPendingLocationListener refreshPendingLocationListener;
     private final RefreshFieldHasValueListener refreshFieldHasValueListener;
@@ -332,7 +338,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         final LongSupplier relativeTimeInNanosSupplier,
         final Engine.IndexCommitListener indexCommitListener,
         final MapperMetrics mapperMetrics,
-        final IndexingStatsSettings indexingStatsSettings
+        final IndexingStatsSettings indexingStatsSettings,
+        final TranslogSyncCoordinator translogSyncCoordinator
     ) throws IOException {
         super(shardRouting.shardId(), indexSettings);
         assert shardRouting.initializing();
@@ -376,7 +383,17 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         logger.debug("state: [CREATED]");
 
         this.checkIndexOnStartup = indexSettings.getValue(IndexSettings.INDEX_CHECK_ON_STARTUP);
-        this.translogConfig = new TranslogConfig(shardId, shardPath().resolveTranslog(), indexSettings, bigArrays);
+        this.translogConfig = new TranslogConfig(
+            shardId,
+            shardPath().resolveTranslog(),
+            indexSettings,
+            bigArrays,
+            TranslogConfig.DEFAULT_BUFFER_SIZE,
+            DiskIoBufferPool.INSTANCE,
+            TranslogConfig.NOOP_OPERATION_LISTENER,
+            true,
+            translogSyncCoordinator.group(path.getRootDataPath(), threadPool)
+        );
         final String aId = shardRouting.allocationId().getId();
         final long primaryTerm = indexSettings.getIndexMetadata().primaryTerm(shardId.id());
         this.pendingPrimaryTerm = primaryTerm;
@@ -401,6 +418,10 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         // to be computed on a per-shard basis
         if (IndexModule.INDEX_QUERY_CACHE_EVERYTHING_SETTING.get(settings)) {
             cachingPolicy = TrivialQueryCachingPolicy.ALWAYS;
+        } else if (IndexModule.INDEX_QUERY_CACHE_COST_AWARE_SETTING.get(settings)) {
+            cachingPolicy = new CostAwareQueryCachingPolicy(
+                IndicesQueryCache.INDICES_CACHE_QUERY_COUNT_SETTING.get(indexSettings.getNodeSettings())
+            );
         } else {
             cachingPolicy = new UsageTrackingQueryCachingPolicy();
         }
@@ -414,6 +435,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             externalRefreshMetric
         );
         lastSearcherAccess.set(threadPool.relativeTimeInMillis());
+        lastRefreshedMillis.set(threadPool.relativeTimeInMillis());
         persistMetadata(path, indexSettings, shardRouting, null, logger);
         this.useRetentionLeasesInPeerRecovery = replicationTracker.hasAllPeerRecoveryRetentionLeases();
         this.refreshPendingLocationListener = new RefreshPendingLocationListener();
@@ -1429,6 +1451,16 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return segmentsStats;
     }
 
+    /**
+     * Query cache usage per query shape, empty unless the shard uses the {@link CostAwareQueryCachingPolicy}.
+     */
+    public Map<String, QueryCacheShapeStats> queryCacheShapeStats() {
+        if (cachingPolicy instanceof CostAwareQueryCachingPolicy costAware) {
+            return costAware.shapeStats();
+        }
+        return Map.of();
+    }
+
     public WarmerStats warmerStats() {
         return shardWarmerService.stats();
     }
@@ -4052,6 +4084,10 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                     engine.maybePruneDeletes(); // try to prune the deletes in the engine if we accumulated some
                     setRefreshPending(engine);
                     l.onResponse(false);
+                } else if (listenerNeedsRefresh == false && deferScheduledRefresh(engine)) {
+                    logger.trace("scheduledRefresh: not searched since the last refresh or merges are behind, deferring refresh");
+                    engine.maybePruneDeletes(); // try to prune the deletes in the engine if we accumulated some
+                    l.onResponse(false);
                 } else {
                     logger.trace("scheduledRefresh: refresh with source [schedule]");
                     engine.maybeRefresh("schedule", l.map(Engine.RefreshResult::refreshed));
@@ -4064,6 +4100,23 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         });
     }
 
+    /**
+     * Whether to skip a scheduled refresh that would otherwise happen, see {@link IndexSettings#INDEX_REFRESH_VISIBILITY_TARGET_SETTING}.
+     * Searches that need the changes since the last refresh see them within the visibility target either way, so we only pay for
+     * the refresh, and the small segment it creates, early if someone searched the shard since the last refresh.
+     */
+    private boolean deferScheduledRefresh(Engine engine) {
+        final long visibilityTargetMillis = indexSettings.getRefreshVisibilityTarget().millis();
+        if (visibilityTargetMillis < 0) {
+            return false;
+        }
+        final long lastRefreshed = lastRefreshedMillis.get();
+        if (threadPool.relativeTimeInMillis() - lastRefreshed >= visibilityTargetMillis) {
+            return false;
+        }
+        return lastSearcherAccess.get() < lastRefreshed || engine.isThrottled();
+    }
+
     /**
      * Returns true if this shards is search idle
      */
@@ -4115,6 +4168,9 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
 
         @Override
         public void afterRefresh(boolean didRefresh) {
+            if (didRefresh) {
+                lastRefreshedMillis.set(threadPool.relativeTimeInMillis());
+            }
             if (didRefresh && lastWriteLocation != null) {
                 pendingRefreshLocation.updateAndGet(pendingLocation -> {
                     if (pendingLocation == null || pendingLocation.compareTo(lastWriteLocation) <= 0) {
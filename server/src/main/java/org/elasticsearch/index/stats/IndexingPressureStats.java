@@ -14,6 +14,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.xcontent.ToXContentFragment;
 import org.elasticsearch.xcontent.XContentBuilder;
 
@@ -53,6 +54,9 @@ public class IndexingPressureStats implements Writeable, ToXContentFragment {
     private final long currentPrimaryOps;
     private final long currentReplicaOps;
 
+    @Nullable
+    private final IndexingStageStats stageStats;
+
     public IndexingPressureStats(StreamInput in) throws IOException {
         totalCombinedCoordinatingAndPrimaryBytes = in.readVLong();
         totalCoordinatingBytes = in.readVLong();
@@ -105,6 +109,12 @@ public class IndexingPressureStats implements Writeable, ToXContentFragment {
             largeOpsRejections = -1L;
             totalLargeRejectedOpsBytes = -1L;
         }
+
+        if (in.getTransportVersion().onOrAfter(TransportVersions.INDEXING_PRESSURE_STAGE_STATS)) {
+            stageStats = in.readOptionalWriteable(IndexingStageStats::new);
+        } else {
+            stageStats = null;
+        }
     }
 
     public IndexingPressureStats(
@@ -131,7 +141,8 @@ public class IndexingPressureStats implements Writeable, ToXContentFragment {
         long lowWaterMarkSplits,
         long highWaterMarkSplits,
         long largeOpsRejections,
-        long totalRejectedLargeOpsBytes
+        long totalRejectedLargeOpsBytes,
+        @Nullable IndexingStageStats stageStats
     ) {
         this.totalCombinedCoordinatingAndPrimaryBytes = totalCombinedCoordinatingAndPrimaryBytes;
         this.totalCoordinatingBytes = totalCoordinatingBytes;
@@ -160,6 +171,7 @@ public class IndexingPressureStats implements Writeable, ToXContentFragment {
         this.highWaterMarkSplits = highWaterMarkSplits;
         this.largeOpsRejections = largeOpsRejections;
         this.totalLargeRejectedOpsBytes = totalRejectedLargeOpsBytes;
+        this.stageStats = stageStats;
     }
 
     @Override
@@ -197,6 +209,10 @@ public class IndexingPressureStats implements Writeable, ToXContentFragment {
             out.writeVLong(largeOpsRejections);
             out.writeVLong(totalLargeRejectedOpsBytes);
         }
+
+        if (out.getTransportVersion().onOrAfter(TransportVersions.INDEXING_PRESSURE_STAGE_STATS)) {
+            out.writeOptionalWriteable(stageStats);
+        }
     }
 
     public long getTotalCombinedCoordinatingAndPrimaryBytes() {
@@ -295,6 +311,14 @@ public class IndexingPressureStats implements Writeable, ToXContentFragment {
         return totalLargeRejectedOpsBytes;
     }
 
+    /**
+     * The time shard level bulk requests spent in each stage on the primary, {@code null} if these stats don't belong to a single node.
+     */
+    @Nullable
+    public IndexingStageStats getStageStats() {
+        return stageStats;
+    }
+
     private static final String COMBINED = "combined_coordinating_and_primary";
     private static final String COMBINED_IN_BYTES = "combined_coordinating_and_primary_in_bytes";
     private static final String COORDINATING = "coordinating";
@@ -342,6 +366,9 @@ public class IndexingPressureStats implements Writeable, ToXContentFragment {
         builder.endObject();
         builder.humanReadableField(LIMIT_IN_BYTES, LIMIT, ByteSizeValue.ofBytes(memoryLimit));
         builder.endObject();
+        if (stageStats != null) {
+            stageStats.toXContent(builder, params);
+        }
         return builder.endObject();
     }
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.stats;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.IndexingStageMetrics;
+import org.elasticsearch.xcontent.ToXContentFragment;
+import org.elasticsearch.xcontent.XContentBuilder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time that shard level bulk requests spent in each stage on the primary, see {@link IndexingStageMetrics}. Stages are keyed by
+ * name so nodes can add stages without breaking the wire format.
+ */
+public class IndexingStageStats implements Writeable, ToXContentFragment {
+
+    private final Map<String, StageStats> stages;
+
+    public IndexingStageStats(Map<String, StageStats> stages) {
+        this.stages = stages;
+    }
+
+    public IndexingStageStats(StreamInput in) throws IOException {
+        this.stages = in.readOrderedMap(StreamInput::readString, StageStats::new);
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeMap(stages, StreamOutput::writeWriteable);
+    }
+
+    public Map<String, StageStats> getStages() {
+        return stages;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("stages");
+        for (Map.Entry<String, StageStats> entry : stages.entrySet()) {
+            builder.startObject(entry.getKey());
+            entry.getValue().toXContent(builder);
+            builder.endObject();
+        }
+        return builder.endObject();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return stages.equals(((IndexingStageStats) o).stages);
+    }
+
+    @Override
+    public int hashCode() {
+        return stages.hashCode();
+    }
+
+    /**
+     * The total time spent in a stage and a histogram of the time operations spent in it, with buckets as returned by
+     * {@link IndexingStageMetrics#getBucketUpperBoundsMicros()} plus an extra bucket for times longer than the longest upper bound.
+     */
+    public static class StageStats implements Writeable {
+        private final long totalMicros;
+        private final long[] histogram;
+
+        public StageStats(long totalMicros, long[] histogram) {
+            this.totalMicros = totalMicros;
+            this.histogram = histogram;
+        }
+
+        StageStats(StreamInput in) throws IOException {
+            this(in.readVLong(), in.readVLongArray());
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeVLong(totalMicros);
+            out.writeVLongArray(histogram);
+        }
+
+        public long getCount() {
+            return Arrays.stream(histogram).sum();
+        }
+
+        public long getTotalMicros() {
+            return totalMicros;
+        }
+
+        public long[] getHistogram() {
+            return histogram;
+        }
+
+        private void toXContent(XContentBuilder builder) throws IOException {
+            builder.field("count", getCount());
+            if (builder.humanReadable()) {
+                builder.field("total_time", new TimeValue(totalMicros, TimeUnit.MICROSECONDS).toString());
+            }
+            builder.field("total_time_in_micros", totalMicros);
+            final int[] bucketBounds = IndexingStageMetrics.getBucketUpperBoundsMicros();
+            builder.startArray("histogram");
+            for (int i = 0; i < histogram.length; i++) {
+                if (histogram[i] == 0) {
+                    continue;
+                }
+                builder.startObject();
+                if (i > 0 && i <= bucketBounds.length) {
+                    builder.field("ge_micros", bucketBounds[i - 1]);
+                }
+                if (i < bucketBounds.length) {
+                    builder.field("lt_micros", bucketBounds[i]);
+                }
+                builder.field("count", histogram[i]);
+                builder.endObject();
+            }
+            builder.endArray();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            StageStats that = (StageStats) o;
+            return totalMicros == that.totalMicros && Arrays.equals(histogram, that.histogram);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(totalMicros, Arrays.hashCode(histogram));
+        }
+    }
+}
@@ -13,6 +13,7 @@ import org.elasticsearch.common.io.DiskIoBufferPool;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.IndexVersions;
 import org.elasticsearch.index.shard.ShardId;
@@ -38,6 +39,8 @@ public final class TranslogConfig {
     private final DiskIoBufferPool diskIoBufferPool;
     private final OperationListener operationListener;
     private final boolean fsync;
+    @Nullable
+    private final TranslogSyncCoordinator.Group syncGroup;
 
     /**
      * Creates a new TranslogConfig instance
@@ -80,6 +83,20 @@ public final class TranslogConfig {
         DiskIoBufferPool diskIoBufferPool,
         OperationListener operationListener,
         boolean fsync
+    ) {
+        this(shardId, translogPath, indexSettings, bigArrays, bufferSize, diskIoBufferPool, operationListener, fsync, null);
+    }
+
+    public TranslogConfig(
+        ShardId shardId,
+        Path translogPath,
+        IndexSettings indexSettings,
+        BigArrays bigArrays,
+        ByteSizeValue bufferSize,
+        DiskIoBufferPool diskIoBufferPool,
+        OperationListener operationListener,
+        boolean fsync,
+        @Nullable TranslogSyncCoordinator.Group syncGroup
     ) {
         this.bufferSize = bufferSize;
         this.indexSettings = indexSettings;
@@ -89,6 +106,7 @@ public final class TranslogConfig {
         this.diskIoBufferPool = diskIoBufferPool;
         this.operationListener = operationListener;
         this.fsync = fsync;
+        this.syncGroup = syncGroup;
     }
 
     /**
@@ -145,6 +163,15 @@ public final class TranslogConfig {
         return fsync;
     }
 
+    /**
+     * The group that batches syncs of this translog with the other translogs on the same data path, or {@code null} if this
+     * translog always syncs on its own.
+     */
+    @Nullable
+    public TranslogSyncCoordinator.Group getSyncGroup() {
+        return syncGroup;
+    }
+
     /**
      * @return {@code true} if the configuration allows the Translog files to exist, {@code false} otherwise. In the case there is no
      * translog, the shard is not writeable.
@@ -0,0 +1,304 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.action.support.RefCountingRunnable;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.core.Tuple;
+import org.elasticsearch.index.seqno.SequenceNumbers;
+import org.elasticsearch.telemetry.metric.LongHistogram;
+import org.elasticsearch.telemetry.metric.MeterRegistry;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Batches translog syncs from all the shards on a node that keep their data on the same data path. Each shard normally syncs its
+ * own translog as soon as a request asks for it, so a node with many shards that use {@code request} durability issues many
+ * small, concurrent fsyncs to the same disk. When {@link #GROUP_COMMIT_WINDOW_SETTING} is set, the shards hand their syncs to
+ * the {@link Group} for their data path instead. The group waits for up to the window for other shards to ask for a sync too and
+ * then runs one sync per translog for everything that arrived in the meantime on the {@link ThreadPool.Names#FLUSH} pool, while the
+ * indexing threads carry on. The syncs of the different translogs of a batch run in parallel.
+ */
+public class TranslogSyncCoordinator {
+    private static final Logger logger = LogManager.getLogger(TranslogSyncCoordinator.class);
+
+    /**
+     * How long to wait for other shards to ask for a sync before syncing. {@code -1}, the default, disables group commit and
+     * every shard syncs its own translog. {@code 0} groups syncs that are already waiting without waiting for more.
+     */
+    public static final Setting<TimeValue> GROUP_COMMIT_WINDOW_SETTING = Setting.timeSetting(
+        "indices.translog.group_commit.window",
+        TimeValue.MINUS_ONE,
+        TimeValue.MINUS_ONE,
+        TimeValue.timeValueMillis(100),
+        Setting.Property.Dynamic,
+        Setting.Property.NodeScope
+    );
+
+    /**
+     * Batches with fewer translogs than this sync them one after the other on the draining thread, handing an fsync to another thread
+     * costs more than what running two of them at the same time saves.
+     */
+    static final int MIN_TRANSLOGS_TO_SYNC_IN_PARALLEL = 3;
+
+    public static final String BATCH_SIZE_HISTOGRAM = "es.translog.group_commit.batch_size.histogram";
+    public static final String SYNC_TIME_HISTOGRAM = "es.translog.group_commit.sync_time.histogram";
+
+    private final ConcurrentMap<Path, Group> groups = ConcurrentCollections.newConcurrentMap();
+    private final LongHistogram batchSize;
+    private final LongHistogram syncTime;
+    private volatile TimeValue window;
+
+    public TranslogSyncCoordinator(ClusterSettings clusterSettings, MeterRegistry meterRegistry) {
+        this.batchSize = meterRegistry.registerLongHistogram(
+            BATCH_SIZE_HISTOGRAM,
+            "Number of translog sync requests served by a single group commit",
+            "count"
+        );
+        this.syncTime = meterRegistry.registerLongHistogram(
+            SYNC_TIME_HISTOGRAM,
+            "Time it takes to sync all the translogs in a group commit",
+            "micros"
+        );
+        clusterSettings.initializeAndWatch(GROUP_COMMIT_WINDOW_SETTING, window -> this.window = window);
+    }
+
+    /**
+     * The group that batches syncs for translogs on the given data path.
+     */
+    public Group group(Path dataPath, ThreadPool threadPool) {
+        return groups.computeIfAbsent(dataPath, p -> new Group(threadPool));
+    }
+
+    /**
+     * Syncs a translog up to a location and global checkpoint.
+     */
+    @FunctionalInterface
+    public interface SyncTarget {
+        void sync(Translog.Location location, long globalCheckpoint) throws IOException;
+    }
+
+    /**
+     * A request to sync a {@link SyncTarget}. Failures are tracked per request so that a failure to sync one shard's translog
+     * doesn't fail the requests of the other shards in the same batch.
+     */
+    private static final class SyncRequest {
+        private final SyncTarget target;
+        private final Translog.Location location;
+        private final long globalCheckpoint;
+        private Exception failure;
+
+        private SyncRequest(SyncTarget target, Translog.Location location, long globalCheckpoint) {
+            this.target = target;
+            this.location = location;
+            this.globalCheckpoint = globalCheckpoint;
+        }
+    }
+
+    /**
+     * Batches syncs for all the translogs on one data path. Callers only queue their sync and return. The first sync that arrives
+     * while nothing is queued schedules a drain on the {@link ThreadPool.Names#FLUSH} pool after the window, so that indexing threads
+     * never wait for the window or for the fsyncs of other shards. Syncs that arrive while a drain is running are picked up by the
+     * next drain, after another window.
+     */
+    public final class Group {
+        private final ThreadPool threadPool;
+        private final Executor executor;
+        private final Object mutex = new Object();
+        private List<Tuple<SyncRequest, Consumer<Exception>>> pending = new ArrayList<>();
+        // whether a drain is scheduled or running, guarded by mutex
+        private boolean draining;
+
+        private Group(ThreadPool threadPool) {
+            this.threadPool = threadPool;
+            this.executor = threadPool.executor(ThreadPool.Names.FLUSH);
+        }
+
+        /**
+         * Whether syncs should go through this group or straight to the shard's translog.
+         */
+        public boolean isEnabled() {
+            return window.nanos() >= 0;
+        }
+
+        /**
+         * Syncs {@code target} up to {@code location} and {@code globalCheckpoint} together with the other syncs that arrive
+         * within the window. The {@code target} must be the same instance for all syncs of a translog so they can be merged.
+         * The listener is notified on the {@link ThreadPool.Names#FLUSH} pool, with the caller's thread context.
+         */
+        public void sync(SyncTarget target, Translog.Location location, long globalCheckpoint, Consumer<Exception> listener) {
+            SyncRequest request = new SyncRequest(target, location, globalCheckpoint);
+            Supplier<ThreadContext.StoredContext> restorableContext = threadPool.getThreadContext().newRestorableContext(false);
+            Consumer<Exception> contextPreservingListener = e -> {
+                try (ThreadContext.StoredContext ignore = restorableContext.get()) {
+                    listener.accept(e == null ? request.failure : e);
+                }
+            };
+            final boolean scheduleDrain;
+            synchronized (mutex) {
+                pending.add(new Tuple<>(request, contextPreservingListener));
+                scheduleDrain = draining == false;
+                draining = true;
+            }
+            if (scheduleDrain) {
+                scheduleDrain();
+            }
+        }
+
+        private void scheduleDrain() {
+            AbstractRunnable drain = new AbstractRunnable() {
+                @Override
+                protected void doRun() {
+                    drain();
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    failPending(e);
+                }
+            };
+            try (ThreadContext.StoredContext ignore = threadPool.getThreadContext().stashContext()) {
+                long nanos = window.nanos();
+                if (nanos > 0) {
+                    threadPool.schedule(drain, TimeValue.timeValueNanos(nanos), executor);
+                } else {
+                    executor.execute(drain);
+                }
+            } catch (RejectedExecutionException e) {
+                drain.onRejection(e);
+            }
+        }
+
+        private void drain() {
+            final List<Tuple<SyncRequest, Consumer<Exception>>> candidates = takePending();
+            final long startNanos = System.nanoTime();
+            try (RefCountingRunnable refs = new RefCountingRunnable(() -> onDrained(candidates, startNanos))) {
+                write(candidates, refs);
+            }
+        }
+
+        private void onDrained(List<Tuple<SyncRequest, Consumer<Exception>>> candidates, long startNanos) {
+            syncTime.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+            batchSize.record(candidates.size());
+            notifyListeners(candidates, null);
+            final boolean scheduleDrain;
+            synchronized (mutex) {
+                scheduleDrain = pending.isEmpty() == false;
+                draining = scheduleDrain;
+            }
+            if (scheduleDrain) {
+                scheduleDrain();
+            }
+        }
+
+        private void failPending(Exception e) {
+            final List<Tuple<SyncRequest, Consumer<Exception>>> candidates;
+            synchronized (mutex) {
+                candidates = pending;
+                pending = new ArrayList<>();
+                draining = false;
+            }
+            notifyListeners(candidates, e);
+        }
+
+        private List<Tuple<SyncRequest, Consumer<Exception>>> takePending() {
+            synchronized (mutex) {
+                List<Tuple<SyncRequest, Consumer<Exception>>> candidates = pending;
+                pending = new ArrayList<>();
+                return candidates;
+            }
+        }
+
+        private static void notifyListeners(List<Tuple<SyncRequest, Consumer<Exception>>> candidates, Exception exception) {
+            for (Tuple<SyncRequest, Consumer<Exception>> candidate : candidates) {
+                try {
+                    candidate.v2().accept(exception);
+                } catch (Exception e) {
+                    logger.warn("failed to notify callback", e);
+                }
+            }
+        }
+
+        /**
+         * Syncs every translog of the batch once. The translogs live on different files, so their fsyncs are independent and run in
+         * parallel on the {@link ThreadPool.Names#FLUSH} pool rather than one after the other: the batch then takes about as long as
+         * its slowest fsync instead of the sum of them all. The last translog is synced on the draining thread itself, and so are all
+         * of them if there are fewer than {@link #MIN_TRANSLOGS_TO_SYNC_IN_PARALLEL}.
+         */
+        private void write(List<Tuple<SyncRequest, Consumer<Exception>>> candidates, RefCountingRunnable refs) {
+            Map<SyncTarget, List<SyncRequest>> byTarget = new IdentityHashMap<>();
+            for (Tuple<SyncRequest, Consumer<Exception>> candidate : candidates) {
+                byTarget.computeIfAbsent(candidate.v1().target, t -> new ArrayList<>()).add(candidate.v1());
+            }
+            final boolean parallel = byTarget.size() >= MIN_TRANSLOGS_TO_SYNC_IN_PARALLEL;
+            int remaining = byTarget.size();
+            for (Map.Entry<SyncTarget, List<SyncRequest>> entry : byTarget.entrySet()) {
+                final Releasable ref = refs.acquire();
+                final AbstractRunnable sync = new AbstractRunnable() {
+                    @Override
+                    protected void doRun() throws IOException {
+                        syncTarget(entry.getKey(), entry.getValue());
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        logger.debug("failed to sync translog", e);
+                        for (SyncRequest request : entry.getValue()) {
+                            request.failure = e;
+                        }
+                    }
+
+                    @Override
+                    public void onAfter() {
+                        ref.close();
+                    }
+                };
+                if (--remaining == 0 || parallel == false) {
+                    sync.run();
+                } else {
+                    // a rejection fails the requests of this translog only, through onRejection
+                    executor.execute(sync);
+                }
+            }
+        }
+
+        private static void syncTarget(SyncTarget target, List<SyncRequest> requests) throws IOException {
+            Translog.Location location = Translog.Location.EMPTY;
+            long globalCheckpoint = SequenceNumbers.UNASSIGNED_SEQ_NO;
+            for (SyncRequest request : requests) {
+                if (request.globalCheckpoint != SequenceNumbers.UNASSIGNED_SEQ_NO) {
+                    globalCheckpoint = SequenceNumbers.max(globalCheckpoint, request.globalCheckpoint);
+                }
+                location = location.compareTo(request.location) >= 0 ? location : request.location;
+            }
+            target.sync(location, globalCheckpoint);
+        }
+    }
+}
@@ -12,13 +12,16 @@ package org.elasticsearch.indices;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.BulkScorer;
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.LRUQueryCache;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryCache;
 import org.apache.lucene.search.QueryCachingPolicy;
+import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.ScorerSupplier;
 import org.apache.lucene.search.Weight;
+import org.elasticsearch.common.CheckedSupplier;
 import org.elasticsearch.common.lucene.ShardCoreKeyMap;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
@@ -26,6 +29,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Predicates;
+import org.elasticsearch.index.cache.query.CostAwareQueryCachingPolicy;
 import org.elasticsearch.index.cache.query.QueryCacheStats;
 import org.elasticsearch.index.shard.ShardId;
 
@@ -72,6 +76,10 @@ public class IndicesQueryCache implements QueryCache, Closeable {
     // See onDocIdSetEviction for more info
     private final Map<Object, StatsAndCount> stats2 = Collections.synchronizedMap(new IdentityHashMap<>());
 
+    // The cache callbacks don't tell which policy a lookup was made for, nor which query a doc id set was built for,
+    // so CachingWeightWrapper records it here while it calls into a weight whose policy wants to know about costs
+    private final ThreadLocal<CostTracking> costTracking = new ThreadLocal<>();
+
     public IndicesQueryCache(Settings settings) {
         final ByteSizeValue size = INDICES_CACHE_QUERY_SIZE_SETTING.get(settings);
         final int count = INDICES_CACHE_QUERY_COUNT_SETTING.get(settings);
@@ -147,16 +155,19 @@ public class IndicesQueryCache implements QueryCache, Closeable {
         final Weight in = cache.doCache(weight, policy);
         // We wrap the weight to track the readers it sees and map them with
         // the shards they belong to
-        return new CachingWeightWrapper(in);
+        return new CachingWeightWrapper(in, policy instanceof CostAwareQueryCachingPolicy costAware ? costAware : null);
     }
 
     private class CachingWeightWrapper extends Weight {
 
         private final Weight in;
+        @Nullable
+        private final CostAwareQueryCachingPolicy costAwarePolicy;
 
-        protected CachingWeightWrapper(Weight in) {
+        protected CachingWeightWrapper(Weight in, @Nullable CostAwareQueryCachingPolicy costAwarePolicy) {
             super(in.getQuery());
             this.in = in;
+            this.costAwarePolicy = costAwarePolicy;
         }
 
         @Override
@@ -168,13 +179,58 @@ public class IndicesQueryCache implements QueryCache, Closeable {
         @Override
         public int count(LeafReaderContext context) throws IOException {
             shardKeyMap.add(context.reader());
-            return in.count(context);
+            if (costAwarePolicy == null) {
+                return in.count(context);
+            }
+            return trackCosts(() -> in.count(context));
         }
 
         @Override
         public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
             shardKeyMap.add(context.reader());
-            return in.scorerSupplier(context);
+            if (costAwarePolicy == null) {
+                return in.scorerSupplier(context);
+            }
+            final ScorerSupplier supplier = trackCosts(() -> in.scorerSupplier(context));
+            if (supplier == null) {
+                return null;
+            }
+            // doc id sets are built lazily, when the scorer is pulled from the supplier
+            return new ScorerSupplier() {
+                @Override
+                public Scorer get(long leadCost) throws IOException {
+                    return trackCosts(() -> supplier.get(leadCost));
+                }
+
+                @Override
+                public BulkScorer bulkScorer() throws IOException {
+                    return trackCosts(supplier::bulkScorer);
+                }
+
+                @Override
+                public long cost() {
+                    return supplier.cost();
+                }
+
+                @Override
+                public void setTopLevelScoringClause() throws IOException {
+                    supplier.setTopLevelScoringClause();
+                }
+            };
+        }
+
+        private <T> T trackCosts(CheckedSupplier<T, IOException> action) throws IOException {
+            final CostTracking previous = costTracking.get();
+            costTracking.set(new CostTracking(costAwarePolicy, in.getQuery()));
+            try {
+                return action.get();
+            } finally {
+                if (previous == null) {
+                    costTracking.remove();
+                } else {
+                    costTracking.set(previous);
+                }
+            }
         }
 
         @Override
@@ -246,6 +302,17 @@ public class IndicesQueryCache implements QueryCache, Closeable {
         }
     }
 
+    private static class CostTracking {
+        final CostAwareQueryCachingPolicy policy;
+        final Query query;
+        long buildTimeInNanos = -1;
+
+        CostTracking(CostAwareQueryCachingPolicy policy, Query query) {
+            this.policy = policy;
+            this.query = query;
+        }
+    }
+
     private static class StatsAndCount {
         volatile int count;
         final Stats stats;
@@ -335,6 +402,24 @@ public class IndicesQueryCache implements QueryCache, Closeable {
                 stats2.put(readerCoreKey, statsAndCount);
             }
             statsAndCount.count += 1;
+
+            final CostTracking tracking = costTracking.get();
+            if (tracking != null && tracking.buildTimeInNanos >= 0) {
+                tracking.policy.onCache(tracking.query, tracking.buildTimeInNanos, ramBytesUsed);
+                tracking.buildTimeInNanos = -1;
+            }
+        }
+
+        @Override
+        protected CacheAndCount cacheImpl(BulkScorer scorer, int maxDoc) throws IOException {
+            final CostTracking tracking = costTracking.get();
+            if (tracking == null) {
+                return super.cacheImpl(scorer, maxDoc);
+            }
+            final long startTime = System.nanoTime();
+            final CacheAndCount cacheAndCount = super.cacheImpl(scorer, maxDoc);
+            tracking.buildTimeInNanos = System.nanoTime() - startTime;
+            return cacheAndCount;
         }
 
         @Override
@@ -365,6 +450,10 @@ public class IndicesQueryCache implements QueryCache, Closeable {
             super.onHit(readerCoreKey, filter);
             final Stats shardStats = getStats(readerCoreKey);
             shardStats.hitCount += 1;
+            final CostTracking tracking = costTracking.get();
+            if (tracking != null) {
+                tracking.policy.onHit(filter);
+            }
         }
 
         @Override
@@ -372,6 +461,10 @@ public class IndicesQueryCache implements QueryCache, Closeable {
             super.onMiss(readerCoreKey, filter);
             final Stats shardStats = getOrCreateStats(readerCoreKey);
             shardStats.missCount += 1;
+            final CostTracking tracking = costTracking.get();
+            if (tracking != null) {
+                tracking.policy.onMiss(filter);
+            }
         }
     }
 }
@@ -10,10 +10,15 @@
 package org.elasticsearch.indices;
 
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.CheckedSupplier;
+import org.elasticsearch.common.Numbers;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.elasticsearch.common.cache.Cache;
 import org.elasticsearch.common.cache.CacheBuilder;
 import org.elasticsearch.common.cache.CacheLoader;
@@ -60,6 +65,27 @@ public final class IndicesRequestCache implements Closeable {
         Property.Dynamic,
         Property.IndexScope
     );
+    /**
+     * Whether size 0 aggregation requests are cached per segment rather than for the whole shard, so that refreshes only invalidate the
+     * results of the segments that changed. Dynamic, and only used when the request can be cached at all.
+     */
+    public static final Setting<Boolean> INDEX_CACHE_REQUEST_SEGMENT_AGGREGATIONS_SETTING = Setting.boolSetting(
+        "index.requests.cache.segment_aggregations",
+        false,
+        Property.Dynamic,
+        Property.IndexScope
+    );
+    /**
+     * The interval that "now" is rounded up to in requests that may use the request cache, so that requests with "now" relative
+     * dates can be cached. {@code -1}, the default, doesn't round "now" and such requests aren't cached.
+     */
+    public static final Setting<TimeValue> INDEX_CACHE_REQUEST_NOW_ROUNDING_SETTING = Setting.timeSetting(
+        "index.requests.cache.now_rounding",
+        TimeValue.MINUS_ONE,
+        TimeValue.MINUS_ONE,
+        Property.Dynamic,
+        Property.IndexScope
+    );
     public static final Setting<ByteSizeValue> INDICES_CACHE_QUERY_SIZE = Setting.memorySizeSetting(
         "indices.requests.cache.size",
         "1%",
@@ -106,6 +132,35 @@ public final class IndicesRequestCache implements Closeable {
     ) throws Exception {
         final ESCacheHelper cacheHelper = ElasticsearchDirectoryReader.getESReaderCacheHelper(reader);
         assert cacheHelper != null;
+        return getOrCompute(cacheEntity, loader, mappingCacheKey, cacheHelper, cacheKey);
+    }
+
+    /**
+     * Same as {@link #getOrCompute(CacheEntity, CheckedSupplier, MappingLookup.CacheKey, DirectoryReader, BytesReference)} but for a
+     * single segment. Every refresh opens new segment readers, so the entry is keyed on the segment's core cache key and its number of
+     * live documents instead, which stays valid across refreshes that don't delete documents of the segment. Documents of a segment
+     * are only ever deleted, never brought back, so the number of live documents identifies which documents are live.
+     */
+    BytesReference getOrCompute(
+        CacheEntity cacheEntity,
+        CheckedSupplier<BytesReference, IOException> loader,
+        MappingLookup.CacheKey mappingCacheKey,
+        LeafReader reader,
+        BytesReference cacheKey
+    ) throws Exception {
+        final IndexReader.CacheHelper cacheHelper = reader.getCoreCacheHelper();
+        assert cacheHelper != null;
+        final BytesReference segmentCacheKey = CompositeBytesReference.of(cacheKey, new BytesArray(Numbers.intToBytes(reader.numDocs())));
+        return getOrCompute(cacheEntity, loader, mappingCacheKey, new ESCacheHelper.Wrapper(cacheHelper), segmentCacheKey);
+    }
+
+    private BytesReference getOrCompute(
+        CacheEntity cacheEntity,
+        CheckedSupplier<BytesReference, IOException> loader,
+        MappingLookup.CacheKey mappingCacheKey,
+        ESCacheHelper cacheHelper,
+        BytesReference cacheKey
+    ) throws Exception {
         final Key key = new Key(cacheEntity, mappingCacheKey, cacheHelper.getKey(), cacheKey);
         Loader cacheLoader = new Loader(cacheEntity, loader);
         BytesReference value = cache.computeIfAbsent(key, cacheLoader);
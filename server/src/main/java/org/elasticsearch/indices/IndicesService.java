@@ -13,6 +13,17 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader.CacheHelper;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.IndexSearcher.LeafReaderContextPartition;
+import org.apache.lucene.search.MultiCollector;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHitCountCollector;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.util.CollectionUtil;
 import org.apache.lucene.util.RamUsageEstimator;
@@ -57,6 +68,8 @@ import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
 import org.elasticsearch.common.settings.IndexScopedSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
@@ -131,6 +144,7 @@ import org.elasticsearch.index.shard.IndexingStatsSettings;
 import org.elasticsearch.index.shard.SearchOperationListener;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.translog.TranslogStats;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
@@ -144,9 +158,14 @@ import org.elasticsearch.plugins.PluginsService;
 import org.elasticsearch.plugins.internal.rewriter.QueryRewriteInterceptor;
 import org.elasticsearch.repositories.RepositoriesService;
 import org.elasticsearch.script.ScriptService;
+import org.elasticsearch.search.aggregations.AggregationPhase;
+import org.elasticsearch.search.aggregations.Aggregator;
+import org.elasticsearch.search.aggregations.AggregatorCollector;
+import org.elasticsearch.search.aggregations.InternalAggregations;
 import org.elasticsearch.search.aggregations.support.ValuesSourceRegistry;
 import org.elasticsearch.search.builder.PointInTimeBuilder;
 import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.search.query.QueryPhase;
@@ -279,6 +298,7 @@ public class IndicesService extends AbstractLifecycleComponent
     private final QueryRewriteInterceptor queryRewriteInterceptor;
     final SlowLogFieldProvider slowLogFieldProvider; // pkg-private for testingå
     private final IndexingStatsSettings indexStatsSettings;
+    private final TranslogSyncCoordinator translogSyncCoordinator;
 
     @Override
     protected void doStart() {
@@ -295,7 +315,9 @@ public class IndicesService extends AbstractLifecycleComponent
         this.threadPool = builder.threadPool;
         this.threadPoolMergeExecutorService = ThreadPoolMergeExecutorService.maybeCreateThreadPoolMergeExecutorService(
             threadPool,
-            settings
+            settings,
+            builder.clusterService.getClusterSettings(),
+            builder.meterRegistry
         );
         this.pluginsService = builder.pluginsService;
         this.nodeEnv = builder.nodeEnv;
@@ -404,6 +426,7 @@ public class IndicesService extends AbstractLifecycleComponent
         this.searchOperationListeners = builder.searchOperationListener;
         this.slowLogFieldProvider = builder.slowLogFieldProvider;
         this.indexStatsSettings = new IndexingStatsSettings(clusterService.getClusterSettings());
+        this.translogSyncCoordinator = new TranslogSyncCoordinator(clusterService.getClusterSettings(), builder.meterRegistry);
     }
 
     private static final String DANGLING_INDICES_UPDATE_THREAD_NAME = "DanglingIndices#updateTask";
@@ -778,7 +801,8 @@ public class IndicesService extends AbstractLifecycleComponent
             slowLogFieldProvider,
             mapperMetrics,
             searchOperationListeners,
-            indexStatsSettings
+            indexStatsSettings,
+            translogSyncCoordinator
         );
         for (IndexingOperationListener operationListener : indexingOperationListeners) {
             indexModule.addIndexOperationListener(operationListener);
@@ -876,7 +900,8 @@ public class IndicesService extends AbstractLifecycleComponent
             slowLogFieldProvider,
             mapperMetrics,
             searchOperationListeners,
-            indexStatsSettings
+            indexStatsSettings,
+            translogSyncCoordinator
         );
         pluginsService.forEach(p -> p.onIndexModule(indexModule));
         return indexModule.newIndexMapperService(clusterService, parserConfig, mapperRegistry, scriptService);
@@ -1606,6 +1631,50 @@ public class IndicesService extends AbstractLifecycleComponent
 
     }
 
+    /**
+     * The interval to round "now" to in the shard request, see {@link IndicesRequestCache#INDEX_CACHE_REQUEST_NOW_ROUNDING_SETTING}, or
+     * {@code null} if the request doesn't round "now". Whether {@link #canCache} accepts the request is only known once it's parsed, so
+     * the search service parses requests that rounded "now" but that it then rejects again with the exact "now". The "now" relative
+     * dates of a request are only shifted when the request cache takes its results.
+     */
+    @Nullable
+    public static TimeValue requestCacheNowRounding(ShardSearchRequest request, IndexSettings settings) {
+        final TimeValue nowRounding = settings.getValue(IndicesRequestCache.INDEX_CACHE_REQUEST_NOW_ROUNDING_SETTING);
+        if (nowRounding.millis() <= 0
+            || request.scroll() != null
+            || request.searchType() != SearchType.QUERY_THEN_FETCH
+            || (request.source() != null && request.source().profile())) {
+            return null;
+        }
+        if (request.requestCache() == null) {
+            // requests without an explicit size get the default size, which isn't 0
+            if (settings.getValue(IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING) == false
+                || request.source() == null
+                || request.source().size() != 0) {
+                return null;
+            }
+        } else if (request.requestCache() == false) {
+            return null;
+        }
+        return nowRounding;
+    }
+
+    /**
+     * The request cache key of the shard request. It includes the rounded "now" if the request resolved "now" relative dates with it.
+     */
+    private BytesReference requestCacheKey(ShardSearchRequest request, SearchContext context) throws IOException {
+        final long roundedNowInMillis = context.getSearchExecutionContext().roundedNowInMillis();
+        if (roundedNowInMillis == -1L) {
+            return request.cacheKey(requestCacheKeyDifferentiator);
+        }
+        return request.cacheKey((r, out) -> {
+            if (requestCacheKeyDifferentiator != null) {
+                requestCacheKeyDifferentiator.accept(r, out);
+            }
+            out.writeLong(roundedNowInMillis);
+        });
+    }
+
     /**
      * Loads the cache result, computing it if needed by executing the query phase and otherwise deserializing the cached
      * value into the {@link SearchContext#queryResult() context's query result}. The combination of load + compute allows
@@ -1614,10 +1683,14 @@ public class IndicesService extends AbstractLifecycleComponent
      */
     public void loadIntoContext(ShardSearchRequest request, SearchContext context) throws Exception {
         assert canCache(request, context);
+        if (canCacheSegmentAggregations(request, context)) {
+            loadSegmentAggregationsIntoContext(request, context);
+            return;
+        }
         final DirectoryReader directoryReader = context.searcher().getDirectoryReader();
 
         boolean[] loadedFromCache = new boolean[] { true };
-        BytesReference cacheKey = request.cacheKey(requestCacheKeyDifferentiator);
+        BytesReference cacheKey = requestCacheKey(request, context);
         BytesReference bytesReference = cacheShardLevelResult(
             context.indexShard(),
             context.getSearchExecutionContext().mappingCacheKey(),
@@ -1660,6 +1733,124 @@ public class IndicesService extends AbstractLifecycleComponent
         }
     }
 
+    /**
+     * Can the aggregations of the shard request be cached per segment, see
+     * {@link IndicesRequestCache#INDEX_CACHE_REQUEST_SEGMENT_AGGREGATIONS_SETTING}? This requires a request that only returns
+     * aggregations and hit counts, and aggregations that give the same result whether they're collected over the whole shard at once
+     * or over each segment on its own and then reduced, the same as for collecting them over several slices concurrently. Requests
+     * that can't are cached for the whole shard instead.
+     */
+    private static boolean canCacheSegmentAggregations(ShardSearchRequest request, SearchContext context) throws IOException {
+        if (context.indexShard().indexSettings().getValue(IndicesRequestCache.INDEX_CACHE_REQUEST_SEGMENT_AGGREGATIONS_SETTING) == false) {
+            return false;
+        }
+        if (context.aggregations() == null || context.aggregations().isInSortOrderExecutionRequired()) {
+            return false;
+        }
+        // the cached results of a segment must not depend on anything but the segment itself
+        if (context.size() != 0
+            || context.sort() != null
+            || context.parsedPostFilter() != null
+            || context.minimumScore() != null
+            || context.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER
+            || context.suggest() != null
+            || context.rescore().isEmpty() == false
+            || context.queryPhaseRankShardContext() != null
+            || request.source().rankBuilder() != null
+            || QueryPhase.getTimeoutCheck(context) != null) {
+            return false;
+        }
+        for (LeafReaderContext leaf : context.searcher().getIndexReader().leaves()) {
+            if (leaf.reader().getCoreCacheHelper() == null) {
+                return false;
+            }
+        }
+        if (context.aggregationsSupportParallelCollection() == false) {
+            return false;
+        }
+        // scores depend on the statistics of the whole shard, which change with every refresh. The aggregators are released with
+        // the context, and creating them doesn't start collecting.
+        for (Aggregator aggregator : context.aggregations().factories().createTopLevelAggregators()) {
+            if (aggregator.scoreMode().needsScores()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Like {@link #loadIntoContext} but loads the hit count and the partial aggregations of every segment on its own, computing only
+     * the ones of the segments that aren't cached yet, and then reduces them into the
+     * {@link SearchContext#queryResult() context's query result}. Segments that didn't change since the last refresh keep their
+     * cached results.
+     */
+    private void loadSegmentAggregationsIntoContext(ShardSearchRequest request, SearchContext context) throws Exception {
+        final ContextIndexSearcher searcher = context.searcher();
+        final List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+        AggregationPhase.preProcess(context);
+        final CollectorManager<AggregatorCollector, Void> aggsCollectorManager = context.aggregations().getAggsCollectorManager();
+        final Weight weight = searcher.createWeight(
+            searcher.rewrite(new ConstantScoreQuery(context.rewrittenQuery())),
+            ScoreMode.COMPLETE_NO_SCORES,
+            1f
+        );
+
+        final IndexShardCacheEntity cacheEntity = new IndexShardCacheEntity(context.indexShard());
+        final MappingLookup.CacheKey mappingCacheKey = context.getSearchExecutionContext().mappingCacheKey();
+        final BytesReference cacheKey = requestCacheKey(request, context);
+        long hitCount = 0;
+        final List<InternalAggregations> segmentAggregations = new ArrayList<>(leaves.size());
+        for (LeafReaderContext leaf : leaves) {
+            BytesReference bytesReference = indicesRequestCache.getOrCompute(cacheEntity, () -> {
+                final AggregatorCollector aggsCollector = aggsCollectorManager.newCollector();
+                final TotalHitCountCollector hitCountCollector = new TotalHitCountCollector();
+                final LeafReaderContextPartition partition = LeafReaderContextPartition.createForEntireSegment(leaf);
+                final Collector collector = MultiCollector.wrap(aggsCollector, hitCountCollector);
+                searcher.search(new LeafReaderContextPartition[] { partition }, weight, collector);
+                aggsCollector.doPostCollection();
+                try (BytesStreamOutput out = new BytesStreamOutput(512)) {
+                    out.writeVLong(hitCountCollector.getTotalHits());
+                    InternalAggregations.from(aggsCollector.internalAggregations()).writeTo(out);
+                    return out.bytes();
+                }
+            }, mappingCacheKey, leaf.reader(), cacheKey);
+            try (StreamInput in = new NamedWriteableAwareStreamInput(bytesReference.streamInput(), namedWriteableRegistry)) {
+                hitCount += in.readVLong();
+                segmentAggregations.add(InternalAggregations.readFrom(in));
+            }
+        }
+
+        final QuerySearchResult result = context.queryResult();
+        result.searchTimedOut(false);
+        result.from(context.from());
+        result.size(context.size());
+        final int trackTotalHitsUpTo = context.trackTotalHitsUpTo();
+        final TotalHits totalHits;
+        if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_DISABLED) {
+            totalHits = Lucene.TOTAL_HITS_GREATER_OR_EQUAL_TO_ZERO;
+        } else if (hitCount > trackTotalHitsUpTo) {
+            totalHits = new TotalHits(trackTotalHitsUpTo, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
+        } else {
+            totalHits = new TotalHits(hitCount, TotalHits.Relation.EQUAL_TO);
+        }
+        result.topDocs(new TopDocsAndMaxScore(new TopDocs(totalHits, Lucene.EMPTY_SCORE_DOCS), Float.NaN), null);
+        if (segmentAggregations.size() == 1) {
+            result.aggregations(segmentAggregations.get(0));
+        } else if (segmentAggregations.isEmpty() == false) {
+            result.aggregations(
+                InternalAggregations.topLevelReduce(
+                    segmentAggregations,
+                    context.aggregations().getAggregationReduceContextBuilder().forPartialReduction()
+                )
+            );
+        } else {
+            // no segments, let the aggregators build their empty results
+            final AggregatorCollector aggsCollector = aggsCollectorManager.newCollector();
+            aggsCollector.doPostCollection();
+            result.aggregations(InternalAggregations.from(aggsCollector.internalAggregations()));
+        }
+    }
+
     public long getTotalIndexingBufferBytes() {
         return indexingMemoryController.indexingBufferSize();
     }
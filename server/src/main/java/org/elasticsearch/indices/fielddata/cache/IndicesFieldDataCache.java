@@ -33,12 +33,17 @@ import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.fielddata.IndexFieldDataCache;
 import org.elasticsearch.index.fielddata.LeafFieldData;
 import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsAccounting;
+import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsIndexFieldData;
+import org.elasticsearch.index.fielddata.ordinals.TieredOrdinalMap;
+import org.elasticsearch.index.fielddata.plain.AbstractIndexOrdinalsFieldData;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.ShardUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.ToLongBiFunction;
 
@@ -79,7 +84,21 @@ public final class IndicesFieldDataCache implements RemovalListener<IndicesField
     }
 
     public IndexFieldDataCache buildIndexFieldDataCache(IndexFieldDataCache.Listener listener, Index index, String fieldName) {
-        return new IndexFieldCache(cache, index, fieldName, indicesFieldDataCacheListener, listener);
+        return buildIndexFieldDataCache(listener, index, fieldName, false);
+    }
+
+    /**
+     * Builds the cache of a field. If {@code incrementalGlobalOrdinals} is true, then global ordinals of a shard are extended with
+     * the segments of the new reader after a refresh rather than built from scratch, as long as the segments they were built for
+     * have not been merged away.
+     */
+    public IndexFieldDataCache buildIndexFieldDataCache(
+        IndexFieldDataCache.Listener listener,
+        Index index,
+        String fieldName,
+        boolean incrementalGlobalOrdinals
+    ) {
+        return new IndexFieldCache(cache, index, fieldName, incrementalGlobalOrdinals, indicesFieldDataCacheListener, listener);
     }
 
     public Cache<Key, Accountable> getCache() {
@@ -92,6 +111,7 @@ public final class IndicesFieldDataCache implements RemovalListener<IndicesField
         assert key != null && key.listeners != null;
         IndexFieldCache indexCache = key.indexCache;
         final Accountable value = notification.getValue();
+        indexCache.forgetGlobalOrdinals(key.shardId, value);
         for (IndexFieldDataCache.Listener listener : key.listeners) {
             try {
                 listener.onRemoval(
@@ -122,13 +142,28 @@ public final class IndicesFieldDataCache implements RemovalListener<IndicesField
         final Index index;
         final String fieldName;
         private final Cache<Key, Accountable> cache;
+        private final boolean incrementalGlobalOrdinals;
         private final Listener[] listeners;
+        // the last global ordinals built for each shard, which the next ones extend if their base segments are still around. They
+        // are only kept while their cache entry exists so they are always accounted for.
+        private final Map<ShardId, TieredOrdinalMap> lastGlobalOrdinals = new ConcurrentHashMap<>();
 
         IndexFieldCache(final Cache<Key, Accountable> cache, Index index, String fieldName, Listener... listeners) {
+            this(cache, index, fieldName, false, listeners);
+        }
+
+        IndexFieldCache(
+            final Cache<Key, Accountable> cache,
+            Index index,
+            String fieldName,
+            boolean incrementalGlobalOrdinals,
+            Listener... listeners
+        ) {
             this.listeners = listeners;
             this.index = index;
             this.fieldName = fieldName;
             this.cache = cache;
+            this.incrementalGlobalOrdinals = incrementalGlobalOrdinals;
         }
 
         @Override
@@ -173,7 +208,7 @@ public final class IndicesFieldDataCache implements RemovalListener<IndicesField
             final Accountable accountable = cache.computeIfAbsent(key, k -> {
                 ElasticsearchDirectoryReader.addReaderCloseListener(indexReader, IndexFieldCache.this);
                 Collections.addAll(k.listeners, this.listeners);
-                final IndexFieldData<?> ifd = indexFieldData.loadGlobalDirect(indexReader);
+                final IndexFieldData<?> ifd = loadGlobalDirect(shardId, indexReader, indexFieldData);
                 for (Listener listener : k.listeners) {
                     try {
                         listener.onCache(shardId, fieldName, (Accountable) ifd);
@@ -190,6 +225,54 @@ public final class IndicesFieldDataCache implements RemovalListener<IndicesField
             return (IFD) accountable;
         }
 
+        private IndexFieldData<?> loadGlobalDirect(
+            @Nullable ShardId shardId,
+            DirectoryReader indexReader,
+            IndexFieldData.Global<?> indexFieldData
+        ) throws Exception {
+            if (incrementalGlobalOrdinals == false
+                || shardId == null
+                || indexFieldData instanceof AbstractIndexOrdinalsFieldData == false
+                || ((AbstractIndexOrdinalsFieldData) indexFieldData).supportsIncrementalGlobalOrdinals() == false) {
+                return indexFieldData.loadGlobalDirect(indexReader);
+            }
+            final TieredOrdinalMap previous = lastGlobalOrdinals.get(shardId);
+            final AbstractIndexOrdinalsFieldData ordinalsFieldData = (AbstractIndexOrdinalsFieldData) indexFieldData;
+            final IndexFieldData<?> ifd = ordinalsFieldData.loadGlobalDirect(indexReader, previous);
+            if (ifd instanceof GlobalOrdinalsIndexFieldData globalOrdinals) {
+                final TieredOrdinalMap ordinalMap = globalOrdinals.getTieredOrdinalMap();
+                if (previous != null && ordinalMap.hasSameBase(previous)) {
+                    lastGlobalOrdinals.put(shardId, ordinalMap);
+                } else {
+                    // Global ordinals were built from scratch. Forget about them once one of their segments is closed, they can't
+                    // be extended anymore then. This also happens when the shard is closed.
+                    final List<LeafReaderContext> leaves = indexReader.leaves();
+                    final IndexReader.CacheHelper cacheHelper = leaves.get(leaves.size() - 1).reader().getCoreCacheHelper();
+                    if (cacheHelper == null) {
+                        lastGlobalOrdinals.remove(shardId);
+                    } else {
+                        lastGlobalOrdinals.put(shardId, ordinalMap);
+                        cacheHelper.addClosedListener(
+                            closedKey -> lastGlobalOrdinals.computeIfPresent(
+                                shardId,
+                                (id, last) -> last.hasSameBase(ordinalMap) ? null : last
+                            )
+                        );
+                    }
+                }
+            }
+            return ifd;
+        }
+
+        /**
+         * Forget the global ordinals of a shard once their cache entry is removed. Newer global ordinals may have replaced them already.
+         */
+        void forgetGlobalOrdinals(@Nullable ShardId shardId, Accountable value) {
+            if (shardId != null && value instanceof GlobalOrdinalsIndexFieldData globalOrdinals) {
+                lastGlobalOrdinals.remove(shardId, globalOrdinals.getTieredOrdinalMap());
+            }
+        }
+
         @Override
         public void onClose(CacheKey key) {
             cache.invalidate(new Key(this, key, null));
@@ -198,6 +281,7 @@ public final class IndicesFieldDataCache implements RemovalListener<IndicesField
 
         @Override
         public void clear() {
+            lastGlobalOrdinals.clear();
             for (Key key : cache.keys()) {
                 if (key.indexCache.index.equals(index)) {
                     cache.invalidate(key);
@@ -209,6 +293,9 @@ public final class IndicesFieldDataCache implements RemovalListener<IndicesField
 
         @Override
         public void clear(String fieldName) {
+            if (fieldName.equals(this.fieldName)) {
+                lastGlobalOrdinals.clear();
+            }
             for (Key key : cache.keys()) {
                 if (key.indexCache.index.equals(index)) {
                     if (key.indexCache.fieldName.equals(fieldName)) {
@@ -11,6 +11,8 @@ package org.elasticsearch.ingest;
 
 import org.elasticsearch.common.metrics.CounterMetric;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * <p>Metrics to measure ingest actions, specific to pipelines.
  */
@@ -26,10 +28,16 @@ public class IngestPipelineMetric extends IngestMetric {
      */
     private final CounterMetric bytesProduced = new CounterMetric();
 
+    /**
+     * The time documents spent waiting for a thread before this pipeline, as the first pipeline, started on them.
+     */
+    private final CounterMetric queueTimeInNanos = new CounterMetric();
+
     void add(IngestPipelineMetric metrics) {
         super.add(metrics);
         bytesIngested.inc(metrics.bytesIngested.count());
         bytesProduced.inc(metrics.bytesProduced.count());
+        queueTimeInNanos.inc(metrics.queueTimeInNanos.count());
     }
 
     /**
@@ -48,6 +56,21 @@ public class IngestPipelineMetric extends IngestMetric {
         this.bytesProduced.inc(bytesProduced);
     }
 
+    /**
+     * Call this when a document that starts with this pipeline begins executing.
+     * @param queueTimeInNanos The time the document waited since the bulk request that contains it was first processed.
+     */
+    void queued(long queueTimeInNanos) {
+        this.queueTimeInNanos.inc(queueTimeInNanos);
+    }
+
+    /**
+     * The time documents spent waiting to start this pipeline, in milliseconds.
+     */
+    long queueTimeInMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(queueTimeInNanos.count());
+    }
+
     /**
      * Creates a serializable representation for these metrics.
      */
@@ -121,6 +121,11 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
     public static final NodeFeature PIPELINE_NAME_VALIDATION_WARNINGS = new NodeFeature("ingest.pipeline_name_special_chars_warning");
 
     private static final Logger logger = LogManager.getLogger(IngestService.class);
+    /**
+     * The fewest documents we'll run on a forked thread when {@link IngestSettings#BULK_PARALLELISM} allows it. Forking for a handful
+     * of documents costs more than it saves.
+     */
+    private static final int MIN_DOCUMENTS_PER_BULK_FORK = 32;
     private static final DeprecationLogger deprecationLogger = DeprecationLogger.getLogger(IngestService.class);
 
     private final MasterServiceTaskQueue<PipelineClusterStateUpdateTask> taskQueue;
@@ -138,6 +143,7 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
     private final List<Consumer<ClusterState>> ingestClusterStateListeners = new CopyOnWriteArrayList<>();
     private volatile ClusterState state;
     private final ProjectResolver projectResolver;
+    private volatile int bulkParallelism = IngestSettings.BULK_PARALLELISM.get(Settings.EMPTY);
 
     private static BiFunction<Long, Runnable, Scheduler.ScheduledCancellable> createScheduler(ThreadPool threadPool) {
         return (delay, command) -> threadPool.schedule(command, TimeValue.timeValueMillis(delay), threadPool.generic());
@@ -264,6 +270,15 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
         this.state = ingestService.state;
         this.failureStoreMetrics = ingestService.failureStoreMetrics;
         this.projectResolver = ingestService.projectResolver;
+        this.bulkParallelism = ingestService.bulkParallelism;
+    }
+
+    /**
+     * Set the maximum number of threads that run the pipelines of a single bulk request.
+     * See {@link IngestSettings#BULK_PARALLELISM}.
+     */
+    public void setBulkParallelism(int bulkParallelism) {
+        this.bulkParallelism = bulkParallelism;
     }
 
     private static Map<String, Processor.Factory> processorFactories(List<IngestPlugin> ingestPlugins, Processor.Parameters parameters) {
@@ -851,6 +866,8 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
             @Override
             protected void doRun() {
                 final Thread originalThread = Thread.currentThread();
+                // documents are only collected if we might spread them over several threads, otherwise they run as we find them
+                final List<Runnable> documents = bulkParallelism > 1 ? new ArrayList<>(numberOfActionRequests) : null;
                 try (var refs = new RefCountingRunnable(() -> onCompletion.accept(originalThread, null))) {
                     int i = 0;
                     for (DocWriteRequest<?> actionRequest : actionRequests) {
@@ -867,72 +884,129 @@ public class IngestService implements ClusterStateApplier, ReportingService<Inge
                             continue;
                         }
 
-                        // start the stopwatch and acquire a ref to indicate that we're working on this document
-                        final long startTimeInNanos = System.nanoTime();
-                        totalMetrics.preIngest();
-                        if (firstPipeline != null) {
-                            firstPipeline.getMetrics().preIngestBytes(indexRequest.ramBytesUsed());
-                        }
+                        // acquire a ref to indicate that we're working on this document, the stopwatch starts once it runs
                         final int slot = i;
                         final Releasable ref = refs.acquire();
-                        final IngestDocument ingestDocument = newIngestDocument(indexRequest);
-                        final org.elasticsearch.script.Metadata originalDocumentMetadata = ingestDocument.getMetadata().clone();
-                        // the document listener gives us three-way logic: a document can fail processing (1), or it can
-                        // be successfully processed. a successfully processed document can be kept (2) or dropped (3).
-                        final ActionListener<IngestPipelinesExecutionResult> documentListener = ActionListener.runAfter(
-                            new ActionListener<>() {
-                                @Override
-                                public void onResponse(IngestPipelinesExecutionResult result) {
-                                    assert result != null;
-                                    if (result.success) {
-                                        if (result.shouldKeep == false) {
-                                            onDropped.accept(slot);
-                                        } else {
-                                            assert firstPipeline != null;
-                                            firstPipeline.getMetrics().postIngestBytes(indexRequest.ramBytesUsed());
-                                        }
-                                    } else {
-                                        totalMetrics.ingestFailed();
-                                        if (IndexDocFailureStoreStatus.NOT_ENABLED.equals(result.failureStoreStatus)) {
-                                            // A failure result, but despite the target being a data stream, it does not have failure
-                                            // storage enabled currently. Capture the status in the onFailure call and skip any further
-                                            // processing
-                                            onFailure.apply(slot, result.exception, result.failureStoreStatus);
+                        final long queuedAtNanos = System.nanoTime();
+                        final Runnable document = () -> {
+                            final long startTimeInNanos = System.nanoTime();
+                            if (firstPipeline != null) {
+                                firstPipeline.getMetrics().queued(startTimeInNanos - queuedAtNanos);
+                            }
+                            totalMetrics.preIngest();
+                            if (firstPipeline != null) {
+                                firstPipeline.getMetrics().preIngestBytes(indexRequest.ramBytesUsed());
+                            }
+                            final IngestDocument ingestDocument = newIngestDocument(indexRequest);
+                            final org.elasticsearch.script.Metadata originalDocumentMetadata = ingestDocument.getMetadata().clone();
+                            // the document listener gives us three-way logic: a document can fail processing (1), or it can
+                            // be successfully processed. a successfully processed document can be kept (2) or dropped (3).
+                            final ActionListener<IngestPipelinesExecutionResult> documentListener = ActionListener.runAfter(
+                                new ActionListener<>() {
+                                    @Override
+                                    public void onResponse(IngestPipelinesExecutionResult result) {
+                                        assert result != null;
+                                        if (result.success) {
+                                            if (result.shouldKeep == false) {
+                                                onDropped.accept(slot);
+                                            } else {
+                                                assert firstPipeline != null;
+                                                firstPipeline.getMetrics().postIngestBytes(indexRequest.ramBytesUsed());
+                                            }
                                         } else {
-                                            // We were given a failure result in the onResponse method, so we must store the failure
-                                            // Recover the original document state, track a failed ingest, and pass it along
-                                            updateIndexRequestMetadata(indexRequest, originalDocumentMetadata);
-                                            onStoreFailure.apply(slot, result.failedIndex, result.exception);
+                                            totalMetrics.ingestFailed();
+                                            if (IndexDocFailureStoreStatus.NOT_ENABLED.equals(result.failureStoreStatus)) {
+                                                // A failure result, but despite the target being a data stream, it does not have failure
+                                                // storage enabled currently. Capture the status in the onFailure call and skip any further
+                                                // processing
+                                                onFailure.apply(slot, result.exception, result.failureStoreStatus);
+                                            } else {
+                                                // We were given a failure result in the onResponse method, so we must store the failure
+                                                // Recover the original document state, track a failed ingest, and pass it along
+                                                updateIndexRequestMetadata(indexRequest, originalDocumentMetadata);
+                                                onStoreFailure.apply(slot, result.failedIndex, result.exception);
+                                            }
                                         }
                                     }
-                                }
 
-                                @Override
-                                public void onFailure(Exception e) {
-                                    // The target of the request does not allow failure storage, or failed for unforeseen reason
-                                    totalMetrics.ingestFailed();
-                                    onFailure.apply(slot, e, IndexDocFailureStoreStatus.NOT_APPLICABLE_OR_UNKNOWN);
+                                    @Override
+                                    public void onFailure(Exception e) {
+                                        // The target of the request does not allow failure storage, or failed for unforeseen reason
+                                        totalMetrics.ingestFailed();
+                                        onFailure.apply(slot, e, IndexDocFailureStoreStatus.NOT_APPLICABLE_OR_UNKNOWN);
+                                    }
+                                },
+                                () -> {
+                                    // regardless of success or failure, we always stop the ingest "stopwatch" and release the ref
+                                    // to indicate that we're finished with this document
+                                    final long ingestTimeInNanos = System.nanoTime() - startTimeInNanos;
+                                    totalMetrics.postIngest(ingestTimeInNanos);
+                                    ref.close();
                                 }
-                            },
-                            () -> {
-                                // regardless of success or failure, we always stop the ingest "stopwatch" and release the ref to indicate
-                                // that we're finished with this document
-                                final long ingestTimeInNanos = System.nanoTime() - startTimeInNanos;
-                                totalMetrics.postIngest(ingestTimeInNanos);
-                                ref.close();
-                            }
-                        );
-
-                        executePipelines(pipelines, indexRequest, ingestDocument, resolveFailureStore, documentListener);
+                            );
+
+                            executePipelines(pipelines, indexRequest, ingestDocument, resolveFailureStore, documentListener);
+                        };
+                        if (documents == null) {
+                            document.run();
+                        } else {
+                            documents.add(document);
+                        }
                         assert actionRequest.index() != null;
 
                         i++;
                     }
+                    if (documents != null) {
+                        executeDocuments(documents, executor);
+                    }
                 }
             }
         });
     }
 
+    /**
+     * Runs the pipelines for the documents of a bulk request, spreading them over up to {@link #bulkParallelism} threads. Each
+     * document reports its own result by slot so the order in which they run doesn't matter. The first batch runs on the calling
+     * thread and the others are forked to {@code executor}.
+     */
+    private void executeDocuments(List<Runnable> documents, Executor executor) {
+        final int forks = Math.min(bulkParallelism, documents.size() / MIN_DOCUMENTS_PER_BULK_FORK);
+        if (forks <= 1) {
+            documents.forEach(Runnable::run);
+            return;
+        }
+        final int batchSize = (documents.size() + forks - 1) / forks;
+        for (int start = batchSize; start < documents.size(); start += batchSize) {
+            final List<Runnable> batch = documents.subList(start, Math.min(start + batchSize, documents.size()));
+            executor.execute(new AbstractRunnable() {
+                @Override
+                protected void doRun() {
+                    batch.forEach(Runnable::run);
+                }
+
+                @Override
+                public boolean isForceExecution() {
+                    // these documents were admitted along with the rest of the bulk request, we must not drop them now
+                    return true;
+                }
+
+                @Override
+                public void onRejection(Exception e) {
+                    // the executor is shutting down, run them here instead so that every document still completes
+                    doRun();
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    // executePipelines reports its failures to the document listener so this should never happen
+                    assert false : e;
+                    logger.error("unexpected failure running ingest pipelines for a bulk request", e);
+                }
+            });
+        }
+        documents.subList(0, batchSize).forEach(Runnable::run);
+    }
+
     /**
      * Returns the pipelines of the request, and updates the request so that it no longer references
      * any pipelines (both the default and final pipeline are set to the noop pipeline).
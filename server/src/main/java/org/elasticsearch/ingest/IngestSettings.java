@@ -28,5 +28,17 @@ public final class IngestSettings {
         TimeValue.timeValueSeconds(1),
         Setting.Property.NodeScope
     );
+    /**
+     * The maximum number of threads that run the pipelines of a single bulk request. Documents are independent of each other so a
+     * large bulk request with expensive pipelines can spread them over several write threads. Defaults to {@code 1}, which runs the
+     * pipelines for every document in the bulk request on the same thread.
+     */
+    public static final Setting<Integer> BULK_PARALLELISM = Setting.intSetting(
+        "ingest.bulk.parallelism",
+        1,
+        1,
+        Setting.Property.NodeScope,
+        Setting.Property.Dynamic
+    );
 
 }
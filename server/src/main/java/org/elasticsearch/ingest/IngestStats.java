@@ -75,7 +75,8 @@ public record IngestStats(Stats totalStats, List<PipelineStat> pipelineStats, Ma
             var pipelineId = in.readString();
             var pipelineStat = readStats(in);
             var byteStat = in.getTransportVersion().onOrAfter(TransportVersions.V_8_15_0) ? readByteStats(in) : ByteStats.IDENTITY;
-            pipelineStats.add(new PipelineStat(pipelineId, pipelineStat, byteStat));
+            var queueTimeInMillis = in.getTransportVersion().onOrAfter(TransportVersions.INGEST_STATS_QUEUE_TIME) ? in.readVLong() : 0L;
+            pipelineStats.add(new PipelineStat(pipelineId, pipelineStat, byteStat, queueTimeInMillis));
             int processorsSize = in.readVInt();
             var processorStatsPerPipeline = new ArrayList<ProcessorStat>(processorsSize);
             for (var j = 0; j < processorsSize; j++) {
@@ -103,6 +104,9 @@ public record IngestStats(Stats totalStats, List<PipelineStat> pipelineStats, Ma
             if (out.getTransportVersion().onOrAfter(TransportVersions.V_8_15_0)) {
                 pipelineStat.byteStats().writeTo(out);
             }
+            if (out.getTransportVersion().onOrAfter(TransportVersions.INGEST_STATS_QUEUE_TIME)) {
+                out.writeVLong(pipelineStat.queueTimeInMillis());
+            }
             List<ProcessorStat> processorStatsForPipeline = processorStats.get(pipelineStat.pipelineId());
             if (processorStatsForPipeline == null) {
                 out.writeVInt(0);
@@ -137,6 +141,11 @@ public record IngestStats(Stats totalStats, List<PipelineStat> pipelineStats, Ma
                         builder.startObject(pipelineStat.pipelineId());
                         pipelineStat.stats().toXContent(builder, params);
                         pipelineStat.byteStats().toXContent(builder, params);
+                        builder.humanReadableField(
+                            "queue_time_in_millis",
+                            "queue_time",
+                            new TimeValue(pipelineStat.queueTimeInMillis(), TimeUnit.MILLISECONDS)
+                        );
                         builder.startArray("processors");
                         return builder;
                     }),
@@ -244,7 +253,12 @@ public record IngestStats(Stats totalStats, List<PipelineStat> pipelineStats, Ma
 
         Builder addPipelineMetrics(String pipelineId, IngestPipelineMetric ingestPipelineMetrics) {
             this.pipelineStats.add(
-                new PipelineStat(pipelineId, ingestPipelineMetrics.createStats(), ingestPipelineMetrics.createByteStats())
+                new PipelineStat(
+                    pipelineId,
+                    ingestPipelineMetrics.createStats(),
+                    ingestPipelineMetrics.createByteStats(),
+                    ingestPipelineMetrics.queueTimeInMillis()
+                )
             );
             return this;
         }
@@ -262,8 +276,14 @@ public record IngestStats(Stats totalStats, List<PipelineStat> pipelineStats, Ma
 
     /**
      * Container for pipeline stats.
+     *
+     * @param queueTimeInMillis - The time documents that start with this pipeline waited for a thread before it ran.
      */
-    public record PipelineStat(String pipelineId, Stats stats, ByteStats byteStats) {
+    public record PipelineStat(String pipelineId, Stats stats, ByteStats byteStats, long queueTimeInMillis) {
+        public PipelineStat(String pipelineId, Stats stats, ByteStats byteStats) {
+            this(pipelineId, stats, byteStats, 0L);
+        }
+
         static List<PipelineStat> merge(List<PipelineStat> first, List<PipelineStat> second) {
             var totalsPerPipeline = new HashMap<String, PipelineStat>();
 
@@ -272,7 +292,7 @@ public record IngestStats(Stats totalStats, List<PipelineStat> pipelineStats, Ma
 
             return totalsPerPipeline.entrySet()
                 .stream()
-                .map(v -> new PipelineStat(v.getKey(), v.getValue().stats, v.getValue().byteStats))
+                .map(v -> new PipelineStat(v.getKey(), v.getValue().stats, v.getValue().byteStats, v.getValue().queueTimeInMillis))
                 .sorted(PIPELINE_STAT_COMPARATOR)
                 .toList();
         }
@@ -282,7 +302,8 @@ public record IngestStats(Stats totalStats, List<PipelineStat> pipelineStats, Ma
             return new PipelineStat(
                 first.pipelineId,
                 Stats.merge(first.stats, second.stats),
-                ByteStats.merge(first.byteStats, second.byteStats)
+                ByteStats.merge(first.byteStats, second.byteStats),
+                first.queueTimeInMillis + second.queueTimeInMillis
             );
         }
     }
@@ -40,9 +40,11 @@ public class SearchResponseMetrics {
 
     public static final String TOOK_DURATION_TOTAL_HISTOGRAM_NAME = "es.search_response.took_durations.histogram";
     public static final String RESPONSE_COUNT_TOTAL_COUNTER_NAME = "es.search_response.response_count.total";
+    public static final String HITS_SOURCE_SIZE_HISTOGRAM_NAME = "es.search_response.hits_source_size.histogram";
 
     private final LongHistogram tookDurationTotalMillisHistogram;
     private final LongCounter responseCountTotalCounter;
+    private final LongHistogram hitsSourceSizeHistogram;
 
     public SearchResponseMetrics(MeterRegistry meterRegistry) {
         this(
@@ -57,13 +59,24 @@ public class SearchResponseMetrics {
                     + "success, partial failure, or failure, expressed as a single total counter and individual "
                     + "attribute counters",
                 "count"
+            ),
+            meterRegistry.registerLongHistogram(
+                HITS_SOURCE_SIZE_HISTOGRAM_NAME,
+                "The bytes of _source held by the hits of a search response when it is ready to be sent, which is the most "
+                    + "the response holds on the coordinating node, expressed as a histogram",
+                "bytes"
             )
         );
     }
 
-    private SearchResponseMetrics(LongHistogram tookDurationTotalMillisHistogram, LongCounter responseCountTotalCounter) {
+    private SearchResponseMetrics(
+        LongHistogram tookDurationTotalMillisHistogram,
+        LongCounter responseCountTotalCounter,
+        LongHistogram hitsSourceSizeHistogram
+    ) {
         this.tookDurationTotalMillisHistogram = tookDurationTotalMillisHistogram;
         this.responseCountTotalCounter = responseCountTotalCounter;
+        this.hitsSourceSizeHistogram = hitsSourceSizeHistogram;
     }
 
     public long recordTookTime(long tookTime) {
@@ -71,6 +84,10 @@ public class SearchResponseMetrics {
         return tookTime;
     }
 
+    public void recordHitsSourceSize(long bytes) {
+        hitsSourceSizeHistogram.record(bytes);
+    }
+
     public void incrementResponseCount(ResponseCountTotalStatus responseCountTotalStatus) {
         responseCountTotalCounter.incrementBy(
             1L,
@@ -38,6 +38,7 @@ import org.elasticsearch.index.fielddata.FieldDataContext;
 import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.fielddata.IndexNumericFieldData;
 import org.elasticsearch.index.fielddata.IndexOrdinalsFieldData;
+import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsIndexFieldData;
 import org.elasticsearch.index.mapper.IdLoader;
 import org.elasticsearch.index.mapper.KeywordFieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
@@ -253,6 +254,10 @@ final class DefaultSearchContext extends SearchContext {
         if (indexFieldData instanceof IndexOrdinalsFieldData indexOrdinalsFieldData) {
             if (indexOrdinalsFieldData.supportsGlobalOrdinalsMapping()) {
                 IndexOrdinalsFieldData global = indexOrdinalsFieldData.loadGlobal(directoryReader);
+                if (global instanceof GlobalOrdinalsIndexFieldData.Consumer consumer) {
+                    // doesn't need an OrdinalMap, which may have to be built if global ordinals were built incrementally
+                    return consumer.getValueCount();
+                }
                 OrdinalMap ordinalMap = global.getOrdinalMap();
                 if (ordinalMap != null) {
                     return ordinalMap.getValueCount();
@@ -714,6 +719,15 @@ final class DefaultSearchContext extends SearchContext {
         return trackTotalHitsUpTo;
     }
 
+    @Override
+    public boolean aggregationsSupportParallelCollection() {
+        final SearchSourceBuilder source = request.source();
+        return source != null
+            && source.aggregations() != null
+            && source.aggregations()
+                .supportsParallelCollection(field -> getFieldCardinality(field, indexService, searcher.getDirectoryReader()));
+    }
+
     @Override
     public SearchContext searchAfter(FieldDoc searchAfter) {
         this.searchAfter = searchAfter;
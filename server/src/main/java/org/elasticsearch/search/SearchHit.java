@@ -447,6 +447,21 @@ public final class SearchHit implements Writeable, ToXContentObject, RefCounted
         return this;
     }
 
+    /**
+     * The number of bytes this hit holds for {@code _source}, including the source of its inner hits.
+     * Unlike {@link #getSourceRef()} this doesn't decompress the source.
+     */
+    long sourceBytes() {
+        assert hasReferences();
+        long bytes = source == null ? 0 : source.length();
+        if (innerHits != null) {
+            for (SearchHits h : innerHits.values()) {
+                bytes += h.sourceBytes();
+            }
+        }
+        return bytes;
+    }
+
     /**
      * Is the source available or not. A source with no fields will return true. This will return false if {@code fields} doesn't contain
      * {@code _source} or if source is disabled in the mapping.
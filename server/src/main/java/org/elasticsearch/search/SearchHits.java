@@ -50,6 +50,8 @@ public final class SearchHits implements Writeable, ChunkedToXContent, RefCounte
 
     private final RefCounted refCounted;
 
+    private boolean releaseHitsOnSerialization;
+
     public static SearchHits empty(@Nullable TotalHits totalHits, float maxScore) {
         return new SearchHits(EMPTY, totalHits, maxScore);
     }
@@ -154,6 +156,34 @@ public final class SearchHits implements Writeable, ChunkedToXContent, RefCounte
         return refCounted != ALWAYS_REFERENCED;
     }
 
+    /**
+     * Release each pooled hit as soon as {@link #toXContentChunked} has written it rather than
+     * holding all of them until the whole response has been sent. This keeps large responses
+     * from pinning every hit's {@code _source} for the time it takes to flush them to a slow
+     * client. Only call this if you own the last reference to these hits and will serialize
+     * them exactly once, the hits are gone once they are written.
+     */
+    public void releaseHitsOnSerialization() {
+        assert hasReferences();
+        if (isPooled()) {
+            releaseHitsOnSerialization = true;
+        }
+    }
+
+    /**
+     * The number of bytes held by the {@code _source} of all hits, including inner hits.
+     */
+    public long sourceBytes() {
+        assert hasReferences();
+        long bytes = 0;
+        for (SearchHit hit : hits) {
+            if (hit != null) {
+                bytes += hit.sourceBytes();
+            }
+        }
+        return bytes;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         assert hasReferences();
@@ -253,9 +283,11 @@ public final class SearchHits implements Writeable, ChunkedToXContent, RefCounte
 
     private void deallocate() {
         for (int i = 0; i < hits.length; i++) {
-            assert hits[i] != null;
-            hits[i].decRef();
-            hits[i] = null;
+            // hits are already gone if they were released on serialization
+            if (hits[i] != null) {
+                hits[i].decRef();
+                hits[i] = null;
+            }
         }
     }
 
@@ -285,6 +317,7 @@ public final class SearchHits implements Writeable, ChunkedToXContent, RefCounte
     @Override
     public Iterator<? extends ToXContent> toXContentChunked(ToXContent.Params params) {
         assert hasReferences();
+        Iterator<? extends ToXContent> hitChunks = releaseHitsOnSerialization ? releasingHits() : Iterators.forArray(hits);
         return Iterators.concat(Iterators.single((b, p) -> {
             b.startObject(Fields.HITS);
             boolean totalHitAsInt = params.paramAsBoolean(RestSearchAction.TOTAL_HITS_AS_INT_PARAM, false);
@@ -303,7 +336,20 @@ public final class SearchHits implements Writeable, ChunkedToXContent, RefCounte
                 b.field(Fields.MAX_SCORE, maxScore);
             }
             return b;
-        }), ChunkedToXContentHelper.array(Fields.HITS, Iterators.forArray(hits)), ChunkedToXContentHelper.endObject());
+        }), ChunkedToXContentHelper.array(Fields.HITS, hitChunks), ChunkedToXContentHelper.endObject());
+    }
+
+    private Iterator<ToXContent> releasingHits() {
+        return Iterators.forRange(0, hits.length, i -> (b, p) -> {
+            SearchHit hit = hits[i];
+            assert hit != null : "hit [" + i + "] was already released";
+            hits[i] = null;
+            try {
+                return hit.toXContent(b, p);
+            } finally {
+                hit.decRef();
+            }
+        });
     }
 
     @Override
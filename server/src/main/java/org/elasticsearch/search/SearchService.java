@@ -1185,7 +1185,37 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         boolean includeAggregations
     ) throws IOException {
         checkCancelled(task);
-        final DefaultSearchContext context = createSearchContext(readerContext, request, defaultSearchTimeout, resultsType);
+        DefaultSearchContext context = createAndParseContext(readerContext, request, resultsType, includeAggregations, true);
+        try {
+            if (context.getSearchExecutionContext().roundedNowInMillis() != -1L && IndicesService.canCache(request, context) == false) {
+                // "now" is only rounded so that the requests of an interval share their request cache entries. The request cache
+                // won't take this one, so we parse it again with the exact "now" rather than shift its results for nothing.
+                DefaultSearchContext rounded = context;
+                context = null;
+                rounded.close();
+                context = createAndParseContext(readerContext, request, resultsType, includeAggregations, false);
+            }
+            context.setTask(task);
+
+            context.preProcess();
+        } catch (Exception e) {
+            if (context != null) {
+                context.close();
+            }
+            throw e;
+        }
+
+        return context;
+    }
+
+    private DefaultSearchContext createAndParseContext(
+        ReaderContext readerContext,
+        ShardSearchRequest request,
+        ResultsType resultsType,
+        boolean includeAggregations,
+        boolean roundNow
+    ) throws IOException {
+        final DefaultSearchContext context = createSearchContext(readerContext, request, defaultSearchTimeout, resultsType, roundNow);
         resultsType.addResultsObject(context);
         try {
             if (request.scroll() != null) {
@@ -1200,14 +1230,10 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
             if (context.size() == -1) {
                 context.size(DEFAULT_SIZE);
             }
-            context.setTask(task);
-
-            context.preProcess();
         } catch (Exception e) {
             context.close();
             throw e;
         }
-
         return context;
     }
 
@@ -1217,7 +1243,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         final Engine.SearcherSupplier reader = indexShard.acquireSearcherSupplier();
         final ShardSearchContextId id = new ShardSearchContextId(sessionId, idGenerator.incrementAndGet());
         try (ReaderContext readerContext = new ReaderContext(id, indexService, indexShard, reader, -1L, true)) {
-            DefaultSearchContext searchContext = createSearchContext(readerContext, request, timeout, ResultsType.NONE);
+            DefaultSearchContext searchContext = createSearchContext(readerContext, request, timeout, ResultsType.NONE, true);
             searchContext.addReleasable(readerContext.markAsUsed(0L));
             return searchContext;
         }
@@ -1228,7 +1254,8 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         ReaderContext reader,
         ShardSearchRequest request,
         TimeValue timeout,
-        ResultsType resultsType
+        ResultsType resultsType,
+        boolean roundNow
     ) throws IOException {
         boolean success = false;
         DefaultSearchContext searchContext = null;
@@ -1252,6 +1279,10 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                 minimumDocsPerSlice,
                 memoryAccountingBufferSize
             );
+            TimeValue nowRounding = roundNow ? IndicesService.requestCacheNowRounding(request, reader.indexShard().indexSettings()) : null;
+            if (nowRounding != null) {
+                searchContext.getSearchExecutionContext().roundNowInMillis(nowRounding);
+            }
             // we clone the query shard context here just for rewriting otherwise we
             // might end up with incorrect state since we are using now() or script services
             // during rewrite and normalized / evaluate templates etc.
@@ -51,6 +51,13 @@ public class AggregatorCollector implements TwoPhaseCollector {
         }
     }
 
+    /**
+     * The aggregations built by {@link #doPostCollection()}, one per top level aggregator.
+     */
+    public List<InternalAggregation> internalAggregations() {
+        return internalAggregations;
+    }
+
     @Override
     public String toString() {
         String[] aggNames = new String[aggregators.length];
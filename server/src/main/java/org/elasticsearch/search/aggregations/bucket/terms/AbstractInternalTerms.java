@@ -116,7 +116,7 @@ public abstract class AbstractInternalTerms<A extends AbstractInternalTerms<A, B
         return createBucket(docCount, aggs, docCountError, buckets.get(0));
     }
 
-    private long getDocCountError(A terms) {
+    long getDocCountError(A terms) {
         int size = terms.getBuckets().size();
         if (size == 0 || size < terms.getShardSize() || isKeyOrder(terms.getOrder())) {
             return 0;
@@ -11,6 +11,7 @@ package org.elasticsearch.search.aggregations.bucket.terms;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.core.Predicates;
+import org.elasticsearch.core.Releasables;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.AggregationReduceContext;
 import org.elasticsearch.search.aggregations.AggregatorReducer;
@@ -214,36 +215,47 @@ public class LongTerms extends InternalMappedTerms<LongTerms, LongTerms.Bucket>
         }
         return new AggregatorReducer() {
 
-            private List<InternalAggregation> aggregations = new ArrayList<>(size);
-            private boolean isPromotedToDouble = false;
+            // long terms are folded as they come until we need to promote them to double
+            private StreamingTermsReducer<LongTerms, Bucket> longTermsReducer = new StreamingTermsReducer.ForLongs(
+                LongTerms.this,
+                reduceContext,
+                size
+            );
+            private List<InternalAggregation> aggregations = null;
 
             @Override
             public void accept(InternalAggregation aggregation) {
                 if (aggregation instanceof DoubleTerms doubleTerms) {
-                    if (isPromotedToDouble == false) {
-                        promoteToDouble(aggregations);
-                        isPromotedToDouble = true;
+                    if (aggregations == null) {
+                        promoteToDouble();
                     }
                     aggregations.add(doubleTerms);
                 } else if (aggregation instanceof LongTerms longTerms) {
-                    if (isPromotedToDouble || needsPromoting.test(longTerms.format)) {
-                        if (isPromotedToDouble == false) {
-                            promoteToDouble(aggregations);
-                            isPromotedToDouble = true;
+                    if (aggregations != null || needsPromoting.test(longTerms.format)) {
+                        if (aggregations == null) {
+                            promoteToDouble();
                         }
                         aggregations.add(LongTerms.convertLongTermsToDouble(longTerms, format));
                     } else {
-                        aggregations.add(aggregation);
+                        longTermsReducer.accept(longTerms);
                     }
                 }
             }
 
-            private void promoteToDouble(List<InternalAggregation> aggregations) {
-                aggregations.replaceAll(aggregation -> LongTerms.convertLongTermsToDouble((LongTerms) aggregation, format));
+            private void promoteToDouble() {
+                aggregations = new ArrayList<>(size);
+                for (LongTerms longTerms : longTermsReducer.drain()) {
+                    aggregations.add(LongTerms.convertLongTermsToDouble(longTerms, format));
+                }
+                longTermsReducer.close();
+                longTermsReducer = null;
             }
 
             @Override
             public InternalAggregation get() {
+                if (aggregations == null) {
+                    return longTermsReducer.get();
+                }
                 try (
                     AggregatorReducer processor = ((AbstractInternalTerms<?, ?>) aggregations.get(0)).termsAggregationReducer(
                         reduceContext,
@@ -255,6 +267,11 @@ public class LongTerms extends InternalMappedTerms<LongTerms, LongTerms.Bucket>
                     return processor.get();
                 }
             }
+
+            @Override
+            public void close() {
+                Releasables.close(longTermsReducer);
+            }
         };
     }
 
@@ -0,0 +1,469 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.search.aggregations.bucket.terms;
+
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IntroSorter;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.BytesRefHash;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.common.util.LongHash;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.search.aggregations.AggregationErrors;
+import org.elasticsearch.search.aggregations.AggregationReduceContext;
+import org.elasticsearch.search.aggregations.AggregatorReducer;
+import org.elasticsearch.search.aggregations.BucketOrder;
+import org.elasticsearch.search.aggregations.DelayedBucket;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.InternalOrder;
+import org.elasticsearch.search.aggregations.TopBucketBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.elasticsearch.search.aggregations.InternalOrder.isKeyAsc;
+import static org.elasticsearch.search.aggregations.InternalOrder.isKeyOrder;
+
+/**
+ * Reduces {@link StringTerms} or {@link LongTerms} by folding the buckets of every aggregation into a hash of their keys as soon as
+ * it is accepted, rather than keeping the buckets of all aggregations until the reduction completes like
+ * {@link AbstractInternalTerms#termsAggregationReducer} does. The doc counts and doc count errors of the buckets are accumulated in
+ * {@link BigArrays}, so the memory used by the reduction only depends on the number of distinct keys and the accepted aggregations can
+ * be released right away.
+ * <p>
+ * Aggregations are buffered until they hold {@link #MIN_BUCKETS_TO_STREAM} buckets so that small reductions, like the ones of terms
+ * aggregations under other buckets, keep using the regular reducer. Buckets that have sub-aggregations can't be folded and are always
+ * reduced with the regular reducer.
+ */
+abstract class StreamingTermsReducer<A extends InternalMappedTerms<A, B>, B extends InternalTerms.Bucket<B>> implements AggregatorReducer {
+
+    /**
+     * The number of buffered buckets above which we start folding buckets.
+     */
+    static final int MIN_BUCKETS_TO_STREAM = 1024;
+
+    protected final A leader;
+    protected final AggregationReduceContext reduceContext;
+    private final int size;
+
+    private List<A> buffer;
+    private long bufferedBuckets;
+    private boolean streamable = true;
+
+    private LongArray docCounts;
+    private LongArray docCountErrors;
+    private long otherDocCount;
+    private long sumDocCountError;
+    private BucketOrder thisReduceOrder;
+    // only the class and the name of the first folded aggregation so that we don't keep its buckets around
+    private Class<?> referenceClass;
+    private String referenceName;
+
+    StreamingTermsReducer(A leader, AggregationReduceContext reduceContext, int size) {
+        this.leader = leader;
+        this.reduceContext = reduceContext;
+        this.size = size;
+        this.buffer = new ArrayList<>(size);
+    }
+
+    /**
+     * Add the key of the bucket to the hash. Return its ordinal if it was not present yet, or {@code -1-ord} if it was.
+     */
+    protected abstract long add(B bucket);
+
+    /**
+     * The number of distinct keys in the hash.
+     */
+    protected abstract long keyCount();
+
+    /**
+     * Compare the keys of two ordinals.
+     */
+    protected abstract int compareKeys(long ord1, long ord2);
+
+    /**
+     * Build the bucket of the key with the given ordinal.
+     */
+    protected abstract B buildBucket(long ord, long docCount, long docCountError);
+
+    /**
+     * Start folding buckets, allocating the hash of the keys.
+     */
+    protected abstract void startFolding();
+
+    /**
+     * Release the hash of the keys.
+     */
+    protected abstract void closeKeys();
+
+    private boolean isFolding() {
+        return docCounts != null;
+    }
+
+    @Override
+    public void accept(InternalAggregation aggregation) {
+        if (aggregation.canLeadReduction() == false) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        A terms = (A) aggregation;
+        if (streamable && hasSubAggregations(terms)) {
+            streamable = false;
+            if (isFolding()) {
+                // should not happen as sub-aggregations are the same for all aggregations, but reduce what we have folded so far
+                // like a partial reduce would and continue with the regular reducer
+                final A folded = build(false, false);
+                stopFolding();
+                buffer = new ArrayList<>(size);
+                buffer.add(folded);
+            }
+        }
+        if (isFolding()) {
+            fold(terms);
+            return;
+        }
+        buffer.add(terms);
+        bufferedBuckets += terms.getBuckets().size();
+        if (streamable && bufferedBuckets >= MIN_BUCKETS_TO_STREAM) {
+            startFolding();
+            final BigArrays bigArrays = reduceContext.bigArrays();
+            docCounts = bigArrays.newLongArray(bufferedBuckets, false);
+            docCountErrors = bigArrays.newLongArray(bufferedBuckets, false);
+            for (A buffered : buffer) {
+                fold(buffered);
+            }
+            buffer = null;
+        }
+    }
+
+    private static boolean hasSubAggregations(InternalTerms<?, ?> terms) {
+        return terms.getBuckets().isEmpty() == false && terms.getBuckets().get(0).getAggregations().asList().isEmpty() == false;
+    }
+
+    /**
+     * Fold the buckets of the aggregation, keeping track of the other doc count and the doc count errors in the same way as
+     * {@link AbstractInternalTerms#termsAggregationReducer}.
+     */
+    private void fold(A terms) {
+        if (referenceClass == null) {
+            referenceClass = terms.getClass();
+            referenceName = terms.getName();
+        } else if (referenceClass.equals(terms.getClass()) == false) {
+            throw AggregationErrors.reduceTypeMismatch(referenceName, Optional.empty());
+        }
+        if (thisReduceOrder == null) {
+            thisReduceOrder = terms.getReduceOrder();
+        } else if (thisReduceOrder != leader.getOrder() && thisReduceOrder.equals(terms.getReduceOrder()) == false) {
+            thisReduceOrder = leader.getOrder();
+        }
+        otherDocCount += terms.getSumOfOtherDocCounts();
+        final long thisAggDocCountError = leader.getDocCountError(terms);
+        leader.setDocCountError(thisAggDocCountError);
+        if (sumDocCountError != -1) {
+            if (thisAggDocCountError == -1) {
+                sumDocCountError = -1;
+            } else {
+                sumDocCountError += thisAggDocCountError;
+            }
+        }
+        final boolean showDocCountError = leader.getShowDocCountError();
+        for (B bucket : terms.getBuckets()) {
+            final long bucketDocCountError = showDocCountError
+                ? bucket.getDocCountError() - thisAggDocCountError
+                : bucket.getDocCountError();
+            long ord = add(bucket);
+            if (ord < 0) {
+                ord = -1 - ord;
+                docCounts.increment(ord, bucket.getDocCount());
+                docCountErrors.set(ord, addDocCountError(docCountErrors.get(ord), bucketDocCountError, showDocCountError));
+            } else {
+                final BigArrays bigArrays = reduceContext.bigArrays();
+                docCounts = bigArrays.grow(docCounts, ord + 1);
+                docCountErrors = bigArrays.grow(docCountErrors, ord + 1);
+                docCounts.set(ord, bucket.getDocCount());
+                docCountErrors.set(ord, addDocCountError(0, bucketDocCountError, showDocCountError));
+            }
+        }
+    }
+
+    private static long addDocCountError(long docCountError, long bucketDocCountError, boolean showDocCountError) {
+        if (docCountError == -1) {
+            return -1;
+        }
+        if (showDocCountError == false || bucketDocCountError == -1) {
+            return -1;
+        }
+        return docCountError + bucketDocCountError;
+    }
+
+    @Override
+    public InternalAggregation get() {
+        if (isFolding()) {
+            return build(reduceContext.isFinalReduce(), true);
+        }
+        try (AggregatorReducer reducer = leader.termsAggregationReducer(reduceContext, size)) {
+            buffer.forEach(reducer::accept);
+            buffer = null;
+            return reducer.get();
+        }
+    }
+
+    /**
+     * Returns the aggregations accepted so far, folded into a single aggregation if we started folding buckets.
+     */
+    List<A> drain() {
+        if (isFolding()) {
+            final A folded = build(false, false);
+            stopFolding();
+            return List.of(folded);
+        }
+        final List<A> drained = buffer;
+        buffer = null;
+        return drained;
+    }
+
+    private A build(boolean isFinalReduce, boolean consumeBuckets) {
+        BucketOrder thisReduceOrder = this.thisReduceOrder == null ? leader.getOrder() : this.thisReduceOrder;
+        final boolean sortedByKey = isKeyOrder(thisReduceOrder);
+        if (sortedByKey) {
+            // extract the primary sort in case this is a compound order.
+            thisReduceOrder = InternalOrder.key(isKeyAsc(thisReduceOrder));
+        }
+        final boolean keyAsc = sortedByKey && isKeyAsc(thisReduceOrder);
+        final long[] otherDocCount = new long[] { this.otherDocCount };
+        final List<B> result;
+        if (isKeyOrder(leader.getOrder()) && leader.getMinDocCount() <= 1) {
+            result = new ArrayList<>();
+            try (LongArray ords = ords(sortedByKey, keyAsc)) {
+                for (long i = 0; i < ords.size(); i++) {
+                    final long ord = ords.get(i);
+                    if (result.size() < leader.getRequiredSize()) {
+                        if (consumeBuckets) {
+                            reduceContext.consumeBucketsAndMaybeBreak(1);
+                        }
+                        result.add(buildBucket(ord, docCounts.get(ord), docCountErrors.get(ord)));
+                    } else {
+                        otherDocCount[0] += docCounts.get(ord);
+                    }
+                }
+            }
+        } else if (isFinalReduce) {
+            final TopBucketBuilder<B> top = TopBucketBuilder.build(
+                leader.getRequiredSize(),
+                leader.getOrder(),
+                removed -> otherDocCount[0] += removed.getDocCount(),
+                (buckets, context) -> buckets.get(0),
+                reduceContext
+            );
+            // the top buckets are sorted with the order of the aggregation so we don't need to sort them by key
+            final long keyCount = keyCount();
+            for (long ord = 0; ord < keyCount; ord++) {
+                final long docCount = docCounts.get(ord);
+                if (docCount >= leader.getMinDocCount()) {
+                    top.add(new DelayedBucket<>(List.of(buildBucket(ord, docCount, docCountErrors.get(ord)))));
+                }
+            }
+            result = top.build();
+        } else {
+            result = new ArrayList<>();
+            try (LongArray ords = ords(sortedByKey, keyAsc)) {
+                for (long i = 0; i < ords.size(); i++) {
+                    final long ord = ords.get(i);
+                    if (consumeBuckets) {
+                        reduceContext.consumeBucketsAndMaybeBreak(1);
+                    }
+                    result.add(buildBucket(ord, docCounts.get(ord), docCountErrors.get(ord)));
+                }
+            }
+        }
+        if (leader.getShowDocCountError()) {
+            for (B r : result) {
+                if (sumDocCountError == -1) {
+                    r.setDocCountError(-1);
+                } else {
+                    r.updateDocCountError(sumDocCountError);
+                }
+            }
+        }
+        long docCountError = -1;
+        if (sumDocCountError != -1) {
+            docCountError = size == 1 ? 0 : sumDocCountError;
+        }
+        return leader.create(
+            leader.getName(),
+            result,
+            isFinalReduce ? leader.getOrder() : thisReduceOrder,
+            docCountError,
+            otherDocCount[0]
+        );
+    }
+
+    /**
+     * The ordinals of the keys, sorted by key if needed.
+     */
+    private LongArray ords(boolean sortByKey, boolean keyAsc) {
+        final long keyCount = keyCount();
+        final LongArray ords = reduceContext.bigArrays().newLongArray(keyCount, false);
+        for (long ord = 0; ord < keyCount; ord++) {
+            ords.set(ord, ord);
+        }
+        if (sortByKey) {
+            new IntroSorter() {
+                private long pivot;
+
+                @Override
+                protected void setPivot(int i) {
+                    pivot = ords.get(i);
+                }
+
+                @Override
+                protected int comparePivot(int j) {
+                    final int cmp = compareKeys(pivot, ords.get(j));
+                    return keyAsc ? cmp : -cmp;
+                }
+
+                @Override
+                protected int compare(int i, int j) {
+                    final int cmp = compareKeys(ords.get(i), ords.get(j));
+                    return keyAsc ? cmp : -cmp;
+                }
+
+                @Override
+                protected void swap(int i, int j) {
+                    final long tmp = ords.get(i);
+                    ords.set(i, ords.get(j));
+                    ords.set(j, tmp);
+                }
+            }.sort(0, Math.toIntExact(keyCount));
+        }
+        return ords;
+    }
+
+    private void stopFolding() {
+        Releasables.close(docCounts, docCountErrors, this::closeKeys);
+        docCounts = null;
+        docCountErrors = null;
+        referenceClass = null;
+        referenceName = null;
+        thisReduceOrder = null;
+        otherDocCount = 0;
+        sumDocCountError = 0;
+    }
+
+    @Override
+    public void close() {
+        if (isFolding()) {
+            stopFolding();
+        }
+    }
+
+    /**
+     * Reduces {@link StringTerms}, folding their keys into a {@link BytesRefHash}.
+     */
+    static final class ForStrings extends StreamingTermsReducer<StringTerms, StringTerms.Bucket> {
+        private final BytesRef scratch1 = new BytesRef();
+        private final BytesRef scratch2 = new BytesRef();
+        private BytesRefHash keys;
+
+        ForStrings(StringTerms leader, AggregationReduceContext reduceContext, int size) {
+            super(leader, reduceContext, size);
+        }
+
+        @Override
+        protected void startFolding() {
+            keys = new BytesRefHash(1, reduceContext.bigArrays());
+        }
+
+        @Override
+        protected long add(StringTerms.Bucket bucket) {
+            return keys.add(bucket.termBytes);
+        }
+
+        @Override
+        protected long keyCount() {
+            return keys.size();
+        }
+
+        @Override
+        protected int compareKeys(long ord1, long ord2) {
+            return keys.get(ord1, scratch1).compareTo(keys.get(ord2, scratch2));
+        }
+
+        @Override
+        protected StringTerms.Bucket buildBucket(long ord, long docCount, long docCountError) {
+            final BytesRef term = BytesRef.deepCopyOf(keys.get(ord, scratch1));
+            return new StringTerms.Bucket(
+                term,
+                docCount,
+                InternalAggregations.EMPTY,
+                leader.showTermDocCountError,
+                docCountError,
+                leader.format
+            );
+        }
+
+        @Override
+        protected void closeKeys() {
+            Releasables.close(keys);
+            keys = null;
+        }
+    }
+
+    /**
+     * Reduces {@link LongTerms}, folding their keys into a {@link LongHash}.
+     */
+    static final class ForLongs extends StreamingTermsReducer<LongTerms, LongTerms.Bucket> {
+        private LongHash keys;
+
+        ForLongs(LongTerms leader, AggregationReduceContext reduceContext, int size) {
+            super(leader, reduceContext, size);
+        }
+
+        @Override
+        protected void startFolding() {
+            keys = new LongHash(1, reduceContext.bigArrays());
+        }
+
+        @Override
+        protected long add(LongTerms.Bucket bucket) {
+            return keys.add(bucket.term);
+        }
+
+        @Override
+        protected long keyCount() {
+            return keys.size();
+        }
+
+        @Override
+        protected int compareKeys(long ord1, long ord2) {
+            return Long.compare(keys.get(ord1), keys.get(ord2));
+        }
+
+        @Override
+        protected LongTerms.Bucket buildBucket(long ord, long docCount, long docCountError) {
+            return new LongTerms.Bucket(
+                keys.get(ord),
+                docCount,
+                InternalAggregations.EMPTY,
+                leader.showTermDocCountError,
+                docCountError,
+                leader.format
+            );
+        }
+
+        @Override
+        protected void closeKeys() {
+            Releasables.close(keys);
+            keys = null;
+        }
+    }
+}
@@ -152,7 +152,7 @@ public class StringTerms extends InternalMappedTerms<StringTerms, StringTerms.Bu
 
     @Override
     protected AggregatorReducer getLeaderReducer(AggregationReduceContext reduceContext, int size) {
-        return termsAggregationReducer(reduceContext, size);
+        return new StreamingTermsReducer.ForStrings(this, reduceContext, size);
     }
 
     @Override
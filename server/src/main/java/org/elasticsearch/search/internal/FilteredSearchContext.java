@@ -257,6 +257,11 @@ public abstract class FilteredSearchContext extends SearchContext {
         return in.trackTotalHitsUpTo();
     }
 
+    @Override
+    public boolean aggregationsSupportParallelCollection() {
+        return in.aggregationsSupportParallelCollection();
+    }
+
     @Override
     public SearchContext searchAfter(FieldDoc searchAfter) {
         return in.searchAfter(searchAfter);
@@ -264,6 +264,14 @@ public abstract class SearchContext implements Releasable {
      */
     public abstract int trackTotalHitsUpTo();
 
+    /**
+     * Whether the aggregations of the request give the same results when they are collected over parts of the shard on their own and
+     * then reduced, as they are when the search is split into several slices that run concurrently.
+     */
+    public boolean aggregationsSupportParallelCollection() {
+        return false;
+    }
+
     public abstract SearchContext searchAfter(FieldDoc searchAfter);
 
     public abstract FieldDoc searchAfter();
@@ -37,6 +37,7 @@ import org.elasticsearch.http.HttpStats;
 import org.elasticsearch.http.HttpStatsTests;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexVersions;
+import org.elasticsearch.index.IndexingStageMetrics;
 import org.elasticsearch.index.bulk.stats.BulkStats;
 import org.elasticsearch.index.cache.query.QueryCacheStats;
 import org.elasticsearch.index.cache.request.RequestCacheStats;
@@ -57,6 +58,7 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.ShardPath;
 import org.elasticsearch.index.shard.SparseVectorStats;
 import org.elasticsearch.index.stats.IndexingPressureStats;
+import org.elasticsearch.index.stats.IndexingStageStats;
 import org.elasticsearch.index.store.StoreStats;
 import org.elasticsearch.index.translog.TranslogStats;
 import org.elasticsearch.index.warmer.WarmerStats;
@@ -91,6 +93,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.ToIntFunction;
@@ -1054,7 +1057,8 @@ public class NodeStatsTests extends ESTestCase {
                 randomLongBetween(0, maxStatValue),
                 randomLongBetween(0, maxStatValue),
                 randomLongBetween(0, maxStatValue),
-                randomLongBetween(0, maxStatValue)
+                randomLongBetween(0, maxStatValue),
+                randomBoolean() ? null : randomIndexingStageStats()
             );
         }
         RepositoriesStats repositoriesStats = new RepositoriesStats(
@@ -1091,6 +1095,18 @@ public class NodeStatsTests extends ESTestCase {
         );
     }
 
+    private static IndexingStageStats randomIndexingStageStats() {
+        Map<String, IndexingStageStats.StageStats> stages = new LinkedHashMap<>();
+        for (IndexingStageMetrics.Stage stage : IndexingStageMetrics.Stage.values()) {
+            long[] histogram = new long[IndexingStageMetrics.BUCKET_COUNT];
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = randomLongBetween(0, 1024);
+            }
+            stages.put(stage.displayName(), new IndexingStageStats.StageStats(randomNonNegativeLong(), histogram));
+        }
+        return new IndexingStageStats(stages);
+    }
+
     private static TimeSeries randomTimeSeries() {
         if (randomBoolean()) {
             long total = randomLongBetween(0, 1024);
@@ -50,6 +50,7 @@ import org.elasticsearch.common.util.concurrent.AtomicArray;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
 import org.elasticsearch.index.IndexVersion;
+import org.elasticsearch.index.ShardBulkSizer;
 import org.elasticsearch.index.mapper.MapperException;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.TestIndexNameExpressionResolver;
@@ -64,7 +65,10 @@ import org.junit.Assume;
 import org.junit.Before;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
@@ -79,6 +83,8 @@ import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
@@ -327,6 +333,61 @@ public class BulkOperationTests extends ESTestCase {
         assertThat(bulkItemResponses.hasFailures(), is(false));
     }
 
+    /**
+     * A bulk operation should send the items for a shard in several shard level requests, one after the other, when the shard is
+     * too slow for a single request with all of them
+     */
+    public void testSplitsShardRequests() {
+        int maxItemsPerRequest = between(1, 3);
+        ShardBulkSizer shardBulkSizer = new ShardBulkSizer(Settings.EMPTY) {
+            @Override
+            public int maxItemsPerRequest(ShardId shardId) {
+                return maxItemsPerRequest;
+            }
+        };
+        int docs = between(1, 20);
+        BulkRequest bulkRequest = new BulkRequest();
+        for (int i = 0; i < docs; i++) {
+            bulkRequest.add(new IndexRequest(indexName).id(Integer.toString(i)).source(Map.of("key", "val")));
+        }
+
+        List<BulkShardRequest> shardRequests = Collections.synchronizedList(new ArrayList<>());
+        NodeClient client = getNodeClient((request, listener) -> {
+            shardRequests.add(request);
+            acceptAllShardWrites().accept(request, listener);
+        });
+
+        BulkResponse bulkItemResponses = safeAwait(
+            l -> newBulkOperation(
+                clusterState,
+                client,
+                bulkRequest,
+                new AtomicArray<>(bulkRequest.numberOfActions()),
+                mockObserver(clusterState),
+                l,
+                new FailureStoreDocumentConverter(),
+                DataStreamFailureStoreSettings.create(ClusterSettings.createBuiltInClusterSettings()),
+                new ShardBulkCoalescer(Settings.EMPTY, shardBulkSizer, threadPool.getThreadContext())
+            ).run()
+        );
+        assertThat(bulkItemResponses.hasFailures(), is(false));
+        assertThat(bulkItemResponses.getItems().length, equalTo(docs));
+
+        Map<ShardId, Integer> lastItemIdByShard = new HashMap<>();
+        int items = 0;
+        for (BulkShardRequest shardRequest : shardRequests) {
+            assertThat(shardRequest.items().length, lessThanOrEqualTo(maxItemsPerRequest));
+            for (BulkItemRequest item : shardRequest.items()) {
+                Integer last = lastItemIdByShard.put(shardRequest.shardId(), item.id());
+                if (last != null) {
+                    assertThat(item.id(), greaterThan(last));
+                }
+                items++;
+            }
+        }
+        assertThat(items, equalTo(docs));
+    }
+
     /**
      * A bulk operation to an index should partially succeed if only some of its shard level requests fail
      */
@@ -1175,7 +1236,8 @@ public class BulkOperationTests extends ESTestCase {
             observer,
             listener,
             failureStoreDocumentConverter,
-            DataStreamFailureStoreSettings.create(ClusterSettings.createBuiltInClusterSettings())
+            DataStreamFailureStoreSettings.create(ClusterSettings.createBuiltInClusterSettings()),
+            ShardBulkCoalescer.DISABLED
         );
     }
 
@@ -1187,7 +1249,8 @@ public class BulkOperationTests extends ESTestCase {
         ClusterStateObserver observer,
         ActionListener<BulkResponse> listener,
         FailureStoreDocumentConverter failureStoreDocumentConverter,
-        DataStreamFailureStoreSettings dataStreamFailureStoreSettings
+        DataStreamFailureStoreSettings dataStreamFailureStoreSettings,
+        ShardBulkCoalescer shardBulkCoalescer
     ) {
         // Time provision
         long timeZero = TimeUnit.MILLISECONDS.toNanos(randomMillisUpToYear9999() - TimeUnit.DAYS.toMillis(1));
@@ -1221,7 +1284,8 @@ public class BulkOperationTests extends ESTestCase {
             observer,
             failureStoreDocumentConverter,
             FailureStoreMetrics.NOOP,
-            dataStreamFailureStoreSettings
+            dataStreamFailureStoreSettings,
+            shardBulkCoalescer
         );
     }
 
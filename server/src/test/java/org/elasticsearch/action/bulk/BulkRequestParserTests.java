@@ -21,6 +21,7 @@ import org.hamcrest.Matchers;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 
@@ -500,4 +501,99 @@ public class BulkRequestParserTests extends ESTestCase {
         }, req -> fail(), req -> fail());
     }
 
+    public void testTimeSeries() throws IOException {
+        BytesArray request = new BytesArray("""
+            { "time_series":{ "pipeline": "metrics" } }
+            { "dimensions": { "host": "a", "region": "eu" }, "columns": { "@timestamp": [1, 2, 3], "cpu": [0.5, null, [0.7, 0.8]] } }
+            { "index":{ "_id": "bar" } }
+            {}
+            """);
+        List<IndexRequest> indexRequests = new ArrayList<>();
+        BulkRequestParser parser = new BulkRequestParser(randomBoolean(), true, RestApiVersion.current());
+        parser.parse(
+            request,
+            "foo",
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            false,
+            XContentType.JSON,
+            (indexRequest, type) -> indexRequests.add(indexRequest),
+            req -> fail(),
+            req -> fail()
+        );
+
+        assertThat(indexRequests.size(), equalTo(4));
+        for (int i = 0; i < 3; i++) {
+            IndexRequest indexRequest = indexRequests.get(i);
+            assertThat(indexRequest.index(), equalTo("foo"));
+            assertNull(indexRequest.id());
+            assertThat(indexRequest.opType(), equalTo(DocWriteRequest.OpType.CREATE));
+            assertThat(indexRequest.getPipeline(), equalTo("metrics"));
+            Map<String, Object> source = indexRequest.sourceAsMap();
+            assertThat(source.get("host"), equalTo("a"));
+            assertThat(source.get("region"), equalTo("eu"));
+            assertThat(source.get("@timestamp"), equalTo(i + 1));
+        }
+        assertThat(indexRequests.get(0).sourceAsMap().get("cpu"), equalTo(0.5));
+        assertTrue(indexRequests.get(1).sourceAsMap().containsKey("cpu"));
+        assertNull(indexRequests.get(1).sourceAsMap().get("cpu"));
+        assertThat(indexRequests.get(2).sourceAsMap().get("cpu"), equalTo(List.of(0.7, 0.8)));
+        assertThat(indexRequests.get(3).id(), equalTo("bar"));
+        assertThat(indexRequests.get(3).opType(), equalTo(DocWriteRequest.OpType.INDEX));
+    }
+
+    public void testFailOnInvalidTimeSeries() {
+        BulkRequestParser parser = new BulkRequestParser(randomBoolean(), true, RestApiVersion.current());
+        assertTimeSeriesFailure(parser, """
+            { "time_series":{ "_id": "bar" } }
+            { "columns": { "@timestamp": [1] } }
+            """, "Time series request in line [1] creates a document for each row and does not accept [_id], [op_type], [version], "
+            + "[version_type], [if_seq_no] or [if_primary_term]");
+        assertTimeSeriesFailure(parser, """
+            { "time_series":{ } }
+            { "dimensions": { "host": "a" } }
+            """, "Time series request in line [2] requires [columns]");
+        assertTimeSeriesFailure(parser, """
+            { "time_series":{ } }
+            { "columns": { "@timestamp": [1, 2], "cpu": [0.5] } }
+            """, "Time series request in line [2] has columns of different lengths, expected [2] values but column [cpu] has [1]");
+        assertTimeSeriesFailure(parser, """
+            { "time_series":{ } }
+            { "dimensions": { "host": "a" }, "columns": { "@timestamp": [1], "host": ["b"] } }
+            """, "Time series request in line [2] has both a dimension and a column for [host]");
+        assertTimeSeriesFailure(parser, """
+            { "time_series":{ } }
+            { "columns": { "@timestamp": [1], "labels": [{ "host": "a" }] } }
+            """, "Time series request in line [2] has an object in column [labels], columns hold values");
+        assertTimeSeriesFailure(parser, """
+            { "time_series":{ } }
+            { "columns": { "@timestamp": [1] }, "rows": {} }
+            """, "Time series request in line [2] contains an unknown field [rows]");
+    }
+
+    private static void assertTimeSeriesFailure(BulkRequestParser parser, String request, String message) {
+        IllegalArgumentException e = expectThrows(
+            IllegalArgumentException.class,
+            () -> parser.parse(
+                new BytesArray(request),
+                "foo",
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                false,
+                XContentType.JSON,
+                (req, type) -> fail(),
+                req -> fail(),
+                req -> fail()
+            )
+        );
+        assertThat(e.getMessage(), equalTo(message));
+    }
 }
@@ -0,0 +1,217 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.index.ShardBulkSizer;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ShardBulkCoalescerTests extends ESTestCase {
+
+    private final ShardId shardId = new ShardId("index", "_na_", 0);
+    private final ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+    private final List<Sent> sent = new ArrayList<>();
+
+    private record Sent(BulkShardRequest request, ActionListener<BulkShardResponse> listener) {}
+
+    public void testDisabledSendsEveryRequest() {
+        ShardBulkCoalescer coalescer = new ShardBulkCoalescer(Settings.EMPTY, ShardBulkSizer.DISABLED, threadContext);
+        assertFalse(coalescer.isEnabled());
+        int requests = between(2, 10);
+        for (int i = 0; i < requests; i++) {
+            execute(coalescer, request(i, 1));
+        }
+        assertThat(sent.size(), equalTo(requests));
+        assertThat(coalescer.queuedRequests(shardId), equalTo(0));
+    }
+
+    public void testMergesRequestsThatWaitForTheShard() {
+        ShardBulkCoalescer coalescer = coalescer(1, ShardBulkSizer.DISABLED);
+        PlainActionFuture<BulkShardResponse> first = execute(coalescer, request(0, 1));
+        assertThat(sent.size(), equalTo(1));
+
+        int waiting = between(2, 10);
+        List<BulkShardRequest> requests = new ArrayList<>();
+        List<PlainActionFuture<BulkShardResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < waiting; i++) {
+            BulkShardRequest request = request(0, between(1, 5));
+            requests.add(request);
+            futures.add(execute(coalescer, request));
+        }
+        assertThat(sent.size(), equalTo(1));
+        assertThat(coalescer.queuedRequests(shardId), equalTo(waiting));
+
+        respond(sent.get(0));
+        assertTrue(first.isDone());
+        assertThat(sent.size(), equalTo(2));
+        assertThat(coalescer.queuedRequests(shardId), equalTo(0));
+        BulkShardRequest merged = sent.get(1).request();
+        assertThat(
+            Arrays.asList(merged.items()),
+            equalTo(requests.stream().flatMap(r -> Arrays.stream(r.items())).toList())
+        );
+
+        BulkShardResponse mergedResponse = respond(sent.get(1));
+        for (int i = 0; i < waiting; i++) {
+            BulkShardResponse response = futures.get(i).actionGet();
+            BulkItemRequest[] items = requests.get(i).items();
+            assertThat(response.getResponses().length, equalTo(items.length));
+            for (int item = 0; item < items.length; item++) {
+                assertThat(response.getResponses()[item].getItemId(), equalTo(items[item].id()));
+                assertThat(response.getResponses()[item].getId(), equalTo(items[item].request().id()));
+            }
+            assertThat(response.getShardInfo(), sameInstance(mergedResponse.getShardInfo()));
+        }
+    }
+
+    public void testOnlyMergesCompatibleRequests() {
+        ShardBulkCoalescer coalescer = coalescer(1, ShardBulkSizer.DISABLED);
+        execute(coalescer, request(0, 1));
+
+        boolean differentUsers = randomBoolean();
+        PlainActionFuture<BulkShardResponse> first;
+        PlainActionFuture<BulkShardResponse> second;
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            threadContext.putHeader("user", "first");
+            first = executeExpectingHeader(coalescer, request(0, 1), "first");
+        }
+        try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+            threadContext.putHeader("user", differentUsers ? "second" : "first");
+            BulkShardRequest request = request(0, 1);
+            if (differentUsers == false) {
+                request.setRefreshPolicy(RefreshPolicy.IMMEDIATE);
+            }
+            second = executeExpectingHeader(coalescer, request, differentUsers ? "second" : "first");
+        }
+        assertThat(coalescer.queuedRequests(shardId), equalTo(2));
+
+        respond(sent.get(0));
+        assertThat(sent.size(), equalTo(2));
+        assertThat(sent.get(1).request().items().length, equalTo(1));
+        respond(sent.get(1));
+        assertTrue(first.isDone());
+        assertFalse(second.isDone());
+
+        assertThat(sent.size(), equalTo(3));
+        respond(sent.get(2));
+        assertTrue(second.isDone());
+        assertThat(coalescer.queuedRequests(shardId), equalTo(0));
+    }
+
+    public void testFullRequestDoesNotWait() {
+        int maxItems = between(2, 10);
+        ShardBulkSizer sizer = new ShardBulkSizer(Settings.EMPTY) {
+            @Override
+            public int maxItemsPerRequest(ShardId shardId) {
+                return maxItems;
+            }
+        };
+        ShardBulkCoalescer coalescer = coalescer(1, sizer);
+        execute(coalescer, request(0, 1));
+        for (int i = 0; i < maxItems - 1; i++) {
+            execute(coalescer, request(0, 1));
+            assertThat(sent.size(), equalTo(1));
+        }
+        // The shard still has a request in flight but we have enough items for a full one
+        execute(coalescer, request(0, 1));
+        assertThat(sent.size(), equalTo(2));
+        assertThat(sent.get(1).request().items().length, equalTo(maxItems));
+        assertThat(coalescer.queuedRequests(shardId), equalTo(0));
+    }
+
+    public void testFailureFailsEveryMergedRequest() {
+        ShardBulkCoalescer coalescer = coalescer(1, ShardBulkSizer.DISABLED);
+        execute(coalescer, request(0, 1));
+        List<PlainActionFuture<BulkShardResponse>> futures = new ArrayList<>();
+        int waiting = between(2, 5);
+        for (int i = 0; i < waiting; i++) {
+            futures.add(execute(coalescer, request(0, 1)));
+        }
+        respond(sent.get(0));
+        Exception failure = new IllegalStateException("boom");
+        sent.get(1).listener().onFailure(failure);
+        for (PlainActionFuture<BulkShardResponse> future : futures) {
+            assertThat(expectThrows(IllegalStateException.class, future::actionGet), sameInstance(failure));
+        }
+        assertThat(coalescer.queuedRequests(shardId), equalTo(0));
+    }
+
+    private ShardBulkCoalescer coalescer(int maxInFlight, ShardBulkSizer sizer) {
+        Settings settings = Settings.builder().put(ShardBulkCoalescer.COALESCE_BULK_SHARD_MAX_IN_FLIGHT.getKey(), maxInFlight).build();
+        ShardBulkCoalescer coalescer = new ShardBulkCoalescer(settings, sizer, threadContext);
+        assertTrue(coalescer.isEnabled());
+        return coalescer;
+    }
+
+    private PlainActionFuture<BulkShardResponse> execute(ShardBulkCoalescer coalescer, BulkShardRequest request) {
+        PlainActionFuture<BulkShardResponse> future = new PlainActionFuture<>();
+        coalescer.execute(request, future, (r, l) -> sent.add(new Sent(r, l)));
+        return future;
+    }
+
+    private PlainActionFuture<BulkShardResponse> executeExpectingHeader(
+        ShardBulkCoalescer coalescer,
+        BulkShardRequest request,
+        String user
+    ) {
+        PlainActionFuture<BulkShardResponse> future = new PlainActionFuture<>();
+        coalescer.execute(request, future.delegateFailure((l, response) -> {
+            // Every listener hears back in the thread context of its own request
+            assertThat(threadContext.getHeader("user"), equalTo(user));
+            l.onResponse(response);
+        }), (r, l) -> {
+            assertThat(threadContext.getHeader("user"), equalTo(user));
+            sent.add(new Sent(r, l));
+        });
+        return future;
+    }
+
+    private BulkShardRequest request(int firstId, int items) {
+        BulkItemRequest[] itemRequests = new BulkItemRequest[items];
+        for (int i = 0; i < items; i++) {
+            itemRequests[i] = new BulkItemRequest(
+                firstId + i,
+                new IndexRequest(shardId.getIndexName()).id(randomAlphaOfLength(10)).source(Map.of("field", "value"))
+            );
+        }
+        return new BulkShardRequest(shardId, RefreshPolicy.NONE, itemRequests);
+    }
+
+    private BulkShardResponse respond(Sent sent) {
+        BulkItemResponse[] responses = new BulkItemResponse[sent.request().items().length];
+        for (int i = 0; i < responses.length; i++) {
+            BulkItemRequest item = sent.request().items()[i];
+            responses[i] = BulkItemResponse.success(
+                item.id(),
+                DocWriteRequest.OpType.INDEX,
+                new IndexResponse(shardId, item.request().id(), i, 1, 1, true)
+            );
+        }
+        BulkShardResponse response = new BulkShardResponse(shardId, responses);
+        sent.listener().onResponse(response);
+        return response;
+    }
+}
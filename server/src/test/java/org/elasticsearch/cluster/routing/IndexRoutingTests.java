@@ -556,6 +556,43 @@ public class IndexRoutingTests extends ESTestCase {
         );
     }
 
+    public void testRoutingPathSharedHash() throws IOException {
+        int shards = between(2, 1000);
+        IndexRouting.ExtractFromSource routing = (IndexRouting.ExtractFromSource) indexRoutingForPath(shards, "foo");
+        int expectedShard = Math.floorMod(hash(List.of("foo", "cat")), shards);
+        var sharedHash = new IndexRouting.ExtractFromSource.SharedRoutingHash(List.of("bar"));
+        for (int i = 0; i < 5; i++) {
+            BytesReference source = source(Map.of("foo", "cat", "bar", randomAlphaOfLength(5)));
+            assertThat(routing.indexShard(randomAlphaOfLength(5), null, XContentType.JSON, source, sharedHash), equalTo(expectedShard));
+        }
+
+        // the first hash is reused, even for a source that would hash differently
+        BytesReference otherSource = source(Map.of("foo", "dog", "bar", randomAlphaOfLength(5)));
+        assertThat(routing.indexShard(randomAlphaOfLength(5), null, XContentType.JSON, otherSource, sharedHash), equalTo(expectedShard));
+
+        // but not by an index with different routing paths
+        IndexRouting.ExtractFromSource otherRouting = (IndexRouting.ExtractFromSource) indexRoutingForPath(shards, "bar");
+        BytesReference barSource = source(Map.of("foo", "cat", "bar", "dog"));
+        assertThat(
+            otherRouting.indexShard(randomAlphaOfLength(5), null, XContentType.JSON, barSource, sharedHash),
+            equalTo(Math.floorMod(hash(List.of("bar", "dog")), shards))
+        );
+    }
+
+    public void testRoutingPathSharedHashNotShareableWhenVaryingRoutingPath() throws IOException {
+        int shards = between(2, 1000);
+        IndexRouting.ExtractFromSource routing = (IndexRouting.ExtractFromSource) indexRoutingForPath(shards, "foo");
+        var sharedHash = new IndexRouting.ExtractFromSource.SharedRoutingHash(List.of("foo"));
+        for (int i = 0; i < 5; i++) {
+            String value = randomAlphaOfLength(5);
+            BytesReference source = source(Map.of("foo", value));
+            assertThat(
+                routing.indexShard(randomAlphaOfLength(5), null, XContentType.JSON, source, sharedHash),
+                equalTo(Math.floorMod(hash(List.of("foo", value)), shards))
+            );
+        }
+    }
+
     public void testRoutingPathOneSub() throws IOException {
         int shards = between(2, 1000);
         IndexRouting routing = indexRoutingForPath(shards, "foo.*");
@@ -11,6 +11,7 @@ package org.elasticsearch.common.network;
 
 import org.elasticsearch.test.ESTestCase;
 
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 
 public class HandlingTimeTrackerTests extends ESTestCase {
@@ -73,6 +74,24 @@ public class HandlingTimeTrackerTests extends ESTestCase {
         assertArrayEquals(expectedCounts, handlingTimeTracker.getHistogram());
     }
 
+    public void testHistogramWithBoundCount() {
+        final int boundCount = between(1, 30);
+        final int[] upperBounds = HandlingTimeTracker.getBucketUpperBounds(boundCount);
+        assertThat(upperBounds.length, equalTo(boundCount));
+        final long[] expectedCounts = new long[boundCount + 1];
+        final HandlingTimeTracker handlingTimeTracker = new HandlingTimeTracker(boundCount);
+        for (int i = between(0, 1000); i > 0; i--) {
+            final int bucket = between(0, expectedCounts.length - 1);
+            expectedCounts[bucket] += 1;
+
+            final long lowerBound = bucket == 0 ? Long.MIN_VALUE : upperBounds[bucket - 1];
+            final long upperBound = bucket == upperBounds.length ? Long.MAX_VALUE : upperBounds[bucket] - 1;
+            handlingTimeTracker.addHandlingTime(randomLongBetween(lowerBound, upperBound));
+        }
+
+        assertArrayEquals(expectedCounts, handlingTimeTracker.getHistogram());
+    }
+
     public void testBoundsConsistency() {
         final int[] upperBounds = HandlingTimeTracker.getBucketUpperBounds();
         assertThat(upperBounds[0], greaterThan(0));
@@ -80,6 +80,7 @@ import org.elasticsearch.index.similarity.NonNegativeScoresSimilarity;
 import org.elasticsearch.index.similarity.SimilarityService;
 import org.elasticsearch.index.store.FsDirectoryFactory;
 import org.elasticsearch.index.store.Store;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.indices.IndicesModule;
 import org.elasticsearch.indices.IndicesQueryCache;
 import org.elasticsearch.indices.TestIndexNameExpressionResolver;
@@ -93,6 +94,7 @@ import org.elasticsearch.plugins.IndexStorePlugin;
 import org.elasticsearch.plugins.internal.rewriter.MockQueryRewriteInterceptor;
 import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.search.internal.ReaderContext;
+import org.elasticsearch.telemetry.metric.MeterRegistry;
 import org.elasticsearch.test.ClusterServiceUtils;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.IndexSettingsModule;
@@ -250,7 +252,8 @@ public class IndexModuleTests extends ESTestCase {
             mock(SlowLogFieldProvider.class),
             MapperMetrics.NOOP,
             emptyList(),
-            new IndexingStatsSettings(ClusterSettings.createBuiltInClusterSettings())
+            new IndexingStatsSettings(ClusterSettings.createBuiltInClusterSettings()),
+            new TranslogSyncCoordinator(ClusterSettings.createBuiltInClusterSettings(), MeterRegistry.NOOP)
         );
         module.setReaderWrapper(s -> new Wrapper());
 
@@ -279,7 +282,8 @@ public class IndexModuleTests extends ESTestCase {
             mock(SlowLogFieldProvider.class),
             MapperMetrics.NOOP,
             emptyList(),
-            new IndexingStatsSettings(ClusterSettings.createBuiltInClusterSettings())
+            new IndexingStatsSettings(ClusterSettings.createBuiltInClusterSettings()),
+            new TranslogSyncCoordinator(ClusterSettings.createBuiltInClusterSettings(), MeterRegistry.NOOP)
         );
 
         final IndexService indexService = newIndexService(module);
@@ -306,7 +310,8 @@ public class IndexModuleTests extends ESTestCase {
             mock(SlowLogFieldProvider.class),
             MapperMetrics.NOOP,
             emptyList(),
-            new IndexingStatsSettings(ClusterSettings.createBuiltInClusterSettings())
+            new IndexingStatsSettings(ClusterSettings.createBuiltInClusterSettings()),
+            new TranslogSyncCoordinator(ClusterSettings.createBuiltInClusterSettings(), MeterRegistry.NOOP)
         );
 
         module.setDirectoryWrapper(new TestDirectoryWrapper());
@@ -661,7 +666,8 @@ public class IndexModuleTests extends ESTestCase {
             mock(SlowLogFieldProvider.class),
             MapperMetrics.NOOP,
             emptyList(),
-            new IndexingStatsSettings(ClusterSettings.createBuiltInClusterSettings())
+            new IndexingStatsSettings(ClusterSettings.createBuiltInClusterSettings()),
+            new TranslogSyncCoordinator(ClusterSettings.createBuiltInClusterSettings(), MeterRegistry.NOOP)
         );
 
         final IndexService indexService = newIndexService(module);
@@ -685,7 +691,8 @@ public class IndexModuleTests extends ESTestCase {
             mock(SlowLogFieldProvider.class),
             MapperMetrics.NOOP,
             emptyList(),
-            new IndexingStatsSettings(ClusterSettings.createBuiltInClusterSettings())
+            new IndexingStatsSettings(ClusterSettings.createBuiltInClusterSettings()),
+            new TranslogSyncCoordinator(ClusterSettings.createBuiltInClusterSettings(), MeterRegistry.NOOP)
         );
 
         final AtomicLong lastAcquiredPrimaryTerm = new AtomicLong();
@@ -789,7 +796,8 @@ public class IndexModuleTests extends ESTestCase {
             mock(SlowLogFieldProvider.class),
             MapperMetrics.NOOP,
             emptyList(),
-            new IndexingStatsSettings(ClusterSettings.createBuiltInClusterSettings())
+            new IndexingStatsSettings(ClusterSettings.createBuiltInClusterSettings()),
+            new TranslogSyncCoordinator(ClusterSettings.createBuiltInClusterSettings(), MeterRegistry.NOOP)
         );
     }
 
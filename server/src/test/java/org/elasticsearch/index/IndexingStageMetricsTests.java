@@ -0,0 +1,99 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index;
+
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.index.IndexingStageMetrics.Stage;
+import org.elasticsearch.index.stats.IndexingStageStats;
+import org.elasticsearch.telemetry.InstrumentType;
+import org.elasticsearch.telemetry.Measurement;
+import org.elasticsearch.telemetry.RecordingMeterRegistry;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xcontent.ToXContent;
+import org.elasticsearch.xcontent.XContentBuilder;
+import org.elasticsearch.xcontent.json.JsonXContent;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+public class IndexingStageMetricsTests extends ESTestCase {
+
+    public void testRecordsIntoBuckets() {
+        IndexingStageMetrics metrics = new IndexingStageMetrics(new RecordingMeterRegistry());
+        metrics.record(Stage.LUCENE, 0);
+        metrics.record(Stage.LUCENE, TimeUnit.MICROSECONDS.toNanos(1));
+        metrics.record(Stage.LUCENE, TimeUnit.MICROSECONDS.toNanos(3));
+        metrics.record(Stage.LUCENE, TimeUnit.MICROSECONDS.toNanos(3));
+        metrics.record(Stage.LUCENE, TimeUnit.MINUTES.toNanos(5));
+        metrics.record(Stage.TRANSLOG, -1);
+
+        IndexingStageStats.StageStats lucene = metrics.stats().getStages().get(Stage.LUCENE.displayName());
+        long[] histogram = lucene.getHistogram();
+        assertThat(histogram.length, equalTo(IndexingStageMetrics.BUCKET_COUNT));
+        assertThat(histogram[0], equalTo(1L));
+        assertThat(histogram[1], equalTo(1L));
+        assertThat(histogram[2], equalTo(2L));
+        assertThat(histogram[IndexingStageMetrics.BUCKET_COUNT - 1], equalTo(1L));
+        assertThat(lucene.getCount(), equalTo(5L));
+        assertThat(lucene.getTotalMicros(), equalTo(7 + TimeUnit.MINUTES.toMicros(5)));
+
+        IndexingStageStats.StageStats translog = metrics.stats().getStages().get(Stage.TRANSLOG.displayName());
+        assertThat(translog.getCount(), equalTo(1L));
+        assertThat(translog.getTotalMicros(), equalTo(0L));
+        assertThat(metrics.stats().getStages().get(Stage.PARSE.displayName()).getCount(), equalTo(0L));
+    }
+
+    public void testReportsToMeterRegistry() {
+        RecordingMeterRegistry meterRegistry = new RecordingMeterRegistry();
+        IndexingStageMetrics metrics = new IndexingStageMetrics(meterRegistry);
+        long tookMicros = randomLongBetween(0, 1_000_000);
+        metrics.record(Stage.MAPPING_UPDATE, TimeUnit.MICROSECONDS.toNanos(tookMicros));
+
+        List<Measurement> measurements = meterRegistry.getRecorder()
+            .getMeasurements(InstrumentType.LONG_HISTOGRAM, Stage.MAPPING_UPDATE.histogramName());
+        assertThat(measurements.size(), equalTo(1));
+        assertThat(measurements.get(0).getLong(), equalTo(tookMicros));
+        assertTrue(meterRegistry.getRecorder().getMeasurements(InstrumentType.LONG_HISTOGRAM, Stage.PARSE.histogramName()).isEmpty());
+    }
+
+    public void testNoopRecordsNothing() {
+        IndexingStageMetrics.NOOP.record(Stage.REPLICATION, TimeUnit.SECONDS.toNanos(1));
+        for (IndexingStageStats.StageStats stats : IndexingStageMetrics.NOOP.stats().getStages().values()) {
+            assertThat(stats.getCount(), equalTo(0L));
+        }
+    }
+
+    public void testStatsSerialization() throws IOException {
+        IndexingStageMetrics metrics = new IndexingStageMetrics(new RecordingMeterRegistry());
+        for (int i = 0; i < 100; i++) {
+            metrics.record(randomFrom(Stage.values()), randomLongBetween(0, TimeUnit.SECONDS.toNanos(100)));
+        }
+        IndexingStageStats stats = metrics.stats();
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            stats.writeTo(out);
+            try (StreamInput in = out.bytes().streamInput()) {
+                assertThat(new IndexingStageStats(in), equalTo(stats));
+            }
+        }
+
+        XContentBuilder builder = JsonXContent.contentBuilder().startObject();
+        stats.toXContent(builder, ToXContent.EMPTY_PARAMS);
+        String json = Strings.toString(builder.endObject());
+        for (Stage stage : Stage.values()) {
+            assertThat(json, containsString("\"" + stage.displayName() + "\":{\"count\":"));
+        }
+    }
+}
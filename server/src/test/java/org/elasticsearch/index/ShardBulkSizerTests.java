@@ -0,0 +1,71 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class ShardBulkSizerTests extends ESTestCase {
+
+    public void testDisabledByDefault() {
+        ShardBulkSizer sizer = new ShardBulkSizer(Settings.EMPTY);
+        assertFalse(sizer.isEnabled());
+        ShardId shardId = new ShardId("index", "_na_", 0);
+        sizer.onRequestCompleted(shardId, 10, TimeUnit.SECONDS.toNanos(10));
+        assertThat(sizer.maxItemsPerRequest(shardId), equalTo(Integer.MAX_VALUE));
+        assertThat(sizer.trackedShards(), equalTo(0));
+    }
+
+    public void testSizesFromObservedLatency() {
+        ShardBulkSizer sizer = new ShardBulkSizer(
+            Settings.builder()
+                .put(ShardBulkSizer.SPLIT_BULK_SHARD_LATENCY_TARGET.getKey(), "100ms")
+                .put(ShardBulkSizer.SPLIT_BULK_SHARD_MIN_ITEMS.getKey(), 10)
+                .build()
+        );
+        assertTrue(sizer.isEnabled());
+        ShardId slow = new ShardId("index", "_na_", 0);
+        ShardId fast = new ShardId("index", "_na_", 1);
+        assertThat(sizer.maxItemsPerRequest(slow), equalTo(Integer.MAX_VALUE));
+
+        // 1ms per item
+        sizer.onRequestCompleted(slow, 1000, TimeUnit.SECONDS.toNanos(1));
+        assertThat(sizer.maxItemsPerRequest(slow), equalTo(100));
+        assertThat(sizer.maxItemsPerRequest(fast), equalTo(Integer.MAX_VALUE));
+
+        // 10µs per item
+        sizer.onRequestCompleted(fast, 1000, TimeUnit.MILLISECONDS.toNanos(10));
+        assertThat(sizer.maxItemsPerRequest(fast), equalTo(10_000));
+
+        // the slow shard gets even slower, but we never go below the minimum
+        for (int i = 0; i < 20; i++) {
+            sizer.onRequestCompleted(slow, 10, TimeUnit.SECONDS.toNanos(10));
+        }
+        assertThat(sizer.maxItemsPerRequest(slow), equalTo(10));
+        assertThat(sizer.trackedShards(), equalTo(2));
+    }
+
+    public void testForgetsShardsWhenTrackingTooMany() {
+        ShardBulkSizer sizer = new ShardBulkSizer(
+            Settings.builder().put(ShardBulkSizer.SPLIT_BULK_SHARD_LATENCY_TARGET.getKey(), "10ms").build()
+        );
+        for (int i = 0; i < ShardBulkSizer.MAX_TRACKED_SHARDS; i++) {
+            sizer.onRequestCompleted(new ShardId("index", "_na_", i), 1, 1000);
+        }
+        assertThat(sizer.trackedShards(), equalTo(ShardBulkSizer.MAX_TRACKED_SHARDS));
+        sizer.onRequestCompleted(new ShardId("other", "_na_", 0), 1, 1000);
+        assertThat(sizer.trackedShards(), equalTo(1));
+    }
+}
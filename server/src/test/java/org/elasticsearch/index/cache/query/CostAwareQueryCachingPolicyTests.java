@@ -0,0 +1,200 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.cache.query;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TermRangeQuery;
+import org.elasticsearch.index.cache.query.CostAwareQueryCachingPolicy.FrequencySketch;
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+
+public class CostAwareQueryCachingPolicyTests extends ESTestCase {
+
+    public void testSketchWidth() {
+        assertEquals(CostAwareQueryCachingPolicy.MIN_SKETCH_WIDTH, CostAwareQueryCachingPolicy.sketchWidth(1));
+        assertEquals(256, CostAwareQueryCachingPolicy.sketchWidth(256));
+        assertEquals(512, CostAwareQueryCachingPolicy.sketchWidth(257));
+        assertEquals(16384, CostAwareQueryCachingPolicy.sketchWidth(10_000));
+        assertEquals(CostAwareQueryCachingPolicy.MAX_SKETCH_WIDTH, CostAwareQueryCachingPolicy.sketchWidth(Integer.MAX_VALUE));
+    }
+
+    public void testAdmitsAfterEnoughUses() {
+        CostAwareQueryCachingPolicy policy = new CostAwareQueryCachingPolicy(randomIntBetween(1, 10_000));
+        Query costly = rangeQuery(0);
+        policy.onUse(costly);
+        assertFalse(policy.shouldCache(costly));
+        policy.onUse(costly);
+        assertTrue(policy.shouldCache(costly));
+
+        Query bool = booleanQuery(0);
+        for (int i = 0; i < 3; i++) {
+            policy.onUse(bool);
+            assertFalse(policy.shouldCache(bool));
+        }
+        policy.onUse(bool);
+        assertTrue(policy.shouldCache(bool));
+
+        Query term = new TermQuery(new Term("field", "value"));
+        for (int i = 0; i < 10; i++) {
+            policy.onUse(term);
+        }
+        assertFalse(policy.shouldCache(term));
+    }
+
+    public void testRejectsUnseenQueriesAfterManyDistinctOnes() {
+        CostAwareQueryCachingPolicy policy = new CostAwareQueryCachingPolicy(randomIntBetween(1, 10_000));
+        // range queries are admitted on their second use, the least forgiving case
+        for (int i = 0; i < 100_000; i++) {
+            policy.onUse(rangeQuery(i));
+        }
+        for (int i = 100_000; i < 101_000; i++) {
+            assertFalse(policy.shouldCache(rangeQuery(i)));
+        }
+    }
+
+    public void testAdmitsPopularQueryAmongManyDistinctOnes() {
+        CostAwareQueryCachingPolicy policy = new CostAwareQueryCachingPolicy(randomIntBetween(1, 10_000));
+        Query popular = booleanQuery(-1);
+        for (int i = 0; i < 100_000; i++) {
+            if (i % 20 == 0) {
+                policy.onUse(popular);
+                // the counters of a popular query survive aging, so it never drops back to never having been seen
+                if (i >= 200) {
+                    assertTrue(policy.shouldCache(popular));
+                }
+            } else {
+                policy.onUse(rangeQuery(i));
+            }
+        }
+    }
+
+    public void testMinFrequencyWithoutEnoughBuilds() {
+        CostAwareQueryCachingPolicy policy = new CostAwareQueryCachingPolicy(10_000);
+        Query query = booleanQuery(0);
+        assertEquals(4, policy.minFrequencyToCache(query));
+        for (int i = 0; i < CostAwareQueryCachingPolicy.MIN_BUILDS - 1; i++) {
+            policy.onCache(query, 1_000_000, 1024);
+            policy.onHit(query);
+        }
+        // too few builds to trust the measured cost
+        assertEquals(4, policy.minFrequencyToCache(query));
+        policy.onCache(query, 1_000_000, 1024);
+        assertEquals(2, policy.minFrequencyToCache(query));
+    }
+
+    public void testMinFrequencyOfExpensiveShape() {
+        CostAwareQueryCachingPolicy policy = new CostAwareQueryCachingPolicy(10_000);
+        build(policy, booleanQuery(0), CostAwareQueryCachingPolicy.EXPENSIVE_BUILD_NANOS_PER_KB, false);
+        assertEquals(2, policy.minFrequencyToCache(booleanQuery(1)));
+        build(policy, rangeQuery(0), CostAwareQueryCachingPolicy.EXPENSIVE_BUILD_NANOS_PER_KB, false);
+        // never admitted on first use
+        assertEquals(2, policy.minFrequencyToCache(rangeQuery(1)));
+    }
+
+    public void testMinFrequencyOfCheapShape() {
+        CostAwareQueryCachingPolicy policy = new CostAwareQueryCachingPolicy(10_000);
+        build(policy, booleanQuery(0), CostAwareQueryCachingPolicy.CHEAP_BUILD_NANOS_PER_KB, true);
+        assertEquals(8, policy.minFrequencyToCache(booleanQuery(1)));
+        build(policy, rangeQuery(0), CostAwareQueryCachingPolicy.CHEAP_BUILD_NANOS_PER_KB, true);
+        assertEquals(4, policy.minFrequencyToCache(rangeQuery(1)));
+    }
+
+    public void testMinFrequencyOfRarelyReusedShape() {
+        final long nanosPerKb = randomLongBetween(
+            CostAwareQueryCachingPolicy.CHEAP_BUILD_NANOS_PER_KB + 1,
+            CostAwareQueryCachingPolicy.EXPENSIVE_BUILD_NANOS_PER_KB - 1
+        );
+        CostAwareQueryCachingPolicy reused = new CostAwareQueryCachingPolicy(10_000);
+        build(reused, booleanQuery(0), nanosPerKb, true);
+        assertEquals(4, reused.minFrequencyToCache(booleanQuery(1)));
+
+        CostAwareQueryCachingPolicy notReused = new CostAwareQueryCachingPolicy(10_000);
+        build(notReused, booleanQuery(0), nanosPerKb, false);
+        assertEquals(8, notReused.minFrequencyToCache(booleanQuery(1)));
+    }
+
+    public void testShapeStats() {
+        CostAwareQueryCachingPolicy policy = new CostAwareQueryCachingPolicy(10_000);
+        policy.onMiss(booleanQuery(0));
+        policy.onCache(booleanQuery(0), 1_000, 2048);
+        policy.onHit(booleanQuery(0));
+        policy.onHit(booleanQuery(0));
+        policy.onMiss(rangeQuery(0));
+
+        QueryCacheShapeStats bool = policy.shapeStats().get("BooleanQuery");
+        assertEquals(new QueryCacheShapeStats(2, 1, 1, 1_000, 2048), bool);
+        QueryCacheShapeStats range = policy.shapeStats().get("TermRangeQuery");
+        assertEquals(new QueryCacheShapeStats(0, 1, 0, 0, 0), range);
+    }
+
+    public void testSketchDoorkeeperAbsorbsFirstUse() {
+        FrequencySketch sketch = new FrequencySketch(256);
+        int hash = randomInt();
+        assertEquals(0, sketch.frequency(hash));
+        sketch.increment(hash);
+        assertEquals(1, sketch.frequency(hash));
+        sketch.increment(hash);
+        assertEquals(2, sketch.frequency(hash));
+    }
+
+    public void testSketchSaturates() {
+        FrequencySketch sketch = new FrequencySketch(256);
+        int hash = randomInt();
+        for (int i = 0; i < 100; i++) {
+            // all within the sample size, so no aging
+            sketch.increment(hash);
+        }
+        assertEquals(FrequencySketch.MAX_COUNT, sketch.frequency(hash));
+    }
+
+    public void testSketchAging() {
+        final int width = 64;
+        FrequencySketch sketch = new FrequencySketch(width);
+        int hash = 42;
+        for (int i = 0; i < 10; i++) {
+            sketch.increment(hash);
+        }
+        for (int i = 1; i < width - 10; i++) {
+            sketch.increment(hash + i);
+        }
+        final int before = sketch.frequency(hash);
+        assertThat(before, greaterThanOrEqualTo(10));
+        // this is the sample size'th increment, which halves the counters and clears the doorkeeper
+        sketch.increment(hash);
+        assertThat(sketch.frequency(hash), equalTo(before / 2));
+        sketch.increment(hash);
+        assertThat(sketch.frequency(hash), equalTo(before / 2 + 1));
+    }
+
+    private static void build(CostAwareQueryCachingPolicy policy, Query query, long nanosPerKb, boolean reused) {
+        for (int i = 0; i < CostAwareQueryCachingPolicy.MIN_BUILDS; i++) {
+            policy.onCache(query, nanosPerKb * 4, 4096);
+            if (reused) {
+                policy.onHit(query);
+            }
+        }
+    }
+
+    private static Query rangeQuery(int i) {
+        return TermRangeQuery.newStringRange("field", "a" + i, "b" + i, true, true);
+    }
+
+    private static Query booleanQuery(int i) {
+        return new BooleanQuery.Builder().add(new TermQuery(new Term("field", Integer.toString(i))), BooleanClause.Occur.FILTER)
+            .add(new TermQuery(new Term("other", Integer.toString(i))), BooleanClause.Occur.FILTER)
+            .build();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.cache.query;
+
+import org.elasticsearch.TransportVersions;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.test.AbstractWireSerializingTestCase;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.TransportVersionUtils;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+public class QueryCacheStatsTests extends AbstractWireSerializingTestCase<QueryCacheStats> {
+
+    @Override
+    protected Writeable.Reader<QueryCacheStats> instanceReader() {
+        return QueryCacheStats::new;
+    }
+
+    @Override
+    protected QueryCacheStats createTestInstance() {
+        return createTestInstance(randomShapeStats());
+    }
+
+    @Override
+    protected QueryCacheStats mutateInstance(QueryCacheStats instance) {
+        long ramBytesUsed = instance.getMemorySizeInBytes();
+        long hitCount = instance.getHitCount();
+        long missCount = instance.getMissCount();
+        long cacheCount = instance.getCacheCount();
+        long cacheSize = instance.getCacheSize();
+        Map<String, QueryCacheShapeStats> shapeStats = instance.getShapeStats();
+        switch (between(0, 5)) {
+            case 0 -> ramBytesUsed = randomValueOtherThan(ramBytesUsed, ESTestCase::randomNonNegativeLong);
+            case 1 -> hitCount = randomValueOtherThan(hitCount, ESTestCase::randomNonNegativeLong);
+            case 2 -> missCount = randomValueOtherThan(missCount, ESTestCase::randomNonNegativeLong);
+            case 3 -> cacheCount = randomValueOtherThan(cacheCount, ESTestCase::randomNonNegativeLong);
+            case 4 -> cacheSize = randomValueOtherThan(cacheSize, ESTestCase::randomNonNegativeLong);
+            case 5 -> shapeStats = randomValueOtherThan(shapeStats, QueryCacheStatsTests::randomShapeStats);
+            default -> throw new AssertionError("unexpected mutation");
+        }
+        QueryCacheStats mutated = new QueryCacheStats(ramBytesUsed, hitCount, missCount, cacheCount, cacheSize);
+        mutated.addShapeStats(shapeStats);
+        return mutated;
+    }
+
+    public void testShapeStatsNotSentToOlderNodes() throws IOException {
+        QueryCacheStats stats = createTestInstance(Map.of("BooleanQuery", randomQueryCacheShapeStats()));
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.setTransportVersion(TransportVersionUtils.getPreviousVersion(TransportVersions.QUERY_CACHE_SHAPE_STATS));
+        stats.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        in.setTransportVersion(out.getTransportVersion());
+        QueryCacheStats read = new QueryCacheStats(in);
+        assertThat(read.getShapeStats(), equalTo(Map.of()));
+        assertThat(read.getHitCount(), equalTo(stats.getHitCount()));
+        assertThat(read.getCacheSize(), equalTo(stats.getCacheSize()));
+    }
+
+    public void testAddMergesShapeStats() {
+        QueryCacheStats stats = new QueryCacheStats();
+        stats.addShapeStats(Map.of("BooleanQuery", new QueryCacheShapeStats(1, 2, 3, 4, 5)));
+        QueryCacheStats other = new QueryCacheStats();
+        other.addShapeStats(
+            Map.of("BooleanQuery", new QueryCacheShapeStats(10, 20, 30, 40, 50), "TermRangeQuery", new QueryCacheShapeStats(1, 1, 1, 1, 1))
+        );
+        stats.add(other);
+        assertThat(
+            stats.getShapeStats(),
+            equalTo(
+                Map.of(
+                    "BooleanQuery",
+                    new QueryCacheShapeStats(11, 22, 33, 44, 55),
+                    "TermRangeQuery",
+                    new QueryCacheShapeStats(1, 1, 1, 1, 1)
+                )
+            )
+        );
+        // the stats that were added are left untouched
+        assertThat(other.getShapeStats().get("BooleanQuery"), equalTo(new QueryCacheShapeStats(10, 20, 30, 40, 50)));
+    }
+
+    public void testShapeStatsToXContent() {
+        String json = Strings.toString(new QueryCacheShapeStats(1, 2, 3, 4_000_000, 2048));
+        assertThat(json, containsString("\"built_size_in_bytes\":2048"));
+        assertThat(json, containsString("\"build_time_in_millis\":4"));
+        assertThat(json, not(containsString("cached_size")));
+    }
+
+    private static QueryCacheStats createTestInstance(Map<String, QueryCacheShapeStats> shapeStats) {
+        QueryCacheStats stats = new QueryCacheStats(
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong(),
+            randomNonNegativeLong()
+        );
+        stats.addShapeStats(shapeStats);
+        return stats;
+    }
+
+    private static Map<String, QueryCacheShapeStats> randomShapeStats() {
+        Map<String, QueryCacheShapeStats> shapeStats = new HashMap<>();
+        for (int i = between(0, 3); i > 0; i--) {
+            shapeStats.put(randomAlphaOfLength(8), randomQueryCacheShapeStats());
+        }
+        return shapeStats;
+    }
+
+    private static QueryCacheShapeStats randomQueryCacheShapeStats() {
+        return new QueryCacheShapeStats(
+            randomLongBetween(0, 1_000_000),
+            randomLongBetween(0, 1_000_000),
+            randomLongBetween(0, 1_000_000),
+            randomLongBetween(0, 1_000_000_000L),
+            randomLongBetween(0, 1_000_000_000L)
+        );
+    }
+}
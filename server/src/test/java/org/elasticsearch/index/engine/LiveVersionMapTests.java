@@ -490,6 +490,128 @@ public class LiveVersionMapTests extends ESTestCase {
         assertEquals(actualRamBytesUsed, vl.ramBytesUsed());
     }
 
+    public void testCompactBasics() throws IOException {
+        LiveVersionMap map = new LiveVersionMap(LiveVersionMapArchive.NOOP_ARCHIVE, true);
+        try (Releasable r = map.acquireLock(uid("test"))) {
+            Translog.Location tlogLoc = randomTranslogLocation();
+            map.putIndexUnderLock(uid("test"), new IndexVersionValue(tlogLoc, 1, 1, 1));
+            assertEquals(new IndexVersionValue(tlogLoc, 1, 1, 1), map.getUnderLock(uid("test")));
+            assertThat(map.ramBytesUsedForRefresh(), greaterThan(0L));
+            map.beforeRefresh();
+            assertEquals(new IndexVersionValue(tlogLoc, 1, 1, 1), map.getUnderLock(uid("test")));
+            map.afterRefresh(randomBoolean());
+            assertNull(map.getUnderLock(uid("test")));
+
+            map.putIndexUnderLock(uid("test"), new IndexVersionValue(tlogLoc, 2, 2, 1));
+            map.putDeleteUnderLock(uid("test"), new DeleteVersionValue(3, 3, 1, 1));
+            assertEquals(new DeleteVersionValue(3, 3, 1, 1), map.getUnderLock(uid("test")));
+            assertThat(map.getAllCurrent().size(), equalTo(0));
+        }
+    }
+
+    public void testCompactVersionMap() {
+        CompactVersionMap compact = new CompactVersionMap(between(0, 100));
+        Map<BytesRef, VersionValue> expected = new HashMap<>();
+        List<BytesRef> keys = new ArrayList<>();
+        long initialRamBytesUsed = compact.ramBytesUsed();
+        int operations = between(100, 5000);
+        for (int i = 0; i < operations; i++) {
+            BytesRef key = keys.isEmpty() || randomBoolean() ? uid(randomAlphaOfLengthBetween(1, 30)) : randomFrom(keys);
+            switch (between(0, 3)) {
+                case 0, 1 -> {
+                    VersionValue value = randomBoolean()
+                        ? randomIndexVersionValue()
+                        : new DeleteVersionValue(randomNonNegativeLong(), randomLong(), randomLong(), randomLong());
+                    assertThat(compact.put(key, value), equalTo(expected.put(key, value)));
+                    keys.add(key);
+                }
+                case 2 -> assertThat(compact.remove(key), equalTo(expected.remove(key)));
+                case 3 -> assertThat(compact.get(key), equalTo(expected.get(key)));
+                default -> throw new AssertionError();
+            }
+            assertThat(compact.size(), equalTo(expected.size()));
+        }
+        assertThat(new HashMap<>(compact), equalTo(expected));
+        if (expected.isEmpty() == false) {
+            assertThat(compact.ramBytesUsed(), greaterThan(initialRamBytesUsed));
+        }
+    }
+
+    public void testCompactVersionMapRamBytesUsedIgnoresCapacity() {
+        CompactVersionMap presized = new CompactVersionMap(between(1000, 100_000));
+        CompactVersionMap empty = new CompactVersionMap(0);
+        assertThat(presized.ramBytesUsed(), equalTo(empty.ramBytesUsed()));
+        int entries = between(1, 2000);
+        for (int i = 0; i < entries; i++) {
+            BytesRef key = uid(randomAlphaOfLengthBetween(1, 30));
+            IndexVersionValue value = randomIndexVersionValue();
+            presized.put(key, value);
+            empty.put(key, value);
+        }
+        assertThat(presized.ramBytesUsed(), equalTo(empty.ramBytesUsed()));
+    }
+
+    /**
+     * Reads don't lock so make sure they never see a value that's half written, even while the segments grow.
+     */
+    public void testCompactVersionMapConcurrentReads() {
+        CompactVersionMap compact = new CompactVersionMap(0);
+        int keyCount = between(10, 1000);
+        List<BytesRef> keys = IntStream.range(0, keyCount).mapToObj(i -> uid("key" + i)).toList();
+        AtomicBoolean done = new AtomicBoolean();
+        int readers = between(1, 4);
+        runInParallel(readers + 1, t -> {
+            if (t == 0) {
+                try {
+                    for (int i = 0; i < 20_000; i++) {
+                        long v = i;
+                        BytesRef key = randomBoolean() ? randomFrom(keys) : uid("extra" + i);
+                        compact.put(key, new IndexVersionValue(new Translog.Location(v, v, (int) v), v, v, v));
+                    }
+                } finally {
+                    done.set(true);
+                }
+                return;
+            }
+            while (done.get() == false) {
+                VersionValue value = compact.get(randomFrom(keys));
+                if (value != null) {
+                    assertThat(value.seqNo, equalTo(value.version));
+                    assertThat(value.term, equalTo(value.version));
+                    assertThat(value.getLocation().generation(), equalTo(value.version));
+                }
+            }
+        });
+    }
+
+    public void testMergeCompactVersionLookup() {
+        var compact = new LiveVersionMap.VersionLookup(new CompactVersionMap(0));
+        var concurrent = new LiveVersionMap.VersionLookup(newConcurrentMapWithAggressiveConcurrency());
+        Map<BytesRef, VersionValue> expected = new HashMap<>();
+        int entries = between(1, 100);
+        for (int i = 0; i < entries; i++) {
+            BytesRef key = uid("key" + i);
+            IndexVersionValue value = randomIndexVersionValue();
+            expected.put(key, value);
+            if (randomBoolean()) {
+                compact.put(key, value);
+            } else {
+                concurrent.put(key, value);
+            }
+        }
+        var target = randomBoolean() ? compact : concurrent;
+        target.merge(target == compact ? concurrent : compact);
+        assertThat(new HashMap<>(target.getMap()), equalTo(expected));
+        if (target == concurrent) {
+            long expectedRamBytesUsed = concurrent.getMap()
+                .entrySet()
+                .stream()
+                .mapToLong(entry -> LiveVersionMap.VersionLookup.mapEntryBytesUsed(entry.getKey(), entry.getValue()))
+                .sum();
+            assertEquals(expectedRamBytesUsed, concurrent.ramBytesUsed());
+        }
+    }
+
     public void testVersionMapReclaimableRamBytes() throws IOException {
         LiveVersionMap map = new LiveVersionMap();
         assertEquals(map.ramBytesUsedForRefresh(), 0L);
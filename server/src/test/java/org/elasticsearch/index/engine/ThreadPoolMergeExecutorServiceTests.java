@@ -9,12 +9,15 @@
 
 package org.elasticsearch.index.engine;
 
+import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.DeterministicTaskQueue;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.index.engine.ThreadPoolMergeScheduler.MergeTask;
 import org.elasticsearch.index.engine.ThreadPoolMergeScheduler.Schedule;
+import org.elasticsearch.telemetry.metric.MeterRegistry;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -23,6 +26,7 @@ import org.mockito.ArgumentCaptor;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Set;
@@ -663,6 +667,214 @@ public class ThreadPoolMergeExecutorServiceTests extends ESTestCase {
         }
     }
 
+    public void testMergeTasksInTheSameSizeClassExecuteInFairnessTicketOrder() {
+        DeterministicTaskQueue mergeExecutorTaskQueue = new DeterministicTaskQueue();
+        ThreadPool mergeExecutorThreadPool = mergeExecutorTaskQueue.getThreadPool();
+        ThreadPoolMergeExecutorService threadPoolMergeExecutorService = getThreadPoolMergeExecutorService(mergeExecutorThreadPool);
+        List<MergeTask> executedMergeTasks = new ArrayList<>();
+        int mergeTaskCount = 0;
+        long maxFairnessTicket = 0L;
+        // several merge schedulers, i.e. shards, each with a few merge tasks that share the scheduler's fairness ticket
+        int schedulerCount = randomIntBetween(2, 5);
+        for (int scheduler = 0; scheduler < schedulerCount; scheduler++) {
+            long fairnessTicket = randomLongBetween(0L, 10L);
+            maxFairnessTicket = Math.max(maxFairnessTicket, fairnessTicket);
+            int schedulerMergeTaskCount = randomIntBetween(1, 10);
+            for (int i = 0; i < schedulerMergeTaskCount; i++) {
+                MergeTask mergeTask = mock(MergeTask.class);
+                when(mergeTask.supportsIOThrottling()).thenReturn(randomBoolean());
+                // mostly merge tasks of the same size class, with a few much larger ones
+                long estimatedMergeSize = randomBoolean() ? randomLongBetween(32L, 127L) : randomLongBetween(2048L, 8191L);
+                when(mergeTask.estimatedMergeSize()).thenReturn(estimatedMergeSize);
+                when(mergeTask.fairnessTicket()).thenReturn(fairnessTicket);
+                doAnswer(mock -> {
+                    executedMergeTasks.add(mergeTask);
+                    return RUN;
+                }).when(mergeTask).schedule();
+                assertTrue(threadPoolMergeExecutorService.submitMergeTask(mergeTask));
+                mergeTaskCount++;
+            }
+        }
+        // only start running merge tasks once all of them are queued
+        while (runOneTask(mergeExecutorTaskQueue)) {
+            // run them all
+        }
+        assertThat(executedMergeTasks.size(), is(mergeTaskCount));
+        for (int i = 1; i < executedMergeTasks.size(); i++) {
+            MergeTask previous = executedMergeTasks.get(i - 1);
+            MergeTask next = executedMergeTasks.get(i);
+            int previousSizeClass = ThreadPoolMergeExecutorService.sizeClass(previous.estimatedMergeSize());
+            int nextSizeClass = ThreadPoolMergeExecutorService.sizeClass(next.estimatedMergeSize());
+            if (previousSizeClass == nextSizeClass) {
+                // regardless of the scheduler, merge tasks of the same size class run in the order of their fairness tickets
+                assertThat(previous.fairnessTicket(), lessThanOrEqualTo(next.fairnessTicket()));
+                if (previous.fairnessTicket() == next.fairnessTicket()) {
+                    assertThat(previous.estimatedMergeSize(), lessThanOrEqualTo(next.estimatedMergeSize()));
+                }
+            } else {
+                // smaller size classes run first, whatever their fairness tickets
+                assertThat(previousSizeClass, lessThan(nextSizeClass));
+            }
+        }
+        assertTrue(threadPoolMergeExecutorService.allDone());
+        // merge tasks that are submitted later get tickets no lower than the highest ticket of the merge tasks that ran
+        MergeTask laterMergeTask = mock(MergeTask.class);
+        when(laterMergeTask.schedule()).thenReturn(RUN);
+        assertTrue(threadPoolMergeExecutorService.submitMergeTask(laterMergeTask));
+        verify(laterMergeTask).assignFairnessTicket(maxFairnessTicket);
+        assertTrue(runOneTask(mergeExecutorTaskQueue));
+        assertTrue(threadPoolMergeExecutorService.allDone());
+    }
+
+    public void testBacklogBytesAreReleasedWhenMergeTasksRunOrAbort() {
+        DeterministicTaskQueue mergeExecutorTaskQueue = new DeterministicTaskQueue();
+        ThreadPool mergeExecutorThreadPool = mergeExecutorTaskQueue.getThreadPool();
+        ThreadPoolMergeExecutorService threadPoolMergeExecutorService = getThreadPoolMergeExecutorService(mergeExecutorThreadPool);
+        DeterministicTaskQueue reEnqueueBackloggedTaskQueue = new DeterministicTaskQueue();
+        Set<MergeTask> mergeTasksAvailableToRun = new HashSet<>();
+        AtomicLong expectedBacklogBytes = new AtomicLong();
+        int mergeTaskCount = randomIntBetween(10, 100);
+        for (int i = 0; i < mergeTaskCount; i++) {
+            MergeTask mergeTask = mock(MergeTask.class);
+            when(mergeTask.supportsIOThrottling()).thenReturn(randomBoolean());
+            long estimatedMergeSize = randomLongBetween(0L, 1000L);
+            when(mergeTask.estimatedMergeSize()).thenReturn(estimatedMergeSize);
+            doAnswer(mock -> {
+                Schedule schedule = randomFrom(Schedule.values());
+                mergeTasksAvailableToRun.remove(mergeTask);
+                if (schedule == BACKLOG) {
+                    // a backlogged merge task still counts towards the backlog, until it's re-enqueued and then run or aborted
+                    reEnqueueBackloggedTaskQueue.scheduleNow(() -> {
+                        threadPoolMergeExecutorService.reEnqueueBackloggedMergeTask(mergeTask);
+                        mergeTasksAvailableToRun.add(mergeTask);
+                    });
+                    // hack: avoid blocking for unavailable merge task by running one re-enqueuing task now
+                    if (mergeTasksAvailableToRun.isEmpty()) {
+                        assertTrue(runOneTask(reEnqueueBackloggedTaskQueue));
+                    }
+                } else {
+                    expectedBacklogBytes.addAndGet(-estimatedMergeSize);
+                }
+                return schedule;
+            }).when(mergeTask).schedule();
+            mergeTasksAvailableToRun.add(mergeTask);
+            expectedBacklogBytes.addAndGet(estimatedMergeSize);
+            assertTrue(threadPoolMergeExecutorService.submitMergeTask(mergeTask));
+            assertThat(threadPoolMergeExecutorService.getBacklogBytes(), is(expectedBacklogBytes.get()));
+        }
+        while (true) {
+            if (mergeTasksAvailableToRun.isEmpty() || randomBoolean()) {
+                boolean backlogReEnqueued = runOneTask(reEnqueueBackloggedTaskQueue);
+                if (mergeTasksAvailableToRun.isEmpty() && backlogReEnqueued == false) {
+                    // all merge tasks ran or aborted, and none is backlogged
+                    break;
+                }
+            } else {
+                runOneTask(mergeExecutorTaskQueue);
+            }
+            assertThat(threadPoolMergeExecutorService.getBacklogBytes(), is(expectedBacklogBytes.get()));
+        }
+        assertFalse(mergeExecutorTaskQueue.hasAnyTasks());
+        assertThat(expectedBacklogBytes.get(), is(0L));
+        assertThat(threadPoolMergeExecutorService.getBacklogBytes(), is(0L));
+        assertTrue(threadPoolMergeExecutorService.allDone());
+    }
+
+    public void testIORateIsAdjustedForRunningMergeTasksWhenNodeIORateLimitChanges() throws Exception {
+        int mergeExecutorThreadCount = randomIntBetween(1, 3);
+        Settings settings = Settings.builder()
+            .put(ThreadPoolMergeScheduler.USE_THREAD_POOL_MERGE_SCHEDULER_SETTING.getKey(), true)
+            .put(EsExecutors.NODE_PROCESSORS_SETTING.getKey(), mergeExecutorThreadCount)
+            .build();
+        ClusterSettings clusterSettings = ClusterSettings.createBuiltInClusterSettings(settings);
+        try (TestThreadPool testThreadPool = new TestThreadPool("test", settings)) {
+            ThreadPoolMergeExecutorService threadPoolMergeExecutorService = ThreadPoolMergeExecutorService
+                .maybeCreateThreadPoolMergeExecutorService(testThreadPool, settings, clusterSettings, MeterRegistry.NOOP);
+            assertNotNull(threadPoolMergeExecutorService);
+            assertThat(threadPoolMergeExecutorService.getMaxConcurrentMerges(), equalTo(mergeExecutorThreadCount));
+            CountDownLatch mergeTasksRunningLatch = new CountDownLatch(mergeExecutorThreadCount);
+            CountDownLatch completeMergeTasksLatch = new CountDownLatch(1);
+            List<MergeTask> runningMergeTasks = new ArrayList<>();
+            // as many merge tasks as merge threads, so that they're all running at the same time
+            for (int i = 0; i < mergeExecutorThreadCount; i++) {
+                MergeTask mergeTask = mock(MergeTask.class);
+                when(mergeTask.supportsIOThrottling()).thenReturn(true);
+                when(mergeTask.schedule()).thenReturn(RUN);
+                doAnswer(mock -> {
+                    mergeTasksRunningLatch.countDown();
+                    // wait to be signalled before completing
+                    safeAwait(completeMergeTasksLatch);
+                    return null;
+                }).when(mergeTask).run();
+                runningMergeTasks.add(mergeTask);
+                assertTrue(threadPoolMergeExecutorService.submitMergeTask(mergeTask));
+            }
+            safeAwait(mergeTasksRunningLatch);
+            // the target IO rate only changes when merge tasks are submitted
+            long targetIORate = threadPoolMergeExecutorService.getTargetIORateBytesPerSec();
+            assertThat(targetIORate, greaterThan(MIN_IO_RATE.getBytes()));
+            // the running merge tasks share the node IO rate limit as soon as it is set
+            long nodeIORateLimit = randomLongBetween(MIN_IO_RATE.getBytes() + 1, targetIORate) * mergeExecutorThreadCount - 1;
+            clusterSettings.applySettings(
+                Settings.builder()
+                    .put(ThreadPoolMergeExecutorService.NODE_MERGE_IO_RATE_LIMIT_SETTING.getKey(), ByteSizeValue.ofBytes(nodeIORateLimit))
+                    .build()
+            );
+            long ioRateLimit = ThreadPoolMergeExecutorService.ioRateLimitPerMergeTask(
+                targetIORate,
+                nodeIORateLimit,
+                mergeExecutorThreadCount
+            );
+            assertThat(ioRateLimit, lessThan(targetIORate));
+            assertLastIORateLimit(runningMergeTasks, ioRateLimit);
+            // and go back to the target IO rate once it is lifted
+            clusterSettings.applySettings(Settings.EMPTY);
+            assertLastIORateLimit(runningMergeTasks, targetIORate);
+            completeMergeTasksLatch.countDown();
+            assertBusy(() -> assertTrue(threadPoolMergeExecutorService.allDone()));
+        }
+    }
+
+    private static void assertLastIORateLimit(List<MergeTask> mergeTasks, long ioRateLimit) {
+        for (MergeTask mergeTask : mergeTasks) {
+            var ioRateCaptor = ArgumentCaptor.forClass(Long.class);
+            // only interested in the last invocation
+            verify(mergeTask, atLeastOnce()).setIORateLimit(ioRateCaptor.capture());
+            assertThat(ioRateCaptor.getValue(), is(ioRateLimit));
+        }
+    }
+
+    public void testIORateLimitPerMergeTaskSharesNodeBudget() {
+        long targetIORate = randomLongBetween(MIN_IO_RATE.getBytes(), MAX_IO_RATE.getBytes());
+        int runningMergeTasks = randomIntBetween(0, 10);
+        // no node budget, every merge task is throttled to the target IO rate
+        assertThat(ThreadPoolMergeExecutorService.ioRateLimitPerMergeTask(targetIORate, -1L, runningMergeTasks), equalTo(targetIORate));
+        // a node budget that's larger than all the target IO rates together doesn't change anything
+        long largeNodeBudget = targetIORate * Math.max(1, runningMergeTasks) + randomLongBetween(0, 1000);
+        assertThat(
+            ThreadPoolMergeExecutorService.ioRateLimitPerMergeTask(targetIORate, largeNodeBudget, runningMergeTasks),
+            equalTo(targetIORate)
+        );
+        // the node budget is shared between the running merge tasks
+        long nodeBudget = randomLongBetween(MIN_IO_RATE.getBytes() * 10, MAX_IO_RATE.getBytes());
+        assertThat(ThreadPoolMergeExecutorService.ioRateLimitPerMergeTask(Long.MAX_VALUE, nodeBudget, 10), equalTo(nodeBudget / 10));
+        // but no merge task is throttled below the floor
+        assertThat(
+            ThreadPoolMergeExecutorService.ioRateLimitPerMergeTask(targetIORate, 0L, runningMergeTasks),
+            equalTo(MIN_IO_RATE.getBytes())
+        );
+    }
+
+    public void testSizeClass() {
+        assertThat(ThreadPoolMergeExecutorService.sizeClass(0L), equalTo(0));
+        assertThat(ThreadPoolMergeExecutorService.sizeClass(1L), equalTo(0));
+        assertThat(ThreadPoolMergeExecutorService.sizeClass(4L), equalTo(ThreadPoolMergeExecutorService.sizeClass(7L)));
+        assertThat(ThreadPoolMergeExecutorService.sizeClass(16L), lessThan(ThreadPoolMergeExecutorService.sizeClass(64L)));
+        long size = randomLongBetween(1L, Long.MAX_VALUE / 4);
+        assertThat(ThreadPoolMergeExecutorService.sizeClass(size), lessThanOrEqualTo(ThreadPoolMergeExecutorService.sizeClass(size * 4)));
+        assertThat(ThreadPoolMergeExecutorService.sizeClass(size), lessThan(ThreadPoolMergeExecutorService.sizeClass(size * 4)));
+    }
+
     static ThreadPoolMergeExecutorService getThreadPoolMergeExecutorService(ThreadPool threadPool) {
         ThreadPoolMergeExecutorService threadPoolMergeExecutorService = ThreadPoolMergeExecutorService
             .maybeCreateThreadPoolMergeExecutorService(
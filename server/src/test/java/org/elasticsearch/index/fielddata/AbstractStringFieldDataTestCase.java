@@ -44,8 +44,12 @@ import org.elasticsearch.common.lucene.search.Queries;
 import org.elasticsearch.index.fielddata.IndexFieldData.XFieldComparatorSource.Nested;
 import org.elasticsearch.index.fielddata.fieldcomparator.BytesRefFieldComparatorSource;
 import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsIndexFieldData;
+import org.elasticsearch.index.fielddata.plain.AbstractIndexOrdinalsFieldData;
+import org.elasticsearch.index.fielddata.plain.SortedSetOrdinalsIndexFieldData;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.elasticsearch.search.MultiValueMode;
+import org.elasticsearch.search.aggregations.support.CoreValuesSourceType;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -556,6 +560,133 @@ public abstract class AbstractStringFieldDataTestCase extends AbstractFieldDataI
         assertThat(values.lookupOrd(ord).utf8ToString(), equalTo("!10"));
     }
 
+    public void testIncrementalGlobalOrdinals() throws Exception {
+        fillExtendedMvSet();
+        refreshReader();
+        AbstractIndexOrdinalsFieldData ifd = (AbstractIndexOrdinalsFieldData) getForField("string", "value", hasDocValues());
+        GlobalOrdinalsIndexFieldData first = (GlobalOrdinalsIndexFieldData) ifd.loadGlobalDirect(topLevelReader, null);
+        assertFalse(first.getTieredOrdinalMap().hasAddedSegments());
+
+        // a new segment with a term that sorts before all others, one that exists already and one in between existing terms
+        Document d = new Document();
+        addField(d, "_id", "9");
+        addField(d, "value", "!07");
+        addField(d, "value", "03");
+        addField(d, "value", "055");
+        writer.addDocument(d);
+        refreshReader();
+        assertThat(topLevelReader.leaves().size(), equalTo(4));
+
+        GlobalOrdinalsIndexFieldData incremental = (GlobalOrdinalsIndexFieldData) ifd.loadGlobalDirect(
+            topLevelReader,
+            first.getTieredOrdinalMap()
+        );
+        assertTrue(incremental.getTieredOrdinalMap().hasAddedSegments());
+        assertTrue(incremental.getTieredOrdinalMap().hasSameBase(first.getTieredOrdinalMap()));
+        GlobalOrdinalsIndexFieldData full = (GlobalOrdinalsIndexFieldData) ifd.loadGlobalDirect(topLevelReader, null);
+        assertThat(full.getValueCount(), equalTo(14L));
+        assertThat(incremental.getValueCount(), equalTo(full.getValueCount()));
+
+        IndexOrdinalsFieldData expectedOrdinals = full.newConsumer(topLevelReader);
+        IndexOrdinalsFieldData actualOrdinals = incremental.newConsumer(topLevelReader);
+        for (LeafReaderContext leaf : topLevelReader.leaves()) {
+            SortedSetDocValues expected = expectedOrdinals.load(leaf).getOrdinalsValues();
+            SortedSetDocValues actual = actualOrdinals.load(leaf).getOrdinalsValues();
+            for (long ord = 0; ord < full.getValueCount(); ord++) {
+                assertThat(actual.lookupOrd(ord), equalTo(expected.lookupOrd(ord)));
+            }
+            for (int doc = 0; doc < leaf.reader().maxDoc(); doc++) {
+                boolean hasValue = expected.advanceExact(doc);
+                assertThat(actual.advanceExact(doc), equalTo(hasValue));
+                if (hasValue) {
+                    assertThat(actual.docValueCount(), equalTo(expected.docValueCount()));
+                    for (int i = 0; i < expected.docValueCount(); i++) {
+                        assertThat(actual.nextOrd(), equalTo(expected.nextOrd()));
+                    }
+                }
+            }
+        }
+
+        // segments of the base got merged away
+        writer.forceMerge(2);
+        refreshReader();
+        assertThat(topLevelReader.leaves().size(), equalTo(2));
+        GlobalOrdinalsIndexFieldData merged = (GlobalOrdinalsIndexFieldData) ifd.loadGlobalDirect(
+            topLevelReader,
+            incremental.getTieredOrdinalMap()
+        );
+        assertFalse(merged.getTieredOrdinalMap().hasSameBase(first.getTieredOrdinalMap()));
+    }
+
+    public void testIncrementalGlobalOrdinalsAreForgottenWithTheirCacheEntry() throws Exception {
+        fillExtendedMvSet();
+        refreshReader();
+        IndexOrdinalsFieldData ifd = getForField("string", "value", hasDocValues());
+        IndexFieldDataCache cache = indicesFieldDataCache.buildIndexFieldDataCache(
+            new IndexFieldDataCache.Listener() {},
+            indexService.index(),
+            "value",
+            true
+        );
+        GlobalOrdinalsIndexFieldData first = (GlobalOrdinalsIndexFieldData) cache.load(topLevelReader, ifd);
+
+        // extended while the cache entry of the first global ordinals is still around
+        Document d = new Document();
+        addField(d, "_id", "9");
+        addField(d, "value", "!07");
+        writer.addDocument(d);
+        try (DirectoryReader second = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "_na_", 1))) {
+            GlobalOrdinalsIndexFieldData incremental = (GlobalOrdinalsIndexFieldData) cache.load(second, ifd);
+            assertTrue(incremental.getTieredOrdinalMap().hasSameBase(first.getTieredOrdinalMap()));
+
+            // once the cache entries are gone nothing pins the global ordinals anymore
+            indicesFieldDataCache.getCache().invalidateAll();
+            d = new Document();
+            addField(d, "_id", "10");
+            addField(d, "value", "!08");
+            writer.addDocument(d);
+            try (DirectoryReader third = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "_na_", 1))) {
+                GlobalOrdinalsIndexFieldData rebuilt = (GlobalOrdinalsIndexFieldData) cache.load(third, ifd);
+                assertFalse(rebuilt.getTieredOrdinalMap().hasAddedSegments());
+                assertFalse(rebuilt.getTieredOrdinalMap().hasSameBase(first.getTieredOrdinalMap()));
+            }
+        }
+    }
+
+    public void testNoIncrementalGlobalOrdinalsForFieldsThatOptOut() throws Exception {
+        assumeTrue("only doc values based field data can opt out", hasDocValues());
+        fillExtendedMvSet();
+        refreshReader();
+        IndexFieldDataCache cache = indicesFieldDataCache.buildIndexFieldDataCache(
+            new IndexFieldDataCache.Listener() {},
+            indexService.index(),
+            "value",
+            true
+        );
+        SortedSetOrdinalsIndexFieldData ifd = new SortedSetOrdinalsIndexFieldData(
+            cache,
+            "value",
+            CoreValuesSourceType.KEYWORD,
+            new NoneCircuitBreakerService(),
+            (dv, n) -> { throw new UnsupportedOperationException(); },
+            false
+        );
+        assertFalse(ifd.supportsIncrementalGlobalOrdinals());
+        GlobalOrdinalsIndexFieldData first = (GlobalOrdinalsIndexFieldData) cache.load(topLevelReader, ifd);
+
+        Document d = new Document();
+        addField(d, "_id", "9");
+        addField(d, "value", "!07");
+        writer.addDocument(d);
+        try (DirectoryReader second = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "_na_", 1))) {
+            GlobalOrdinalsIndexFieldData rebuilt = (GlobalOrdinalsIndexFieldData) cache.load(second, ifd);
+            assertFalse(rebuilt.getTieredOrdinalMap().hasAddedSegments());
+            assertFalse(rebuilt.getTieredOrdinalMap().hasSameBase(first.getTieredOrdinalMap()));
+            // so the ordinal map that has_child queries join on is the accounted one
+            assertThat(rebuilt.getOrdinalMap().getValueCount(), equalTo(rebuilt.getValueCount()));
+        }
+    }
+
     public void testTermsEnum() throws Exception {
         fillExtendedMvSet();
         writer.forceMerge(1);
@@ -0,0 +1,65 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.fielddata.ordinals;
+
+import org.elasticsearch.test.ESTestCase;
+
+import static org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsBuilder.extensionCost;
+import static org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsBuilder.rebuildCost;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+public class GlobalOrdinalsBuilderTests extends ESTestCase {
+
+    public void testNothingAddedCostsNothing() {
+        assertThat(extensionCost(randomLongBetween(0, 1_000_000), 0, 0), equalTo(0L));
+    }
+
+    public void testNeverExtendsWithMoreTermsThanTheBase() {
+        assertThat(extensionCost(1_000, 1_001, between(1, 10)), lessThan(0L));
+    }
+
+    public void testFewAddedTermsAreCheaperThanRebuilding() {
+        // a refresh added a small segment to a base of many segments
+        assertThat(extensionCost(1_000_000, 10_000, 1), lessThan(rebuildCost(1_210_000, 21)));
+    }
+
+    public void testSeekingToSparseInsertionPoints() {
+        // sparse added terms seek to another block of the terms dictionary for every probe, merging a single base segment is cheaper
+        long cost = extensionCost(10_000_000, 100_000, 1);
+        assertThat(cost, greaterThan(rebuildCost(10_100_000, 2)));
+        // but not merging thirty of them
+        assertThat(cost, lessThan(rebuildCost(10_100_000, 31)));
+        // dense added terms mostly probe within the block the previous search ended in
+        assertThat(extensionCost(10_000_000, 1_000_000, 1), lessThan(cost));
+    }
+
+    public void testRefreshesEventuallyRebuild() {
+        final long baseValueCount = 1_000_000;
+        final int baseSegments = 10;
+        long addedValueCount = 0;
+        int addedSegments = 0;
+        long spent = 0;
+        // every refresh adds a segment, and extending merges the terms of all added segments again
+        while (true) {
+            addedValueCount += 1_000;
+            addedSegments++;
+            long cost = extensionCost(baseValueCount, addedValueCount, addedSegments);
+            assertThat(cost, greaterThan(0L));
+            if (spent + cost > rebuildCost(baseValueCount + addedValueCount, baseSegments + addedSegments)) {
+                break;
+            }
+            spent += cost;
+        }
+        assertThat(addedSegments, greaterThan(1));
+        assertThat(addedValueCount, lessThan(baseValueCount / 10));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.mapper;
+
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class DocumentParsePlanTests extends MapperServiceTestCase {
+
+    public void testRootMappers() throws IOException {
+        DocumentMapper mapper = createDocumentMapper(mapping(b -> {
+            b.startObject("field").field("type", "keyword").endObject();
+            b.startObject("object").startObject("properties");
+            {
+                b.startObject("inner").field("type", "long").endObject();
+            }
+            b.endObject().endObject();
+        }));
+        MappingLookup lookup = mapper.mappers();
+        DocumentParsePlan plan = lookup.parsePlan();
+        assertThat(lookup.parsePlan(), sameInstance(plan));
+
+        RootObjectMapper root = lookup.getMapping().getRoot();
+        assertThat(plan.rootMapper("field"), sameInstance(root.getMapper("field")));
+        assertThat(plan.rootMapper("object"), sameInstance(root.getMapper("object")));
+        assertThat(plan.rootMapper(IdFieldMapper.NAME), sameInstance(lookup.getMapping().getMetadataMapperByName(IdFieldMapper.NAME)));
+        assertThat(plan.rootMapper("inner"), nullValue());
+        assertThat(plan.rootMapper("object.inner"), nullValue());
+        assertThat(plan.rootMapper("unknown"), nullValue());
+    }
+
+    public void testRuntimeFieldMappersAreShared() throws IOException {
+        DocumentMapper mapper = createDocumentMapper(topMapping(b -> {
+            b.startObject("runtime");
+            {
+                b.startObject("runtime_field").field("type", "long").endObject();
+                b.startObject("object.runtime_field").field("type", "keyword").endObject();
+            }
+            b.endObject();
+            b.startObject("properties");
+            {
+                b.startObject("object").field("type", "object").endObject();
+            }
+            b.endObject();
+        }));
+        DocumentParsePlan plan = mapper.mappers().parsePlan();
+        FieldMapper runtimeFieldMapper = plan.runtimeFieldMapper("runtime_field");
+        assertThat(runtimeFieldMapper, notNullValue());
+        assertThat(plan.runtimeFieldMapper("object.runtime_field"), notNullValue());
+        assertThat(plan.runtimeFieldMapper("unknown"), nullValue());
+
+        for (int i = 0; i < 3; i++) {
+            ParsedDocument doc = mapper.parse(source(b -> {
+                b.field("runtime_field", randomLong());
+                b.startObject("object").field("runtime_field", randomAlphaOfLength(5)).endObject();
+            }));
+            assertNull(doc.dynamicMappingsUpdate());
+            assertNull(doc.rootDoc().getField("runtime_field"));
+            assertNull(doc.rootDoc().getField("object.runtime_field"));
+        }
+        assertThat(plan.runtimeFieldMapper("runtime_field"), sameInstance(runtimeFieldMapper));
+    }
+
+    public void testUnknownFieldsFallBackToDynamicMapping() throws IOException {
+        DocumentMapper mapper = createDocumentMapper(mapping(b -> {
+            b.startObject("field").field("type", "keyword").endObject();
+            b.startObject("other_field").field("type", "keyword").endObject();
+        }));
+        ParsedDocument doc = mapper.parse(source(b -> {
+            b.field("field", "value");
+            b.field("new_field", 42);
+            b.field("other_field", "other");
+        }));
+        assertNotNull(doc.dynamicMappingsUpdate());
+        assertNotNull(doc.dynamicMappingsUpdate().getRoot().getMapper("new_field"));
+        assertNotNull(doc.rootDoc().getField("field"));
+        assertNotNull(doc.rootDoc().getField("other_field"));
+    }
+}
@@ -31,6 +31,7 @@ import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.IndexVersion;
 import org.elasticsearch.index.analysis.AnalyzerScope;
@@ -300,6 +301,30 @@ public class SearchExecutionContextTests extends ESTestCase {
         return MappingLookup.fromMappers(mapping, mappers, Collections.emptyList());
     }
 
+    public void testRoundedNowKeepsContextCacheable() {
+        SearchExecutionContext context = createSearchExecutionContext("uuid", null);
+        SearchExecutionContext unrounded = new SearchExecutionContext(context);
+        long nowRounding = randomLongBetween(1, 3_600_000);
+        context.roundNowInMillis(TimeValue.timeValueMillis(nowRounding));
+        assertEquals(-1L, context.roundedNowInMillis());
+
+        long now = unrounded.nowInMillis();
+        assertFalse(unrounded.isCacheable());
+        assertEquals(-1L, unrounded.roundedNowInMillis());
+        long roundedNow = context.nowInMillis();
+        assertEquals(Math.ceilDiv(now, nowRounding) * nowRounding, roundedNow);
+        assertTrue(context.isCacheable());
+        assertEquals(roundedNow, context.roundedNowInMillis());
+
+        // copies round now the same way, notably the one the request is rewritten with
+        SearchExecutionContext copy = new SearchExecutionContext(context);
+        assertEquals(roundedNow, copy.nowInMillis());
+        assertTrue(copy.isCacheable());
+
+        context.freezeContext();
+        expectThrows(IllegalArgumentException.class, context::nowInMillis);
+    }
+
     public void testSearchRequestRuntimeFields() {
         /*
          * Making these immutable here test that we don't modify them.
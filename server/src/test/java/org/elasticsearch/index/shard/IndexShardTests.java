@@ -4147,6 +4147,61 @@ public class IndexShardTests extends IndexShardTestCase {
         closeShards(primary);
     }
 
+    public void testScheduledRefreshDeferredUntilSearchedOrVisibilityTarget() throws Exception {
+        Settings settings = indexSettings(IndexVersion.current(), 1, 1).put(
+            IndexSettings.INDEX_REFRESH_VISIBILITY_TARGET_SETTING.getKey(),
+            TimeValue.timeValueHours(1)
+        ).build();
+        IndexMetadata metadata = IndexMetadata.builder("test").putMapping("""
+            { "properties": { "foo":  { "type": "text"}}}""").settings(settings).primaryTerm(0, 1).build();
+        IndexShard primary = newShard(new ShardId(metadata.getIndex(), 0), true, "n1", metadata, null);
+        recoverShardFromStore(primary);
+        long lastSearchAccess = primary.getLastSearcherAccess();
+        // wait until the thread-pool has moved the timestamp so the refresh below happens after the last search
+        assertBusy(() -> assertThat(primary.getThreadPool().relativeTimeInMillis(), greaterThan(lastSearchAccess)));
+        indexDoc(primary, "_doc", "seed", "{\"foo\" : \"bar\"}");
+        primary.refresh("test");
+
+        // nobody searched the shard since the last refresh, so the scheduled refresh is deferred
+        indexDoc(primary, "_doc", "0", "{\"foo\" : \"bar\"}");
+        assertTrue(primary.getEngine().refreshNeeded());
+        PlainActionFuture<Boolean> future = new PlainActionFuture<>();
+        primary.scheduledRefresh(future);
+        assertFalse(future.actionGet());
+        assertTrue(primary.getEngine().refreshNeeded());
+
+        // unless a refresh listener waits for it
+        Engine.IndexResult doc = indexDoc(primary, "_doc", "1", "{\"foo\" : \"bar\"}");
+        CountDownLatch latch = new CountDownLatch(1);
+        primary.addRefreshListener(doc.getTranslogLocation(), r -> latch.countDown());
+        PlainActionFuture<Boolean> future2 = new PlainActionFuture<>();
+        primary.scheduledRefresh(future2);
+        assertTrue(future2.actionGet());
+        latch.await();
+
+        // once the shard is searched the next scheduled refresh happens
+        indexDoc(primary, "_doc", "2", "{\"foo\" : \"bar\"}");
+        try (Engine.Searcher searcher = primary.acquireSearcher("test")) {
+            assertEquals(3, searcher.getIndexReader().numDocs());
+        }
+        PlainActionFuture<Boolean> future3 = new PlainActionFuture<>();
+        primary.scheduledRefresh(future3);
+        assertTrue(future3.actionGet());
+
+        // and a refresh that is due since longer than the visibility target isn't deferred
+        IndexScopedSettings scopedSettings = primary.indexSettings().getScopedSettings();
+        settings = Settings.builder()
+            .put(settings)
+            .put(IndexSettings.INDEX_REFRESH_VISIBILITY_TARGET_SETTING.getKey(), TimeValue.ZERO)
+            .build();
+        scopedSettings.applySettings(settings);
+        indexDoc(primary, "_doc", "3", "{\"foo\" : \"bar\"}");
+        PlainActionFuture<Boolean> future4 = new PlainActionFuture<>();
+        primary.scheduledRefresh(future4);
+        assertTrue(future4.actionGet());
+        closeShards(primary);
+    }
+
     public void testRefreshIsNeededWithRefreshListeners() throws IOException, InterruptedException {
         Settings settings = indexSettings(IndexVersion.current(), 1, 1).build();
         IndexMetadata metadata = IndexMetadata.builder("test").putMapping("""
@@ -0,0 +1,214 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the "Elastic License
+ * 2.0", the "GNU Affero General Public License v3.0 only", and the "Server Side
+ * Public License v 1"; you may not use this file except in compliance with, at
+ * your election, the "Elastic License 2.0", the "GNU Affero General Public
+ * License v3.0 only", or the "Server Side Public License, v 1".
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.seqno.SequenceNumbers;
+import org.elasticsearch.telemetry.metric.MeterRegistry;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class TranslogSyncCoordinatorTests extends ESTestCase {
+
+    // enough flush threads to sync several translogs in parallel however many processors the test machine has
+    private static final int FLUSH_THREADS = 4;
+
+    private ThreadPool threadPool;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        threadPool = new TestThreadPool(
+            getTestName(),
+            Settings.builder().put("thread_pool." + ThreadPool.Names.FLUSH + ".max", FLUSH_THREADS).build()
+        );
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        terminate(threadPool);
+        super.tearDown();
+    }
+
+    public void testDisabledByDefault() {
+        TranslogSyncCoordinator coordinator = new TranslogSyncCoordinator(
+            ClusterSettings.createBuiltInClusterSettings(),
+            MeterRegistry.NOOP
+        );
+        Path dataPath = createTempDir();
+        TranslogSyncCoordinator.Group group = coordinator.group(dataPath, threadPool);
+        assertFalse(group.isEnabled());
+        assertThat(coordinator.group(dataPath, threadPool), sameInstance(group));
+    }
+
+    public void testFailureOnlyFailsItsOwnTranslog() {
+        TranslogSyncCoordinator.Group group = enabledGroup("0ms");
+        Translog.Location location = new Translog.Location(1, randomIntBetween(0, 1000), 10);
+        IOException failure = new IOException("disk on fire");
+
+        AtomicReference<Translog.Location> synced = new AtomicReference<>();
+        PlainActionFuture<Exception> okResult = new PlainActionFuture<>();
+        group.sync((l, gcp) -> synced.set(l), location, SequenceNumbers.UNASSIGNED_SEQ_NO, okResult::onResponse);
+        assertThat(safeGet(okResult), nullValue());
+        assertThat(synced.get(), equalTo(location));
+
+        PlainActionFuture<Exception> failedResult = new PlainActionFuture<>();
+        group.sync((l, gcp) -> { throw failure; }, location, SequenceNumbers.UNASSIGNED_SEQ_NO, failedResult::onResponse);
+        assertThat(safeGet(failedResult), sameInstance(failure));
+    }
+
+    public void testSyncsRunOnFlushPoolAfterWindow() {
+        TranslogSyncCoordinator.Group group = enabledGroup("100ms");
+        Translog.Location location = new Translog.Location(1, randomIntBetween(0, 1000), 10);
+        CountDownLatch syncStarted = new CountDownLatch(1);
+        CountDownLatch releaseSync = new CountDownLatch(1);
+        AtomicReference<String> syncThread = new AtomicReference<>();
+        PlainActionFuture<Exception> result = new PlainActionFuture<>();
+        threadPool.getThreadContext().putHeader("test", "value");
+        long startNanos = System.nanoTime();
+        group.sync((l, gcp) -> {
+            syncThread.set(Thread.currentThread().getName());
+            syncStarted.countDown();
+            safeAwait(releaseSync);
+        }, location, SequenceNumbers.UNASSIGNED_SEQ_NO, e -> {
+            assertThat(threadPool.getThreadContext().getHeader("test"), equalTo("value"));
+            result.onResponse(e);
+        });
+        // the caller neither waits for the window nor for the sync
+        assertFalse(result.isDone());
+        safeAwait(syncStarted);
+        assertThat(System.nanoTime() - startNanos, greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100)));
+        assertThat(syncThread.get(), containsString("[" + ThreadPool.Names.FLUSH + "]"));
+        releaseSync.countDown();
+        assertThat(safeGet(result), nullValue());
+    }
+
+    public void testSyncsOfDifferentTranslogsRunInParallel() {
+        TranslogSyncCoordinator.Group group = enabledGroup("100ms");
+        int targetCount = between(TranslogSyncCoordinator.MIN_TRANSLOGS_TO_SYNC_IN_PARALLEL, FLUSH_THREADS);
+        // only trips if every translog of the batch is being synced at the same time
+        CyclicBarrier barrier = new CyclicBarrier(targetCount);
+        List<PlainActionFuture<Exception>> results = new ArrayList<>();
+        for (int t = 0; t < targetCount; t++) {
+            PlainActionFuture<Exception> result = new PlainActionFuture<>();
+            results.add(result);
+            Translog.Location location = new Translog.Location(1, randomIntBetween(0, 1000), 10);
+            group.sync((l, gcp) -> safeAwait(barrier), location, SequenceNumbers.UNASSIGNED_SEQ_NO, result::onResponse);
+        }
+        for (PlainActionFuture<Exception> result : results) {
+            assertThat(safeGet(result), nullValue());
+        }
+    }
+
+    public void testConcurrentSyncsAreMerged() throws Exception {
+        TranslogSyncCoordinator.Group group = enabledGroup(randomFrom("0ms", "1ms", "5ms"));
+        int targetCount = between(1, 4);
+        List<RecordingTarget> targets = new ArrayList<>();
+        for (int t = 0; t < targetCount; t++) {
+            targets.add(new RecordingTarget());
+        }
+        int threadCount = between(2, 8);
+        int syncsPerThread = between(1, 100);
+        CyclicBarrier barrier = new CyclicBarrier(threadCount);
+        CountDownLatch done = new CountDownLatch(threadCount * syncsPerThread);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            RecordingTarget[] threadTargets = new RecordingTarget[syncsPerThread];
+            Translog.Location[] locations = new Translog.Location[syncsPerThread];
+            long[] globalCheckpoints = new long[syncsPerThread];
+            for (int s = 0; s < syncsPerThread; s++) {
+                threadTargets[s] = randomFrom(targets);
+                locations[s] = new Translog.Location(1, randomIntBetween(0, 10_000), 10);
+                globalCheckpoints[s] = randomLongBetween(0, 10_000);
+            }
+            Thread thread = new Thread(() -> {
+                safeAwait(barrier);
+                for (int s = 0; s < syncsPerThread; s++) {
+                    RecordingTarget target = threadTargets[s];
+                    Translog.Location location = locations[s];
+                    long globalCheckpoint = globalCheckpoints[s];
+                    target.requested(location, globalCheckpoint);
+                    group.sync(target, location, globalCheckpoint, e -> {
+                        if (e != null) {
+                            failure.set(e);
+                        }
+                        done.countDown();
+                    });
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(failure.get(), nullValue());
+        for (RecordingTarget target : targets) {
+            assertThat(target.syncedLocation, equalTo(target.maxRequestedLocation));
+            assertThat(target.syncedGlobalCheckpoint, equalTo(target.maxRequestedGlobalCheckpoint));
+            assertTrue(target.syncs <= target.requests);
+        }
+    }
+
+    private TranslogSyncCoordinator.Group enabledGroup(String window) {
+        ClusterSettings clusterSettings = ClusterSettings.createBuiltInClusterSettings(
+            Settings.builder().put(TranslogSyncCoordinator.GROUP_COMMIT_WINDOW_SETTING.getKey(), window).build()
+        );
+        TranslogSyncCoordinator coordinator = new TranslogSyncCoordinator(clusterSettings, MeterRegistry.NOOP);
+        TranslogSyncCoordinator.Group group = coordinator.group(createTempDir(), threadPool);
+        assertTrue(group.isEnabled());
+        return group;
+    }
+
+    /**
+     * Remembers the highest location and checkpoint it was asked to sync and the highest it was actually synced to.
+     */
+    private static class RecordingTarget implements TranslogSyncCoordinator.SyncTarget {
+        private Translog.Location maxRequestedLocation = Translog.Location.EMPTY;
+        private long maxRequestedGlobalCheckpoint = SequenceNumbers.UNASSIGNED_SEQ_NO;
+        private Translog.Location syncedLocation = Translog.Location.EMPTY;
+        private long syncedGlobalCheckpoint = SequenceNumbers.UNASSIGNED_SEQ_NO;
+        private int requests;
+        private int syncs;
+
+        synchronized void requested(Translog.Location location, long globalCheckpoint) {
+            requests++;
+            maxRequestedLocation = maxRequestedLocation.compareTo(location) >= 0 ? maxRequestedLocation : location;
+            maxRequestedGlobalCheckpoint = Math.max(maxRequestedGlobalCheckpoint, globalCheckpoint);
+        }
+
+        @Override
+        public synchronized void sync(Translog.Location location, long globalCheckpoint) {
+            syncs++;
+            syncedLocation = syncedLocation.compareTo(location) >= 0 ? syncedLocation : location;
+            syncedGlobalCheckpoint = Math.max(syncedGlobalCheckpoint, globalCheckpoint);
+        }
+    }
+}
@@ -29,6 +29,8 @@ import org.apache.lucene.store.Directory;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.core.IOUtils;
+import org.elasticsearch.index.cache.query.CostAwareQueryCachingPolicy;
+import org.elasticsearch.index.cache.query.QueryCacheShapeStats;
 import org.elasticsearch.index.cache.query.QueryCacheStats;
 import org.elasticsearch.index.cache.query.TrivialQueryCachingPolicy;
 import org.elasticsearch.index.shard.ShardId;
@@ -36,6 +38,8 @@ import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
 
+import static org.hamcrest.Matchers.greaterThan;
+
 public class IndicesQueryCacheTests extends ESTestCase {
 
     private static class DummyQuery extends Query {
@@ -404,4 +408,46 @@ public class IndicesQueryCacheTests extends ESTestCase {
         cache.onClose(shard);
         cache.close();
     }
+
+    public void testCostAwarePolicyTracksShapeStats() throws IOException {
+        Directory dir = newDirectory();
+        IndexWriter w = new IndexWriter(dir, newIndexWriterConfig());
+        w.addDocument(new Document());
+        DirectoryReader r = DirectoryReader.open(w);
+        w.close();
+        ShardId shard = new ShardId("index", "_na_", 0);
+        r = ElasticsearchDirectoryReader.wrap(r, shard);
+        IndexSearcher s = new IndexSearcher(r);
+
+        Settings settings = Settings.builder()
+            .put(IndicesQueryCache.INDICES_CACHE_QUERY_COUNT_SETTING.getKey(), 10)
+            .put(IndicesQueryCache.INDICES_QUERIES_CACHE_ALL_SEGMENTS_SETTING.getKey(), true)
+            .build();
+        CostAwareQueryCachingPolicy policy = new CostAwareQueryCachingPolicy(
+            IndicesQueryCache.INDICES_CACHE_QUERY_COUNT_SETTING.get(settings)
+        );
+        s.setQueryCachingPolicy(policy);
+        IndicesQueryCache cache = new IndicesQueryCache(settings);
+        s.setQueryCache(cache);
+
+        // not admitted until it has been used often enough
+        for (int i = 0; i < 4; ++i) {
+            assertEquals(1, s.count(new DummyQuery(0)));
+        }
+        assertEquals(0L, cache.getStats(shard).getCacheCount());
+        assertEquals(1, s.count(new DummyQuery(0)));
+        assertEquals(1L, cache.getStats(shard).getCacheCount());
+        assertEquals(1, s.count(new DummyQuery(0)));
+
+        QueryCacheShapeStats shapeStats = policy.shapeStats().get("DummyQuery");
+        assertNotNull(shapeStats);
+        assertEquals(1L, shapeStats.getCacheCount());
+        assertEquals(1L, shapeStats.getHitCount());
+        assertEquals(cache.getStats(shard).getMissCount(), shapeStats.getMissCount());
+        assertThat(shapeStats.getBuiltSize().getBytes(), greaterThan(0L));
+
+        IOUtils.close(r, dir);
+        cache.onClose(shard);
+        cache.close();
+    }
 }
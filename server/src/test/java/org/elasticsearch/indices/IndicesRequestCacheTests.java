@@ -16,6 +16,7 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.TermQuery;
@@ -45,6 +46,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.Collections.emptyList;
 
@@ -280,6 +282,62 @@ public class IndicesRequestCacheTests extends ESTestCase {
         assertEquals(0, cache.numRegisteredCloseListeners());
     }
 
+    public void testCacheSegmentSurvivesRefresh() throws Exception {
+        IndicesRequestCache cache = new IndicesRequestCache(Settings.EMPTY);
+        MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
+        AtomicBoolean indexShard = new AtomicBoolean(true);
+        ShardRequestCache requestCacheStats = new ShardRequestCache();
+        Directory dir = newDirectory();
+        IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE));
+
+        writer.addDocument(newDoc(0, "foo"));
+        writer.addDocument(newDoc(1, "foo"));
+        DirectoryReader reader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        assertEquals(1, reader.leaves().size());
+        TermQueryBuilder termQuery = new TermQueryBuilder("id", "0");
+        BytesReference termBytes = XContentHelper.toXContent(termQuery, XContentType.JSON, false);
+        AtomicInteger loads = new AtomicInteger();
+        CheckedSupplier<BytesReference, IOException> loader = () -> {
+            loads.incrementAndGet();
+            try (BytesStreamOutput out = new BytesStreamOutput()) {
+                out.writeString("foo");
+                return out.bytes();
+            }
+        };
+
+        TestEntity entity = new TestEntity(requestCacheStats, indexShard);
+        BytesReference value = cache.getOrCompute(entity, loader, mappingKey, reader.leaves().get(0).reader(), termBytes);
+        assertEquals("foo", value.streamInput().readString());
+        assertEquals(1, loads.get());
+        assertEquals(1, requestCacheStats.stats().getMissCount());
+
+        // a refresh that adds a segment keeps the entry of the unchanged segment
+        writer.addDocument(newDoc(2, "bar"));
+        DirectoryReader secondReader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        assertEquals(2, secondReader.leaves().size());
+        value = cache.getOrCompute(entity, loader, mappingKey, secondReader.leaves().get(0).reader(), termBytes);
+        assertEquals("foo", value.streamInput().readString());
+        assertEquals(1, loads.get());
+        assertEquals(1, requestCacheStats.stats().getHitCount());
+        cache.getOrCompute(entity, loader, mappingKey, secondReader.leaves().get(1).reader(), termBytes);
+        assertEquals(2, loads.get());
+        assertEquals(2, cache.count());
+
+        // deleting a document of the segment changes its live documents, so its entry isn't used anymore
+        writer.deleteDocuments(new Term("id", "0"));
+        DirectoryReader thirdReader = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("foo", "bar", 1));
+        cache.getOrCompute(entity, loader, mappingKey, thirdReader.leaves().get(0).reader(), termBytes);
+        assertEquals(3, loads.get());
+        assertEquals(3, cache.count());
+
+        // the entries of a segment are released once the segment is closed
+        IOUtils.close(reader, secondReader, thirdReader, writer);
+        cache.cleanCache();
+        assertEquals(0, cache.count());
+        IOUtils.close(dir, cache);
+        assertEquals(0, cache.numRegisteredCloseListeners());
+    }
+
     public void testEviction() throws Exception {
         MappingLookup.CacheKey mappingKey = MappingLookup.EMPTY.cacheKey();
         final ByteSizeValue size;
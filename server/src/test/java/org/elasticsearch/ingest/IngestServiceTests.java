@@ -50,6 +50,7 @@ import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.time.DateFormatter;
 import org.elasticsearch.common.util.Maps;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.core.FixForMultiProject;
@@ -83,12 +84,15 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -2003,6 +2007,79 @@ public class IngestServiceTests extends ESTestCase {
         }
     }
 
+    public void testParallelBulkRequestExecution() throws Exception {
+        BulkRequest bulkRequest = new BulkRequest();
+        int numRequest = 200;
+        Set<Integer> expectedDropped = new HashSet<>();
+        for (int i = 0; i < numRequest; i++) {
+            boolean drop = randomBoolean();
+            if (drop) {
+                expectedDropped.add(i);
+            }
+            IndexRequest indexRequest = new IndexRequest("_index").id("_id" + i).setPipeline("_id").setFinalPipeline("_none");
+            indexRequest.source(Requests.INDEX_CONTENT_TYPE, "drop", drop);
+            bulkRequest.add(indexRequest);
+        }
+        Set<String> processorThreads = ConcurrentCollections.newConcurrentSet();
+        TestProcessor processor = new TestProcessor(null, "mock", null, document -> {
+            processorThreads.add(Thread.currentThread().getName());
+            return document.getFieldValue("drop", Boolean.class) ? null : document;
+        });
+        IngestService ingestService = createWithProcessors(Map.of("mock", (factories, tag, description, config, projectId) -> processor));
+        ingestService.setBulkParallelism(4);
+        PutPipelineRequest putRequest = putJsonPipelineRequest("_id", """
+            {"processors": [{"mock": {}}]}""");
+        var projectId = randomProjectIdOrDefault();
+        ClusterState clusterState = ClusterState.builder(ClusterName.DEFAULT)
+            .putProjectMetadata(ProjectMetadata.builder(projectId).build())
+            .build();
+        ClusterState previousClusterState = clusterState;
+        clusterState = executePut(projectId, putRequest, clusterState);
+        ingestService.applyClusterState(new ClusterChangedEvent("", clusterState, previousClusterState));
+
+        // run the first task, the bulk request itself, inline and hold on to the batches it forks
+        List<Runnable> forked = new ArrayList<>();
+        AtomicBoolean dispatched = new AtomicBoolean();
+        Executor executor = r -> {
+            if (dispatched.compareAndSet(false, true)) {
+                r.run();
+            } else {
+                forked.add(r);
+            }
+        };
+        Set<Integer> dropped = ConcurrentCollections.newConcurrentSet();
+        AtomicInteger completions = new AtomicInteger();
+        ingestService.executeBulkRequest(
+            projectId,
+            numRequest,
+            bulkRequest.requests(),
+            dropped::add,
+            (s) -> false,
+            (slot, targetIndex, e) -> fail("Should not be redirecting failures"),
+            (slot, e, status) -> fail("Should not be failing: " + e),
+            (thread, e) -> {
+                assertNull(e);
+                completions.incrementAndGet();
+            },
+            executor
+        );
+        assertThat(forked.size(), equalTo(3));
+        assertThat(completions.get(), equalTo(0));
+
+        Thread[] threads = new Thread[forked.size()];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(forked.get(t), "forked-" + t);
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(completions.get(), equalTo(1));
+        assertThat(dropped, equalTo(expectedDropped));
+        assertThat(processorThreads.size(), equalTo(4));
+        assertThat(processor.getInvokedCounter(), equalTo(numRequest));
+    }
+
     public void testIngestAndPipelineStats() throws Exception {
         final Processor processor = mock(Processor.class);
         when(processor.getType()).thenReturn("mock");
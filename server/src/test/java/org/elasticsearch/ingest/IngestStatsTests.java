@@ -9,8 +9,10 @@
 
 package org.elasticsearch.ingest;
 
+import org.elasticsearch.TransportVersions;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.TransportVersionUtils;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -34,6 +36,22 @@ public class IngestStatsTests extends ESTestCase {
         assertIngestStats(ingestStats, serializedStats);
     }
 
+    public void testQueueTimeSerializationBwc() throws IOException {
+        IngestStats ingestStats = new IngestStats(
+            new IngestStats.Stats(50, 100, 200, 300),
+            List.of(randomPipelineStat("pipeline1")),
+            Map.of()
+        );
+        var out = new BytesStreamOutput();
+        out.setTransportVersion(TransportVersionUtils.getPreviousVersion(TransportVersions.INGEST_STATS_QUEUE_TIME));
+        ingestStats.writeTo(out);
+        var in = out.bytes().streamInput();
+        in.setTransportVersion(out.getTransportVersion());
+        IngestStats serializedStats = IngestStats.read(in);
+        assertThat(serializedStats.pipelineStats().get(0).stats(), equalTo(ingestStats.pipelineStats().get(0).stats()));
+        assertThat(serializedStats.pipelineStats().get(0).queueTimeInMillis(), equalTo(0L));
+    }
+
     public void testIdentitySerialization() throws IOException {
         IngestStats serializedStats = serialize(IngestStats.IDENTITY);
         assertThat(serializedStats, sameInstance(IngestStats.IDENTITY));
@@ -134,20 +152,33 @@ public class IngestStatsTests extends ESTestCase {
                 new IngestStats.PipelineStat(
                     "pipeline-1",
                     merge(first.get(0).stats(), first.get(1).stats(), second.get(1).stats()),
-                    merge(first.get(0).byteStats(), first.get(1).byteStats(), second.get(1).byteStats())
+                    merge(first.get(0).byteStats(), first.get(1).byteStats(), second.get(1).byteStats()),
+                    first.get(0).queueTimeInMillis() + first.get(1).queueTimeInMillis() + second.get(1).queueTimeInMillis()
                 ),
                 new IngestStats.PipelineStat(
                     "pipeline-2",
                     merge(first.get(2).stats(), second.get(0).stats()),
-                    IngestStats.ByteStats.merge(first.get(2).byteStats(), second.get(0).byteStats())
+                    IngestStats.ByteStats.merge(first.get(2).byteStats(), second.get(0).byteStats()),
+                    first.get(2).queueTimeInMillis() + second.get(0).queueTimeInMillis()
                 ),
                 new IngestStats.PipelineStat(
                     "pipeline-3",
                     merge(first.get(3).stats(), second.get(3).stats()),
-                    IngestStats.ByteStats.merge(first.get(3).byteStats(), second.get(3).byteStats())
+                    IngestStats.ByteStats.merge(first.get(3).byteStats(), second.get(3).byteStats()),
+                    first.get(3).queueTimeInMillis() + second.get(3).queueTimeInMillis()
+                ),
+                new IngestStats.PipelineStat(
+                    "pipeline-4",
+                    second.get(2).stats(),
+                    second.get(2).byteStats(),
+                    second.get(2).queueTimeInMillis()
                 ),
-                new IngestStats.PipelineStat("pipeline-4", second.get(2).stats(), second.get(2).byteStats()),
-                new IngestStats.PipelineStat("pipeline-5", first.get(4).stats(), first.get(4).byteStats())
+                new IngestStats.PipelineStat(
+                    "pipeline-5",
+                    first.get(4).stats(),
+                    first.get(4).byteStats(),
+                    first.get(4).queueTimeInMillis()
+                )
             )
         );
     }
@@ -267,12 +298,14 @@ public class IngestStatsTests extends ESTestCase {
         IngestStats.PipelineStat pipeline1Stats = new IngestStats.PipelineStat(
             "pipeline1",
             new IngestStats.Stats(3, 3, 3, 3),
-            new IngestStats.ByteStats(123, 456)
+            new IngestStats.ByteStats(123, 456),
+            randomNonNegativeLong()
         );
         IngestStats.PipelineStat pipeline2Stats = new IngestStats.PipelineStat(
             "pipeline2",
             new IngestStats.Stats(47, 97, 197, 297),
-            new IngestStats.ByteStats(1234567, 34567890)
+            new IngestStats.ByteStats(1234567, 34567890),
+            randomNonNegativeLong()
         );
         IngestStats.PipelineStat pipeline3Stats = new IngestStats.PipelineStat(
             "pipeline3",
@@ -332,6 +365,10 @@ public class IngestStatsTests extends ESTestCase {
                 getPipelineByteStats(ingestStats.pipelineStats(), serializedPipelineStat.pipelineId()),
                 serializedPipelineStat.byteStats()
             );
+            assertEquals(
+                getPipelineQueueTime(ingestStats.pipelineStats(), serializedPipelineStat.pipelineId()),
+                serializedPipelineStat.queueTimeInMillis()
+            );
             List<IngestStats.ProcessorStat> serializedProcessorStats = serializedStats.processorStats()
                 .get(serializedPipelineStat.pipelineId());
             List<IngestStats.ProcessorStat> processorStat = ingestStats.processorStats().get(serializedPipelineStat.pipelineId());
@@ -357,6 +394,14 @@ public class IngestStatsTests extends ESTestCase {
             .orElse(null);
     }
 
+    private static long getPipelineQueueTime(List<IngestStats.PipelineStat> pipelineStats, String id) {
+        return pipelineStats.stream()
+            .filter(p1 -> p1.pipelineId().equals(id))
+            .findFirst()
+            .map(IngestStats.PipelineStat::queueTimeInMillis)
+            .orElseThrow();
+    }
+
     private static IngestStats.ByteStats getPipelineByteStats(List<IngestStats.PipelineStat> pipelineStats, String id) {
         return pipelineStats.stream()
             .filter(p1 -> p1.pipelineId().equals(id))
@@ -370,7 +415,7 @@ public class IngestStatsTests extends ESTestCase {
     }
 
     private static IngestStats.PipelineStat randomPipelineStat(String id) {
-        return new IngestStats.PipelineStat(id, randomStats(), randomByteStats());
+        return new IngestStats.PipelineStat(id, randomStats(), randomByteStats(), randomLongBetween(0, 1_000_000_000L));
     }
 
     private static IngestStats.Stats randomStats() {
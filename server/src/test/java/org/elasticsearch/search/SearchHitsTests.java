@@ -13,7 +13,9 @@ import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.tests.util.TestUtil;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.lucene.LuceneTests;
 import org.elasticsearch.common.xcontent.ChunkedToXContent;
@@ -29,8 +31,13 @@ import org.elasticsearch.xcontent.XContentType;
 import org.elasticsearch.xcontent.json.JsonXContent;
 
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
 public class SearchHitsTests extends AbstractChunkedSerializingTestCase<SearchHits> {
 
     public static SearchHits createTestItem(boolean withOptionalInnerHits, boolean withShardTarget) {
@@ -259,6 +266,42 @@ public class SearchHitsTests extends AbstractChunkedSerializingTestCase<SearchHi
             }"""), Strings.toString(builder));
     }
 
+    public void testReleaseHitsOnSerialization() throws IOException {
+        AtomicInteger released = new AtomicInteger();
+        SearchHit[] hits = new SearchHit[between(1, 5)];
+        long sourceBytes = 0;
+        for (int i = 0; i < hits.length; i++) {
+            BytesArray source = new BytesArray("{\"i\":" + i + "}");
+            sourceBytes += source.length();
+            hits[i] = new SearchHit(i, "id" + i);
+            hits[i].sourceRef(new ReleasableBytesReference(source, released::incrementAndGet));
+        }
+        SearchHits searchHits = new SearchHits(hits, new TotalHits(hits.length, TotalHits.Relation.EQUAL_TO), 1.5f);
+        try {
+            assertThat(searchHits.sourceBytes(), equalTo(sourceBytes));
+            searchHits.releaseHitsOnSerialization();
+            XContentBuilder builder = JsonXContent.contentBuilder();
+            builder.startObject();
+            Iterator<? extends ToXContent> chunks = searchHits.toXContentChunked(ToXContent.EMPTY_PARAMS);
+            // the header and the start of the hits array
+            chunks.next().toXContent(builder, ToXContent.EMPTY_PARAMS);
+            chunks.next().toXContent(builder, ToXContent.EMPTY_PARAMS);
+            for (int i = 0; i < hits.length; i++) {
+                assertThat(released.get(), equalTo(i));
+                chunks.next().toXContent(builder, ToXContent.EMPTY_PARAMS);
+                assertThat(released.get(), equalTo(i + 1));
+            }
+            while (chunks.hasNext()) {
+                chunks.next().toXContent(builder, ToXContent.EMPTY_PARAMS);
+            }
+            builder.endObject();
+            assertThat(Strings.toString(builder), containsString("\"_source\":{\"i\":0}"));
+        } finally {
+            searchHits.decRef();
+        }
+        assertThat(released.get(), equalTo(hits.length));
+    }
+
     public void testFromXContentWithShards() throws IOException {
         for (boolean withExplanation : new boolean[] { true, false }) {
             final SearchHit[] hits = new SearchHit[] {
@@ -9,15 +9,29 @@
 
 package org.elasticsearch.search.aggregations.bucket.terms;
 
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.aggregations.AggregationReduceContext;
+import org.elasticsearch.search.aggregations.AggregatorFactories;
+import org.elasticsearch.search.aggregations.AggregatorReducer;
+import org.elasticsearch.search.aggregations.BucketOrder;
+import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.aggregations.InternalOrder;
+import org.elasticsearch.search.aggregations.metrics.Max;
+import org.elasticsearch.search.aggregations.metrics.MaxAggregationBuilder;
 import org.elasticsearch.test.InternalMultiBucketAggregationTestCase;
 import org.junit.Before;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -96,6 +110,176 @@ public abstract class InternalTermsTestCase extends InternalMultiBucketAggregati
         }
     }
 
+    protected static BucketOrder randomTermsOrder() {
+        return randomFrom(BucketOrder.compound(BucketOrder.count(false)), BucketOrder.key(true), BucketOrder.key(false));
+    }
+
+    /**
+     * Checks that reducing random shard results with {@link StreamingTermsReducer} gives the same result as buffering all of their
+     * buckets until the end of the reduction, for partial reductions and for final reductions with any {@code min_doc_count}.
+     */
+    protected static <K, B extends InternalTerms.Bucket<B>> void assertStreamingReduce(Supplier<K> randomKey, TermsFactory<K, B> factory) {
+        StreamingShards<K> shards = new StreamingShards<>(randomKey, between(2, 8));
+        assertSameAsBufferedReduce(() -> shards.build(0, shards.numShards(), factory, false), randomReduceContext());
+    }
+
+    /**
+     * Checks that a streaming reduction that already folded the buckets of some shard results reduces them like a partial reduction
+     * would once shard results with sub-aggregations, which can't be folded, show up.
+     */
+    protected static <K, B extends InternalTerms.Bucket<B>> void assertStreamingReduceSwitchesToSubAggregations(
+        Supplier<K> randomKey,
+        TermsFactory<K, B> factory
+    ) {
+        StreamingShards<K> shards = new StreamingShards<>(randomKey, between(3, 8));
+        int numShards = shards.numShards();
+        // every shard result has at least 600 buckets so we are folding by the third one
+        int folded = between(2, numShards - 1);
+        AggregationReduceContext.Builder contextBuilder = emptyReduceContextBuilder(
+            AggregatorFactories.builder().addAggregator(new MaxAggregationBuilder("max"))
+        );
+        AggregationReduceContext reduceContext = randomBoolean()
+            ? contextBuilder.forFinalReduction()
+            : contextBuilder.forPartialReduction();
+
+        List<InternalAggregation> inputs = shards.build(0, folded, factory, false);
+        inputs.addAll(shards.build(folded, numShards, factory, true));
+        InternalAggregation streamed = reduce(inputs, reduceContext);
+
+        List<InternalAggregation> first = shards.build(0, folded, factory, false);
+        AbstractInternalTerms<?, ?> leader = (AbstractInternalTerms<?, ?>) first.get(0);
+        List<InternalAggregation> toReduce = new ArrayList<>();
+        toReduce.add(bufferedReduce(leader, first, numShards, contextBuilder.forPartialReduction()));
+        toReduce.addAll(shards.build(folded, numShards, factory, true));
+        assertEquals(bufferedReduce(leader, toReduce, numShards, reduceContext), streamed);
+    }
+
+    /**
+     * Checks that reducing the aggregations with the reducer of the first one gives the same result as buffering all of their
+     * buckets until the end of the reduction. Reductions update the doc count errors of the aggregations that they reduce so
+     * {@code inputs} must build new aggregations every time it is called.
+     */
+    protected static void assertSameAsBufferedReduce(Supplier<List<InternalAggregation>> inputs, AggregationReduceContext reduceContext) {
+        InternalAggregation streamed = reduce(inputs.get(), reduceContext);
+        List<InternalAggregation> toReduce = inputs.get();
+        assertEquals(bufferedReduce((AbstractInternalTerms<?, ?>) toReduce.get(0), toReduce, toReduce.size(), reduceContext), streamed);
+    }
+
+    /**
+     * Reduces the aggregations with the reducer that buffers all of their buckets until the end of the reduction.
+     */
+    protected static InternalAggregation bufferedReduce(
+        AbstractInternalTerms<?, ?> leader,
+        List<InternalAggregation> aggregations,
+        int size,
+        AggregationReduceContext reduceContext
+    ) {
+        try (AggregatorReducer reducer = leader.termsAggregationReducer(reduceContext, size)) {
+            aggregations.forEach(reducer::accept);
+            return reducer.get();
+        }
+    }
+
+    protected static AggregationReduceContext randomReduceContext() {
+        return randomBoolean() ? emptyReduceContextBuilder().forFinalReduction() : emptyReduceContextBuilder().forPartialReduction();
+    }
+
+    /**
+     * Builds the buckets and the shard results of a terms aggregation for {@link StreamingShards}.
+     */
+    protected interface TermsFactory<K, B extends InternalTerms.Bucket<B>> {
+        B bucket(K key, long docCount, InternalAggregations aggregations, boolean showDocCountError);
+
+        InternalTerms<?, B> terms(
+            BucketOrder reduceOrder,
+            BucketOrder order,
+            int requiredSize,
+            long minDocCount,
+            int shardSize,
+            boolean showDocCountError,
+            long otherDocCount,
+            List<B> buckets,
+            Long docCountError
+        );
+    }
+
+    /**
+     * Random shard results of a terms aggregation with enough buckets for {@link StreamingTermsReducer} to fold them.
+     */
+    protected static final class StreamingShards<K> {
+        private final BucketOrder order = randomTermsOrder();
+        private final BucketOrder reduceOrder = InternalOrder.isKeyOrder(order) ? order : BucketOrder.key(true);
+        private final int requiredSize = between(1, 2000);
+        private final int shardSize = between(Math.max(requiredSize, 600), 2000);
+        private final long minDocCount = randomBoolean() ? 1 : between(2, 150);
+        private final boolean showTermDocCountError = randomBoolean();
+        private final List<List<K>> shardTerms = new ArrayList<>();
+        private final List<long[]> shardDocCounts = new ArrayList<>();
+        private final Long[] docCountErrors;
+
+        StreamingShards(Supplier<K> randomKey, int numShards) {
+            Set<K> dict = new HashSet<>();
+            while (dict.size() < 3000) {
+                dict.add(randomKey.get());
+            }
+            List<K> allTerms = new ArrayList<>(dict);
+            docCountErrors = new Long[numShards];
+            for (int i = 0; i < numShards; i++) {
+                Collections.shuffle(allTerms, random());
+                int numBuckets = between(600, shardSize);
+                shardTerms.add(new ArrayList<>(allTerms.subList(0, numBuckets)));
+                long[] docCounts = new long[numBuckets];
+                for (int b = 0; b < numBuckets; b++) {
+                    docCounts[b] = randomLongBetween(1, 100);
+                }
+                shardDocCounts.add(docCounts);
+                docCountErrors[i] = randomBoolean() ? null : randomLongBetween(0, 10);
+            }
+        }
+
+        int numShards() {
+            return docCountErrors.length;
+        }
+
+        /**
+         * Builds the shard results from {@code from} inclusive to {@code to} exclusive. Reductions update the doc count errors of the
+         * aggregations that they reduce so every call builds new aggregations.
+         */
+        <B extends InternalTerms.Bucket<B>> List<InternalAggregation> build(
+            int from,
+            int to,
+            TermsFactory<K, B> factory,
+            boolean withSubAggregations
+        ) {
+            List<InternalAggregation> aggs = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                List<B> buckets = new ArrayList<>();
+                for (int b = 0; b < shardTerms.get(i).size(); b++) {
+                    long docCount = shardDocCounts.get(i)[b];
+                    InternalAggregations subAggregations = withSubAggregations
+                        ? InternalAggregations.from(new Max("max", docCount, DocValueFormat.RAW, null))
+                        : InternalAggregations.EMPTY;
+                    buckets.add(factory.bucket(shardTerms.get(i).get(b), docCount, subAggregations, showTermDocCountError));
+                }
+                buckets.sort(reduceOrder.comparator());
+                aggs.add(
+                    factory.terms(
+                        reduceOrder,
+                        order,
+                        requiredSize,
+                        minDocCount,
+                        shardSize,
+                        showTermDocCountError,
+                        i,
+                        buckets,
+                        docCountErrors[i]
+                    )
+                );
+            }
+            return aggs;
+        }
+    }
+
     private static Map<Object, Long> toCounts(Stream<? extends Terms.Bucket> buckets) {
         return buckets.collect(Collectors.toMap(Terms.Bucket::getKey, Terms.Bucket::getDocCount, Long::sum));
     }
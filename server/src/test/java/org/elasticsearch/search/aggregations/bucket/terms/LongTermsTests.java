@@ -11,8 +11,11 @@ package org.elasticsearch.search.aggregations.bucket.terms;
 
 import org.elasticsearch.common.util.Maps;
 import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.aggregations.AggregationReduceContext;
 import org.elasticsearch.search.aggregations.BucketOrder;
+import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.test.ESTestCase;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -64,6 +67,114 @@ public class LongTermsTests extends InternalTermsTestCase {
         );
     }
 
+    public void testStreamingReduce() {
+        assertStreamingReduce(ESTestCase::randomLong, longTerms(randomFrom(DocValueFormat.RAW, DocValueFormat.UNSIGNED_LONG_SHIFTED)));
+    }
+
+    public void testStreamingReduceSwitchesToSubAggregations() {
+        assertStreamingReduceSwitchesToSubAggregations(ESTestCase::randomLong, longTerms(DocValueFormat.RAW));
+    }
+
+    public void testStreamingReducePromotesToDouble() {
+        StreamingShards<Long> shards = new StreamingShards<>(ESTestCase::randomLong, between(3, 8));
+        int numShards = shards.numShards();
+        // every shard result has at least 600 buckets so we are folding by the third one
+        int folded = between(2, numShards - 1);
+        AggregationReduceContext reduceContext = randomReduceContext();
+
+        List<InternalAggregation> inputs = shards.build(0, folded, longTerms(DocValueFormat.RAW), false);
+        inputs.addAll(shards.build(folded, numShards, doubleTerms(), false));
+        InternalAggregation streamed = reduce(inputs, reduceContext);
+
+        // the buckets folded so far are reduced like a partial reduction would before they are promoted
+        List<InternalAggregation> first = shards.build(0, folded, longTerms(DocValueFormat.RAW), false);
+        LongTerms partial = (LongTerms) bufferedReduce(
+            (LongTerms) first.get(0),
+            first,
+            numShards,
+            emptyReduceContextBuilder().forPartialReduction()
+        );
+        DoubleTerms promoted = LongTerms.convertLongTermsToDouble(partial, DocValueFormat.RAW);
+        List<InternalAggregation> toReduce = new ArrayList<>();
+        toReduce.add(promoted);
+        toReduce.addAll(shards.build(folded, numShards, doubleTerms(), false));
+        assertEquals(bufferedReduce(promoted, toReduce, numShards, reduceContext), streamed);
+    }
+
+    private static TermsFactory<Long, LongTerms.Bucket> longTerms(DocValueFormat format) {
+        return new TermsFactory<>() {
+            @Override
+            public LongTerms.Bucket bucket(Long key, long docCount, InternalAggregations aggregations, boolean showDocCountError) {
+                return new LongTerms.Bucket(key, docCount, aggregations, showDocCountError, 0, format);
+            }
+
+            @Override
+            public LongTerms terms(
+                BucketOrder reduceOrder,
+                BucketOrder order,
+                int requiredSize,
+                long minDocCount,
+                int shardSize,
+                boolean showDocCountError,
+                long otherDocCount,
+                List<LongTerms.Bucket> buckets,
+                Long docCountError
+            ) {
+                return new LongTerms(
+                    "terms",
+                    reduceOrder,
+                    order,
+                    requiredSize,
+                    minDocCount,
+                    null,
+                    format,
+                    shardSize,
+                    showDocCountError,
+                    otherDocCount,
+                    buckets,
+                    docCountError
+                );
+            }
+        };
+    }
+
+    private static TermsFactory<Long, DoubleTerms.Bucket> doubleTerms() {
+        return new TermsFactory<>() {
+            @Override
+            public DoubleTerms.Bucket bucket(Long key, long docCount, InternalAggregations aggregations, boolean showDocCountError) {
+                return new DoubleTerms.Bucket(key.doubleValue(), docCount, aggregations, showDocCountError, 0, DocValueFormat.RAW);
+            }
+
+            @Override
+            public DoubleTerms terms(
+                BucketOrder reduceOrder,
+                BucketOrder order,
+                int requiredSize,
+                long minDocCount,
+                int shardSize,
+                boolean showDocCountError,
+                long otherDocCount,
+                List<DoubleTerms.Bucket> buckets,
+                Long docCountError
+            ) {
+                return new DoubleTerms(
+                    "terms",
+                    reduceOrder,
+                    order,
+                    requiredSize,
+                    minDocCount,
+                    null,
+                    DocValueFormat.RAW,
+                    shardSize,
+                    showDocCountError,
+                    otherDocCount,
+                    buckets,
+                    docCountError
+                );
+            }
+        };
+    }
+
     @Override
     protected InternalTerms<?, ?> mutateInstance(InternalTerms<?, ?> instance) {
         if (instance instanceof LongTerms longTerms) {
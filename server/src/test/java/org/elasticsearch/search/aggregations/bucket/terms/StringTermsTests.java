@@ -130,6 +130,49 @@ public class StringTermsTests extends InternalTermsTestCase {
         }
     }
 
+    public void testStreamingReduce() {
+        assertStreamingReduce(() -> new BytesRef(randomAlphaOfLength(10)), STRING_TERMS);
+    }
+
+    public void testStreamingReduceSwitchesToSubAggregations() {
+        assertStreamingReduceSwitchesToSubAggregations(() -> new BytesRef(randomAlphaOfLength(10)), STRING_TERMS);
+    }
+
+    private static final TermsFactory<BytesRef, StringTerms.Bucket> STRING_TERMS = new TermsFactory<>() {
+        @Override
+        public StringTerms.Bucket bucket(BytesRef key, long docCount, InternalAggregations aggregations, boolean showDocCountError) {
+            return new StringTerms.Bucket(key, docCount, aggregations, showDocCountError, 0, DocValueFormat.RAW);
+        }
+
+        @Override
+        public StringTerms terms(
+            BucketOrder reduceOrder,
+            BucketOrder order,
+            int requiredSize,
+            long minDocCount,
+            int shardSize,
+            boolean showDocCountError,
+            long otherDocCount,
+            List<StringTerms.Bucket> buckets,
+            Long docCountError
+        ) {
+            return new StringTerms(
+                "terms",
+                reduceOrder,
+                order,
+                requiredSize,
+                minDocCount,
+                null,
+                DocValueFormat.RAW,
+                shardSize,
+                showDocCountError,
+                otherDocCount,
+                buckets,
+                docCountError
+            );
+        }
+    };
+
     private BytesRef[] generateRandomDict() {
         Set<BytesRef> terms = new HashSet<>();
         int numTerms = randomIntBetween(2, 100);
@@ -66,6 +66,7 @@ import org.elasticsearch.index.similarity.SimilarityService;
 import org.elasticsearch.index.snapshots.IndexShardSnapshotStatus;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.indices.breaker.CircuitBreakerMetrics;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
@@ -88,6 +89,7 @@ import org.elasticsearch.repositories.SnapshotIndexCommit;
 import org.elasticsearch.repositories.SnapshotShardContext;
 import org.elasticsearch.repositories.blobstore.ESBlobStoreRepositoryIntegTestCase;
 import org.elasticsearch.snapshots.Snapshot;
+import org.elasticsearch.telemetry.metric.MeterRegistry;
 import org.elasticsearch.test.DummyShardLock;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.threadpool.TestThreadPool;
@@ -554,7 +556,8 @@ public abstract class IndexShardTestCase extends ESTestCase {
                 relativeTimeSupplier,
                 null,
                 MapperMetrics.NOOP,
-                new IndexingStatsSettings(ClusterSettings.createBuiltInClusterSettings())
+                new IndexingStatsSettings(ClusterSettings.createBuiltInClusterSettings()),
+                new TranslogSyncCoordinator(ClusterSettings.createBuiltInClusterSettings(), MeterRegistry.NOOP)
             );
             indexShard.addShardFailureCallback(DEFAULT_SHARD_FAILURE_HANDLER);
             success = true;
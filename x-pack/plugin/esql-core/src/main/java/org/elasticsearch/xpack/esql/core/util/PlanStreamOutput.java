@@ -45,4 +45,10 @@ public interface PlanStreamOutput {
     }
 
     void writeOptionalCachedString(String str) throws IOException;
+
+    /**
+     * The value to write for a {@link org.elasticsearch.xpack.esql.core.expression.NameId}.
+     * Normally that's just the {@code id}.
+     */
+    long mapNameId(long id);
 }
@@ -28,6 +28,7 @@ import org.elasticsearch.common.io.stream.RecyclerBytesStreamOutput;
 import org.elasticsearch.common.recycler.Recycler;
 import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.rest.ChunkedRestResponseBodyPart;
@@ -36,6 +37,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -56,12 +58,44 @@ public class ArrowResponse implements ChunkedRestResponseBodyPart, Releasable {
         }
     }
 
+    /**
+     * Pages that are still being computed.
+     */
+    public interface PageStream {
+        /**
+         * Wait for the next page. Completes with {@code null} once there aren't any more pages.
+         */
+        void nextPage(ActionListener<Page> listener);
+    }
+
     private final List<Column> columns;
+    /**
+     * Source of the pages to send after the first part or {@code null} if all pages
+     * were provided up front. We own all pages that we get from the stream.
+     */
+    @Nullable
+    private final PageStream stream;
+    private boolean streamFinished;
     private Iterator<ResponseSegment> segments;
     private ResponseSegment currentSegment;
 
     public ArrowResponse(List<Column> columns, List<Page> pages) {
+        this(columns, pages, null);
+    }
+
+    /**
+     * Build a response that sends {@code first} and then each page from {@code stream}
+     * as soon as it's ready, releasing the pages once they're sent. The Arrow schema is
+     * written before we've seen every page so only columns with multivalued fields in
+     * {@code first} can hold multivalued fields.
+     */
+    public ArrowResponse(List<Column> columns, Page first, PageStream stream) {
+        this(columns, List.of(first), stream);
+    }
+
+    private ArrowResponse(List<Column> columns, List<Page> pages, @Nullable PageStream stream) {
         this.columns = columns;
+        this.stream = stream;
 
         // Find multivalued columns
         int colSize = columns.size();
@@ -81,7 +115,9 @@ public class ArrowResponse implements ChunkedRestResponseBodyPart, Releasable {
             rest.add(new PageResponse(this, page));
         }
 
-        rest.add(new EndResponse(this));
+        if (stream == null) {
+            rest.add(new EndResponse(this));
+        }
         segments = rest.iterator();
     }
 
@@ -92,13 +128,63 @@ public class ArrowResponse implements ChunkedRestResponseBodyPart, Releasable {
 
     @Override
     public boolean isLastPart() {
-        // Even if sent in chunks, the entirety of ESQL data is available, so it's single (chunked) part
-        return true;
+        // Without a stream the entirety of ESQL data is available, so it's single (chunked) part
+        return stream == null || streamFinished;
     }
 
     @Override
     public void getNextPart(ActionListener<ChunkedRestResponseBodyPart> listener) {
-        listener.onFailure(new IllegalStateException("no continuations available"));
+        if (stream == null) {
+            listener.onFailure(new IllegalStateException("no continuations available"));
+            return;
+        }
+        stream.nextPage(listener.delegateFailureAndWrap((l, page) -> {
+            if (page == null) {
+                streamFinished = true;
+                currentSegment = new EndResponse(this);
+            } else {
+                currentSegment = new PageResponse(this, page);
+                try {
+                    checkMultivalues(page);
+                } catch (Exception e) {
+                    close();
+                    throw e;
+                }
+            }
+            segments = Collections.emptyIterator();
+            // Each streamed page is its own part so we only ask for it once the last one has been written to the channel
+            l.onResponse(this);
+        }));
+    }
+
+    /**
+     * Make sure {@code page} doesn't have multivalued fields in columns whose schema has already been sent as single valued.
+     */
+    private void checkMultivalues(Page page) {
+        for (int col = 0; col < columns.size(); col++) {
+            Column column = columns.get(col);
+            Block block = page.getBlock(col);
+            if (column.multivalued == false && hasMultivaluedFields(block)) {
+                throw new IllegalArgumentException(
+                    "column ["
+                        + column.name
+                        + "] has multivalued fields but the Arrow schema was already sent as single valued; "
+                        + "use MV_EXPAND or don't stream the response"
+                );
+            }
+        }
+    }
+
+    private static boolean hasMultivaluedFields(Block block) {
+        if (block.mayHaveMultivaluedFields() == false) {
+            return false;
+        }
+        for (int p = 0; p < block.getPositionCount(); p++) {
+            if (block.getValueCount(p) > 1) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
@@ -107,6 +193,7 @@ public class ArrowResponse implements ChunkedRestResponseBodyPart, Releasable {
             return currentSegment.encodeChunk(sizeHint, recycler);
         } finally {
             if (currentSegment.isDone()) {
+                currentSegment.close();
                 currentSegment = segments.hasNext() ? segments.next() : null;
             }
         }
@@ -119,6 +206,12 @@ public class ArrowResponse implements ChunkedRestResponseBodyPart, Releasable {
 
     @Override
     public void close() {
+        if (currentSegment != null) {
+            currentSegment.close();
+        }
+        if (segments != null) {
+            segments.forEachRemaining(ResponseSegment::close);
+        }
         currentSegment = null;
         segments = null;
     }
@@ -157,6 +250,11 @@ public class ArrowResponse implements ChunkedRestResponseBodyPart, Releasable {
 
         protected abstract boolean isDone();
 
+        /**
+         * Release anything this segment holds.
+         */
+        protected void close() {}
+
         /**
          * Adapts a {@link BytesStream} so that Arrow can write to it.
          */
@@ -236,6 +334,7 @@ public class ArrowResponse implements ChunkedRestResponseBodyPart, Releasable {
     private static class PageResponse extends ResponseSegment {
         private final Page page;
         private boolean done = false;
+        private boolean released = false;
 
         PageResponse(ArrowResponse response, Page page) {
             super(response);
@@ -341,6 +440,15 @@ public class ArrowResponse implements ChunkedRestResponseBodyPart, Releasable {
 
             done = true; // one day we should respect sizeHint here. kindness.
         }
+
+        @Override
+        protected void close() {
+            if (response.stream != null && released == false) {
+                // Streamed pages are ours to release
+                released = true;
+                page.releaseBlocks();
+            }
+        }
     }
 
     /**
@@ -26,6 +26,7 @@ import org.apache.arrow.vector.ipc.ArrowStreamWriter;
 import org.apache.arrow.vector.util.VectorSchemaRootAppender;
 import org.apache.lucene.document.InetAddressPoint;
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.common.TriFunction;
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.bytes.BytesReference;
@@ -39,6 +40,7 @@ import org.elasticsearch.compute.data.DoubleBlock;
 import org.elasticsearch.compute.data.IntBlock;
 import org.elasticsearch.compute.data.LongBlock;
 import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.rest.ChunkedRestResponseBodyPart;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.transport.BytesRefRecycler;
 import org.elasticsearch.xpack.versionfield.Version;
@@ -61,6 +63,8 @@ import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import static org.hamcrest.Matchers.containsString;
+
 public class ArrowResponseTests extends ESTestCase {
 
     private static final BlockFactory BLOCK_FACTORY = BlockFactory.getInstance(
@@ -451,6 +455,43 @@ public class ArrowResponseTests extends ESTestCase {
         compareEsqlAndArrow(testCase);
     }
 
+    /**
+     * Stream all pages after the first one, each in its own part.
+     */
+    public void testStreaming() throws IOException {
+        List<String> types = new ArrayList<>(VALUE_TYPES.keySet());
+        Collections.shuffle(types, random());
+        // The schema is sent with the first page so we can't add multivalued fields later
+        List<TestColumn> columns = types.stream().map(type -> TestColumn.create("col-" + type, type, false)).toList();
+        List<TestPage> pages = IntStream.range(0, randomIntBetween(1, 20)).mapToObj(i -> TestPage.create(BLOCK_FACTORY, columns)).toList();
+        TestCase testCase = new TestCase(columns, pages);
+
+        try (VectorSchemaRoot arrowVectors = toArrowVectorsStreaming(testCase)) {
+            compareEsqlAndArrow(testCase, arrowVectors);
+        }
+    }
+
+    public void testStreamingMultivaluedAfterSchema() {
+        TestColumn column = TestColumn.create("foo", "integer", false);
+        Page first = new Page(TestBlock.create(BLOCK_FACTORY, column, Density.Dense, 3).block);
+        IntBlock.Builder builder = BLOCK_FACTORY.newIntBlockBuilder(1);
+        builder.beginPositionEntry().appendInt(1).appendInt(2).endPositionEntry();
+        Page second = new Page(builder.build());
+
+        ArrowResponse response = new ArrowResponse(
+            List.of(new ArrowResponse.Column("integer", "foo")),
+            first,
+            listener -> listener.onResponse(second)
+        );
+        assertFalse(response.isLastPart());
+        PlainActionFuture<ChunkedRestResponseBodyPart> next = new PlainActionFuture<>();
+        response.getNextPart(next);
+        Exception e = expectThrows(IllegalArgumentException.class, next::actionGet);
+        assertThat(e.getMessage(), containsString("column [foo] has multivalued fields but the Arrow schema was already sent"));
+        response.close();
+        assertFalse(second.getBlock(0).hasReferences());
+    }
+
     // ---------------------------------------------------------------------------------------------
     // Test harness
 
@@ -510,6 +551,60 @@ public class ArrowResponseTests extends ESTestCase {
         }
     }
 
+    private VectorSchemaRoot toArrowVectorsStreaming(TestCase testCase) throws IOException {
+        // The response releases streamed pages so take an extra reference to compare them after
+        Iterator<Page> pages = testCase.pages.stream().map(p -> {
+            Block[] blocks = p.blocks.stream().map(b -> b.block).toArray(Block[]::new);
+            for (Block b : blocks) {
+                b.incRef();
+            }
+            return new Page(blocks);
+        }).iterator();
+        ArrowResponse response = new ArrowResponse(
+            testCase.columns.stream().map(c -> new ArrowResponse.Column(c.type, c.name)).toList(),
+            pages.next(),
+            listener -> listener.onResponse(pages.hasNext() ? pages.next() : null)
+        );
+
+        List<BytesReference> ourEncoding = new ArrayList<>();
+        int parts = 0;
+        while (true) {
+            while (response.isPartComplete() == false) {
+                ourEncoding.add(response.encodeChunk(1500, BytesRefRecycler.NON_RECYCLING_INSTANCE));
+            }
+            parts++;
+            if (response.isLastPart()) {
+                break;
+            }
+            PlainActionFuture<ChunkedRestResponseBodyPart> next = new PlainActionFuture<>();
+            response.getNextPart(next);
+            assertSame(response, next.actionGet());
+        }
+        response.close();
+        // One part per streamed page plus one for the end of stream marker
+        assertEquals(testCase.pages.size() + 1, parts);
+        for (TestPage page : testCase.pages) {
+            for (TestBlock block : page.blocks) {
+                assertTrue(block.block.hasReferences());
+            }
+        }
+
+        BytesReference bytes = CompositeBytesReference.of(ourEncoding.toArray(BytesReference[]::new));
+        try (
+            ArrowStreamReader reader = new ArrowStreamReader(bytes.streamInput(), ALLOCATOR);
+            VectorSchemaRoot readerRoot = reader.getVectorSchemaRoot();
+        ) {
+            VectorSchemaRoot root = VectorSchemaRoot.create(readerRoot.getSchema(), ALLOCATOR);
+            root.allocateNew();
+
+            while (reader.loadNextBatch()) {
+                VectorSchemaRootAppender.append(root, readerRoot);
+            }
+
+            return root;
+        }
+    }
+
     /**
      * An iterator over values of a column across all pages.
      */
@@ -73,6 +73,13 @@ final class BooleanArrayVector extends AbstractVector implements BooleanVector {
         return values[position];
     }
 
+    /**
+     * The array backing this vector. It may be longer than the vector. Don't modify it.
+     */
+    boolean[] rawValues() {
+        return values;
+    }
+
     @Override
     public ElementType elementType() {
         return ElementType.BOOLEAN;
@@ -72,6 +72,13 @@ final class DoubleArrayVector extends AbstractVector implements DoubleVector {
         return values[position];
     }
 
+    /**
+     * The array backing this vector. It may be longer than the vector. Don't modify it.
+     */
+    double[] rawValues() {
+        return values;
+    }
+
     @Override
     public ElementType elementType() {
         return ElementType.DOUBLE;
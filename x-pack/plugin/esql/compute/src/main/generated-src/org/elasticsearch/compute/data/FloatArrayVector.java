@@ -72,6 +72,13 @@ final class FloatArrayVector extends AbstractVector implements FloatVector {
         return values[position];
     }
 
+    /**
+     * The array backing this vector. It may be longer than the vector. Don't modify it.
+     */
+    float[] rawValues() {
+        return values;
+    }
+
     @Override
     public ElementType elementType() {
         return ElementType.FLOAT;
@@ -82,6 +82,13 @@ final class IntArrayVector extends AbstractVector implements IntVector {
         return values[position];
     }
 
+    /**
+     * The array backing this vector. It may be longer than the vector. Don't modify it.
+     */
+    int[] rawValues() {
+        return values;
+    }
+
     @Override
     public ElementType elementType() {
         return ElementType.INT;
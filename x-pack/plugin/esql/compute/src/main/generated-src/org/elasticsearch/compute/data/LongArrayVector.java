@@ -72,6 +72,13 @@ final class LongArrayVector extends AbstractVector implements LongVector {
         return values[position];
     }
 
+    /**
+     * The array backing this vector. It may be longer than the vector. Don't modify it.
+     */
+    long[] rawValues() {
+        return values;
+    }
+
     @Override
     public ElementType elementType() {
         return ElementType.LONG;
@@ -7,11 +7,15 @@
 
 package org.elasticsearch.compute.operator.topn;
 
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.compute.data.BytesRefBlock;
 import org.elasticsearch.compute.data.BytesRefVector;
+import org.elasticsearch.compute.data.IntVector;
+import org.elasticsearch.compute.data.OrdinalBytesRefVector;
 import org.elasticsearch.compute.operator.BreakingBytesRefBuilder;
 
+import java.util.Arrays;
 import java.util.Locale;
 
 /**
@@ -22,6 +26,10 @@ abstract class KeyExtractorForBytesRef implements KeyExtractor {
     static KeyExtractorForBytesRef extractorFor(TopNEncoder encoder, boolean ascending, byte nul, byte nonNul, BytesRefBlock block) {
         BytesRefVector v = block.asVector();
         if (v != null) {
+            OrdinalBytesRefVector ordinals = v.asOrdinals();
+            if (ordinals != null) {
+                return new KeyExtractorForBytesRef.FromOrdinals(encoder, nul, nonNul, ordinals);
+            }
             return new KeyExtractorForBytesRef.FromVector(encoder, nul, nonNul, v);
         }
         if (ascending) {
@@ -74,6 +82,49 @@ abstract class KeyExtractorForBytesRef implements KeyExtractor {
         }
     }
 
+    /**
+     * Encodes each value in the dictionary the first time we see it and copies
+     * the encoded bytes for every other position that refers to it.
+     */
+    static class FromOrdinals extends KeyExtractorForBytesRef {
+        private final IntVector ordinals;
+        private final BytesRefVector dictionary;
+        /**
+         * Where each dictionary entry starts in {@link #encoded} or {@code -1} if we haven't seen it yet.
+         */
+        private final int[] starts;
+        private final int[] lengths;
+        private byte[] encoded = BytesRef.EMPTY_BYTES;
+        private int encodedLength;
+
+        FromOrdinals(TopNEncoder encoder, byte nul, byte nonNul, OrdinalBytesRefVector vector) {
+            super(encoder, nul, nonNul);
+            this.ordinals = vector.getOrdinalsVector();
+            this.dictionary = vector.getDictionaryVector();
+            this.starts = new int[dictionary.getPositionCount()];
+            Arrays.fill(starts, -1);
+            this.lengths = new int[dictionary.getPositionCount()];
+        }
+
+        @Override
+        public int writeKey(BreakingBytesRefBuilder key, int position) {
+            int ord = ordinals.getInt(position);
+            int start = starts[ord];
+            if (start >= 0) {
+                key.append(encoded, start, lengths[ord]);
+                return lengths[ord];
+            }
+            int keyStart = key.length();
+            int length = nonNul(key, dictionary.getBytesRef(ord, scratch));
+            encoded = ArrayUtil.grow(encoded, encodedLength + length);
+            System.arraycopy(key.bytes(), keyStart, encoded, encodedLength, length);
+            starts[ord] = encodedLength;
+            lengths[ord] = length;
+            encodedLength += length;
+            return length;
+        }
+    }
+
     static class MinFromAscendingBlock extends KeyExtractorForBytesRef {
         private final BytesRefBlock block;
 
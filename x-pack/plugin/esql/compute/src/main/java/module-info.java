@@ -11,6 +11,7 @@ module org.elasticsearch.compute {
     requires org.apache.lucene.core;
     requires org.elasticsearch.base;
     requires org.elasticsearch.server;
+    requires org.elasticsearch.simdvec;
     requires org.elasticsearch.compute.ann;
     requires org.elasticsearch.xcontent;
     // required due to dependency on org.elasticsearch.common.util.concurrent.AbstractAsyncTask
@@ -33,6 +34,7 @@ module org.elasticsearch.compute {
     exports org.elasticsearch.compute.operator.lookup;
     exports org.elasticsearch.compute.operator.topn;
     exports org.elasticsearch.compute.operator.mvdedupe;
+    exports org.elasticsearch.compute.operator.spill;
     exports org.elasticsearch.compute.aggregation.table;
     exports org.elasticsearch.compute.data.sort;
     exports org.elasticsearch.compute.querydsl.query;
@@ -78,6 +78,21 @@ public class GroupingAggregator implements Releasable {
         }
     }
 
+    /** The number of Blocks required for {@link #evaluateIntermediate}. */
+    public int intermediateBlockCount() {
+        return aggregatorFunction.intermediateBlockCount();
+    }
+
+    /**
+     * Build the intermediate results for this aggregation, regardless of the mode.
+     * Used to move partial results out of memory so they can be merged later.
+     * @param selected the groupIds that have been selected to be included in
+     *                 the results. Always ascending.
+     */
+    public void evaluateIntermediate(Block[] blocks, int offset, IntVector selected) {
+        aggregatorFunction.evaluateIntermediate(blocks, offset, selected);
+    }
+
     @Override
     public void close() {
         aggregatorFunction.close();
@@ -7,6 +7,7 @@
 
 package org.elasticsearch.compute.aggregation.blockhash;
 
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.BitArray;
@@ -19,16 +20,21 @@ import org.elasticsearch.compute.aggregation.GroupingAggregatorFunction;
 import org.elasticsearch.compute.aggregation.SeenGroupIds;
 import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BytesRefBlock;
+import org.elasticsearch.compute.data.BytesRefVector;
 import org.elasticsearch.compute.data.ElementType;
 import org.elasticsearch.compute.data.IntBlock;
 import org.elasticsearch.compute.data.IntVector;
+import org.elasticsearch.compute.data.OrdinalBytesRefBlock;
 import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.ReleasableIterator;
+import org.elasticsearch.core.Releasables;
 import org.elasticsearch.index.analysis.AnalysisRegistry;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.IntUnaryOperator;
 
 /**
  * Specialized hash table implementations that map rows to a <strong>set</strong>
@@ -228,4 +234,42 @@ public abstract class BlockHash implements Releasable, SeenGroupIds {
     public static long hashOrdToGroupNullReserved(long ord) {
         return hashOrdToGroup(ord) + 1;
     }
+
+    /**
+     * Build the keys for a {@link BytesRefHash} that's part of a multi-column hash as an
+     * {@link OrdinalBytesRefBlock} so each distinct value is only copied once no matter how
+     * many groups it's in. Operators downstream, like the final aggregation, can then work on
+     * the ordinals. {@code hashOrd} returns the ordinal in {@code hash} plus one for each
+     * group or {@code 0} if the key is {@code null}.
+     */
+    static BytesRefBlock ordinalKeys(BlockFactory blockFactory, BytesRefHash hash, int positions, IntUnaryOperator hashOrd) {
+        BytesRefVector dictionary = null;
+        IntBlock ordinals = null;
+        try {
+            try (BytesRefVector.Builder builder = blockFactory.newBytesRefVectorBuilder(Math.toIntExact(hash.size()))) {
+                BytesRef scratch = new BytesRef();
+                for (long i = 0; i < hash.size(); i++) {
+                    builder.appendBytesRef(hash.get(i, scratch));
+                }
+                dictionary = builder.build();
+            }
+            try (IntBlock.Builder builder = blockFactory.newIntBlockBuilder(positions)) {
+                for (int p = 0; p < positions; p++) {
+                    int ord = hashOrd.applyAsInt(p);
+                    if (ord == 0) {
+                        builder.appendNull();
+                    } else {
+                        builder.appendInt(ord - 1);
+                    }
+                }
+                ordinals = builder.build();
+            }
+            OrdinalBytesRefBlock result = new OrdinalBytesRefBlock(ordinals, dictionary);
+            dictionary = null;
+            ordinals = null;
+            return result;
+        } finally {
+            Releasables.closeExpectNoException(dictionary, ordinals);
+        }
+    }
 }
@@ -7,7 +7,6 @@
 
 package org.elasticsearch.compute.aggregation.blockhash;
 
-import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.BitArray;
@@ -116,21 +115,11 @@ final class BytesRefLongBlockHash extends BlockHash {
         int positions = (int) finalHash.size();
         BytesRefBlock k1 = null;
         LongVector k2 = null;
-        try (
-            BytesRefBlock.Builder keys1 = blockFactory.newBytesRefBlockBuilder(positions);
-            LongVector.Builder keys2 = blockFactory.newLongVectorBuilder(positions)
-        ) {
-            BytesRef scratch = new BytesRef();
+        try (LongVector.Builder keys2 = blockFactory.newLongVectorBuilder(positions)) {
             for (long i = 0; i < positions; i++) {
                 keys2.appendLong(finalHash.getKey2(i));
-                long h1 = finalHash.getKey1(i);
-                if (h1 == 0) {
-                    keys1.appendNull();
-                } else {
-                    keys1.appendBytesRef(bytesHash.hash.get(h1 - 1, scratch));
-                }
             }
-            k1 = keys1.build();
+            k1 = ordinalKeys(blockFactory, bytesHash.hash, positions, i -> Math.toIntExact(finalHash.getKey1(i)));
             k2 = keys2.build();
         } finally {
             if (k2 == null) {
@@ -76,6 +76,14 @@ public class BlockFactory {
         return new BlockFactory(childBreaker, bigArrays, ByteSizeValue.ofBytes(maxPrimitiveArrayBytes), this);
     }
 
+    /**
+     * A factory that accounts for memory with {@code breaker} and {@code bigArrays} instead of
+     * this factory's but hands blocks passed to a different driver to the same parent.
+     */
+    public BlockFactory newAccountingFactory(CircuitBreaker breaker, BigArrays bigArrays) {
+        return new BlockFactory(breaker, bigArrays, ByteSizeValue.ofBytes(maxPrimitiveArrayBytes), parent());
+    }
+
     /**
      * Adjust the circuit breaker with the given delta, if the delta is negative, the breaker will
      * be adjusted without tripping.
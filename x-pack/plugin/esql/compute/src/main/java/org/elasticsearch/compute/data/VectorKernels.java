@@ -0,0 +1,251 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.data;
+
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.simdvec.Comparison;
+import org.elasticsearch.simdvec.ESVectorUtil;
+
+import java.util.Arrays;
+
+/**
+ * Binary operations that run over whole {@link LongVector}s and {@link DoubleVector}s at once,
+ * using the JDK's Vector API when it's available. They only work on array backed and constant
+ * vectors and bail out, returning {@code null}, whenever a value needs the per-value treatment
+ * of the generated evaluators, like integer overflow or results that aren't finite. Callers
+ * fall back to the generated evaluators in that case so the results and warnings are the same.
+ * There are kernels for {@code long} and {@code double} addition and subtraction, {@code double}
+ * multiplication and comparisons, every other operation always runs the generated evaluators.
+ */
+public final class VectorKernels {
+    private VectorKernels() {}
+
+    /**
+     * A binary operation over two vectors that contain the same number of positions.
+     */
+    @FunctionalInterface
+    public interface Kernel {
+        /**
+         * Evaluate the operation or return {@code null} if it can't be evaluated in bulk.
+         */
+        @Nullable
+        Vector eval(Vector lhs, Vector rhs, BlockFactory blockFactory);
+    }
+
+    public static final Kernel ADD_LONGS = (lhs, rhs, blockFactory) -> longs(
+        (LongVector) lhs,
+        (LongVector) rhs,
+        blockFactory,
+        ESVectorUtil::addExact,
+        ESVectorUtil::addExact,
+        true
+    );
+
+    public static final Kernel SUB_LONGS = (lhs, rhs, blockFactory) -> longs(
+        (LongVector) lhs,
+        (LongVector) rhs,
+        blockFactory,
+        ESVectorUtil::subtractExact,
+        ESVectorUtil::subtractExact,
+        false
+    );
+
+    public static final Kernel ADD_DOUBLES = (lhs, rhs, blockFactory) -> doubles(
+        (DoubleVector) lhs,
+        (DoubleVector) rhs,
+        blockFactory,
+        ESVectorUtil::add,
+        ESVectorUtil::add,
+        true
+    );
+
+    public static final Kernel SUB_DOUBLES = (lhs, rhs, blockFactory) -> doubles(
+        (DoubleVector) lhs,
+        (DoubleVector) rhs,
+        blockFactory,
+        ESVectorUtil::subtract,
+        ESVectorUtil::subtract,
+        false
+    );
+
+    public static final Kernel MUL_DOUBLES = (lhs, rhs, blockFactory) -> doubles(
+        (DoubleVector) lhs,
+        (DoubleVector) rhs,
+        blockFactory,
+        ESVectorUtil::multiply,
+        ESVectorUtil::multiply,
+        true
+    );
+
+    public static final Kernel EQ_LONGS = compareLongs(Comparison.EQ);
+    public static final Kernel NEQ_LONGS = compareLongs(Comparison.NEQ);
+    public static final Kernel LT_LONGS = compareLongs(Comparison.LT);
+    public static final Kernel LTE_LONGS = compareLongs(Comparison.LTE);
+    public static final Kernel GT_LONGS = compareLongs(Comparison.GT);
+    public static final Kernel GTE_LONGS = compareLongs(Comparison.GTE);
+
+    public static final Kernel EQ_DOUBLES = compareDoubles(Comparison.EQ);
+    public static final Kernel NEQ_DOUBLES = compareDoubles(Comparison.NEQ);
+    public static final Kernel LT_DOUBLES = compareDoubles(Comparison.LT);
+    public static final Kernel LTE_DOUBLES = compareDoubles(Comparison.LTE);
+    public static final Kernel GT_DOUBLES = compareDoubles(Comparison.GT);
+    public static final Kernel GTE_DOUBLES = compareDoubles(Comparison.GTE);
+
+    /**
+     * The positions of all {@code true} values in {@code mask}.
+     */
+    public static int[] truePositions(BooleanVector mask) {
+        int positionCount = mask.getPositionCount();
+        if (mask instanceof BooleanArrayVector array) {
+            boolean[] values = array.rawValues();
+            int[] positions = new int[ESVectorUtil.trueCount(values, positionCount)];
+            int i = 0;
+            for (int p = 0; i < positions.length; p++) {
+                positions[i] = p;
+                // Branch free compaction - only move to the next slot if we wrote a true position
+                i += values[p] ? 1 : 0;
+            }
+            return positions;
+        }
+        int[] positions = new int[positionCount];
+        int i = 0;
+        for (int p = 0; p < positionCount; p++) {
+            if (mask.getBoolean(p)) {
+                positions[i++] = p;
+            }
+        }
+        return i == positionCount ? positions : Arrays.copyOf(positions, i);
+    }
+
+    @FunctionalInterface
+    private interface LongArrays {
+        boolean apply(long[] lhs, long[] rhs, long[] result, int length);
+    }
+
+    @FunctionalInterface
+    private interface LongScalar {
+        boolean apply(long[] lhs, long rhs, long[] result, int length);
+    }
+
+    private static LongVector longs(
+        LongVector lhs,
+        LongVector rhs,
+        BlockFactory blockFactory,
+        LongArrays arrays,
+        LongScalar scalar,
+        boolean commutative
+    ) {
+        int positionCount = lhs.getPositionCount();
+        long bytes = arrayBytes(Long.BYTES, positionCount);
+        blockFactory.adjustBreaker(bytes);
+        long[] result = new long[positionCount];
+        boolean ok;
+        if (lhs instanceof LongArrayVector l && rhs instanceof LongArrayVector r) {
+            ok = arrays.apply(l.rawValues(), r.rawValues(), result, positionCount);
+        } else if (lhs instanceof LongArrayVector l && rhs.isConstant()) {
+            ok = scalar.apply(l.rawValues(), rhs.getLong(0), result, positionCount);
+        } else if (commutative && lhs.isConstant() && rhs instanceof LongArrayVector r) {
+            ok = scalar.apply(r.rawValues(), lhs.getLong(0), result, positionCount);
+        } else {
+            ok = false;
+        }
+        if (ok == false) {
+            blockFactory.adjustBreaker(-bytes);
+            return null;
+        }
+        return blockFactory.newLongArrayVector(result, positionCount, bytes);
+    }
+
+    @FunctionalInterface
+    private interface DoubleArrays {
+        boolean apply(double[] lhs, double[] rhs, double[] result, int length);
+    }
+
+    @FunctionalInterface
+    private interface DoubleScalar {
+        boolean apply(double[] lhs, double rhs, double[] result, int length);
+    }
+
+    private static DoubleVector doubles(
+        DoubleVector lhs,
+        DoubleVector rhs,
+        BlockFactory blockFactory,
+        DoubleArrays arrays,
+        DoubleScalar scalar,
+        boolean commutative
+    ) {
+        int positionCount = lhs.getPositionCount();
+        long bytes = arrayBytes(Double.BYTES, positionCount);
+        blockFactory.adjustBreaker(bytes);
+        double[] result = new double[positionCount];
+        boolean ok;
+        if (lhs instanceof DoubleArrayVector l && rhs instanceof DoubleArrayVector r) {
+            ok = arrays.apply(l.rawValues(), r.rawValues(), result, positionCount);
+        } else if (lhs instanceof DoubleArrayVector l && rhs.isConstant()) {
+            ok = scalar.apply(l.rawValues(), rhs.getDouble(0), result, positionCount);
+        } else if (commutative && lhs.isConstant() && rhs instanceof DoubleArrayVector r) {
+            ok = scalar.apply(r.rawValues(), lhs.getDouble(0), result, positionCount);
+        } else {
+            ok = false;
+        }
+        if (ok == false) {
+            blockFactory.adjustBreaker(-bytes);
+            return null;
+        }
+        return blockFactory.newDoubleArrayVector(result, positionCount, bytes);
+    }
+
+    private static Kernel compareLongs(Comparison comparison) {
+        return (lhs, rhs, blockFactory) -> compareLongs(comparison, (LongVector) lhs, (LongVector) rhs, blockFactory);
+    }
+
+    private static Kernel compareDoubles(Comparison comparison) {
+        return (lhs, rhs, blockFactory) -> compareDoubles(comparison, (DoubleVector) lhs, (DoubleVector) rhs, blockFactory);
+    }
+
+    private static BooleanVector compareLongs(Comparison comparison, LongVector lhs, LongVector rhs, BlockFactory blockFactory) {
+        int positionCount = lhs.getPositionCount();
+        long bytes = arrayBytes(1, positionCount);
+        blockFactory.adjustBreaker(bytes);
+        boolean[] result = new boolean[positionCount];
+        if (lhs instanceof LongArrayVector l && rhs instanceof LongArrayVector r) {
+            ESVectorUtil.compare(comparison, l.rawValues(), r.rawValues(), result, positionCount);
+        } else if (lhs instanceof LongArrayVector l && rhs.isConstant()) {
+            ESVectorUtil.compare(comparison, l.rawValues(), rhs.getLong(0), result, positionCount);
+        } else if (lhs.isConstant() && rhs instanceof LongArrayVector r) {
+            ESVectorUtil.compare(comparison.swap(), r.rawValues(), lhs.getLong(0), result, positionCount);
+        } else {
+            blockFactory.adjustBreaker(-bytes);
+            return null;
+        }
+        return blockFactory.newBooleanArrayVector(result, positionCount, bytes);
+    }
+
+    private static BooleanVector compareDoubles(Comparison comparison, DoubleVector lhs, DoubleVector rhs, BlockFactory blockFactory) {
+        int positionCount = lhs.getPositionCount();
+        long bytes = arrayBytes(1, positionCount);
+        blockFactory.adjustBreaker(bytes);
+        boolean[] result = new boolean[positionCount];
+        if (lhs instanceof DoubleArrayVector l && rhs instanceof DoubleArrayVector r) {
+            ESVectorUtil.compare(comparison, l.rawValues(), r.rawValues(), result, positionCount);
+        } else if (lhs instanceof DoubleArrayVector l && rhs.isConstant()) {
+            ESVectorUtil.compare(comparison, l.rawValues(), rhs.getDouble(0), result, positionCount);
+        } else if (lhs.isConstant() && rhs instanceof DoubleArrayVector r) {
+            ESVectorUtil.compare(comparison.swap(), r.rawValues(), lhs.getDouble(0), result, positionCount);
+        } else {
+            blockFactory.adjustBreaker(-bytes);
+            return null;
+        }
+        return blockFactory.newBooleanArrayVector(result, positionCount, bytes);
+    }
+
+    private static long arrayBytes(int bytesPerValue, int positionCount) {
+        return RamUsageEstimator.alignObjectSize(RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + (long) bytesPerValue * positionCount);
+    }
+}
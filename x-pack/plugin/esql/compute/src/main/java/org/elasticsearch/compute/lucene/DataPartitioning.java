@@ -14,4 +14,11 @@ public enum DataPartitioning {
     SEGMENT,
 
     DOC,
+
+    /**
+     * Start with a slice per segment and, once those run out, split the
+     * remaining docs of the slices that are still running in half so idle
+     * drivers can help. Useful when a few segments hold most of the docs.
+     */
+    ADAPTIVE,
 }
@@ -105,7 +105,7 @@ public abstract class LuceneOperator extends SourceOperator {
             this.dataPartitioning = dataPartitioning;
             var weightFunction = weightFunction(queryFunction, scoreMode);
             this.sliceQueue = LuceneSliceQueue.create(contexts, weightFunction, dataPartitioning, taskConcurrency);
-            this.taskConcurrency = Math.min(sliceQueue.totalSlices(), taskConcurrency);
+            this.taskConcurrency = Math.min(sliceQueue.maxConcurrency(), taskConcurrency);
         }
 
         public final int taskConcurrency() {
@@ -151,7 +151,21 @@ public abstract class LuceneOperator extends SourceOperator {
             final PartialLeafReaderContext partialLeaf = currentSlice.getLeaf(sliceIndex++);
             logger.trace("Starting {}", partialLeaf);
             final LeafReaderContext leaf = partialLeaf.leafReaderContext();
-            if (currentScorer == null || currentScorer.leafReaderContext() != leaf) {
+            if (currentSlice.range() != null) {
+                // Splittable ranges always get a fresh scorer because they can start anywhere in the leaf
+                final Weight weight = currentSlice.weight();
+                processedQueries.add(weight.getQuery());
+                currentScorer = new LuceneScorer(currentSlice.shardContext(), weight, leaf);
+                currentScorer.range = currentSlice.range();
+                currentScorer.maxPosition = partialLeaf.maxDoc();
+                currentScorer.position = partialLeaf.minDoc();
+                if (currentScorer.bulkScorer == null) {
+                    // nothing matches in this leaf so there's nothing worth splitting off either
+                    currentScorer.range.close();
+                }
+                continue;
+            }
+            if (currentScorer == null || currentScorer.leafReaderContext() != leaf || currentScorer.range != null) {
                 final Weight weight = currentSlice.weight();
                 processedQueries.add(weight.getQuery());
                 currentScorer = new LuceneScorer(currentSlice.shardContext(), weight, leaf);
@@ -177,6 +191,10 @@ public abstract class LuceneOperator extends SourceOperator {
         private BulkScorer bulkScorer;
         private int position;
         private int maxPosition;
+        /**
+         * The docs we can claim when running {@link DataPartitioning#ADAPTIVE}, {@code null} otherwise.
+         */
+        private SplittableDocRange range;
         private Thread executingThread;
 
         LuceneScorer(ShardContext shardContext, Weight weight, LeafReaderContext leafReaderContext) {
@@ -197,6 +215,17 @@ public abstract class LuceneOperator extends SourceOperator {
 
         void scoreNextRange(LeafCollector collector, Bits acceptDocs, int numDocs) throws IOException {
             assert isDone() == false : "scorer is exhausted";
+            if (range != null) {
+                // claim small chunks so idle drivers have something to split off
+                long claimed = range.claim(position, Math.min(numDocs, LuceneSliceQueue.MIN_DOCS_PER_SPLIT));
+                if (claimed == SplittableDocRange.NONE) {
+                    // another driver split off everything we had left
+                    markAsDone();
+                    return;
+                }
+                position = bulkScorer.score(collector, acceptDocs, SplittableDocRange.start(claimed), SplittableDocRange.end(claimed));
+                return;
+            }
             // avoid overflow and limit the range
             numDocs = Math.min(maxPosition - position, numDocs);
             assert numDocs > 0 : "scorer was exhausted";
@@ -208,11 +237,14 @@ public abstract class LuceneOperator extends SourceOperator {
         }
 
         boolean isDone() {
-            return bulkScorer == null || position >= maxPosition;
+            return bulkScorer == null || position >= (range == null ? maxPosition : range.maxDoc());
         }
 
         void markAsDone() {
             position = DocIdSetIterator.NO_MORE_DOCS;
+            if (range != null) {
+                range.close();
+            }
         }
 
         ShardContext shardContext() {
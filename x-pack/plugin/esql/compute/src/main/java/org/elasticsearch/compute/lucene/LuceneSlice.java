@@ -8,13 +8,29 @@
 package org.elasticsearch.compute.lucene;
 
 import org.apache.lucene.search.Weight;
+import org.elasticsearch.core.Nullable;
 
 import java.util.List;
 
 /**
  * Holds a list of multiple partial Lucene segments
+ * @param range the docs of the only leaf that are left to process if idle drivers
+ *              are allowed to split this slice, {@code null} otherwise
  */
-public record LuceneSlice(ShardContext shardContext, List<PartialLeafReaderContext> leaves, Weight weight) {
+public record LuceneSlice(
+    ShardContext shardContext,
+    List<PartialLeafReaderContext> leaves,
+    Weight weight,
+    @Nullable SplittableDocRange range
+) {
+    public LuceneSlice {
+        assert range == null || leaves.size() == 1 : "only single leaf slices can be split";
+    }
+
+    public LuceneSlice(ShardContext shardContext, List<PartialLeafReaderContext> leaves, Weight weight) {
+        this(shardContext, leaves, weight, null);
+    }
+
     int numLeaves() {
         return leaves.size();
     }
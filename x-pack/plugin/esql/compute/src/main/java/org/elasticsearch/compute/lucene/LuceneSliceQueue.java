@@ -17,33 +17,106 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 /**
  * Shared Lucene slices between Lucene operators.
+ * <p>
+ *     With {@link DataPartitioning#ADAPTIVE} every segment starts as its own slice and,
+ *     once the queue is empty, drivers asking for the {@link #nextSlice} steal half of
+ *     the unprocessed docs from the slice that has the most left. That way a shard with
+ *     one huge segment, say after a force merge, is still processed by all drivers.
+ * </p>
  */
 public final class LuceneSliceQueue {
     private static final int MAX_DOCS_PER_SLICE = 250_000; // copied from IndexSearcher
     private static final int MAX_SEGMENTS_PER_SLICE = 5; // copied from IndexSearcher
+    /**
+     * The fewest docs we'll leave on either side when splitting a slice in
+     * {@link DataPartitioning#ADAPTIVE}. Smaller slices aren't worth the
+     * cost of building another scorer.
+     */
+    static final int MIN_DOCS_PER_SPLIT = 16 * 1024;
 
-    private final int totalSlices;
+    private final AtomicInteger totalSlices;
+    private final int maxConcurrency;
     private final Queue<LuceneSlice> slices;
+    /**
+     * Slices that have been handed out and might be split. Always empty unless
+     * we're using {@link DataPartitioning#ADAPTIVE}.
+     */
+    private final Queue<LuceneSlice> splittable = new ConcurrentLinkedQueue<>();
 
-    private LuceneSliceQueue(List<LuceneSlice> slices) {
-        this.totalSlices = slices.size();
+    private LuceneSliceQueue(List<LuceneSlice> slices, int maxConcurrency) {
+        this.totalSlices = new AtomicInteger(slices.size());
+        this.maxConcurrency = maxConcurrency;
         this.slices = new ConcurrentLinkedQueue<>(slices);
     }
 
     @Nullable
     public LuceneSlice nextSlice() {
-        return slices.poll();
+        LuceneSlice slice = slices.poll();
+        if (slice == null) {
+            slice = splitSlice();
+        }
+        if (slice != null && slice.range() != null) {
+            splittable.add(slice);
+        }
+        return slice;
+    }
+
+    /**
+     * Split the unprocessed docs off of the end of the slice with the
+     * most docs left or return {@code null} if none are worth splitting.
+     */
+    @Nullable
+    private LuceneSlice splitSlice() {
+        while (true) {
+            LuceneSlice largest = null;
+            int largestRemaining = 0;
+            for (Iterator<LuceneSlice> itr = splittable.iterator(); itr.hasNext();) {
+                LuceneSlice slice = itr.next();
+                int remaining = slice.range().remaining();
+                if (remaining < 2 * MIN_DOCS_PER_SPLIT) {
+                    // The range only ever shrinks so this slice will never be worth splitting
+                    itr.remove();
+                    continue;
+                }
+                if (remaining > largestRemaining) {
+                    largest = slice;
+                    largestRemaining = remaining;
+                }
+            }
+            if (largest == null) {
+                return null;
+            }
+            long split = largest.range().split(MIN_DOCS_PER_SPLIT);
+            if (split == SplittableDocRange.NONE) {
+                // The owner claimed docs or someone else split it first, look again
+                continue;
+            }
+            int minDoc = SplittableDocRange.start(split);
+            int maxDoc = SplittableDocRange.end(split);
+            PartialLeafReaderContext leaf = new PartialLeafReaderContext(largest.getLeaf(0).leafReaderContext(), minDoc, maxDoc);
+            totalSlices.incrementAndGet();
+            return new LuceneSlice(largest.shardContext(), List.of(leaf), largest.weight(), new SplittableDocRange(minDoc, maxDoc));
+        }
     }
 
     public int totalSlices() {
-        return totalSlices;
+        return totalSlices.get();
+    }
+
+    /**
+     * The most drivers that can usefully process this queue at the same time.
+     */
+    public int maxConcurrency() {
+        return maxConcurrency;
     }
 
     public Collection<String> remainingShardsIdentifiers() {
@@ -57,21 +130,31 @@ public final class LuceneSliceQueue {
         int taskConcurrency
     ) {
         final List<LuceneSlice> slices = new ArrayList<>();
+        int maxConcurrency = 0;
         for (ShardContext ctx : contexts) {
             final List<LeafReaderContext> leafContexts = ctx.searcher().getLeafContexts();
             List<List<PartialLeafReaderContext>> groups = switch (dataPartitioning) {
                 case SHARD -> Collections.singletonList(leafContexts.stream().map(PartialLeafReaderContext::new).toList());
                 case SEGMENT -> segmentSlices(leafContexts);
                 case DOC -> docSlices(ctx.searcher().getIndexReader(), taskConcurrency);
+                case ADAPTIVE -> leafContexts.stream().map(l -> List.of(new PartialLeafReaderContext(l))).toList();
             };
             final Weight weight = weightFunction.apply(ctx);
             for (List<PartialLeafReaderContext> group : groups) {
-                if (group.isEmpty() == false) {
+                if (group.isEmpty()) {
+                    continue;
+                }
+                if (dataPartitioning == DataPartitioning.ADAPTIVE) {
+                    PartialLeafReaderContext leaf = group.get(0);
+                    slices.add(new LuceneSlice(ctx, group, weight, new SplittableDocRange(leaf.minDoc(), leaf.maxDoc())));
+                    maxConcurrency += Math.max(1, (leaf.maxDoc() - leaf.minDoc()) / MIN_DOCS_PER_SPLIT);
+                } else {
                     slices.add(new LuceneSlice(ctx, group, weight));
+                    maxConcurrency++;
                 }
             }
         }
-        return new LuceneSliceQueue(slices);
+        return new LuceneSliceQueue(slices, maxConcurrency);
     }
 
     static List<List<PartialLeafReaderContext>> docSlices(IndexReader indexReader, int numSlices) {
@@ -0,0 +1,121 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.lucene;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The doc ids of a {@link PartialLeafReaderContext} that are still waiting to be
+ * processed when running with {@link DataPartitioning#ADAPTIVE}. The driver that
+ * owns the range {@link #claim claims} docs from the front of it, a chunk at a time,
+ * while idle drivers {@link #split} the back half off of it. Both sides update a
+ * single {@link AtomicLong} so a doc is never claimed twice.
+ */
+final class SplittableDocRange {
+    /**
+     * Returned by {@link #claim} and {@link #split} when there aren't any docs to hand out.
+     */
+    static final long NONE = -1L;
+
+    /**
+     * The first unclaimed doc in the high 32 bits and one more than the last doc in the low 32 bits.
+     */
+    private final AtomicLong state;
+
+    SplittableDocRange(int minDoc, int maxDoc) {
+        assert 0 <= minDoc && minDoc <= maxDoc : minDoc + " > " + maxDoc;
+        this.state = new AtomicLong(pack(minDoc, maxDoc));
+    }
+
+    /**
+     * Claim up to {@code numDocs} docs starting at {@code from} or the first unclaimed doc,
+     * whichever is larger. Returns the claimed range, to be read with {@link #start} and
+     * {@link #end}, or {@link #NONE} if there aren't any docs left.
+     */
+    long claim(int from, int numDocs) {
+        while (true) {
+            long current = state.get();
+            int start = Math.max(from, start(current));
+            int max = end(current);
+            if (start >= max) {
+                return NONE;
+            }
+            int end = start + Math.min(max - start, numDocs);
+            if (state.compareAndSet(current, pack(end, max))) {
+                return pack(start, end);
+            }
+        }
+    }
+
+    /**
+     * Split the unclaimed docs in half and hand out the back half. Returns the split off
+     * range, to be read with {@link #start} and {@link #end}, or {@link #NONE} if there
+     * are fewer than {@code minDocs} docs to leave on each side.
+     */
+    long split(int minDocs) {
+        while (true) {
+            long current = state.get();
+            int start = start(current);
+            int max = end(current);
+            int remaining = max - start;
+            if (remaining < 2 * minDocs) {
+                return NONE;
+            }
+            int mid = start + remaining / 2;
+            if (state.compareAndSet(current, pack(start, mid))) {
+                return pack(mid, max);
+            }
+        }
+    }
+
+    /**
+     * Stop handing out docs, leaving any unclaimed docs unprocessed.
+     */
+    void close() {
+        while (true) {
+            long current = state.get();
+            int max = end(current);
+            if (state.compareAndSet(current, pack(max, max))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * The number of docs that haven't been claimed.
+     */
+    int remaining() {
+        long current = state.get();
+        return Math.max(0, end(current) - start(current));
+    }
+
+    /**
+     * One more than the last doc in the range. Shrinks as the range is {@link #split}.
+     */
+    int maxDoc() {
+        return end(state.get());
+    }
+
+    static int start(long range) {
+        return (int) (range >>> 32);
+    }
+
+    static int end(long range) {
+        return (int) range;
+    }
+
+    private static long pack(int start, int end) {
+        return ((long) start << 32) | (end & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public String toString() {
+        long current = state.get();
+        return "SplittableDocRange[" + start(current) + ", " + end(current) + ")";
+    }
+}
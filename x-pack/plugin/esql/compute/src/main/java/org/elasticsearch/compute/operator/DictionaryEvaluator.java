@@ -0,0 +1,161 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.operator;
+
+import org.elasticsearch.compute.data.Block;
+import org.elasticsearch.compute.data.BytesRefBlock;
+import org.elasticsearch.compute.data.BytesRefVector;
+import org.elasticsearch.compute.data.IntVector;
+import org.elasticsearch.compute.data.OrdinalBytesRefVector;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.EvalOperator.ExpressionEvaluator;
+import org.elasticsearch.core.Releasables;
+
+/**
+ * Evaluates an expression that only reads a single {@link BytesRefBlock} once per
+ * distinct value when that block is backed by an {@link OrdinalBytesRefVector}.
+ * Keyword fields loaded from doc values often arrive like that and there are usually
+ * far fewer distinct values than positions. {@code BytesRef} results keep the ordinals
+ * so the dictionary survives into the next operator. Other results are expanded.
+ * <p>
+ *     Only the entries of the dictionary that some position references are evaluated,
+ *     so values that were filtered out upstream never reach the expression. Expressions
+ *     that emit warnings emit them once per distinct value rather than once per position.
+ * </p>
+ */
+public final class DictionaryEvaluator implements ExpressionEvaluator {
+    public record Factory(int channel, ExpressionEvaluator.Factory next) implements ExpressionEvaluator.Factory {
+        @Override
+        public ExpressionEvaluator get(DriverContext context) {
+            return new DictionaryEvaluator(context, channel, next.get(context));
+        }
+
+        @Override
+        public boolean eagerEvalSafeInLazy() {
+            return next.eagerEvalSafeInLazy();
+        }
+
+        @Override
+        public String toString() {
+            return next.toString();
+        }
+    }
+
+    private final DriverContext context;
+    private final int channel;
+    private final ExpressionEvaluator next;
+
+    private DictionaryEvaluator(DriverContext context, int channel, ExpressionEvaluator next) {
+        this.context = context;
+        this.channel = channel;
+        this.next = next;
+    }
+
+    @Override
+    public Block eval(Page page) {
+        if (page.getBlock(channel) instanceof BytesRefBlock block) {
+            BytesRefVector vector = block.asVector();
+            OrdinalBytesRefVector ordinals = vector == null ? null : vector.asOrdinals();
+            if (ordinals != null) {
+                Block result = evalOrdinals(ordinals, page.getPositionCount());
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        return next.eval(page);
+    }
+
+    /**
+     * Evaluates the expression once per dictionary entry that some position references,
+     * or returns {@code null} if there are not fewer of them than positions. Blocks that
+     * were filtered keep their whole dictionary, and the entries that no position
+     * references anymore must not be evaluated: they could emit warnings for values that
+     * were filtered out.
+     */
+    private Block evalOrdinals(OrdinalBytesRefVector vector, int positionCount) {
+        BytesRefVector dictionary = vector.getDictionaryVector();
+        IntVector ordinals = vector.getOrdinalsVector();
+        int[] compactOrds = new int[dictionary.getPositionCount()];
+        int used = 0;
+        for (int p = 0; p < ordinals.getPositionCount(); p++) {
+            int ord = ordinals.getInt(p);
+            if (compactOrds[ord] == 0) {
+                compactOrds[ord] = ++used;
+            }
+        }
+        if (used >= positionCount) {
+            return null;
+        }
+        BytesRefVector compactDictionary = null;
+        IntVector compactOrdinals = null;
+        try {
+            if (used == dictionary.getPositionCount()) {
+                dictionary.incRef();
+                compactDictionary = dictionary;
+                ordinals.incRef();
+                compactOrdinals = ordinals;
+            } else {
+                int[] usedOrds = new int[used];
+                for (int ord = 0; ord < compactOrds.length; ord++) {
+                    if (compactOrds[ord] > 0) {
+                        usedOrds[compactOrds[ord] - 1] = ord;
+                    }
+                }
+                compactDictionary = dictionary.filter(usedOrds);
+                try (IntVector.FixedBuilder builder = context.blockFactory().newIntVectorFixedBuilder(ordinals.getPositionCount())) {
+                    for (int p = 0; p < ordinals.getPositionCount(); p++) {
+                        builder.appendInt(compactOrds[ordinals.getInt(p)] - 1);
+                    }
+                    compactOrdinals = builder.build();
+                }
+            }
+            Block result = evalDictionary(compactDictionary);
+            if (result instanceof BytesRefBlock bytes && bytes.asVector() != null) {
+                Block block = new OrdinalBytesRefVector(compactOrdinals, bytes.asVector()).asBlock();
+                compactOrdinals = null;
+                return block;
+            }
+            try (result) {
+                int[] positions = new int[compactOrdinals.getPositionCount()];
+                for (int p = 0; p < positions.length; p++) {
+                    positions[p] = compactOrdinals.getInt(p);
+                }
+                return result.filter(positions);
+            }
+        } finally {
+            Releasables.closeExpectNoException(compactDictionary, compactOrdinals);
+        }
+    }
+
+    private Block evalDictionary(BytesRefVector dictionary) {
+        int dictionarySize = dictionary.getPositionCount();
+        Block[] blocks = new Block[channel + 1];
+        try {
+            // The expression only reads our channel so the others just need to be the right size
+            for (int b = 0; b < channel; b++) {
+                blocks[b] = context.blockFactory().newConstantNullBlock(dictionarySize);
+            }
+            dictionary.incRef();
+            blocks[channel] = dictionary.asBlock();
+            return next.eval(new Page(dictionarySize, blocks));
+        } finally {
+            Releasables.closeExpectNoException(blocks);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return next.toString();
+    }
+
+    @Override
+    public void close() {
+        Releasables.closeExpectNoException(next);
+    }
+}
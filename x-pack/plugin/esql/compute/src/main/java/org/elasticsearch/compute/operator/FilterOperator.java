@@ -9,7 +9,9 @@ package org.elasticsearch.compute.operator;
 
 import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BooleanBlock;
+import org.elasticsearch.compute.data.BooleanVector;
 import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.data.VectorKernels;
 import org.elasticsearch.compute.operator.EvalOperator.ExpressionEvaluator;
 import org.elasticsearch.core.Releasables;
 
@@ -38,36 +40,22 @@ public class FilterOperator extends AbstractPageMappingOperator {
 
     @Override
     protected Page process(Page page) {
-        int rowCount = 0;
-        int[] positions = new int[page.getPositionCount()];
-
         try (BooleanBlock test = (BooleanBlock) evaluator.eval(page)) {
             if (test.areAllValuesNull()) {
                 // All results are null which is like false. No values selected.
                 page.releaseBlocks();
                 return null;
             }
-            // TODO we can detect constant true or false from the type
-            // TODO or we could make a new method in bool-valued evaluators that returns a list of numbers
-            for (int p = 0; p < page.getPositionCount(); p++) {
-                if (test.isNull(p) || test.getValueCount(p) != 1) {
-                    // Null is like false
-                    // And, for now, multivalued results are like false too
-                    continue;
-                }
-                if (test.getBoolean(test.getFirstValueIndex(p))) {
-                    positions[rowCount++] = p;
-                }
-            }
+            BooleanVector testVector = test.asVector();
+            int[] positions = testVector == null ? selectedPositions(test) : VectorKernels.truePositions(testVector);
 
-            if (rowCount == 0) {
+            if (positions.length == 0) {
                 page.releaseBlocks();
                 return null;
             }
-            if (rowCount == page.getPositionCount()) {
+            if (positions.length == page.getPositionCount()) {
                 return page;
             }
-            positions = Arrays.copyOf(positions, rowCount);
 
             Block[] filteredBlocks = new Block[page.getBlockCount()];
             boolean success = false;
@@ -86,6 +74,26 @@ public class FilterOperator extends AbstractPageMappingOperator {
         }
     }
 
+    /**
+     * The positions to keep when the test is a block that may contain nulls and multivalued fields.
+     */
+    private static int[] selectedPositions(BooleanBlock test) {
+        int rowCount = 0;
+        int[] positions = new int[test.getPositionCount()];
+        // TODO we can detect constant true or false from the type
+        for (int p = 0; p < test.getPositionCount(); p++) {
+            if (test.isNull(p) || test.getValueCount(p) != 1) {
+                // Null is like false
+                // And, for now, multivalued results are like false too
+                continue;
+            }
+            if (test.getBoolean(test.getFirstValueIndex(p))) {
+                positions[rowCount++] = p;
+            }
+        }
+        return rowCount == positions.length ? positions : Arrays.copyOf(positions, rowCount);
+    }
+
     @Override
     public String toString() {
         return "FilterOperator[" + "evaluator=" + evaluator + ']';
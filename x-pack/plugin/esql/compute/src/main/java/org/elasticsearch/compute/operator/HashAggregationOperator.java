@@ -13,6 +13,7 @@ import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.compute.Describable;
 import org.elasticsearch.compute.aggregation.AggregatorMode;
 import org.elasticsearch.compute.aggregation.GroupingAggregator;
@@ -22,33 +23,57 @@ import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.IntBlock;
 import org.elasticsearch.compute.data.IntVector;
 import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.spill.KeyPartitioner;
+import org.elasticsearch.compute.operator.spill.MemoryTracker;
+import org.elasticsearch.compute.operator.spill.SpillFile;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.ReleasableIterator;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.analysis.AnalysisRegistry;
 import org.elasticsearch.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.joining;
 
 public class HashAggregationOperator implements Operator {
 
+    /**
+     * Builds {@link HashAggregationOperator}s.
+     * @param spill if non-{@code null} then the operator will spill partially aggregated
+     *              groups to disk when memory gets tight
+     */
     public record HashAggregationOperatorFactory(
         List<BlockHash.GroupSpec> groups,
         AggregatorMode aggregatorMode,
         List<GroupingAggregator.Factory> aggregators,
         int maxPageSize,
-        AnalysisRegistry analysisRegistry
+        AnalysisRegistry analysisRegistry,
+        @Nullable Spill spill
     ) implements OperatorFactory {
+        public HashAggregationOperatorFactory(
+            List<BlockHash.GroupSpec> groups,
+            AggregatorMode aggregatorMode,
+            List<GroupingAggregator.Factory> aggregators,
+            int maxPageSize,
+            AnalysisRegistry analysisRegistry
+        ) {
+            this(groups, aggregatorMode, aggregators, maxPageSize, analysisRegistry, null);
+        }
+
         @Override
         public Operator get(DriverContext driverContext) {
             if (groups.stream().anyMatch(BlockHash.GroupSpec::isCategorize)) {
+                // CATEGORIZE keeps state in the hash that we can't yet spill
                 return new HashAggregationOperator(
                     aggregators,
                     () -> BlockHash.buildCategorizeBlockHash(
@@ -61,10 +86,20 @@ public class HashAggregationOperator implements Operator {
                     driverContext
                 );
             }
+            if (spill == null) {
+                return new HashAggregationOperator(
+                    aggregators,
+                    () -> BlockHash.build(groups, driverContext.blockFactory(), maxPageSize, false),
+                    driverContext
+                );
+            }
+            MemoryTracker memory = new MemoryTracker(driverContext);
+            DriverContext trackedContext = memory.driverContext();
             return new HashAggregationOperator(
                 aggregators,
-                () -> BlockHash.build(groups, driverContext.blockFactory(), maxPageSize, false),
-                driverContext
+                () -> BlockHash.build(groups, trackedContext.blockFactory(), maxPageSize, false),
+                trackedContext,
+                spill.bind(groups, maxPageSize, memory)
             );
         }
 
@@ -74,19 +109,103 @@ public class HashAggregationOperator implements Operator {
                 + "<not-needed>"
                 + ", aggs = "
                 + aggregators.stream().map(Describable::describe).collect(joining(", "))
+                + (spill == null ? "" : ", spill = " + spill.partitions())
                 + "]";
         }
     }
 
+    /**
+     * Configuration for spilling partially aggregated groups to disk. When the operator
+     * holds more than {@code maxGroupsInMemory} groups, or the memory it accounts for itself
+     * reaches {@code maxBytesInMemory}, the groups in memory are converted to their
+     * intermediate state, hash partitioned on their keys, and appended to one file per
+     * partition. Once all input has been received each partition is read back and merged
+     * on its own, so at most one partition's worth of groups is ever in memory at once.
+     *
+     * @param directory where to write the spill files
+     * @param partitions the number of partitions to hash groups into
+     * @param maxGroupsInMemory spill once the operator holds this many groups
+     * @param maxBytesInMemory spill once the hash, the aggregation states, and the blocks that
+     *                         the operator holds account for this many bytes
+     * @param mergeAggregators aggregators that read the intermediate state written to the spill
+     *                         files. Their input channels start right after the grouping keys
+     *                         and their mode must produce the same output as the operator.
+     */
+    public record Spill(
+        Path directory,
+        int partitions,
+        int maxGroupsInMemory,
+        long maxBytesInMemory,
+        List<GroupingAggregator.Factory> mergeAggregators
+    ) {
+        public static final int DEFAULT_PARTITIONS = 16;
+        public static final ByteSizeValue DEFAULT_MAX_BYTES_IN_MEMORY = ByteSizeValue.ofMb(64);
+
+        public Spill {
+            if (partitions < 1) {
+                throw new IllegalArgumentException("partitions must be at least 1 but was [" + partitions + "]");
+            }
+            if (maxGroupsInMemory < 1) {
+                throw new IllegalArgumentException("maxGroupsInMemory must be at least 1 but was [" + maxGroupsInMemory + "]");
+            }
+            if (maxBytesInMemory < 0) {
+                throw new IllegalArgumentException("maxBytesInMemory must be >= 0 but was [" + maxBytesInMemory + "]");
+            }
+        }
+
+        /**
+         * Spill into {@code directory} using the default thresholds. This only spills when the
+         * operator holds more than {@link #DEFAULT_MAX_BYTES_IN_MEMORY}.
+         */
+        public static Spill withDefaults(Path directory, List<GroupingAggregator.Factory> mergeAggregators) {
+            return new Spill(directory, DEFAULT_PARTITIONS, Integer.MAX_VALUE, DEFAULT_MAX_BYTES_IN_MEMORY.getBytes(), mergeAggregators);
+        }
+
+        Bound bind(List<BlockHash.GroupSpec> groups, int maxPageSize, MemoryTracker memory) {
+            List<BlockHash.GroupSpec> mergeGroups = IntStream.range(0, groups.size())
+                .mapToObj(i -> new BlockHash.GroupSpec(i, groups.get(i).elementType()))
+                .toList();
+            return new Bound(this, mergeGroups, maxPageSize, memory);
+        }
+    }
+
+    /**
+     * {@link Spill} configuration bound to the layout of the spilled pages.
+     * @param mergeGroups the grouping keys in the spilled pages, which always come first
+     * @param memory counts the memory allocated through the operator's {@link DriverContext}
+     */
+    record Bound(Spill spill, List<BlockHash.GroupSpec> mergeGroups, int maxPageSize, MemoryTracker memory) {}
+
     private boolean finished;
     private Page output;
 
-    private final BlockHash blockHash;
+    private final Supplier<BlockHash> blockHashSupplier;
+    private final List<GroupingAggregator.Factory> aggregatorFactories;
+
+    private BlockHash blockHash;
 
     private final List<GroupingAggregator> aggregators;
 
     private final DriverContext driverContext;
 
+    @Nullable
+    private final Bound spill;
+
+    /**
+     * One past the largest group id currently in memory. Only tracked when spilling is enabled.
+     */
+    private int groupsInMemory;
+
+    /**
+     * The spill files, one per partition. {@code null} until we first spill.
+     */
+    private SpillFile[] spillFiles;
+
+    /**
+     * The next spill partition to merge once {@link #finish} has been called.
+     */
+    private int nextSpillPartition;
+
     /**
      * Nanoseconds this operator has spent hashing grouping keys.
      */
@@ -107,15 +226,35 @@ public class HashAggregationOperator implements Operator {
      * Count of rows this operator has emitted.
      */
     private long rowsEmitted;
+    /**
+     * Count of times this operator has spilled groups to disk.
+     */
+    private int spills;
+    /**
+     * Count of partially aggregated groups this operator has spilled to disk.
+     */
+    private long groupsSpilled;
 
-    @SuppressWarnings("this-escape")
     public HashAggregationOperator(
         List<GroupingAggregator.Factory> aggregators,
         Supplier<BlockHash> blockHash,
         DriverContext driverContext
     ) {
+        this(aggregators, blockHash, driverContext, null);
+    }
+
+    @SuppressWarnings("this-escape")
+    HashAggregationOperator(
+        List<GroupingAggregator.Factory> aggregators,
+        Supplier<BlockHash> blockHash,
+        DriverContext driverContext,
+        @Nullable Bound spill
+    ) {
+        this.blockHashSupplier = blockHash;
+        this.aggregatorFactories = aggregators;
         this.aggregators = new ArrayList<>(aggregators.size());
         this.driverContext = driverContext;
+        this.spill = spill;
         boolean success = false;
         try {
             this.blockHash = blockHash.get();
@@ -138,69 +277,170 @@ public class HashAggregationOperator implements Operator {
     @Override
     public void addInput(Page page) {
         try {
-            GroupingAggregatorFunction.AddInput[] prepared = new GroupingAggregatorFunction.AddInput[aggregators.size()];
-            class AddInput implements GroupingAggregatorFunction.AddInput {
-                long hashStart = System.nanoTime();
-                long aggStart;
-
-                @Override
-                public void add(int positionOffset, IntBlock groupIds) {
-                    IntVector groupIdsVector = groupIds.asVector();
-                    if (groupIdsVector != null) {
-                        add(positionOffset, groupIdsVector);
-                    } else {
-                        startAggEndHash();
-                        for (GroupingAggregatorFunction.AddInput p : prepared) {
-                            p.add(positionOffset, groupIds);
-                        }
-                        end();
-                    }
-                }
+            checkState(needsInput(), "Operator is already finishing");
+            requireNonNull(page, "page is null");
+            addPage(wrapPage(page), blockHash, aggregators, page);
+            if (shouldSpill()) {
+                spill();
+            }
+        } finally {
+            page.releaseBlocks();
+            pagesProcessed++;
+            rowsReceived += page.getPositionCount();
+        }
+    }
 
-                @Override
-                public void add(int positionOffset, IntVector groupIds) {
+    /**
+     * Hash the keys in {@code page} and feed its rows to the aggregators.
+     * @param page the page to hash
+     * @param rawPage the page as received, used by the aggregators
+     */
+    private void addPage(Page page, BlockHash blockHash, List<GroupingAggregator> aggregators, Page rawPage) {
+        GroupingAggregatorFunction.AddInput[] prepared = new GroupingAggregatorFunction.AddInput[aggregators.size()];
+        class AddInput implements GroupingAggregatorFunction.AddInput {
+            long hashStart = System.nanoTime();
+            long aggStart;
+
+            @Override
+            public void add(int positionOffset, IntBlock groupIds) {
+                IntVector groupIdsVector = groupIds.asVector();
+                if (groupIdsVector != null) {
+                    add(positionOffset, groupIdsVector);
+                } else {
                     startAggEndHash();
+                    trackGroups(groupIds);
                     for (GroupingAggregatorFunction.AddInput p : prepared) {
                         p.add(positionOffset, groupIds);
                     }
                     end();
                 }
+            }
 
-                private void startAggEndHash() {
-                    aggStart = System.nanoTime();
-                    hashNanos += aggStart - hashStart;
+            @Override
+            public void add(int positionOffset, IntVector groupIds) {
+                startAggEndHash();
+                trackGroups(groupIds);
+                for (GroupingAggregatorFunction.AddInput p : prepared) {
+                    p.add(positionOffset, groupIds);
                 }
+                end();
+            }
 
-                private void end() {
-                    hashStart = System.nanoTime();
-                    aggregationNanos += hashStart - aggStart;
-                }
+            private void startAggEndHash() {
+                aggStart = System.nanoTime();
+                hashNanos += aggStart - hashStart;
+            }
 
-                @Override
-                public void close() {
-                    Releasables.closeExpectNoException(prepared);
-                }
+            private void end() {
+                hashStart = System.nanoTime();
+                aggregationNanos += hashStart - aggStart;
             }
-            try (AddInput add = new AddInput()) {
-                checkState(needsInput(), "Operator is already finishing");
-                requireNonNull(page, "page is null");
 
-                for (int i = 0; i < prepared.length; i++) {
-                    prepared[i] = aggregators.get(i).prepareProcessPage(blockHash, page);
-                }
+            @Override
+            public void close() {
+                Releasables.closeExpectNoException(prepared);
+            }
+        }
+        try (AddInput add = new AddInput()) {
+            for (int i = 0; i < prepared.length; i++) {
+                prepared[i] = aggregators.get(i).prepareProcessPage(blockHash, rawPage);
+            }
+
+            blockHash.add(page, add);
+            hashNanos += System.nanoTime() - add.hashStart;
+        }
+    }
+
+    private void trackGroups(IntVector groupIds) {
+        if (spill == null) {
+            return;
+        }
+        for (int p = 0; p < groupIds.getPositionCount(); p++) {
+            groupsInMemory = Math.max(groupsInMemory, groupIds.getInt(p) + 1);
+        }
+    }
 
-                blockHash.add(wrapPage(page), add);
-                hashNanos += System.nanoTime() - add.hashStart;
+    private void trackGroups(IntBlock groupIds) {
+        if (spill == null) {
+            return;
+        }
+        for (int p = 0; p < groupIds.getPositionCount(); p++) {
+            int start = groupIds.getFirstValueIndex(p);
+            int end = start + groupIds.getValueCount(p);
+            for (int i = start; i < end; i++) {
+                groupsInMemory = Math.max(groupsInMemory, groupIds.getInt(i) + 1);
+            }
+        }
+    }
+
+    private boolean shouldSpill() {
+        if (spill == null || groupsInMemory == 0) {
+            return false;
+        }
+        if (groupsInMemory >= spill.spill().maxGroupsInMemory()) {
+            return true;
+        }
+        return spill.memory().used() >= spill.spill().maxBytesInMemory();
+    }
+
+    /**
+     * Convert all groups in memory into their intermediate state, append them to the spill file
+     * for their partition, and start again with empty groups.
+     */
+    private void spill() {
+        if (spillFiles == null) {
+            spillFiles = new SpillFile[spill.spill().partitions()];
+        }
+        Page intermediate = evaluate(blockHash, aggregators, true);
+        try {
+            if (intermediate.getPositionCount() > 0) {
+                int[] keyChannels = IntStream.range(0, spill.mergeGroups().size()).toArray();
+                KeyPartitioner partitioner = new KeyPartitioner(keyChannels, spillFiles.length);
+                Page[] partitions = partitioner.split(intermediate);
+                try {
+                    for (int i = 0; i < partitions.length; i++) {
+                        if (partitions[i] == null) {
+                            continue;
+                        }
+                        if (spillFiles[i] == null) {
+                            spillFiles[i] = SpillFile.create(spill.spill().directory(), "esql-hash-agg-");
+                        }
+                        spillFiles[i].write(partitions[i]);
+                    }
+                } finally {
+                    for (Page p : partitions) {
+                        if (p != null) {
+                            p.releaseBlocks();
+                        }
+                    }
+                }
+                spills++;
+                groupsSpilled += intermediate.getPositionCount();
             }
         } finally {
-            page.releaseBlocks();
-            pagesProcessed++;
-            rowsReceived += page.getPositionCount();
+            intermediate.releaseBlocks();
+        }
+        resetGroups();
+    }
+
+    private void resetGroups() {
+        BlockHash oldHash = blockHash;
+        blockHash = null;
+        List<GroupingAggregator> oldAggregators = new ArrayList<>(aggregators);
+        aggregators.clear();
+        groupsInMemory = 0;
+        Releasables.close(oldHash, () -> Releasables.close(oldAggregators));
+        blockHash = blockHashSupplier.get();
+        for (GroupingAggregator.Factory a : aggregatorFactories) {
+            aggregators.add(a.apply(driverContext));
         }
     }
 
     @Override
     public Page getOutput() {
+        if (output == null && finished && spillFiles != null) {
+            output = mergeNextSpillPartition();
+        }
         Page p = output;
         if (p != null) {
             rowsEmitted += p.getPositionCount();
@@ -215,23 +455,54 @@ public class HashAggregationOperator implements Operator {
             return;
         }
         finished = true;
+        if (spillFiles == null) {
+            output = evaluate(blockHash, aggregators, false);
+            return;
+        }
+        if (groupsInMemory > 0) {
+            spill();
+        }
+        // Everything is on disk now so free the empty groups before merging
+        Releasables.close(blockHash, () -> Releasables.close(aggregators));
+        blockHash = null;
+        aggregators.clear();
+        for (SpillFile file : spillFiles) {
+            if (file != null) {
+                file.finishWriting();
+            }
+        }
+    }
+
+    /**
+     * Build the output from the hash and aggregators.
+     * @param intermediate if {@code true} then always emit the intermediate state, otherwise
+     *                     emit whatever the aggregators' mode emits
+     */
+    private Page evaluate(BlockHash blockHash, List<GroupingAggregator> aggregators, boolean intermediate) {
         Block[] blocks = null;
         IntVector selected = null;
         boolean success = false;
         try {
             selected = blockHash.nonEmpty();
             Block[] keys = blockHash.getKeys();
-            int[] aggBlockCounts = aggregators.stream().mapToInt(GroupingAggregator::evaluateBlockCount).toArray();
+            int[] aggBlockCounts = aggregators.stream()
+                .mapToInt(intermediate ? GroupingAggregator::intermediateBlockCount : GroupingAggregator::evaluateBlockCount)
+                .toArray();
             blocks = new Block[keys.length + Arrays.stream(aggBlockCounts).sum()];
             System.arraycopy(keys, 0, blocks, 0, keys.length);
             int offset = keys.length;
             for (int i = 0; i < aggregators.size(); i++) {
                 var aggregator = aggregators.get(i);
-                aggregator.evaluate(blocks, offset, selected, driverContext);
+                if (intermediate) {
+                    aggregator.evaluateIntermediate(blocks, offset, selected);
+                } else {
+                    aggregator.evaluate(blocks, offset, selected, driverContext);
+                }
                 offset += aggBlockCounts[i];
             }
-            output = new Page(blocks);
+            Page result = new Page(blocks);
             success = true;
+            return result;
         } finally {
             // selected should always be closed
             if (selected != null) {
@@ -243,9 +514,44 @@ public class HashAggregationOperator implements Operator {
         }
     }
 
+    /**
+     * Read the next non-empty spill partition and merge the partially aggregated groups in it.
+     * Equal keys always land in the same partition so the result for each partition is final.
+     */
+    private Page mergeNextSpillPartition() {
+        while (nextSpillPartition < spillFiles.length) {
+            SpillFile file = spillFiles[nextSpillPartition];
+            spillFiles[nextSpillPartition] = null;
+            nextSpillPartition++;
+            if (file == null) {
+                continue;
+            }
+            BlockHash mergeHash = null;
+            List<GroupingAggregator> mergeAggregators = new ArrayList<>(spill.spill().mergeAggregators().size());
+            try (file; ReleasableIterator<Page> pages = file.read(driverContext.blockFactory())) {
+                mergeHash = BlockHash.build(spill.mergeGroups(), driverContext.blockFactory(), spill.maxPageSize(), false);
+                for (GroupingAggregator.Factory a : spill.spill().mergeAggregators()) {
+                    mergeAggregators.add(a.apply(driverContext));
+                }
+                while (pages.hasNext()) {
+                    Page page = pages.next();
+                    try {
+                        addPage(page, mergeHash, mergeAggregators, page);
+                    } finally {
+                        page.releaseBlocks();
+                    }
+                }
+                return evaluate(mergeHash, mergeAggregators, false);
+            } finally {
+                Releasables.close(mergeHash, () -> Releasables.close(mergeAggregators));
+            }
+        }
+        return null;
+    }
+
     @Override
     public boolean isFinished() {
-        return finished && output == null;
+        return finished && output == null && (spillFiles == null || nextSpillPartition >= spillFiles.length);
     }
 
     @Override
@@ -253,7 +559,11 @@ public class HashAggregationOperator implements Operator {
         if (output != null) {
             output.releaseBlocks();
         }
-        Releasables.close(blockHash, () -> Releasables.close(aggregators));
+        Releasables.close(
+            blockHash,
+            () -> Releasables.close(aggregators),
+            () -> Releasables.close(spillFiles == null ? new SpillFile[0] : spillFiles)
+        );
     }
 
     @Override
@@ -261,6 +571,20 @@ public class HashAggregationOperator implements Operator {
         return new Status(hashNanos, aggregationNanos, pagesProcessed, rowsReceived, rowsEmitted);
     }
 
+    /**
+     * Count of times this operator has spilled groups to disk.
+     */
+    public int spills() {
+        return spills;
+    }
+
+    /**
+     * Count of partially aggregated groups this operator has spilled to disk.
+     */
+    public long groupsSpilled() {
+        return groupsSpilled;
+    }
+
     protected static void checkState(boolean condition, String msg) {
         if (condition == false) {
             throw new IllegalArgumentException(msg);
@@ -277,6 +601,10 @@ public class HashAggregationOperator implements Operator {
         sb.append(this.getClass().getSimpleName()).append("[");
         sb.append("blockHash=").append(blockHash).append(", ");
         sb.append("aggregators=").append(aggregators);
+        if (spill != null) {
+            sb.append(", spills=").append(spills);
+            sb.append(", groupsSpilled=").append(groupsSpilled);
+        }
         sb.append("]");
         return sb.toString();
     }
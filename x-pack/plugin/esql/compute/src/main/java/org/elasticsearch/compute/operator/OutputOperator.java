@@ -18,6 +18,16 @@ import java.util.function.Function;
  * i.e. the names of the rows that are outputted.
  */
 public class OutputOperator extends SinkOperator {
+    /**
+     * A page consumer that can't always keep up, like one that sends pages to
+     * a slow client. The {@link OutputOperator} blocks while it's full.
+     */
+    public interface BlockingPageConsumer extends Consumer<Page> {
+        /**
+         * Returns a blocked result while the consumer can't accept any more pages.
+         */
+        IsBlockedResult waitForWriting();
+    }
 
     private final List<String> columns;
     private final Consumer<Page> pageConsumer;
@@ -58,7 +68,15 @@ public class OutputOperator extends SinkOperator {
 
     @Override
     public boolean needsInput() {
-        return finished == false;
+        return finished == false && isBlocked().listener().isDone();
+    }
+
+    @Override
+    public IsBlockedResult isBlocked() {
+        if (pageConsumer instanceof BlockingPageConsumer blocking) {
+            return blocking.waitForWriting();
+        }
+        return NOT_BLOCKED;
     }
 
     @Override
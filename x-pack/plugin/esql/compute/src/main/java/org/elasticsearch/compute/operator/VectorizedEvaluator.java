@@ -0,0 +1,156 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.operator;
+
+import org.elasticsearch.compute.data.Block;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.data.Vector;
+import org.elasticsearch.compute.data.VectorKernels;
+import org.elasticsearch.compute.operator.EvalOperator.ExpressionEvaluator;
+import org.elasticsearch.core.Releasables;
+
+import java.util.function.BinaryOperator;
+
+/**
+ * Evaluates a binary expression with a {@link VectorKernels.Kernel} when both sides are
+ * {@link Vector}s the kernel supports and with the regular, generated, evaluator otherwise.
+ * Both sides are only evaluated once, the fallback evaluator receives the blocks that we've
+ * already built.
+ */
+public final class VectorizedEvaluator implements ExpressionEvaluator {
+    public record Factory(
+        VectorKernels.Kernel kernel,
+        ExpressionEvaluator.Factory lhs,
+        ExpressionEvaluator.Factory rhs,
+        BinaryOperator<ExpressionEvaluator.Factory> fallback
+    ) implements ExpressionEvaluator.Factory {
+        @Override
+        public ExpressionEvaluator get(DriverContext context) {
+            ExpressionEvaluator lhsEval = null;
+            ExpressionEvaluator rhsEval = null;
+            boolean success = false;
+            try {
+                lhsEval = lhs.get(context);
+                rhsEval = rhs.get(context);
+                Evaluated lhsEvaluated = new Evaluated(lhsEval.toString());
+                Evaluated rhsEvaluated = new Evaluated(rhsEval.toString());
+                ExpressionEvaluator fallbackEval = fallback.apply(lhsEvaluated, rhsEvaluated).get(context);
+                VectorizedEvaluator result = new VectorizedEvaluator(
+                    context.blockFactory(),
+                    kernel,
+                    lhsEval,
+                    rhsEval,
+                    lhsEvaluated,
+                    rhsEvaluated,
+                    fallbackEval
+                );
+                success = true;
+                return result;
+            } finally {
+                if (success == false) {
+                    Releasables.closeExpectNoException(lhsEval, rhsEval);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return fallback.apply(lhs, rhs).toString();
+        }
+    }
+
+    private final BlockFactory blockFactory;
+    private final VectorKernels.Kernel kernel;
+    private final ExpressionEvaluator lhs;
+    private final ExpressionEvaluator rhs;
+    private final Evaluated lhsEvaluated;
+    private final Evaluated rhsEvaluated;
+    private final ExpressionEvaluator fallback;
+
+    private VectorizedEvaluator(
+        BlockFactory blockFactory,
+        VectorKernels.Kernel kernel,
+        ExpressionEvaluator lhs,
+        ExpressionEvaluator rhs,
+        Evaluated lhsEvaluated,
+        Evaluated rhsEvaluated,
+        ExpressionEvaluator fallback
+    ) {
+        this.blockFactory = blockFactory;
+        this.kernel = kernel;
+        this.lhs = lhs;
+        this.rhs = rhs;
+        this.lhsEvaluated = lhsEvaluated;
+        this.rhsEvaluated = rhsEvaluated;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public Block eval(Page page) {
+        try (Block lhsBlock = lhs.eval(page); Block rhsBlock = rhs.eval(page)) {
+            Vector lhsVector = lhsBlock.asVector();
+            Vector rhsVector = lhsVector == null ? null : rhsBlock.asVector();
+            if (rhsVector != null) {
+                Vector result = kernel.eval(lhsVector, rhsVector, blockFactory);
+                if (result != null) {
+                    return result.asBlock();
+                }
+            }
+            lhsEvaluated.block = lhsBlock;
+            rhsEvaluated.block = rhsBlock;
+            try {
+                return fallback.eval(page);
+            } finally {
+                lhsEvaluated.block = null;
+                rhsEvaluated.block = null;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return fallback.toString();
+    }
+
+    @Override
+    public void close() {
+        Releasables.closeExpectNoException(lhs, rhs, fallback);
+    }
+
+    /**
+     * Hands a block that's already been evaluated to the fallback evaluator.
+     */
+    private static class Evaluated implements ExpressionEvaluator, ExpressionEvaluator.Factory {
+        private final String description;
+        private Block block;
+
+        Evaluated(String description) {
+            this.description = description;
+        }
+
+        @Override
+        public ExpressionEvaluator get(DriverContext context) {
+            return this;
+        }
+
+        @Override
+        public Block eval(Page page) {
+            block.incRef();
+            return block;
+        }
+
+        @Override
+        public void close() {}
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+}
@@ -0,0 +1,695 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.operator.lookup;
+
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.SubscribableListener;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.compute.data.Block;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.ElementType;
+import org.elasticsearch.compute.data.LongBlock;
+import org.elasticsearch.compute.data.LongVector;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.DriverContext;
+import org.elasticsearch.compute.operator.IsBlockedResult;
+import org.elasticsearch.compute.operator.Operator;
+import org.elasticsearch.compute.operator.Warnings;
+import org.elasticsearch.compute.operator.spill.KeyPartitioner;
+import org.elasticsearch.compute.operator.spill.SpillFile;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.ReleasableIterator;
+import org.elasticsearch.core.Releasables;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Performs a {@code LEFT JOIN} of each incoming page against a "build side" that's
+ * fetched <strong>once</strong> and hashed into a {@link JoinTable}. Compared to
+ * sending a lookup request per page this trades loading the entire build side for
+ * never having to go back to it. All operators built by the same {@link Factory}
+ * share a single fetch of the build side, each hashing it on its own.
+ * <p>
+ *     Every incoming row is emitted at least once. Rows with matches are emitted once
+ *     per match with the values from the build side appended. Rows without matches are
+ *     emitted once with {@code null}s appended. Output is always in the order rows
+ *     were received.
+ * </p>
+ * <h2>Grace partitioning</h2>
+ * <p>
+ *     If a {@link Spill} is configured and the build side is larger than
+ *     {@link Spill#maxBuildBytesInMemory} then this partitions the build side by a hash
+ *     of the key and writes each partition to disk. Incoming pages are partitioned the
+ *     same way and also written to disk, with a sequence number for each row. Once all
+ *     input has been received each partition is joined on its own, needing only that
+ *     partition's build side in memory. Finally, the joined partitions are merged by
+ *     sequence number so the output is in the same order as the input.
+ * </p>
+ */
+public final class HashJoinOperator implements Operator {
+    /**
+     * Loads the build side of the join.
+     */
+    public interface BuildSide {
+        /**
+         * Fetch every row of the build side as pages of {@code [key, value1, value2, ...]}.
+         * The {@code listener} may be called on any thread.
+         */
+        void fetch(ActionListener<List<Page>> listener);
+    }
+
+    /**
+     * Configuration for grace partitioning.
+     * @param directory where to write the partitions
+     * @param partitions the number of partitions to split the build side into
+     * @param maxBuildBytesInMemory partition to disk if the build side is larger than this
+     */
+    public record Spill(Path directory, int partitions, long maxBuildBytesInMemory) {
+        public static final int DEFAULT_PARTITIONS = 16;
+        public static final ByteSizeValue DEFAULT_MAX_BUILD_BYTES_IN_MEMORY = ByteSizeValue.ofMb(64);
+
+        public Spill {
+            if (partitions < 2) {
+                throw new IllegalArgumentException("partitions must be at least 2 but was [" + partitions + "]");
+            }
+            if (maxBuildBytesInMemory < 0) {
+                throw new IllegalArgumentException("maxBuildBytesInMemory must be >= 0 but was [" + maxBuildBytesInMemory + "]");
+            }
+        }
+
+        public static Spill withDefaults(Path directory) {
+            return new Spill(directory, DEFAULT_PARTITIONS, DEFAULT_MAX_BUILD_BYTES_IN_MEMORY.getBytes());
+        }
+    }
+
+    /**
+     * Fetches the build side once for every operator that's built by the same
+     * {@link Factory}. The operators only ever read the fetched pages. They are
+     * released when the last operator that {@link #acquire acquired} them
+     * {@link #release releases} them.
+     */
+    public static final class SharedBuildSide {
+        private final BuildSide buildSide;
+        /**
+         * The operators that may still read the pages. Guarded by {@code this}.
+         */
+        private int users;
+        /**
+         * The fetch, if it's been started. Guarded by {@code this}.
+         */
+        private SubscribableListener<List<Page>> fetched;
+
+        SharedBuildSide(BuildSide buildSide) {
+            this.buildSide = buildSide;
+        }
+
+        synchronized void acquire() {
+            users++;
+        }
+
+        /**
+         * Fetch the build side if no one else has started fetching it. The
+         * {@code listener} gets pages that it must not release.
+         */
+        void fetch(ActionListener<List<Page>> listener) {
+            SubscribableListener<List<Page>> fetch;
+            boolean start = false;
+            synchronized (this) {
+                assert users > 0 : "fetching without acquiring";
+                if (fetched == null) {
+                    fetched = new SubscribableListener<>();
+                    start = true;
+                }
+                fetch = fetched;
+            }
+            if (start) {
+                buildSide.fetch(fetch);
+            }
+            fetch.addListener(listener);
+        }
+
+        void release() {
+            SubscribableListener<List<Page>> toRelease;
+            synchronized (this) {
+                if (--users > 0) {
+                    return;
+                }
+                toRelease = fetched;
+                fetched = null;
+            }
+            if (toRelease != null) {
+                // Runs after every listener that was registered while the build side was acquired
+                toRelease.addListener(ActionListener.wrap(HashJoinOperator::releaseOnAnyThread, e -> {}));
+            }
+        }
+    }
+
+    /**
+     * Builds {@link HashJoinOperator}s.
+     * @param inputTypes the types of the incoming blocks
+     * @param keyChannel the channel in the incoming pages to join on
+     * @param valueTypes the types of the values loaded from the build side
+     * @param buildSide loads the build side once for all operators built by this factory
+     */
+    public record Factory(
+        List<ElementType> inputTypes,
+        int keyChannel,
+        List<ElementType> valueTypes,
+        SharedBuildSide buildSide,
+        Function<DriverContext, Warnings> warnings,
+        int maxPageSize,
+        @Nullable Spill spill
+    ) implements OperatorFactory {
+        public Factory(
+            List<ElementType> inputTypes,
+            int keyChannel,
+            List<ElementType> valueTypes,
+            BuildSide buildSide,
+            Function<DriverContext, Warnings> warnings,
+            int maxPageSize,
+            @Nullable Spill spill
+        ) {
+            this(inputTypes, keyChannel, valueTypes, new SharedBuildSide(buildSide), warnings, maxPageSize, spill);
+        }
+
+        @Override
+        public Operator get(DriverContext driverContext) {
+            return new HashJoinOperator(
+                driverContext,
+                inputTypes,
+                keyChannel,
+                valueTypes,
+                buildSide,
+                warnings.apply(driverContext),
+                maxPageSize,
+                spill
+            );
+        }
+
+        @Override
+        public String describe() {
+            return "HashJoinOperator[key_channel="
+                + keyChannel
+                + ", value_types="
+                + valueTypes
+                + (spill == null ? "" : ", spill=" + spill.partitions())
+                + "]";
+        }
+    }
+
+    private final DriverContext driverContext;
+    private final BlockFactory blockFactory;
+    private final List<ElementType> inputTypes;
+    private final int keyChannel;
+    private final List<ElementType> valueTypes;
+    private final SharedBuildSide buildSide;
+    private final Warnings warnings;
+    private final int maxPageSize;
+    @Nullable
+    private final Spill spill;
+
+    private final SubscribableListener<Void> fetched = new SubscribableListener<>();
+    private boolean fetching;
+    /**
+     * The build side, once it's been fetched, but before it's been hashed. These
+     * pages belong to the {@link SharedBuildSide}. Guarded by {@code this} because
+     * it's set from whatever thread the fetch completes on.
+     */
+    private List<Page> buildPages;
+    private volatile Exception failure;
+    private boolean closed;
+
+    /**
+     * The hashed build side if it fit in memory.
+     */
+    private JoinTable table;
+    /**
+     * The partitioned build side if it didn't fit in memory.
+     */
+    private Grace grace;
+    /**
+     * The page currently being joined against {@link #table}.
+     */
+    private ReleasableIterator<Page> probe;
+    private boolean finished;
+
+    HashJoinOperator(
+        DriverContext driverContext,
+        List<ElementType> inputTypes,
+        int keyChannel,
+        List<ElementType> valueTypes,
+        SharedBuildSide buildSide,
+        Warnings warnings,
+        int maxPageSize,
+        @Nullable Spill spill
+    ) {
+        this.driverContext = driverContext;
+        this.blockFactory = driverContext.blockFactory();
+        this.inputTypes = inputTypes;
+        this.keyChannel = keyChannel;
+        this.valueTypes = valueTypes;
+        this.buildSide = buildSide;
+        this.warnings = warnings;
+        this.maxPageSize = maxPageSize;
+        this.spill = spill;
+        buildSide.acquire();
+    }
+
+    private void ensureFetching() {
+        if (fetching) {
+            return;
+        }
+        fetching = true;
+        driverContext.addAsyncAction();
+        buildSide.fetch(ActionListener.runAfter(ActionListener.wrap(pages -> {
+            synchronized (this) {
+                if (closed == false) {
+                    buildPages = pages;
+                }
+            }
+        }, e -> failure = e), () -> {
+            driverContext.removeAsyncAction();
+            fetched.onResponse(null);
+        }));
+    }
+
+    private static void releaseOnAnyThread(List<Page> pages) {
+        Releasables.closeExpectNoException(Releasables.wrap(pages.stream().map(p -> (Releasable) () -> {
+            p.allowPassingToDifferentDriver();
+            p.releaseBlocks();
+        }).toList()));
+    }
+
+    /**
+     * Hash the build side if it has arrived.
+     * @return {@code true} if the build side is ready to join against
+     */
+    private boolean maybeBuild() {
+        if (table != null || grace != null) {
+            return true;
+        }
+        if (failure != null) {
+            throw ExceptionsHelper.convertToRuntime(failure);
+        }
+        List<Page> pages;
+        synchronized (this) {
+            pages = buildPages;
+            buildPages = null;
+        }
+        if (pages == null) {
+            return false;
+        }
+        long bytes = 0;
+        for (Page page : pages) {
+            bytes += page.ramBytesUsedByBlocks();
+        }
+        if (spill != null && bytes > spill.maxBuildBytesInMemory()) {
+            grace = new Grace(pages);
+        } else {
+            table = JoinTable.build(blockFactory, driverContext.bigArrays(), buildKeyType(), valueTypes, pages);
+        }
+        return true;
+    }
+
+    private ElementType buildKeyType() {
+        return inputTypes.get(keyChannel);
+    }
+
+    @Override
+    public boolean needsInput() {
+        ensureFetching();
+        return finished == false && probe == null && maybeBuild();
+    }
+
+    @Override
+    public void addInput(Page page) {
+        if (grace != null) {
+            grace.addProbe(page);
+        } else {
+            probe = table.join(page, keyChannel, maxPageSize, warnings);
+        }
+    }
+
+    @Override
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (grace != null) {
+            grace.finishProbe();
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        if (finished == false || probe != null) {
+            return false;
+        }
+        // If we never built then we never received any input so there's nothing to join
+        return grace == null || grace.isFinished();
+    }
+
+    @Override
+    public Page getOutput() {
+        if (probe != null) {
+            Page page = probe.hasNext() ? probe.next() : null;
+            if (probe.hasNext() == false) {
+                probe.close();
+                probe = null;
+            }
+            return page;
+        }
+        if (grace != null && finished) {
+            return grace.getOutput();
+        }
+        return null;
+    }
+
+    @Override
+    public IsBlockedResult isBlocked() {
+        if (finished || table != null || grace != null) {
+            return NOT_BLOCKED;
+        }
+        ensureFetching();
+        if (fetched.isDone()) {
+            return NOT_BLOCKED;
+        }
+        return new IsBlockedResult(fetched, "hash join build side");
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            buildPages = null;
+        }
+        // The table reads the shared build side so it must be closed before we release it
+        Releasables.closeExpectNoException(probe, table, grace, buildSide::release);
+    }
+
+    @Override
+    public String toString() {
+        return "HashJoinOperator[key_channel="
+            + keyChannel
+            + ", value_types="
+            + valueTypes
+            + (grace == null ? "" : ", grace=" + grace)
+            + "]";
+    }
+
+    /**
+     * State for grace partitioning. Incoming pages get a sequence number column
+     * appended as their last block so the joined partitions can be merged back
+     * into the order the rows arrived.
+     */
+    private class Grace implements Releasable {
+        private final KeyPartitioner buildPartitioner;
+        private final KeyPartitioner probePartitioner;
+        private final SpillFile[] buildFiles;
+        private final SpillFile[] probeFiles;
+        private final SpillFile[] joinedFiles;
+        private long nextSeq;
+        private int nextPartition;
+        private Merger merger;
+
+        /**
+         * Partition the build side to disk. The {@code pages} are shared so
+         * they are only read.
+         */
+        Grace(List<Page> pages) {
+            int partitions = spill.partitions();
+            this.buildPartitioner = new KeyPartitioner(new int[] { 0 }, partitions);
+            this.probePartitioner = new KeyPartitioner(new int[] { keyChannel }, partitions);
+            this.buildFiles = new SpillFile[partitions];
+            this.probeFiles = new SpillFile[partitions];
+            this.joinedFiles = new SpillFile[partitions];
+            boolean success = false;
+            try {
+                for (int p = 0; p < partitions; p++) {
+                    buildFiles[p] = SpillFile.create(spill.directory(), "esql-join-build-");
+                    probeFiles[p] = SpillFile.create(spill.directory(), "esql-join-probe-");
+                }
+                for (Page page : pages) {
+                    // Rows with many keys go to the partition of each key
+                    write(buildPartitioner.splitByValue(page, blockFactory), buildFiles);
+                }
+                for (SpillFile file : buildFiles) {
+                    file.finishWriting();
+                }
+                success = true;
+            } finally {
+                if (success == false) {
+                    close();
+                }
+            }
+        }
+
+        private static void write(Page[] parts, SpillFile[] files) {
+            try {
+                for (int p = 0; p < parts.length; p++) {
+                    if (parts[p] != null) {
+                        files[p].write(parts[p]);
+                    }
+                }
+            } finally {
+                for (Page part : parts) {
+                    if (part != null) {
+                        part.releaseBlocks();
+                    }
+                }
+            }
+        }
+
+        void addProbe(Page page) {
+            Page withSeq = null;
+            try {
+                long[] seqs = new long[page.getPositionCount()];
+                for (int i = 0; i < seqs.length; i++) {
+                    seqs[i] = nextSeq++;
+                }
+                withSeq = page.appendBlock(blockFactory.newLongArrayVector(seqs, seqs.length).asBlock());
+                write(probePartitioner.split(withSeq), probeFiles);
+            } finally {
+                if (withSeq == null) {
+                    page.releaseBlocks();
+                } else {
+                    withSeq.releaseBlocks();
+                }
+            }
+        }
+
+        void finishProbe() {
+            for (SpillFile file : probeFiles) {
+                file.finishWriting();
+            }
+        }
+
+        Page getOutput() {
+            if (nextPartition < probeFiles.length) {
+                // Join a partition per call so we don't hog the thread
+                joinPartition(nextPartition++);
+                return null;
+            }
+            if (merger == null) {
+                merger = new Merger(joinedFiles);
+            }
+            return merger.hasNext() ? merger.next() : null;
+        }
+
+        boolean isFinished() {
+            return nextPartition == probeFiles.length && merger != null && merger.hasNext() == false;
+        }
+
+        private void joinPartition(int p) {
+            joinedFiles[p] = SpillFile.create(spill.directory(), "esql-join-joined-");
+            if (probeFiles[p].pageCount() > 0) {
+                List<Page> pages = new ArrayList<>(buildFiles[p].pageCount());
+                try (ReleasableIterator<Page> itr = buildFiles[p].read(blockFactory)) {
+                    while (itr.hasNext()) {
+                        pages.add(itr.next());
+                    }
+                } catch (Exception e) {
+                    releaseOnAnyThread(pages);
+                    throw e;
+                }
+                try (
+                    Releasable releasePages = () -> releaseOnAnyThread(pages);
+                    JoinTable partitionTable = JoinTable.build(blockFactory, driverContext.bigArrays(), buildKeyType(), valueTypes, pages);
+                    ReleasableIterator<Page> probePages = probeFiles[p].read(blockFactory)
+                ) {
+                    while (probePages.hasNext()) {
+                        try (ReleasableIterator<Page> joined = partitionTable.join(probePages.next(), keyChannel, maxPageSize, warnings)) {
+                            while (joined.hasNext()) {
+                                Page page = joined.next();
+                                try {
+                                    joinedFiles[p].write(page);
+                                } finally {
+                                    page.releaseBlocks();
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            joinedFiles[p].finishWriting();
+            Releasables.closeExpectNoException(buildFiles[p], probeFiles[p]);
+            buildFiles[p] = null;
+            probeFiles[p] = null;
+        }
+
+        @Override
+        public void close() {
+            List<Releasable> toClose = new ArrayList<>();
+            toClose.add(merger);
+            for (int p = 0; p < buildFiles.length; p++) {
+                toClose.add(buildFiles[p]);
+                toClose.add(probeFiles[p]);
+                toClose.add(joinedFiles[p]);
+            }
+            Releasables.closeExpectNoException(Releasables.wrap(toClose));
+        }
+
+        @Override
+        public String toString() {
+            return "partitions=" + buildFiles.length + ", joined=" + nextPartition;
+        }
+    }
+
+    /**
+     * Merges the joined partitions by sequence number, dropping the sequence number.
+     */
+    private class Merger implements Releasable {
+        private final int seqChannel = inputTypes.size();
+        private final List<ReleasableIterator<Page>> readers;
+        private final Page[] heads;
+        private final int[] positions;
+
+        Merger(SpillFile[] files) {
+            this.readers = new ArrayList<>(files.length);
+            this.heads = new Page[files.length];
+            this.positions = new int[files.length];
+            boolean success = false;
+            try {
+                for (int p = 0; p < files.length; p++) {
+                    readers.add(files[p].read(blockFactory));
+                    advance(p);
+                }
+                success = true;
+            } finally {
+                if (success == false) {
+                    close();
+                }
+            }
+        }
+
+        private void advance(int p) {
+            if (heads[p] != null) {
+                heads[p].releaseBlocks();
+                heads[p] = null;
+            }
+            positions[p] = 0;
+            ReleasableIterator<Page> reader = readers.get(p);
+            while (reader.hasNext()) {
+                Page next = reader.next();
+                if (next.getPositionCount() > 0) {
+                    heads[p] = next;
+                    return;
+                }
+                next.releaseBlocks();
+            }
+        }
+
+        private long headSeq(int p) {
+            return heads[p].<LongBlock>getBlock(seqChannel).asVector().getLong(positions[p]);
+        }
+
+        boolean hasNext() {
+            for (Page head : heads) {
+                if (head != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Page next() {
+            Block.Builder[] builders = new Block.Builder[inputTypes.size() + valueTypes.size()];
+            try {
+                for (int b = 0; b < inputTypes.size(); b++) {
+                    builders[b] = inputTypes.get(b).newBlockBuilder(maxPageSize, blockFactory);
+                }
+                for (int v = 0; v < valueTypes.size(); v++) {
+                    builders[seqChannel + v] = valueTypes.get(v).newBlockBuilder(maxPageSize, blockFactory);
+                }
+                int rows = 0;
+                while (rows < maxPageSize) {
+                    int min = -1;
+                    int second = -1;
+                    for (int p = 0; p < heads.length; p++) {
+                        if (heads[p] == null) {
+                            continue;
+                        }
+                        if (min == -1 || headSeq(p) < headSeq(min)) {
+                            second = min;
+                            min = p;
+                        } else if (second == -1 || headSeq(p) < headSeq(second)) {
+                            second = p;
+                        }
+                    }
+                    if (min == -1) {
+                        break;
+                    }
+                    Page page = heads[min];
+                    LongVector seqs = page.<LongBlock>getBlock(seqChannel).asVector();
+                    long limit = second == -1 ? Long.MAX_VALUE : headSeq(second);
+                    int start = positions[min];
+                    int end = start;
+                    int maxEnd = Math.min(page.getPositionCount(), start + maxPageSize - rows);
+                    while (end < maxEnd && seqs.getLong(end) < limit) {
+                        end++;
+                    }
+                    for (int b = 0; b < seqChannel; b++) {
+                        builders[b].copyFrom(page.getBlock(b), start, end);
+                    }
+                    for (int v = 0; v < valueTypes.size(); v++) {
+                        builders[seqChannel + v].copyFrom(page.getBlock(seqChannel + 1 + v), start, end);
+                    }
+                    rows += end - start;
+                    positions[min] = end;
+                    if (end == page.getPositionCount()) {
+                        advance(min);
+                    }
+                }
+                Block[] blocks = Block.Builder.buildAll(builders);
+                return new Page(rows, blocks);
+            } finally {
+                Releasables.closeExpectNoException(builders);
+            }
+        }
+
+        @Override
+        public void close() {
+            List<Releasable> toClose = new ArrayList<>(readers);
+            for (Page head : heads) {
+                if (head != null) {
+                    toClose.add(head::releaseBlocks);
+                }
+            }
+            Releasables.closeExpectNoException(Releasables.wrap(toClose));
+        }
+    }
+}
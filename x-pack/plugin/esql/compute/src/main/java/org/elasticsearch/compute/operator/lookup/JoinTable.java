@@ -0,0 +1,385 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.operator.lookup;
+
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.IntArray;
+import org.elasticsearch.compute.aggregation.GroupingAggregatorFunction;
+import org.elasticsearch.compute.aggregation.blockhash.BlockHash;
+import org.elasticsearch.compute.data.Block;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.ElementType;
+import org.elasticsearch.compute.data.IntBlock;
+import org.elasticsearch.compute.data.IntVector;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.Warnings;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.ReleasableIterator;
+import org.elasticsearch.core.Releasables;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The "build side" of a {@link HashJoinOperator}. Each build {@link Page} is
+ * {@code [key, value1, value2, ...]}. The keys are added to a {@link BlockHash}
+ * and rows with the same key are chained together, in the order they were
+ * received, so probing a key walks all matching rows.
+ * <p>
+ *     A build row whose key has many values is chained onto the rows of each of
+ *     its values, like the term queries {@code LOOKUP JOIN} runs against the
+ *     lookup index match every document containing the term. Probing only
+ *     matches single valued, non-{@code null} keys, same as those term queries.
+ * </p>
+ * <p>
+ *     The table only reads the build pages, it never releases them or changes
+ *     their reference counts, so many tables can be built from the same pages
+ *     on different threads.
+ * </p>
+ */
+final class JoinTable implements Releasable {
+    static final String MULTI_VALUE_WARNING = "LOOKUP JOIN encountered multi-value";
+    private static final int BLOCK_HASH_BATCH_SIZE = (int) BlockFactory.DEFAULT_MAX_BLOCK_PRIMITIVE_ARRAY_SIZE.getBytes();
+
+    private final BlockFactory blockFactory;
+    private final List<ElementType> valueTypes;
+    private final List<Page> pages;
+    /**
+     * The global row number of the first row in each page.
+     */
+    private final int[] pageStarts;
+    private final BlockHash hash;
+    /**
+     * The first entry for each group id or {@code -1} if there aren't any.
+     */
+    private final IntArray heads;
+    /**
+     * The last entry for each group id. Only valid if {@link #heads} isn't {@code -1}.
+     */
+    private final IntArray tails;
+    /**
+     * The row of each entry. A row has one entry per distinct value of its key.
+     */
+    private final IntArray entryRows;
+    /**
+     * The next entry with the same key or {@code -1} if this is the last one.
+     */
+    private final IntArray next;
+    private int entryCount;
+
+    /**
+     * Build the table. The table reads the {@code pages} until it's closed but
+     * doesn't take ownership of them.
+     */
+    static JoinTable build(
+        BlockFactory blockFactory,
+        BigArrays bigArrays,
+        ElementType keyType,
+        List<ElementType> valueTypes,
+        List<Page> pages
+    ) {
+        JoinTable table = new JoinTable(blockFactory, bigArrays, keyType, valueTypes, pages);
+        boolean success = false;
+        try {
+            table.addAll();
+            success = true;
+            return table;
+        } finally {
+            if (success == false) {
+                table.close();
+            }
+        }
+    }
+
+    private JoinTable(BlockFactory blockFactory, BigArrays bigArrays, ElementType keyType, List<ElementType> valueTypes, List<Page> pages) {
+        this.blockFactory = blockFactory;
+        this.valueTypes = valueTypes;
+        this.pages = pages;
+        this.pageStarts = new int[pages.size()];
+        int rows = 0;
+        int values = 0;
+        for (int i = 0; i < pages.size(); i++) {
+            pageStarts[i] = rows;
+            Block keys = pages.get(i).getBlock(0);
+            rows += keys.getPositionCount();
+            values += valueCount(keys);
+        }
+        BlockHash hash = null;
+        IntArray heads = null;
+        IntArray tails = null;
+        IntArray entryRows = null;
+        IntArray next = null;
+        boolean success = false;
+        try {
+            hash = BlockHash.build(List.of(new BlockHash.GroupSpec(0, keyType)), blockFactory, BLOCK_HASH_BATCH_SIZE, false);
+            // Single key block hashes never vend more than one id per distinct value plus a few reserved ids
+            heads = bigArrays.newIntArray(values + 3, false);
+            heads.fill(0, heads.size(), -1);
+            tails = bigArrays.newIntArray(values + 3, false);
+            entryRows = bigArrays.newIntArray(Math.max(values, 1), false);
+            next = bigArrays.newIntArray(Math.max(values, 1), false);
+            success = true;
+        } finally {
+            if (success == false) {
+                Releasables.closeExpectNoException(hash, heads, tails, entryRows, next);
+            }
+        }
+        this.hash = hash;
+        this.heads = heads;
+        this.tails = tails;
+        this.entryRows = entryRows;
+        this.next = next;
+    }
+
+    private static int valueCount(Block keys) {
+        if (keys.mayHaveNulls() == false && keys.mayHaveMultivaluedFields() == false) {
+            return keys.getPositionCount();
+        }
+        int count = 0;
+        for (int p = 0; p < keys.getPositionCount(); p++) {
+            count += keys.getValueCount(p);
+        }
+        return count;
+    }
+
+    private void addAll() {
+        for (int i = 0; i < pages.size(); i++) {
+            Block keys = pages.get(i).getBlock(0);
+            if (keys.areAllValuesNull()) {
+                continue;
+            }
+            hash.add(new Page(keys), new Linker(pageStarts[i], keys));
+        }
+    }
+
+    /**
+     * Chains each row onto the list of rows for each of its group ids.
+     */
+    private class Linker implements GroupingAggregatorFunction.AddInput {
+        private final int rowStart;
+        private final Block keys;
+
+        Linker(int rowStart, Block keys) {
+            this.rowStart = rowStart;
+            this.keys = keys;
+        }
+
+        @Override
+        public void add(int positionOffset, IntBlock groupIds) {
+            for (int p = 0; p < groupIds.getPositionCount(); p++) {
+                int position = positionOffset + p;
+                // null keys never match so don't bother linking them
+                if (groupIds.isNull(p) || keys.isNull(position)) {
+                    continue;
+                }
+                int start = groupIds.getFirstValueIndex(p);
+                int end = start + groupIds.getValueCount(p);
+                for (int i = start; i < end; i++) {
+                    link(groupIds.getInt(i), rowStart + position);
+                }
+            }
+        }
+
+        @Override
+        public void add(int positionOffset, IntVector groupIds) {
+            for (int p = 0; p < groupIds.getPositionCount(); p++) {
+                int position = positionOffset + p;
+                if (keys.isNull(position) == false) {
+                    link(groupIds.getInt(p), rowStart + position);
+                }
+            }
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    private void link(int group, int row) {
+        int entry = entryCount++;
+        entryRows.set(entry, row);
+        next.set(entry, -1);
+        int tail = heads.get(group) == -1 ? -1 : tails.get(group);
+        if (tail == -1) {
+            heads.set(group, entry);
+        } else {
+            next.set(tail, entry);
+        }
+        tails.set(group, entry);
+    }
+
+    /**
+     * Join a page against this table. Every position in {@code left} is emitted at
+     * least once, joined to {@code null}s if it doesn't match, and once per match
+     * if it does. The returned iterator takes ownership of {@code left}.
+     */
+    ReleasableIterator<Page> join(Page left, int keyChannel, int maxPageSize, Warnings warnings) {
+        try {
+            return new Probe(left, firstEntries(left.getBlock(keyChannel), warnings), maxPageSize);
+        } catch (Exception e) {
+            left.releaseBlocks();
+            throw e;
+        }
+    }
+
+    /**
+     * The first matching entry for each position in {@code keys} or {@code -1} if there isn't one.
+     */
+    private int[] firstEntries(Block keys, Warnings warnings) {
+        int[] firstEntries = new int[keys.getPositionCount()];
+        Arrays.fill(firstEntries, -1);
+        if (keys.areAllValuesNull()) {
+            return firstEntries;
+        }
+        try (ReleasableIterator<IntBlock> ids = hash.lookup(new Page(keys), BlockFactory.DEFAULT_MAX_BLOCK_PRIMITIVE_ARRAY_SIZE)) {
+            int offset = 0;
+            while (ids.hasNext()) {
+                try (IntBlock block = ids.next()) {
+                    for (int p = 0; p < block.getPositionCount(); p++) {
+                        int position = offset + p;
+                        int valueCount = keys.getValueCount(position);
+                        if (valueCount != 1) {
+                            if (valueCount > 1) {
+                                warnings.registerException(new IllegalArgumentException(MULTI_VALUE_WARNING));
+                            }
+                            continue;
+                        }
+                        if (block.isNull(p)) {
+                            continue;
+                        }
+                        int group = block.getInt(block.getFirstValueIndex(p));
+                        if (group < heads.size()) {
+                            firstEntries[position] = heads.get(group);
+                        }
+                    }
+                    offset += block.getPositionCount();
+                }
+            }
+        }
+        return firstEntries;
+    }
+
+    private class Probe implements ReleasableIterator<Page> {
+        private final Page left;
+        private final int[] firstEntries;
+        private final int maxPageSize;
+        /**
+         * The next position in {@link #left} to emit.
+         */
+        private int position;
+        /**
+         * Have we emitted any matches for {@link #position}?
+         */
+        private boolean started;
+        /**
+         * The next matching entry for {@link #position}. Only valid if {@link #started}.
+         */
+        private int entry;
+
+        Probe(Page left, int[] firstEntries, int maxPageSize) {
+            this.left = left;
+            this.firstEntries = firstEntries;
+            this.maxPageSize = maxPageSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < firstEntries.length;
+        }
+
+        @Override
+        public Page next() {
+            if (hasNext() == false) {
+                throw new NoSuchElementException();
+            }
+            int[] leftPositions = new int[Math.min(maxPageSize, firstEntries.length - position)];
+            int[] rows = new int[leftPositions.length];
+            int count = 0;
+            while (position < firstEntries.length) {
+                if (count == leftPositions.length) {
+                    if (count >= maxPageSize) {
+                        break;
+                    }
+                    // More matches than positions, grow towards maxPageSize
+                    leftPositions = Arrays.copyOf(leftPositions, Math.min(maxPageSize, count * 2));
+                    rows = Arrays.copyOf(rows, leftPositions.length);
+                }
+                int e = started ? entry : firstEntries[position];
+                leftPositions[count] = position;
+                rows[count] = e == -1 ? -1 : entryRows.get(e);
+                count++;
+                int nextEntry = e == -1 ? -1 : next.get(e);
+                if (nextEntry == -1) {
+                    position++;
+                    started = false;
+                } else {
+                    entry = nextEntry;
+                    started = true;
+                }
+            }
+            return buildPage(Arrays.copyOf(leftPositions, count), Arrays.copyOf(rows, count));
+        }
+
+        private Page buildPage(int[] leftPositions, int[] rows) {
+            Block[] blocks = new Block[left.getBlockCount() + valueTypes.size()];
+            try {
+                for (int b = 0; b < left.getBlockCount(); b++) {
+                    blocks[b] = left.getBlock(b).filter(leftPositions);
+                }
+                for (int v = 0; v < valueTypes.size(); v++) {
+                    try (Block.Builder builder = valueTypes.get(v).newBlockBuilder(rows.length, blockFactory)) {
+                        for (int row : rows) {
+                            if (row == -1) {
+                                builder.appendNull();
+                                continue;
+                            }
+                            int pageIndex = pageOf(row);
+                            int p = row - pageStarts[pageIndex];
+                            builder.copyFrom(pages.get(pageIndex).getBlock(v + 1), p, p + 1);
+                        }
+                        blocks[left.getBlockCount() + v] = builder.build();
+                    }
+                }
+                Page page = new Page(leftPositions.length, blocks);
+                blocks = null;
+                return page;
+            } finally {
+                if (blocks != null) {
+                    Releasables.closeExpectNoException(blocks);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            left.releaseBlocks();
+        }
+    }
+
+    private int pageOf(int row) {
+        int index = Arrays.binarySearch(pageStarts, row);
+        if (index < 0) {
+            return -2 - index;
+        }
+        // Skip past any empty pages that start at the same row
+        while (index + 1 < pageStarts.length && pageStarts[index + 1] == row) {
+            index++;
+        }
+        return index;
+    }
+
+    @Override
+    public void close() {
+        Releasables.closeExpectNoException(hash, heads, tails, entryRows, next);
+    }
+
+    @Override
+    public String toString() {
+        return "JoinTable[pages=" + pages.size() + ", hash=" + hash + "]";
+    }
+}
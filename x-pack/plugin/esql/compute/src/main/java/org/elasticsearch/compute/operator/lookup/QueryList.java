@@ -213,6 +213,33 @@ public abstract class QueryList {
         return new GeoShapeQueryList(field, searchExecutionContext, block, null);
     }
 
+    /**
+     * Returns a list that matches every document for each non-{@code null} position
+     * in the input block. Used to scan a whole lookup index in one request.
+     */
+    public static QueryList matchAllQueryList(Block block) {
+        return new MatchAllQueryList(block);
+    }
+
+    private static final class MatchAllQueryList extends QueryList {
+        private MatchAllQueryList(Block block) {
+            super(null, null, block, null);
+        }
+
+        /**
+         * A {@code match_all} doesn't read any field so there are no multi-values to skip or warn about.
+         */
+        @Override
+        public MatchAllQueryList onlySingleValues(Warnings warnings, String multiValueWarningMessage) {
+            return this;
+        }
+
+        @Override
+        Query doGetQuery(int position, int firstValueIndex, int valueCount) {
+            return valueCount == 0 ? null : new MatchAllDocsQuery();
+        }
+    }
+
     private static class TermQueryList extends QueryList {
         private final IntFunction<Object> blockValueReader;
 
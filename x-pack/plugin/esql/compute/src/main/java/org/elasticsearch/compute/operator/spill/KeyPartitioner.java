@@ -0,0 +1,226 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.operator.spill;
+
+import com.carrotsearch.hppc.BitMixer;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.compute.data.Block;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BooleanBlock;
+import org.elasticsearch.compute.data.BytesRefBlock;
+import org.elasticsearch.compute.data.DoubleBlock;
+import org.elasticsearch.compute.data.FloatBlock;
+import org.elasticsearch.compute.data.IntBlock;
+import org.elasticsearch.compute.data.LongBlock;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.core.Releasables;
+
+/**
+ * Assigns each position of a {@link Page} to one of {@code partitionCount} partitions
+ * by hashing the values in the key channels. Equal keys always land in the same
+ * partition so each partition can be processed on its own after spilling.
+ */
+public final class KeyPartitioner {
+    private final int[] keyChannels;
+    private final int partitionCount;
+    private final BytesRef scratch = new BytesRef();
+
+    public KeyPartitioner(int[] keyChannels, int partitionCount) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("partitionCount must be at least 1 but was [" + partitionCount + "]");
+        }
+        this.keyChannels = keyChannels;
+        this.partitionCount = partitionCount;
+    }
+
+    public int partitionCount() {
+        return partitionCount;
+    }
+
+    /**
+     * The partition for each position in the {@link Page}.
+     */
+    public int[] partitions(Page page) {
+        int[] hashes = new int[page.getPositionCount()];
+        for (int channel : keyChannels) {
+            Block block = page.getBlock(channel);
+            for (int p = 0; p < hashes.length; p++) {
+                hashes[p] = 31 * hashes[p] + hash(block, p);
+            }
+        }
+        for (int p = 0; p < hashes.length; p++) {
+            hashes[p] = partition(hashes[p]);
+        }
+        return hashes;
+    }
+
+    /**
+     * Split the {@link Page} into one {@link Page} per partition. Partitions without
+     * any positions are {@code null}. This doesn't release the input {@link Page}.
+     */
+    public Page[] split(Page page) {
+        int[] partitions = partitions(page);
+        int[] counts = new int[partitionCount];
+        for (int partition : partitions) {
+            counts[partition]++;
+        }
+        int[][] positions = new int[partitionCount][];
+        for (int i = 0; i < partitionCount; i++) {
+            positions[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for (int p = 0; p < partitions.length; p++) {
+            int partition = partitions[p];
+            positions[partition][counts[partition]++] = p;
+        }
+        Page[] result = new Page[partitionCount];
+        boolean success = false;
+        try {
+            for (int i = 0; i < partitionCount; i++) {
+                if (positions[i].length == 0) {
+                    continue;
+                }
+                if (positions[i].length == page.getPositionCount()) {
+                    result[i] = page.shallowCopy();
+                    continue;
+                }
+                Block[] blocks = new Block[page.getBlockCount()];
+                try {
+                    for (int b = 0; b < blocks.length; b++) {
+                        blocks[b] = page.getBlock(b).filter(positions[i]);
+                    }
+                    result[i] = new Page(positions[i].length, blocks);
+                } finally {
+                    if (result[i] == null) {
+                        Releasables.closeExpectNoException(blocks);
+                    }
+                }
+            }
+            success = true;
+            return result;
+        } finally {
+            if (success == false) {
+                for (Page p : result) {
+                    if (p != null) {
+                        p.releaseBlocks();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Like {@link #split} but a position whose key has many values goes to the partition
+     * of <strong>each</strong> of its values, so it lands in the same partition as every
+     * single valued position that shares one of its values. Only works with a single
+     * key channel. The partitions are copied into new blocks built by {@code blockFactory}
+     * and the input {@link Page} is only read, so it's safe to split a {@link Page} that's
+     * shared with other threads.
+     */
+    public Page[] splitByValue(Page page, BlockFactory blockFactory) {
+        if (keyChannels.length != 1) {
+            throw new IllegalStateException("can only split by value on a single key channel but had " + keyChannels.length);
+        }
+        Block keys = page.getBlock(keyChannels[0]);
+        int[][] positions = new int[partitionCount][];
+        int[] counts = new int[partitionCount];
+        for (int p = 0; p < page.getPositionCount(); p++) {
+            if (keys.getValueCount(p) <= 1) {
+                add(positions, counts, partition(hash(keys, p)), p);
+                continue;
+            }
+            int start = keys.getFirstValueIndex(p);
+            int end = start + keys.getValueCount(p);
+            for (int i = start; i < end; i++) {
+                // The same hash that a single valued position with this value gets
+                add(positions, counts, partition(31 + valueHash(keys, i)), p);
+            }
+        }
+        Page[] result = new Page[partitionCount];
+        boolean success = false;
+        try {
+            for (int i = 0; i < partitionCount; i++) {
+                if (counts[i] > 0) {
+                    result[i] = copy(page, positions[i], counts[i], blockFactory);
+                }
+            }
+            success = true;
+            return result;
+        } finally {
+            if (success == false) {
+                for (Page p : result) {
+                    if (p != null) {
+                        p.releaseBlocks();
+                    }
+                }
+            }
+        }
+    }
+
+    private static void add(int[][] positions, int[] counts, int partition, int position) {
+        int count = counts[partition];
+        if (count > 0 && positions[partition][count - 1] == position) {
+            // Two values of the same position in the same partition
+            return;
+        }
+        if (positions[partition] == null) {
+            positions[partition] = new int[8];
+        } else if (count == positions[partition].length) {
+            positions[partition] = ArrayUtil.grow(positions[partition], count + 1);
+        }
+        positions[partition][count] = position;
+        counts[partition] = count + 1;
+    }
+
+    private static Page copy(Page page, int[] positions, int count, BlockFactory blockFactory) {
+        Block.Builder[] builders = new Block.Builder[page.getBlockCount()];
+        try {
+            for (int b = 0; b < builders.length; b++) {
+                Block block = page.getBlock(b);
+                builders[b] = block.elementType().newBlockBuilder(count, blockFactory);
+                for (int i = 0; i < count; i++) {
+                    builders[b].copyFrom(block, positions[i], positions[i] + 1);
+                }
+            }
+            return new Page(count, Block.Builder.buildAll(builders));
+        } finally {
+            Releasables.closeExpectNoException(builders);
+        }
+    }
+
+    private int partition(int hash) {
+        return Math.floorMod(BitMixer.mix32(hash), partitionCount);
+    }
+
+    private int hash(Block block, int position) {
+        if (block.isNull(position)) {
+            return 0;
+        }
+        int start = block.getFirstValueIndex(position);
+        int end = start + block.getValueCount(position);
+        int hash = 1;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + valueHash(block, i);
+        }
+        return hash;
+    }
+
+    private int valueHash(Block block, int i) {
+        return switch (block.elementType()) {
+            case BOOLEAN -> Boolean.hashCode(((BooleanBlock) block).getBoolean(i));
+            case INT -> Integer.hashCode(((IntBlock) block).getInt(i));
+            case LONG -> Long.hashCode(((LongBlock) block).getLong(i));
+            case FLOAT -> Float.hashCode(((FloatBlock) block).getFloat(i));
+            case DOUBLE -> Double.hashCode(((DoubleBlock) block).getDouble(i));
+            case BYTES_REF -> ((BytesRefBlock) block).getBytesRef(i, scratch).hashCode();
+            default -> throw new IllegalArgumentException("can't partition on [" + block.elementType() + "]");
+        };
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.operator.spill;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.operator.DriverContext;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.indices.breaker.AllCircuitBreakerStats;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
+import org.elasticsearch.indices.breaker.CircuitBreakerStats;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the memory that a single operator accounts for so it can decide to spill
+ * based on what it holds itself rather than on how full the shared circuit breaker is.
+ * Blocks and arrays allocated through {@link #driverContext()} are accounted to the
+ * driver's breakers as usual and are also counted in {@link #used()}. Everything else
+ * about that context, like releasables, async actions, warnings and early termination,
+ * is the driver's own context.
+ */
+public final class MemoryTracker {
+    private final AtomicLong used = new AtomicLong();
+    private final DriverContext driverContext;
+
+    public MemoryTracker(DriverContext driverContext) {
+        BigArrays bigArrays = driverContext.bigArrays();
+        bigArrays = bigArrays.withBreakerService(new CountingService(bigArrays.breakerService()));
+        BlockFactory blockFactory = driverContext.blockFactory()
+            .newAccountingFactory(new CountingBreaker(driverContext.breaker()), bigArrays);
+        this.driverContext = new TrackedDriverContext(driverContext, bigArrays, blockFactory);
+    }
+
+    /**
+     * A {@link DriverContext} that counts everything allocated through it.
+     */
+    public DriverContext driverContext() {
+        return driverContext;
+    }
+
+    /**
+     * Wrap {@code breaker} so the bytes allocated through it are also counted in {@link #used()}.
+     */
+    public CircuitBreaker track(CircuitBreaker breaker) {
+        return new CountingBreaker(breaker);
+    }
+
+    /**
+     * Bytes allocated through {@link #driverContext()} and not yet released.
+     */
+    public long used() {
+        return used.get();
+    }
+
+    private class CountingService extends CircuitBreakerService {
+        private final CircuitBreakerService next;
+
+        CountingService(CircuitBreakerService next) {
+            // BigArrays that don't track memory don't have a breaker service
+            this.next = next == null ? new NoneCircuitBreakerService() : next;
+        }
+
+        @Override
+        public CircuitBreaker getBreaker(String name) {
+            return new CountingBreaker(next.getBreaker(name));
+        }
+
+        @Override
+        public AllCircuitBreakerStats stats() {
+            return next.stats();
+        }
+
+        @Override
+        public CircuitBreakerStats stats(String name) {
+            return next.stats(name);
+        }
+    }
+
+    /**
+     * A {@link DriverContext} that allocates through the counting {@link BigArrays} and
+     * {@link BlockFactory} but is otherwise the driver's own context.
+     */
+    private static class TrackedDriverContext extends DriverContext {
+        private final DriverContext delegate;
+
+        TrackedDriverContext(DriverContext delegate, BigArrays bigArrays, BlockFactory blockFactory) {
+            super(bigArrays, blockFactory);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean addReleasable(Releasable releasable) {
+            return delegate.addReleasable(releasable);
+        }
+
+        @Override
+        public boolean removeReleasable(Releasable releasable) {
+            return delegate.removeReleasable(releasable);
+        }
+
+        @Override
+        public Snapshot getSnapshot() {
+            return delegate.getSnapshot();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public void finish() {
+            delegate.finish();
+        }
+
+        @Override
+        public void waitForAsyncActions(ActionListener<Void> listener) {
+            delegate.waitForAsyncActions(listener);
+        }
+
+        @Override
+        public void addAsyncAction() {
+            delegate.addAsyncAction();
+        }
+
+        @Override
+        public void removeAsyncAction() {
+            delegate.removeAsyncAction();
+        }
+
+        @Override
+        public void checkForEarlyTermination() {
+            delegate.checkForEarlyTermination();
+        }
+
+        @Override
+        public void initializeEarlyTerminationChecker(Runnable checker) {
+            delegate.initializeEarlyTerminationChecker(checker);
+        }
+
+        @Override
+        public WarningsMode warningsMode() {
+            return delegate.warningsMode();
+        }
+    }
+
+    private class CountingBreaker implements CircuitBreaker {
+        private final CircuitBreaker next;
+
+        CountingBreaker(CircuitBreaker next) {
+            this.next = next;
+        }
+
+        @Override
+        public void circuitBreak(String fieldName, long bytesNeeded) {
+            next.circuitBreak(fieldName, bytesNeeded);
+        }
+
+        @Override
+        public void addEstimateBytesAndMaybeBreak(long bytes, String label) throws CircuitBreakingException {
+            next.addEstimateBytesAndMaybeBreak(bytes, label);
+            // only count the bytes once we know we didn't break
+            used.addAndGet(bytes);
+        }
+
+        @Override
+        public void addWithoutBreaking(long bytes) {
+            next.addWithoutBreaking(bytes);
+            used.addAndGet(bytes);
+        }
+
+        @Override
+        public long getUsed() {
+            return next.getUsed();
+        }
+
+        @Override
+        public long getLimit() {
+            return next.getLimit();
+        }
+
+        @Override
+        public double getOverhead() {
+            return next.getOverhead();
+        }
+
+        @Override
+        public long getTrippedCount() {
+            return next.getTrippedCount();
+        }
+
+        @Override
+        public String getName() {
+            return next.getName();
+        }
+
+        @Override
+        public Durability getDurability() {
+            return next.getDurability();
+        }
+
+        @Override
+        public void setLimitAndOverhead(long limit, double overhead) {
+            next.setLimitAndOverhead(limit, overhead);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.operator.spill;
+
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BlockStreamInput;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.core.IOUtils;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.ReleasableIterator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+/**
+ * A temporary file holding {@link Page}s that didn't fit in memory. {@link Page}s are
+ * written with their transport serialization so reading them back is exactly as
+ * expensive as receiving them from another node.
+ * <p>
+ *     The file is append-only until {@link #finishWriting}. After that it may be
+ *     {@link #read} any number of times. {@link #close} deletes the file.
+ * </p>
+ */
+public final class SpillFile implements Releasable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private StreamOutput out;
+    private int pageCount;
+    private long positionCount;
+    private long bytes;
+
+    /**
+     * Create a new, empty, spill file in {@code directory}.
+     */
+    public static SpillFile create(Path directory, String prefix) {
+        try {
+            return new SpillFile(Files.createTempFile(directory, prefix, ".spill"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to create spill file in [" + directory + "]", e);
+        }
+    }
+
+    private SpillFile(Path path) throws IOException {
+        this.path = path;
+        this.out = new OutputStreamStreamOutput(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE));
+    }
+
+    /**
+     * Append a {@link Page} to the file. This doesn't release the {@link Page}.
+     */
+    public void write(Page page) {
+        if (out == null) {
+            throw new IllegalStateException("spill file [" + path + "] is already finished");
+        }
+        try {
+            page.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to write to spill file [" + path + "]", e);
+        }
+        pageCount++;
+        positionCount += page.getPositionCount();
+    }
+
+    /**
+     * Flush and close the file for writing. Must be called before {@link #read}.
+     */
+    public void finishWriting() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+            out = null;
+            bytes = Files.size(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to finish spill file [" + path + "]", e);
+        }
+    }
+
+    /**
+     * Read the {@link Page}s back in the order they were written. The caller owns each
+     * returned {@link Page} and must release its blocks.
+     */
+    public ReleasableIterator<Page> read(BlockFactory blockFactory) {
+        if (out != null) {
+            throw new IllegalStateException("spill file [" + path + "] is still being written");
+        }
+        try {
+            StreamInput raw = new InputStreamStreamInput(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+            return new Reader(raw, new BlockStreamInput(raw, blockFactory));
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to read spill file [" + path + "]", e);
+        }
+    }
+
+    /**
+     * The number of {@link Page}s written to the file.
+     */
+    public int pageCount() {
+        return pageCount;
+    }
+
+    /**
+     * The number of positions in all {@link Page}s written to the file.
+     */
+    public long positionCount() {
+        return positionCount;
+    }
+
+    /**
+     * Size of the file on disk. Only available after {@link #finishWriting}.
+     */
+    public long bytes() {
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+        try {
+            IOUtils.close(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to close spill file [" + path + "]", e);
+        } finally {
+            out = null;
+            IOUtils.deleteFilesIgnoringExceptions(path);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SpillFile[" + path + ", pages=" + pageCount + ", positions=" + positionCount + "]";
+    }
+
+    private class Reader implements ReleasableIterator<Page> {
+        private final StreamInput raw;
+        private final BlockStreamInput in;
+        private int read;
+
+        Reader(StreamInput raw, BlockStreamInput in) {
+            this.raw = raw;
+            this.in = in;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return read < pageCount;
+        }
+
+        @Override
+        public Page next() {
+            if (hasNext() == false) {
+                throw new NoSuchElementException();
+            }
+            try {
+                Page page = new Page(in);
+                read++;
+                return page;
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to read from spill file [" + path + "]", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                // BlockStreamInput doesn't close the stream it wraps
+                IOUtils.close(in, raw);
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to close spill file [" + path + "]", e);
+            }
+        }
+    }
+}
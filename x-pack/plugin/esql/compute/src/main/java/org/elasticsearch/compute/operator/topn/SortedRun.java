@@ -0,0 +1,195 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.operator.topn;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.compute.operator.BreakingBytesRefBuilder;
+import org.elasticsearch.core.IOUtils;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A run of {@link TopNOperator.Row}s spilled to disk in the order they'll be emitted.
+ * Rows are written <strong>encoded</strong>, exactly as they sit in the
+ * {@link TopNOperator}'s queue, so runs can be merged by comparing their sortable
+ * keys without decoding them.
+ */
+final class SortedRun implements Releasable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private StreamOutput out;
+    private int rowCount;
+
+    static SortedRun create(Path directory) {
+        try {
+            return new SortedRun(Files.createTempFile(directory, "esql-topn-", ".run"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to create sorted run in [" + directory + "]", e);
+        }
+    }
+
+    private SortedRun(Path path) throws IOException {
+        this.path = path;
+        this.out = new OutputStreamStreamOutput(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE));
+    }
+
+    /**
+     * Append a row. Rows must be appended best first.
+     */
+    void write(TopNOperator.Row row) {
+        try {
+            writeBytes(row.keys.bytesRefView());
+            writeBytes(row.values.bytesRefView());
+            for (int endOffset : row.bytesOrder.endOffsets) {
+                out.writeVInt(endOffset);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to write to sorted run [" + path + "]", e);
+        }
+        rowCount++;
+    }
+
+    private void writeBytes(BytesRef bytes) throws IOException {
+        out.writeVInt(bytes.length);
+        out.writeBytes(bytes.bytes, bytes.offset, bytes.length);
+    }
+
+    /**
+     * Flush and close the run for writing. Must be called before {@link #cursor}.
+     */
+    void finishWriting() {
+        try {
+            IOUtils.close(out);
+            out = null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to finish sorted run [" + path + "]", e);
+        }
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Open a {@link Cursor} positioned on the first row of the run.
+     */
+    Cursor cursor(CircuitBreaker breaker, List<TopNOperator.SortOrder> sortOrders) {
+        if (out != null) {
+            throw new IllegalStateException("sorted run [" + path + "] is still being written");
+        }
+        StreamInput in;
+        try {
+            in = new InputStreamStreamInput(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to read sorted run [" + path + "]", e);
+        }
+        Cursor cursor = new Cursor(in, breaker, sortOrders);
+        boolean success = false;
+        try {
+            cursor.advance();
+            success = true;
+            return cursor;
+        } finally {
+            if (success == false) {
+                cursor.close();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        IOUtils.closeWhileHandlingException(out);
+        out = null;
+        IOUtils.deleteFilesIgnoringExceptions(path);
+    }
+
+    @Override
+    public String toString() {
+        return "SortedRun[" + path + ", rows=" + rowCount + "]";
+    }
+
+    /**
+     * Reads rows back from the run, one at a time, into a single reused {@link TopNOperator.Row}.
+     */
+    final class Cursor implements Releasable {
+        private final StreamInput in;
+        private final CircuitBreaker breaker;
+        private final List<TopNOperator.SortOrder> sortOrders;
+        private int read;
+        private TopNOperator.Row row;
+
+        private Cursor(StreamInput in, CircuitBreaker breaker, List<TopNOperator.SortOrder> sortOrders) {
+            this.in = in;
+            this.breaker = breaker;
+            this.sortOrders = sortOrders;
+        }
+
+        /**
+         * The current row or {@code null} if the run is exhausted. The row is overwritten
+         * by {@link #advance}.
+         */
+        TopNOperator.Row row() {
+            return row;
+        }
+
+        /**
+         * Move to the next row.
+         * @return {@code false} if the run is exhausted
+         */
+        boolean advance() {
+            if (read == rowCount) {
+                Releasables.close(row);
+                row = null;
+                return false;
+            }
+            if (row == null) {
+                row = new TopNOperator.Row(breaker, sortOrders, 0, 0);
+            }
+            try {
+                readBytes(row.keys);
+                readBytes(row.values);
+                for (int i = 0; i < row.bytesOrder.endOffsets.length; i++) {
+                    row.bytesOrder.endOffsets[i] = in.readVInt();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to read from sorted run [" + path + "]", e);
+            }
+            read++;
+            return true;
+        }
+
+        private void readBytes(BreakingBytesRefBuilder builder) throws IOException {
+            int length = in.readVInt();
+            builder.clear();
+            builder.grow(length);
+            in.readBytes(builder.bytes(), 0, length);
+            builder.setLength(length);
+        }
+
+        @Override
+        public void close() {
+            Releasables.close(row);
+            row = null;
+            IOUtils.closeWhileHandlingException(in);
+        }
+    }
+}
@@ -13,6 +13,7 @@ import org.apache.lucene.util.PriorityQueue;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.collect.Iterators;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BlockFactory;
 import org.elasticsearch.compute.data.ElementType;
@@ -20,14 +21,18 @@ import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.compute.operator.BreakingBytesRefBuilder;
 import org.elasticsearch.compute.operator.DriverContext;
 import org.elasticsearch.compute.operator.Operator;
+import org.elasticsearch.compute.operator.spill.MemoryTracker;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * An operator that sorts "rows" of values by encoding the values to sort on, as bytes (using BytesRef). Each data type is encoded
@@ -220,12 +225,18 @@ public class TopNOperator implements Operator, Accountable {
         }
     }
 
+    /**
+     * Builds {@link TopNOperator}s.
+     * @param spill if non-{@code null} then the operator will spill sorted runs to disk when
+     *              memory gets tight and merge them once it has received all input
+     */
     public record TopNOperatorFactory(
         int topCount,
         List<ElementType> elementTypes,
         List<TopNEncoder> encoders,
         List<SortOrder> sortOrders,
-        int maxPageSize
+        int maxPageSize,
+        @Nullable Spill spill
     ) implements OperatorFactory {
         public TopNOperatorFactory {
             for (ElementType e : elementTypes) {
@@ -235,6 +246,16 @@ public class TopNOperator implements Operator, Accountable {
             }
         }
 
+        public TopNOperatorFactory(
+            int topCount,
+            List<ElementType> elementTypes,
+            List<TopNEncoder> encoders,
+            List<SortOrder> sortOrders,
+            int maxPageSize
+        ) {
+            this(topCount, elementTypes, encoders, sortOrders, maxPageSize, null);
+        }
+
         @Override
         public TopNOperator get(DriverContext driverContext) {
             return new TopNOperator(
@@ -244,7 +265,9 @@ public class TopNOperator implements Operator, Accountable {
                 elementTypes,
                 encoders,
                 sortOrders,
-                maxPageSize
+                maxPageSize,
+                spill,
+                spill == null ? null : new MemoryTracker(driverContext)
             );
         }
 
@@ -262,10 +285,69 @@ public class TopNOperator implements Operator, Accountable {
         }
     }
 
+    /**
+     * Configuration for spilling to disk. When the operator holds more than {@code maxRowsInMemory}
+     * rows, or its rows account for {@code maxBytesInMemory}, the rows are written, still encoded
+     * and in sorted order, to a {@link SortedRun} on disk. Once all input has been received the
+     * runs are merged, comparing their encoded keys, to produce the output. Each open run holds a
+     * read buffer so if there are more than {@code maxMergeFanIn} runs the oldest ones are first
+     * merged into bigger runs.
+     *
+     * @param directory where to write the runs
+     * @param maxRowsInMemory spill once the operator holds this many rows
+     * @param maxBytesInMemory spill once the rows the operator holds account for this many bytes
+     * @param maxMergeFanIn the most runs to read at once
+     */
+    public record Spill(Path directory, int maxRowsInMemory, long maxBytesInMemory, int maxMergeFanIn) {
+        public static final ByteSizeValue DEFAULT_MAX_BYTES_IN_MEMORY = ByteSizeValue.ofMb(64);
+        public static final int DEFAULT_MAX_MERGE_FAN_IN = 32;
+
+        public Spill {
+            if (maxRowsInMemory < 1) {
+                throw new IllegalArgumentException("maxRowsInMemory must be at least 1 but was [" + maxRowsInMemory + "]");
+            }
+            if (maxBytesInMemory < 0) {
+                throw new IllegalArgumentException("maxBytesInMemory must be >= 0 but was [" + maxBytesInMemory + "]");
+            }
+            if (maxMergeFanIn < 2) {
+                throw new IllegalArgumentException("maxMergeFanIn must be at least 2 but was [" + maxMergeFanIn + "]");
+            }
+        }
+
+        /**
+         * Spill into {@code directory} using the default thresholds. This only spills when the
+         * operator holds more than {@link #DEFAULT_MAX_BYTES_IN_MEMORY}.
+         */
+        public static Spill withDefaults(Path directory) {
+            return new Spill(directory, Integer.MAX_VALUE, DEFAULT_MAX_BYTES_IN_MEMORY.getBytes(), DEFAULT_MAX_MERGE_FAN_IN);
+        }
+    }
+
     private final BlockFactory blockFactory;
     private final CircuitBreaker breaker;
+    private final int topCount;
     private final Queue inputQueue;
 
+    @Nullable
+    private final Spill spill;
+
+    /**
+     * Counts the bytes of the rows this operator holds. Only tracked when spilling is enabled.
+     */
+    @Nullable
+    private final MemoryTracker memory;
+
+    /**
+     * Sorted runs spilled to disk.
+     */
+    private final List<SortedRun> runs = new ArrayList<>();
+
+    /**
+     * The worst row in the best full run spilled to disk. Rows that sort after this one
+     * can never make it to the output so we don't keep them.
+     */
+    private Row cutoff;
+
     private final int maxPageSize;
 
     private final List<ElementType> elementTypes;
@@ -307,12 +389,32 @@ public class TopNOperator implements Operator, Accountable {
         List<SortOrder> sortOrders,
         int maxPageSize
     ) {
+        this(blockFactory, breaker, topCount, elementTypes, encoders, sortOrders, maxPageSize, null, null);
+    }
+
+    public TopNOperator(
+        BlockFactory blockFactory,
+        CircuitBreaker breaker,
+        int topCount,
+        List<ElementType> elementTypes,
+        List<TopNEncoder> encoders,
+        List<SortOrder> sortOrders,
+        int maxPageSize,
+        @Nullable Spill spill,
+        @Nullable MemoryTracker memory
+    ) {
+        if ((spill == null) != (memory == null)) {
+            throw new IllegalArgumentException("spilling requires a memory tracker");
+        }
         this.blockFactory = blockFactory;
-        this.breaker = breaker;
+        this.breaker = memory == null ? breaker : memory.track(breaker);
+        this.memory = memory;
         this.maxPageSize = maxPageSize;
         this.elementTypes = elementTypes;
         this.encoders = encoders;
         this.sortOrders = sortOrders;
+        this.topCount = topCount;
+        this.spill = spill;
         this.inputQueue = new Queue(topCount);
     }
 
@@ -378,6 +480,10 @@ public class TopNOperator implements Operator, Accountable {
                     spare.values.clear();
                 }
                 rowFiller.row(i, spare);
+                if (cutoff != null && compareRows(spare, cutoff) <= 0) {
+                    // Sorts after a row we've already spilled in a full run so can't be in the output
+                    continue;
+                }
 
                 // When rows are very long, appending the values one by one can lead to lots of allocations.
                 // To avoid this, pre-allocate at least as much size as in the last seen row.
@@ -387,6 +493,9 @@ public class TopNOperator implements Operator, Accountable {
 
                 spare = inputQueue.insertWithOverflow(spare);
             }
+            if (shouldSpill()) {
+                spill();
+            }
         } finally {
             page.releaseBlocks();
             pagesReceived++;
@@ -394,10 +503,48 @@ public class TopNOperator implements Operator, Accountable {
         }
     }
 
+    private boolean shouldSpill() {
+        if (spill == null || inputQueue.size() == 0) {
+            return false;
+        }
+        if (inputQueue.size() >= spill.maxRowsInMemory()) {
+            return true;
+        }
+        return memory.used() >= spill.maxBytesInMemory();
+    }
+
+    /**
+     * Write all rows in memory to a new {@link SortedRun}, best first, and free them.
+     */
+    private void spill() {
+        Row[] rows = new Row[inputQueue.size()];
+        for (int i = rows.length - 1; i >= 0; i--) {
+            rows[i] = inputQueue.pop();
+        }
+        try {
+            SortedRun run = SortedRun.create(spill.directory());
+            runs.add(run);
+            for (Row row : rows) {
+                run.write(row);
+            }
+            run.finishWriting();
+            if (rows.length == topCount) {
+                Row worst = rows[rows.length - 1];
+                if (cutoff == null || compareRows(worst, cutoff) > 0) {
+                    Releasables.close(cutoff);
+                    cutoff = worst;
+                    rows[rows.length - 1] = null;
+                }
+            }
+        } finally {
+            Releasables.closeExpectNoException(rows);
+        }
+    }
+
     @Override
     public void finish() {
         if (output == null) {
-            output = toPages();
+            output = runs.isEmpty() ? toPages() : mergeRuns();
         }
     }
 
@@ -425,59 +572,19 @@ public class TopNOperator implements Operator, Accountable {
             for (int i = 0; i < list.size(); i++) {
                 if (builders == null) {
                     size = Math.min(maxPageSize, list.size() - i);
-                    builders = new ResultBuilder[elementTypes.size()];
-                    for (int b = 0; b < builders.length; b++) {
-                        builders[b] = ResultBuilder.resultBuilderFor(
-                            blockFactory,
-                            elementTypes.get(b),
-                            encoders.get(b).toUnsortable(),
-                            channelInKey(sortOrders, b),
-                            size
-                        );
-                    }
+                    builders = newResultBuilders(size);
                     p = 0;
                 }
 
                 Row row = list.get(i);
-                BytesRef keys = row.keys.bytesRefView();
-                for (SortOrder so : sortOrders) {
-                    if (keys.bytes[keys.offset] == so.nul()) {
-                        keys.offset++;
-                        keys.length--;
-                        continue;
-                    }
-                    keys.offset++;
-                    keys.length--;
-                    builders[so.channel].decodeKey(keys);
-                }
-                if (keys.length != 0) {
-                    throw new IllegalArgumentException("didn't read all keys");
-                }
-
-                BytesRef values = row.values.bytesRefView();
-                for (ResultBuilder builder : builders) {
-                    builder.decodeValue(values);
-                }
-                if (values.length != 0) {
-                    throw new IllegalArgumentException("didn't read all values");
-                }
+                decodeRow(row, builders);
 
                 list.set(i, null);
                 row.close();
 
                 p++;
                 if (p == size) {
-                    Block[] blocks = new Block[builders.length];
-                    try {
-                        for (int b = 0; b < blocks.length; b++) {
-                            blocks[b] = builders[b].build();
-                        }
-                    } finally {
-                        if (blocks[blocks.length - 1] == null) {
-                            Releasables.closeExpectNoException(blocks);
-                        }
-                    }
-                    result.add(new Page(blocks));
+                    result.add(buildPage(builders));
                     Releasables.closeExpectNoException(builders);
                     builders = null;
                 }
@@ -497,6 +604,212 @@ public class TopNOperator implements Operator, Accountable {
         }
     }
 
+    private ResultBuilder[] newResultBuilders(int size) {
+        ResultBuilder[] builders = new ResultBuilder[elementTypes.size()];
+        boolean success = false;
+        try {
+            for (int b = 0; b < builders.length; b++) {
+                builders[b] = ResultBuilder.resultBuilderFor(
+                    blockFactory,
+                    elementTypes.get(b),
+                    encoders.get(b).toUnsortable(),
+                    channelInKey(sortOrders, b),
+                    size
+                );
+            }
+            success = true;
+            return builders;
+        } finally {
+            if (success == false) {
+                Releasables.closeExpectNoException(builders);
+            }
+        }
+    }
+
+    /**
+     * Decode a {@link Row} into the {@link ResultBuilder}s. Doesn't modify the {@link Row}.
+     */
+    private void decodeRow(Row row, ResultBuilder[] builders) {
+        BytesRef keysView = row.keys.bytesRefView();
+        BytesRef keys = new BytesRef(keysView.bytes, keysView.offset, keysView.length);
+        for (SortOrder so : sortOrders) {
+            if (keys.bytes[keys.offset] == so.nul()) {
+                keys.offset++;
+                keys.length--;
+                continue;
+            }
+            keys.offset++;
+            keys.length--;
+            builders[so.channel].decodeKey(keys);
+        }
+        if (keys.length != 0) {
+            throw new IllegalArgumentException("didn't read all keys");
+        }
+
+        BytesRef valuesView = row.values.bytesRefView();
+        BytesRef values = new BytesRef(valuesView.bytes, valuesView.offset, valuesView.length);
+        for (ResultBuilder builder : builders) {
+            builder.decodeValue(values);
+        }
+        if (values.length != 0) {
+            throw new IllegalArgumentException("didn't read all values");
+        }
+    }
+
+    private static Page buildPage(ResultBuilder[] builders) {
+        Block[] blocks = new Block[builders.length];
+        try {
+            for (int b = 0; b < blocks.length; b++) {
+                blocks[b] = builders[b].build();
+            }
+        } finally {
+            if (blocks[blocks.length - 1] == null) {
+                Releasables.closeExpectNoException(blocks);
+            }
+        }
+        return new Page(blocks);
+    }
+
+    /**
+     * Spill whatever is left in memory and start merging all the runs.
+     */
+    private Iterator<Page> mergeRuns() {
+        if (spare != null) {
+            spare.close();
+            spare = null;
+        }
+        if (inputQueue.size() > 0) {
+            spill();
+        }
+        Releasables.close(cutoff);
+        cutoff = null;
+        while (runs.size() > spill.maxMergeFanIn()) {
+            mergeOldestRuns();
+        }
+        return new MergingOutput(new RunMerger(runs));
+    }
+
+    /**
+     * Merge the oldest {@link Spill#maxMergeFanIn} runs into a single new run. Only the best
+     * {@code topCount} rows can make it to the output so that's all the new run gets.
+     */
+    private void mergeOldestRuns() {
+        List<SortedRun> toMerge = new ArrayList<>(runs.subList(0, spill.maxMergeFanIn()));
+        runs.subList(0, toMerge.size()).clear();
+        try (Releasable mergedRuns = Releasables.wrap(toMerge); RunMerger merger = new RunMerger(toMerge)) {
+            SortedRun merged = SortedRun.create(spill.directory());
+            runs.add(merged);
+            for (int r = 0; r < topCount && merger.hasRow(); r++) {
+                merged.write(merger.row());
+                merger.advance();
+            }
+            merged.finishWriting();
+        }
+    }
+
+    /**
+     * K-way merges {@link SortedRun}s, comparing the encoded keys of the head of each run.
+     */
+    private class RunMerger implements Releasable {
+        private final PriorityQueue<SortedRun.Cursor> queue;
+
+        RunMerger(List<SortedRun> runs) {
+            this.queue = new PriorityQueue<>(runs.size()) {
+                @Override
+                protected boolean lessThan(SortedRun.Cursor a, SortedRun.Cursor b) {
+                    // The best row goes to the top of the queue
+                    return compareRows(a.row(), b.row()) > 0;
+                }
+            };
+            boolean success = false;
+            try {
+                for (SortedRun run : runs) {
+                    SortedRun.Cursor cursor = run.cursor(breaker, sortOrders);
+                    if (cursor.row() == null) {
+                        cursor.close();
+                    } else {
+                        queue.add(cursor);
+                    }
+                }
+                success = true;
+            } finally {
+                if (success == false) {
+                    close();
+                }
+            }
+        }
+
+        boolean hasRow() {
+            return queue.size() > 0;
+        }
+
+        /**
+         * The best row left in any of the runs. It's overwritten by {@link #advance}.
+         */
+        Row row() {
+            return queue.top().row();
+        }
+
+        void advance() {
+            if (queue.top().advance()) {
+                queue.updateTop();
+            } else {
+                queue.pop().close();
+            }
+        }
+
+        @Override
+        public void close() {
+            List<Releasable> cursors = new ArrayList<>(queue.size());
+            while (queue.size() > 0) {
+                cursors.add(queue.pop());
+            }
+            Releasables.closeExpectNoException(Releasables.wrap(cursors));
+        }
+    }
+
+    /**
+     * Decodes the merged rows into output pages.
+     */
+    private class MergingOutput implements Iterator<Page>, Releasable {
+        private final RunMerger merger;
+        private int remaining = topCount;
+
+        MergingOutput(RunMerger merger) {
+            this.merger = merger;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0 && merger.hasRow();
+        }
+
+        @Override
+        public Page next() {
+            if (hasNext() == false) {
+                throw new NoSuchElementException();
+            }
+            ResultBuilder[] builders = newResultBuilders(Math.min(maxPageSize, remaining));
+            try {
+                int p = 0;
+                while (p < maxPageSize && remaining > 0 && merger.hasRow()) {
+                    decodeRow(merger.row(), builders);
+                    p++;
+                    remaining--;
+                    merger.advance();
+                }
+                return buildPage(builders);
+            } finally {
+                Releasables.closeExpectNoException(builders);
+            }
+        }
+
+        @Override
+        public void close() {
+            merger.close();
+        }
+    }
+
     private static boolean channelInKey(List<SortOrder> sortOrders, int channel) {
         for (SortOrder so : sortOrders) {
             if (so.channel == channel) {
@@ -531,8 +844,12 @@ public class TopNOperator implements Operator, Accountable {
          */
         Releasables.closeExpectNoException(
             spare,
+            cutoff,
             inputQueue == null ? null : Releasables.wrap(inputQueue),
-            output == null ? null : Releasables.wrap(() -> Iterators.map(output, p -> p::releaseBlocks))
+            output == null ? null
+                : output instanceof MergingOutput merging ? merging
+                : Releasables.wrap(() -> Iterators.map(output, p -> p::releaseBlocks)),
+            Releasables.wrap(runs)
         );
     }
 
@@ -551,6 +868,9 @@ public class TopNOperator implements Operator, Accountable {
         size += RamUsageEstimator.alignObjectSize(arrHeader + ref * sortOrders.size());
         size += sortOrders.size() * SortOrder.SHALLOW_SIZE;
         size += inputQueue.ramBytesUsed();
+        if (cutoff != null) {
+            size += cutoff.ramBytesUsed();
+        }
         return size;
     }
 
@@ -0,0 +1,152 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.data;
+
+import org.elasticsearch.compute.test.ComputeTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class VectorKernelsTests extends ComputeTestCase {
+    public void testAddLongs() {
+        BlockFactory blockFactory = blockFactory();
+        int positionCount = between(1, 1000);
+        try (
+            LongVector lhs = longs(blockFactory, positionCount);
+            LongVector rhs = longs(blockFactory, positionCount);
+            LongVector result = (LongVector) VectorKernels.ADD_LONGS.eval(lhs, rhs, blockFactory)
+        ) {
+            for (int p = 0; p < positionCount; p++) {
+                assertThat(result.getLong(p), equalTo(lhs.getLong(p) + rhs.getLong(p)));
+            }
+        }
+    }
+
+    public void testSubLongsConstant() {
+        BlockFactory blockFactory = blockFactory();
+        int positionCount = between(1, 1000);
+        long c = randomLongBetween(-1000, 1000);
+        try (
+            LongVector lhs = longs(blockFactory, positionCount);
+            LongVector rhs = blockFactory.newConstantLongVector(c, positionCount);
+            LongVector result = (LongVector) VectorKernels.SUB_LONGS.eval(lhs, rhs, blockFactory)
+        ) {
+            for (int p = 0; p < positionCount; p++) {
+                assertThat(result.getLong(p), equalTo(lhs.getLong(p) - c));
+            }
+        }
+    }
+
+    public void testConstantMinusLongsFallsBack() {
+        BlockFactory blockFactory = blockFactory();
+        int positionCount = between(1, 1000);
+        try (
+            LongVector lhs = blockFactory.newConstantLongVector(randomLong(), positionCount);
+            LongVector rhs = longs(blockFactory, positionCount)
+        ) {
+            assertThat(VectorKernels.SUB_LONGS.eval(lhs, rhs, blockFactory), nullValue());
+        }
+    }
+
+    public void testOverflowFallsBack() {
+        BlockFactory blockFactory = blockFactory();
+        int positionCount = between(1, 1000);
+        try (
+            LongVector lhs = longs(blockFactory, positionCount);
+            LongVector rhs = blockFactory.newConstantLongVector(Long.MAX_VALUE, positionCount)
+        ) {
+            long[] values = ((LongArrayVector) lhs).rawValues();
+            values[randomInt(positionCount - 1)] = 1;
+            assertThat(VectorKernels.ADD_LONGS.eval(lhs, rhs, blockFactory), nullValue());
+        }
+    }
+
+    public void testNonFiniteFallsBack() {
+        BlockFactory blockFactory = blockFactory();
+        int positionCount = between(1, 1000);
+        try (
+            DoubleVector lhs = blockFactory.newConstantDoubleVector(Double.MAX_VALUE, positionCount);
+            DoubleVector rhs = doubles(blockFactory, positionCount, Double.MAX_VALUE)
+        ) {
+            assertThat(VectorKernels.MUL_DOUBLES.eval(lhs, rhs, blockFactory), nullValue());
+        }
+    }
+
+    public void testConstantLessThanLongs() {
+        BlockFactory blockFactory = blockFactory();
+        int positionCount = between(1, 1000);
+        long c = randomLongBetween(-1000, 1000);
+        try (
+            LongVector lhs = blockFactory.newConstantLongVector(c, positionCount);
+            LongVector rhs = longs(blockFactory, positionCount);
+            BooleanVector result = (BooleanVector) VectorKernels.LT_LONGS.eval(lhs, rhs, blockFactory)
+        ) {
+            for (int p = 0; p < positionCount; p++) {
+                assertThat(result.getBoolean(p), equalTo(c < rhs.getLong(p)));
+            }
+        }
+    }
+
+    public void testGreaterThanDoubles() {
+        BlockFactory blockFactory = blockFactory();
+        int positionCount = between(1, 1000);
+        try (
+            DoubleVector lhs = doubles(blockFactory, positionCount, 1000);
+            DoubleVector rhs = doubles(blockFactory, positionCount, 1000);
+            BooleanVector result = (BooleanVector) VectorKernels.GT_DOUBLES.eval(lhs, rhs, blockFactory)
+        ) {
+            for (int p = 0; p < positionCount; p++) {
+                assertThat(result.getBoolean(p), equalTo(lhs.getDouble(p) > rhs.getDouble(p)));
+            }
+        }
+    }
+
+    public void testTruePositions() {
+        BlockFactory blockFactory = blockFactory();
+        int positionCount = between(1, 1000);
+        boolean constant = randomBoolean();
+        try (
+            BooleanVector mask = constant
+                ? blockFactory.newConstantBooleanVector(randomBoolean(), positionCount)
+                : booleans(blockFactory, positionCount)
+        ) {
+            int[] positions = VectorKernels.truePositions(mask);
+            int i = 0;
+            for (int p = 0; p < positionCount; p++) {
+                if (mask.getBoolean(p)) {
+                    assertThat(positions[i++], equalTo(p));
+                }
+            }
+            assertThat(positions.length, equalTo(i));
+        }
+    }
+
+    private LongVector longs(BlockFactory blockFactory, int positionCount) {
+        long[] values = new long[positionCount];
+        for (int p = 0; p < positionCount; p++) {
+            values[p] = randomLongBetween(-1000, 1000);
+        }
+        return blockFactory.newLongArrayVector(values, positionCount);
+    }
+
+    private DoubleVector doubles(BlockFactory blockFactory, int positionCount, double max) {
+        double[] values = new double[positionCount];
+        for (int p = 0; p < positionCount; p++) {
+            values[p] = randomDoubleBetween(-max, max, true);
+        }
+        return blockFactory.newDoubleArrayVector(values, positionCount);
+    }
+
+    private BooleanVector booleans(BlockFactory blockFactory, int positionCount) {
+        boolean[] values = new boolean[positionCount];
+        for (int p = 0; p < positionCount; p++) {
+            values[p] = randomBoolean();
+        }
+        return blockFactory.newBooleanArrayVector(values, positionCount);
+    }
+}
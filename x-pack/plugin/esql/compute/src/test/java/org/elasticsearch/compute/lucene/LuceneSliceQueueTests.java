@@ -0,0 +1,141 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.lucene;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+
+public class LuceneSliceQueueTests extends ESTestCase {
+    public void testAdaptiveSplitsLargeSegment() throws IOException {
+        int numDocs = 4 * LuceneSliceQueue.MIN_DOCS_PER_SPLIT;
+        try (Directory dir = newDirectory(); DirectoryReader reader = singleSegment(dir, numDocs)) {
+            LuceneSliceQueue queue = queue(reader, DataPartitioning.ADAPTIVE, 8);
+            assertThat(queue.totalSlices(), equalTo(1));
+            assertThat(queue.maxConcurrency(), equalTo(4));
+
+            LuceneSlice first = queue.nextSlice();
+            assertThat(first.range().remaining(), equalTo(numDocs));
+
+            LuceneSlice second = queue.nextSlice();
+            assertThat(second.leaves(), hasSize(1));
+            assertThat(second.getLeaf(0).minDoc(), equalTo(numDocs / 2));
+            assertThat(second.getLeaf(0).maxDoc(), equalTo(numDocs));
+            assertThat(first.range().maxDoc(), equalTo(numDocs / 2));
+
+            // Both halves are exactly 2 * MIN_DOCS_PER_SPLIT so either can be split once more
+            LuceneSlice third = queue.nextSlice();
+            assertThat(third.range().remaining(), equalTo(LuceneSliceQueue.MIN_DOCS_PER_SPLIT));
+            assertThat(queue.nextSlice().range().remaining(), equalTo(LuceneSliceQueue.MIN_DOCS_PER_SPLIT));
+            assertThat(queue.nextSlice(), nullValue());
+            assertThat(queue.totalSlices(), equalTo(4));
+        }
+    }
+
+    public void testAdaptiveDoesNotSplitSmallSegments() throws IOException {
+        int numDocs = between(1, 2 * LuceneSliceQueue.MIN_DOCS_PER_SPLIT - 1);
+        try (Directory dir = newDirectory(); DirectoryReader reader = singleSegment(dir, numDocs)) {
+            LuceneSliceQueue queue = queue(reader, DataPartitioning.ADAPTIVE, 8);
+            assertThat(queue.maxConcurrency(), equalTo(1));
+            assertThat(queue.nextSlice().range().remaining(), equalTo(numDocs));
+            assertThat(queue.nextSlice(), nullValue());
+        }
+    }
+
+    /**
+     * Drain the queue from many threads at once, claiming docs like
+     * {@link LuceneOperator} does, and make sure each doc is claimed once.
+     */
+    public void testAdaptiveClaimsEachDocOnce() throws Exception {
+        int numDocs = between(2, 10) * LuceneSliceQueue.MIN_DOCS_PER_SPLIT + between(0, 1000);
+        try (Directory dir = newDirectory(); DirectoryReader reader = singleSegment(dir, numDocs)) {
+            LuceneSliceQueue queue = queue(reader, DataPartitioning.ADAPTIVE, 8);
+            AtomicIntegerArray claims = new AtomicIntegerArray(numDocs);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            int numThreads = between(2, 8);
+            for (int t = 0; t < numThreads; t++) {
+                int chunk = between(1, 1000);
+                threads.add(new Thread(() -> {
+                    safeAwait(start);
+                    LuceneSlice slice;
+                    while ((slice = queue.nextSlice()) != null) {
+                        long claimed;
+                        while ((claimed = slice.range().claim(0, chunk)) != SplittableDocRange.NONE) {
+                            for (int d = SplittableDocRange.start(claimed); d < SplittableDocRange.end(claimed); d++) {
+                                claims.incrementAndGet(d);
+                            }
+                        }
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            for (int d = 0; d < numDocs; d++) {
+                assertThat("doc " + d, claims.get(d), equalTo(1));
+            }
+            assertThat(queue.totalSlices(), greaterThan(0));
+        }
+    }
+
+    public void testSplitLeavesMinDocsOnBothSides() {
+        int minDocs = between(1, 100);
+        SplittableDocRange range = new SplittableDocRange(0, 4 * minDocs);
+        long split = range.split(minDocs);
+        assertThat(SplittableDocRange.start(split), equalTo(2 * minDocs));
+        assertThat(SplittableDocRange.end(split), equalTo(4 * minDocs));
+        assertThat(range.maxDoc(), equalTo(2 * minDocs));
+
+        long claimed = range.claim(0, 1);
+        assertThat(SplittableDocRange.start(claimed), equalTo(0));
+        assertThat(SplittableDocRange.end(claimed), equalTo(1));
+        assertThat(range.split(minDocs), equalTo(SplittableDocRange.NONE));
+
+        range.close();
+        assertThat(range.remaining(), equalTo(0));
+        assertThat(range.claim(0, 1), equalTo(SplittableDocRange.NONE));
+    }
+
+    private static DirectoryReader singleSegment(Directory dir, int numDocs) throws IOException {
+        try (IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig())) {
+            for (int d = 0; d < numDocs; d++) {
+                writer.addDocument(new Document());
+            }
+            writer.forceMerge(1);
+        }
+        return DirectoryReader.open(dir);
+    }
+
+    private static LuceneSliceQueue queue(DirectoryReader reader, DataPartitioning dataPartitioning, int taskConcurrency) {
+        ShardContext ctx = new LuceneSourceOperatorTests.MockShardContext(reader, 0);
+        return LuceneSliceQueue.create(
+            List.of(ctx),
+            LuceneOperator.weightFunction(c -> new MatchAllDocsQuery(), ScoreMode.COMPLETE_NO_SCORES),
+            dataPartitioning,
+            taskConcurrency
+        );
+    }
+}
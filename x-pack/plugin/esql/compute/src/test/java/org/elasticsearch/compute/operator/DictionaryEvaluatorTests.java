@@ -0,0 +1,192 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.operator;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.compute.data.Block;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BytesRefBlock;
+import org.elasticsearch.compute.data.BytesRefVector;
+import org.elasticsearch.compute.data.IntBlock;
+import org.elasticsearch.compute.data.IntVector;
+import org.elasticsearch.compute.data.OrdinalBytesRefVector;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.EvalOperator.ExpressionEvaluator;
+import org.elasticsearch.compute.test.ComputeTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+
+public class DictionaryEvaluatorTests extends ComputeTestCase {
+    public void testBytesRefResultKeepsOrdinals() {
+        BlockFactory blockFactory = blockFactory();
+        DriverContext context = new DriverContext(blockFactory.bigArrays(), blockFactory);
+        int channel = between(0, 2);
+        Counting upper = new Counting(channel, true);
+        Page page = page(blockFactory, channel, 3, 1000);
+        try (ExpressionEvaluator eval = new DictionaryEvaluator.Factory(channel, upper).get(context)) {
+            try (BytesRefBlock result = (BytesRefBlock) eval.eval(page)) {
+                OrdinalBytesRefVector ordinals = result.asVector().asOrdinals();
+                assertThat(ordinals, notNullValue());
+                assertThat(ordinals.getDictionaryVector().getPositionCount(), equalTo(3));
+                assertThat(upper.evaluated, equalTo(3));
+                BytesRefBlock input = page.getBlock(channel);
+                for (int p = 0; p < page.getPositionCount(); p++) {
+                    String expected = input.getBytesRef(p, new BytesRef()).utf8ToString().toUpperCase(Locale.ROOT);
+                    assertThat(result.getBytesRef(p, new BytesRef()).utf8ToString(), equalTo(expected));
+                }
+            }
+        } finally {
+            page.releaseBlocks();
+        }
+    }
+
+    public void testOtherResultIsExpanded() {
+        BlockFactory blockFactory = blockFactory();
+        DriverContext context = new DriverContext(blockFactory.bigArrays(), blockFactory);
+        Counting length = new Counting(0, false);
+        Page page = page(blockFactory, 0, 3, 1000);
+        try (ExpressionEvaluator eval = new DictionaryEvaluator.Factory(0, length).get(context)) {
+            try (IntBlock result = (IntBlock) eval.eval(page)) {
+                assertThat(length.evaluated, equalTo(3));
+                BytesRefBlock input = page.getBlock(0);
+                for (int p = 0; p < page.getPositionCount(); p++) {
+                    assertThat(result.getInt(p), equalTo(input.getBytesRef(p, new BytesRef()).length));
+                }
+            }
+        } finally {
+            page.releaseBlocks();
+        }
+    }
+
+    public void testLargeDictionaryIsNotUsed() {
+        BlockFactory blockFactory = blockFactory();
+        DriverContext context = new DriverContext(blockFactory.bigArrays(), blockFactory);
+        Counting upper = new Counting(0, true);
+        Page page = page(blockFactory, 0, 10, 10);
+        try (ExpressionEvaluator eval = new DictionaryEvaluator.Factory(0, upper).get(context)) {
+            eval.eval(page).close();
+            assertThat(upper.evaluated, equalTo(10));
+        } finally {
+            page.releaseBlocks();
+        }
+    }
+
+    public void testUnreferencedValuesDoNotWarn() {
+        BlockFactory blockFactory = blockFactory();
+        DriverContext context = new DriverContext(blockFactory.bigArrays(), blockFactory);
+        Counting upper = new Counting(0, true);
+        // any warning that the test doesn't expect fails it
+        upper.warnOn = "abc";
+        upper.warnings = Warnings.createWarnings(DriverContext.WarningsMode.COLLECT, 1, 1, "TO_UPPER(kw)");
+        Page page;
+        try (
+            BytesRefVector.Builder dictionary = blockFactory.newBytesRefVectorBuilder(3);
+            IntVector.FixedBuilder ordinals = blockFactory.newIntVectorFixedBuilder(100)
+        ) {
+            dictionary.appendBytesRef(new BytesRef("abc"));
+            dictionary.appendBytesRef(new BytesRef("def"));
+            dictionary.appendBytesRef(new BytesRef("ghi"));
+            // like after a WHERE kw != "abc", the block keeps the whole dictionary but no position references "abc"
+            for (int p = 0; p < 100; p++) {
+                ordinals.appendInt(1 + p % 2);
+            }
+            page = new Page(new OrdinalBytesRefVector(ordinals.build(), dictionary.build()).asBlock());
+        }
+        try (ExpressionEvaluator eval = new DictionaryEvaluator.Factory(0, upper).get(context)) {
+            try (BytesRefBlock result = (BytesRefBlock) eval.eval(page)) {
+                assertThat(upper.seen, equalTo(List.of("def", "ghi")));
+                BytesRefBlock input = page.getBlock(0);
+                for (int p = 0; p < page.getPositionCount(); p++) {
+                    String expected = input.getBytesRef(p, new BytesRef()).utf8ToString().toUpperCase(Locale.ROOT);
+                    assertThat(result.getBytesRef(p, new BytesRef()).utf8ToString(), equalTo(expected));
+                }
+            }
+        } finally {
+            page.releaseBlocks();
+        }
+    }
+
+    private Page page(BlockFactory blockFactory, int channel, int dictionarySize, int positions) {
+        Block[] blocks = new Block[channel + 1];
+        for (int b = 0; b < channel; b++) {
+            blocks[b] = blockFactory.newConstantIntBlockWith(b, positions);
+        }
+        try (
+            BytesRefVector.Builder dictionary = blockFactory.newBytesRefVectorBuilder(dictionarySize);
+            IntVector.FixedBuilder ordinals = blockFactory.newIntVectorFixedBuilder(positions)
+        ) {
+            for (int i = 0; i < dictionarySize; i++) {
+                dictionary.appendBytesRef(new BytesRef(randomAlphaOfLength(between(1, 10)).toLowerCase(Locale.ROOT) + i));
+            }
+            for (int p = 0; p < positions; p++) {
+                ordinals.appendInt(p < dictionarySize ? p : between(0, dictionarySize - 1));
+            }
+            blocks[channel] = new OrdinalBytesRefVector(ordinals.build(), dictionary.build()).asBlock();
+        }
+        return new Page(blocks);
+    }
+
+    /**
+     * Upper cases or measures the bytes in a channel, counting how many values it saw
+     * and warning when it upper cases {@code warnOn}.
+     */
+    private static class Counting implements ExpressionEvaluator.Factory, ExpressionEvaluator {
+        private final int channel;
+        private final boolean upper;
+        private int evaluated;
+        private final List<String> seen = new ArrayList<>();
+        private String warnOn;
+        private Warnings warnings;
+        private DriverContext context;
+
+        Counting(int channel, boolean upper) {
+            this.channel = channel;
+            this.upper = upper;
+        }
+
+        @Override
+        public ExpressionEvaluator get(DriverContext context) {
+            this.context = context;
+            return this;
+        }
+
+        @Override
+        public Block eval(Page page) {
+            BytesRefBlock input = page.getBlock(channel);
+            BytesRef scratch = new BytesRef();
+            evaluated += page.getPositionCount();
+            if (upper) {
+                try (BytesRefVector.Builder builder = context.blockFactory().newBytesRefVectorBuilder(page.getPositionCount())) {
+                    for (int p = 0; p < page.getPositionCount(); p++) {
+                        String value = input.getBytesRef(p, scratch).utf8ToString();
+                        seen.add(value);
+                        if (value.equals(warnOn)) {
+                            warnings.registerException(new IllegalArgumentException("can't upper case [" + value + "]"));
+                        }
+                        builder.appendBytesRef(new BytesRef(value.toUpperCase(Locale.ROOT)));
+                    }
+                    return builder.build().asBlock();
+                }
+            }
+            try (IntBlock.Builder builder = context.blockFactory().newIntBlockBuilder(page.getPositionCount())) {
+                for (int p = 0; p < page.getPositionCount(); p++) {
+                    builder.appendInt(input.getBytesRef(p, scratch).length);
+                }
+                return builder.build();
+            }
+        }
+
+        @Override
+        public void close() {}
+    }
+}
@@ -20,14 +20,18 @@ import org.elasticsearch.compute.data.BlockFactory;
 import org.elasticsearch.compute.data.ElementType;
 import org.elasticsearch.compute.data.LongBlock;
 import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.test.CannedSourceOperator;
 import org.elasticsearch.core.Tuple;
 import org.hamcrest.Matcher;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.LongStream;
 
 import static java.util.stream.IntStream.range;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasSize;
 
 public class HashAggregationOperatorTests extends ForkingOperatorTestCase {
@@ -96,4 +100,82 @@ public class HashAggregationOperatorTests extends ForkingOperatorTestCase {
             max.assertSimpleGroup(input, maxs, i, group);
         }
     }
+
+    public void testSpillOnGroupCount() {
+        int groups = between(10, 500);
+        assertSpill(groups, between(1, groups - 1), Long.MAX_VALUE);
+    }
+
+    public void testSpillOnMemory() {
+        assertSpill(between(1_000, 5_000), Integer.MAX_VALUE, between(1, 4096));
+    }
+
+    private void assertSpill(int groups, int maxGroupsInMemory, long maxBytesInMemory) {
+        DriverContext driverContext = driverContext();
+        List<Page> input = CannedSourceOperator.collectPages(
+            new TupleBlockSourceOperator(
+                driverContext.blockFactory(),
+                LongStream.range(0, between(1_000, 10_000)).mapToObj(l -> Tuple.tuple(l % groups, randomLongBetween(-1000, 1000)))
+            )
+        );
+        Map<Long, Long> expectedSums = new HashMap<>();
+        Map<Long, Long> expectedMaxes = new HashMap<>();
+        for (Page page : input) {
+            LongBlock keys = page.getBlock(0);
+            LongBlock values = page.getBlock(1);
+            for (int p = 0; p < page.getPositionCount(); p++) {
+                expectedSums.merge(keys.getLong(p), values.getLong(p), Long::sum);
+                expectedMaxes.merge(keys.getLong(p), values.getLong(p), Math::max);
+            }
+        }
+
+        int sumChannelCount = SumLongAggregatorFunction.intermediateStateDesc().size();
+        int maxChannelCount = MaxLongAggregatorFunction.intermediateStateDesc().size();
+        HashAggregationOperator.Spill spill = new HashAggregationOperator.Spill(
+            createTempDir(),
+            between(1, 8),
+            maxGroupsInMemory,
+            maxBytesInMemory,
+            List.of(
+                new SumLongAggregatorFunctionSupplier().groupingAggregatorFactory(
+                    AggregatorMode.FINAL,
+                    range(1, 1 + sumChannelCount).boxed().toList()
+                ),
+                new MaxLongAggregatorFunctionSupplier().groupingAggregatorFactory(
+                    AggregatorMode.FINAL,
+                    range(1 + sumChannelCount, 1 + sumChannelCount + maxChannelCount).boxed().toList()
+                )
+            )
+        );
+        HashAggregationOperator operator = (HashAggregationOperator) new HashAggregationOperator.HashAggregationOperatorFactory(
+            List.of(new BlockHash.GroupSpec(0, ElementType.LONG)),
+            AggregatorMode.SINGLE,
+            List.of(
+                new SumLongAggregatorFunctionSupplier().groupingAggregatorFactory(AggregatorMode.SINGLE, List.of(1)),
+                new MaxLongAggregatorFunctionSupplier().groupingAggregatorFactory(AggregatorMode.SINGLE, List.of(1))
+            ),
+            randomPageSize(),
+            null,
+            spill
+        ).get(driverContext);
+        List<Page> results = drive(operator, input.iterator(), driverContext);
+        assertThat(operator.spills(), greaterThan(0));
+        assertThat(operator.groupsSpilled(), greaterThan(0L));
+
+        Map<Long, Long> actualSums = new HashMap<>();
+        Map<Long, Long> actualMaxes = new HashMap<>();
+        for (Page page : results) {
+            assertThat(page.getBlockCount(), equalTo(3));
+            LongBlock keys = page.getBlock(0);
+            LongBlock sums = page.getBlock(1);
+            LongBlock maxes = page.getBlock(2);
+            for (int p = 0; p < page.getPositionCount(); p++) {
+                assertNull(actualSums.put(keys.getLong(p), sums.getLong(p)));
+                actualMaxes.put(keys.getLong(p), maxes.getLong(p));
+            }
+            page.releaseBlocks();
+        }
+        assertThat(actualSums, equalTo(expectedSums));
+        assertThat(actualMaxes, equalTo(expectedMaxes));
+    }
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.operator.lookup;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.collect.Iterators;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.ElementType;
+import org.elasticsearch.compute.data.LongBlock;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.DriverContext;
+import org.elasticsearch.compute.operator.Operator;
+import org.elasticsearch.compute.operator.SequenceLongBlockSourceOperator;
+import org.elasticsearch.compute.operator.SourceOperator;
+import org.elasticsearch.compute.operator.Warnings;
+import org.elasticsearch.compute.test.CannedSourceOperator;
+import org.elasticsearch.compute.test.OperatorTestCase;
+import org.elasticsearch.core.Releasables;
+import org.elasticsearch.core.Tuple;
+import org.hamcrest.Matcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.elasticsearch.test.ListMatcher.matchesList;
+import static org.elasticsearch.test.MapMatcher.assertMap;
+import static org.hamcrest.Matchers.equalTo;
+
+public class HashJoinOperatorTests extends OperatorTestCase {
+    /**
+     * Keys in the build side. Keys divisible by 10 match twice. Keys 1 and 2
+     * also match a row with both of them as its key.
+     */
+    private static final int BUILD_KEYS = 50;
+
+    @Override
+    protected SourceOperator simpleInput(BlockFactory blockFactory, int size) {
+        return new SequenceLongBlockSourceOperator(blockFactory, LongStream.range(0, size).map(l -> randomLongBetween(0, 2 * BUILD_KEYS)));
+    }
+
+    @Override
+    protected Operator.OperatorFactory simple() {
+        return factory(null);
+    }
+
+    private Operator.OperatorFactory factory(HashJoinOperator.Spill spill) {
+        return factory(spill, new AtomicInteger());
+    }
+
+    private Operator.OperatorFactory factory(HashJoinOperator.Spill spill, AtomicInteger fetches) {
+        return new HashJoinOperator.Factory(List.of(ElementType.LONG), 0, List.of(ElementType.LONG), listener -> {
+            fetches.incrementAndGet();
+            ActionListener.completeWith(listener, () -> buildSide(blockFactory()));
+        }, driverContext -> Warnings.NOOP_WARNINGS, between(1, 1000), spill);
+    }
+
+    private static List<Page> buildSide(BlockFactory blockFactory) {
+        List<Page> pages = new ArrayList<>();
+        try (
+            LongBlock.Builder keys = blockFactory.newLongBlockBuilder(BUILD_KEYS);
+            LongBlock.Builder values = blockFactory.newLongBlockBuilder(BUILD_KEYS)
+        ) {
+            for (long k = 0; k < BUILD_KEYS; k++) {
+                keys.appendLong(k);
+                values.appendLong(k * 10);
+                if (k % 10 == 0) {
+                    keys.appendLong(k);
+                    values.appendLong(k * 10 + 1);
+                }
+            }
+            // Null keys never match
+            keys.appendNull();
+            values.appendLong(-1);
+            // Multivalued keys match each of their values, like LOOKUP JOIN's term queries
+            keys.beginPositionEntry().appendLong(1).appendLong(2).endPositionEntry();
+            values.appendLong(-2);
+            pages.add(new Page(keys.build(), values.build()));
+        }
+        return pages;
+    }
+
+    @Override
+    protected void assertSimpleOutput(List<Page> input, List<Page> results) {
+        assertOutput(expected(input), results);
+    }
+
+    private static List<Tuple<Long, Long>> expected(List<Page> input) {
+        List<Tuple<Long, Long>> expected = new ArrayList<>();
+        for (Page page : input) {
+            LongBlock keys = page.getBlock(0);
+            for (int p = 0; p < keys.getPositionCount(); p++) {
+                long key = keys.getLong(keys.getFirstValueIndex(p));
+                if (key >= BUILD_KEYS) {
+                    expected.add(Tuple.tuple(key, null));
+                    continue;
+                }
+                expected.add(Tuple.tuple(key, key * 10));
+                if (key % 10 == 0) {
+                    expected.add(Tuple.tuple(key, key * 10 + 1));
+                }
+                if (key == 1 || key == 2) {
+                    expected.add(Tuple.tuple(key, -2L));
+                }
+            }
+        }
+        return expected;
+    }
+
+    private static void assertOutput(List<Tuple<Long, Long>> expected, List<Page> results) {
+        List<Tuple<Long, Long>> actual = new ArrayList<>();
+        for (Page page : results) {
+            assertThat(page.getBlockCount(), equalTo(2));
+            LongBlock keys = page.getBlock(0);
+            LongBlock values = page.getBlock(1);
+            for (int p = 0; p < page.getPositionCount(); p++) {
+                Long value = values.isNull(p) ? null : values.getLong(values.getFirstValueIndex(p));
+                actual.add(Tuple.tuple(keys.getLong(keys.getFirstValueIndex(p)), value));
+            }
+        }
+        assertMap(actual, matchesList(expected));
+    }
+
+    public void testGrace() {
+        DriverContext driverContext = driverContext();
+        List<Page> input = CannedSourceOperator.collectPages(simpleInput(driverContext.blockFactory(), between(100, 5000)));
+        List<Tuple<Long, Long>> expected = expected(input);
+        HashJoinOperator.Spill spill = new HashJoinOperator.Spill(createTempDir(), between(2, 8), 0);
+        List<Page> results = drive(factory(spill).get(driverContext), input.iterator(), driverContext);
+        try {
+            assertOutput(expected, results);
+        } finally {
+            Releasables.closeExpectNoException(Releasables.wrap(() -> Iterators.map(results.iterator(), p -> p::releaseBlocks)));
+        }
+        assertDriverContext(driverContext);
+    }
+
+    public void testBuildSideFetchedOnce() {
+        AtomicInteger fetches = new AtomicInteger();
+        Operator.OperatorFactory factory = factory(null, fetches);
+        int drivers = between(2, 5);
+        List<DriverContext> driverContexts = new ArrayList<>(drivers);
+        List<Operator> operators = new ArrayList<>(drivers);
+        for (int d = 0; d < drivers; d++) {
+            DriverContext driverContext = driverContext();
+            driverContexts.add(driverContext);
+            operators.add(factory.get(driverContext));
+        }
+        for (int d = 0; d < drivers; d++) {
+            DriverContext driverContext = driverContexts.get(d);
+            List<Page> input = CannedSourceOperator.collectPages(simpleInput(driverContext.blockFactory(), between(1, 1000)));
+            List<Tuple<Long, Long>> expected = expected(input);
+            List<Page> results = drive(operators.get(d), input.iterator(), driverContext);
+            try {
+                assertOutput(expected, results);
+            } finally {
+                Releasables.closeExpectNoException(Releasables.wrap(() -> Iterators.map(results.iterator(), p -> p::releaseBlocks)));
+            }
+            assertDriverContext(driverContext);
+        }
+        assertThat(fetches.get(), equalTo(1));
+    }
+
+    @Override
+    protected Matcher<String> expectedDescriptionOfSimple() {
+        return equalTo("HashJoinOperator[key_channel=0, value_types=[LONG]]");
+    }
+
+    @Override
+    protected Matcher<String> expectedToStringOfSimple() {
+        return equalTo("HashJoinOperator[key_channel=0, value_types=[LONG]]");
+    }
+}
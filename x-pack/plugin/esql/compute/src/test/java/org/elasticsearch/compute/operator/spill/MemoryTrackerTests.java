@@ -0,0 +1,88 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.compute.operator.spill;
+
+import org.elasticsearch.action.support.SubscribableListener;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.common.util.MockBigArrays;
+import org.elasticsearch.common.util.MockPageCacheRecycler;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.LongBlock;
+import org.elasticsearch.compute.operator.DriverContext;
+import org.elasticsearch.compute.operator.DriverEarlyTerminationException;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class MemoryTrackerTests extends ESTestCase {
+    public void testCountsAllocations() {
+        DriverContext driverContext = driverContext();
+        MemoryTracker memory = new MemoryTracker(driverContext);
+        DriverContext tracked = memory.driverContext();
+        assertThat(memory.used(), equalTo(0L));
+
+        try (LongBlock block = tracked.blockFactory().newConstantLongBlockWith(1, between(1, 1000))) {
+            assertThat(memory.used(), greaterThan(0L));
+            assertThat(driverContext.breaker().getUsed(), equalTo(memory.used()));
+        }
+        assertThat(memory.used(), equalTo(0L));
+
+        try (LongArray array = tracked.bigArrays().newLongArray(between(1, 1000))) {
+            assertThat(memory.used(), greaterThan(0L));
+        }
+        assertThat(memory.used(), equalTo(0L));
+
+        // Allocations through the driver's own context aren't counted
+        try (LongBlock block = driverContext.blockFactory().newConstantLongBlockWith(1, between(1, 1000))) {
+            assertThat(memory.used(), equalTo(0L));
+        }
+    }
+
+    public void testBreakerStats() {
+        MemoryTracker memory = new MemoryTracker(driverContext());
+        var breakerService = memory.driverContext().bigArrays().breakerService();
+        assertThat(breakerService.stats().getAllStats().length, equalTo(1));
+        assertThat(breakerService.stats(CircuitBreaker.REQUEST).getName(), equalTo(CircuitBreaker.FIELDDATA));
+    }
+
+    public void testSharesDriverState() {
+        DriverContext driverContext = driverContext();
+        DriverContext tracked = new MemoryTracker(driverContext).driverContext();
+        assertThat(tracked.warningsMode(), equalTo(driverContext.warningsMode()));
+
+        driverContext.initializeEarlyTerminationChecker(() -> { throw new DriverEarlyTerminationException("stop"); });
+        expectThrows(DriverEarlyTerminationException.class, tracked::checkForEarlyTermination);
+
+        Releasable releasable = () -> {};
+        assertTrue(tracked.addReleasable(releasable));
+
+        SubscribableListener<Void> asyncActions = new SubscribableListener<>();
+        tracked.addAsyncAction();
+        driverContext.waitForAsyncActions(asyncActions);
+        driverContext.finish();
+        assertTrue(tracked.isFinished());
+        assertFalse(asyncActions.isDone());
+        tracked.removeAsyncAction();
+        assertTrue(asyncActions.isDone());
+        assertThat(driverContext.getSnapshot().releasables(), contains(releasable));
+    }
+
+    private DriverContext driverContext() {
+        BigArrays bigArrays = new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), new NoneCircuitBreakerService());
+        CircuitBreaker breaker = new MockBigArrays.LimitedBreaker(CircuitBreaker.REQUEST, ByteSizeValue.ofMb(100));
+        return new DriverContext(bigArrays, BlockFactory.getInstance(breaker, bigArrays));
+    }
+}
@@ -28,6 +28,7 @@ import org.elasticsearch.compute.operator.Operator;
 import org.elasticsearch.compute.operator.PageConsumerOperator;
 import org.elasticsearch.compute.operator.SourceOperator;
 import org.elasticsearch.compute.operator.TupleBlockSourceOperator;
+import org.elasticsearch.compute.operator.spill.MemoryTracker;
 import org.elasticsearch.compute.test.CannedSourceOperator;
 import org.elasticsearch.compute.test.OperatorTestCase;
 import org.elasticsearch.compute.test.SequenceLongBlockSourceOperator;
@@ -656,6 +657,45 @@ public class TopNOperatorTests extends OperatorTestCase {
         assertDriverContext(driverContext);
     }
 
+    public void testSpill() {
+        assertSpill(new TopNOperator.Spill(createTempDir(), between(1, 100), Long.MAX_VALUE, between(2, 8)));
+    }
+
+    /**
+     * Spill on the bytes the operator holds rather than on its row count.
+     */
+    public void testSpillOnBytes() {
+        assertSpill(new TopNOperator.Spill(createTempDir(), Integer.MAX_VALUE, between(0, 10_000), between(2, 8)));
+    }
+
+    /**
+     * Spill after every page but read at most two runs at once so the runs have to be merged
+     * in many passes.
+     */
+    public void testSpillMergesInPasses() {
+        assertSpill(new TopNOperator.Spill(createTempDir(), 1, 0, 2));
+    }
+
+    private void assertSpill(TopNOperator.Spill spill) {
+        int size = between(100, 5000);
+        List<Tuple<Long, Long>> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(
+                tuple(randomBoolean() ? null : randomLongBetween(0, 100), randomBoolean() ? null : randomLongBetween(-1000, 1000))
+            );
+        }
+        int limit = between(1, 2 * size);
+        List<ElementType> elementTypes = List.of(LONG, LONG);
+        List<TopNEncoder> encoders = List.of(DEFAULT_SORTABLE, DEFAULT_SORTABLE);
+        List<TopNOperator.SortOrder> sortOrders = List.of(
+            new TopNOperator.SortOrder(0, randomBoolean(), randomBoolean()),
+            new TopNOperator.SortOrder(1, randomBoolean(), randomBoolean())
+        );
+        List<Tuple<Long, Long>> expected = topNTwoColumns(driverContext(), values, limit, elementTypes, encoders, sortOrders);
+        List<Tuple<Long, Long>> actual = topNTwoColumns(driverContext(), values, limit, elementTypes, encoders, sortOrders, spill);
+        assertMap(actual, matchesList(expected));
+    }
+
     private List<Tuple<Long, Long>> topNTwoColumns(
         DriverContext driverContext,
         List<Tuple<Long, Long>> inputValues,
@@ -663,6 +703,18 @@ public class TopNOperatorTests extends OperatorTestCase {
         List<ElementType> elementTypes,
         List<TopNEncoder> encoder,
         List<TopNOperator.SortOrder> sortOrders
+    ) {
+        return topNTwoColumns(driverContext, inputValues, limit, elementTypes, encoder, sortOrders, null);
+    }
+
+    private List<Tuple<Long, Long>> topNTwoColumns(
+        DriverContext driverContext,
+        List<Tuple<Long, Long>> inputValues,
+        int limit,
+        List<ElementType> elementTypes,
+        List<TopNEncoder> encoder,
+        List<TopNOperator.SortOrder> sortOrders,
+        TopNOperator.Spill spill
     ) {
         List<Tuple<Long, Long>> outputValues = new ArrayList<>();
         try (
@@ -677,7 +729,9 @@ public class TopNOperatorTests extends OperatorTestCase {
                         elementTypes,
                         encoder,
                         sortOrders,
-                        randomPageSize()
+                        randomPageSize(),
+                        spill,
+                        spill == null ? null : new MemoryTracker(driverContext)
                     )
                 ),
                 new PageConsumerOperator(page -> {
@@ -0,0 +1,114 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.esql.action;
+
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.xpack.core.watcher.common.stats.Counters;
+import org.elasticsearch.xpack.esql.plugin.EsqlResultCache;
+
+import java.util.List;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.elasticsearch.xpack.esql.EsqlTestUtils.getValuesList;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class EsqlResultCacheIT extends AbstractEsqlIntegTestCase {
+    private static final String STATS = "FROM test | STATS total = SUM(v) BY host | SORT host";
+
+    @Override
+    protected Settings nodeSettings(int nodeOrdinal, Settings otherSettings) {
+        return Settings.builder()
+            .put(super.nodeSettings(nodeOrdinal, otherSettings))
+            .put(EsqlResultCache.SIZE_SETTING.getKey(), "10mb")
+            .build();
+    }
+
+    public void testRepeatedQueryHitsTheCache() {
+        createIndex();
+        indexDocs(0, between(10, 100));
+
+        List<List<Object>> first;
+        try (EsqlQueryResponse resp = run(STATS)) {
+            first = getValuesList(resp);
+        }
+        Counters before = stats();
+
+        try (EsqlQueryResponse resp = run(STATS)) {
+            assertThat(getValuesList(resp), equalTo(first));
+        }
+        Counters after = stats();
+        assertThat(after.get("result_cache.hits"), greaterThan(before.get("result_cache.hits")));
+        assertThat(after.get("result_cache.misses"), equalTo(before.get("result_cache.misses")));
+    }
+
+    public void testChangedShardMisses() {
+        createIndex();
+        int docs = between(10, 100);
+        indexDocs(0, docs);
+        try (EsqlQueryResponse resp = run("FROM test | STATS c = COUNT(*)")) {
+            assertThat(getValuesList(resp), equalTo(List.of(List.of((long) docs))));
+        }
+        Counters before = stats();
+
+        indexDocs(docs, 1);
+        try (EsqlQueryResponse resp = run("FROM test | STATS c = COUNT(*)")) {
+            assertThat(getValuesList(resp), equalTo(List.of(List.of(docs + 1L))));
+        }
+        assertThat(stats().get("result_cache.misses"), greaterThan(before.get("result_cache.misses")));
+    }
+
+    public void testQueriesThatReadNowAreNotShared() {
+        createIndex();
+        indexDocs(0, between(10, 100));
+        String query = "FROM test | WHERE @timestamp < NOW() | STATS c = COUNT(*)";
+        try (EsqlQueryResponse resp = run(query)) {
+            getValuesList(resp);
+        }
+        Counters before = stats();
+
+        try (EsqlQueryResponse resp = run(query)) {
+            getValuesList(resp);
+        }
+        assertThat(stats().get("result_cache.hits"), equalTo(before.get("result_cache.hits")));
+    }
+
+    private void createIndex() {
+        assertAcked(
+            client().admin()
+                .indices()
+                .prepareCreate("test")
+                .setSettings(
+                    Settings.builder()
+                        .put(IndexMetadata.SETTING_NUMBER_OF_SHARDS, between(1, 5))
+                        // Every run must read the same copy of the shard to hit its cache
+                        .put(IndexMetadata.SETTING_NUMBER_OF_REPLICAS, 0)
+                )
+                .setMapping("@timestamp", "type=date", "host", "type=keyword", "v", "type=long")
+        );
+    }
+
+    private void indexDocs(int from, int count) {
+        BulkRequestBuilder bulk = client().prepareBulk().setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
+        for (int i = from; i < from + count; i++) {
+            bulk.add(prepareIndex("test").setSource("@timestamp", "2024-01-01T00:00:00Z", "host", "host-" + (i % 3), "v", i));
+        }
+        assertFalse(bulk.get().hasFailures());
+    }
+
+    private Counters stats() {
+        Counters counters = new Counters();
+        for (EsqlResultCache cache : internalCluster().getInstances(EsqlResultCache.class)) {
+            cache.addStats(counters);
+        }
+        return counters;
+    }
+}
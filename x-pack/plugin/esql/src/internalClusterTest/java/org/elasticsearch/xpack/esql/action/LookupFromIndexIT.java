@@ -22,6 +22,7 @@ import org.elasticsearch.common.util.MockBigArrays;
 import org.elasticsearch.common.util.MockPageCacheRecycler;
 import org.elasticsearch.compute.data.Block;
 import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.ElementType;
 import org.elasticsearch.compute.data.LongBlock;
 import org.elasticsearch.compute.data.LongVector;
 import org.elasticsearch.compute.lucene.DataPartitioning;
@@ -31,7 +32,10 @@ import org.elasticsearch.compute.lucene.ValuesSourceReaderOperator;
 import org.elasticsearch.compute.operator.Driver;
 import org.elasticsearch.compute.operator.DriverContext;
 import org.elasticsearch.compute.operator.DriverRunner;
+import org.elasticsearch.compute.operator.Operator;
 import org.elasticsearch.compute.operator.PageConsumerOperator;
+import org.elasticsearch.compute.operator.Warnings;
+import org.elasticsearch.compute.operator.lookup.HashJoinOperator;
 import org.elasticsearch.compute.test.BlockTestUtils;
 import org.elasticsearch.compute.test.TestDriverFactory;
 import org.elasticsearch.core.TimeValue;
@@ -57,6 +61,7 @@ import org.elasticsearch.xpack.esql.core.expression.ReferenceAttribute;
 import org.elasticsearch.xpack.esql.core.tree.Source;
 import org.elasticsearch.xpack.esql.core.type.DataType;
 import org.elasticsearch.xpack.esql.enrich.LookupFromIndexOperator;
+import org.elasticsearch.xpack.esql.enrich.LookupFromIndexService;
 import org.elasticsearch.xpack.esql.planner.EsPhysicalOperationProviders;
 import org.elasticsearch.xpack.esql.planner.PlannerUtils;
 import org.elasticsearch.xpack.esql.plugin.EsqlPlugin;
@@ -65,6 +70,7 @@ import org.elasticsearch.xpack.esql.plugin.TransportEsqlQueryAction;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -93,6 +99,20 @@ public class LookupFromIndexIT extends AbstractEsqlIntegTestCase {
         runLookup(DataType.KEYWORD, new UsingSingleLookupTable(new String[] { "aa", "bb", "bb", "dd" }));
     }
 
+    /**
+     * LOOKUP against lookup documents with more than one key.
+     */
+    public void testMultivaluedLookupKey() throws IOException {
+        runLookup(
+            DataType.KEYWORD,
+            new UsingMultivaluedLookupTable(new Object[][] { { "aa", "bb" }, { "bb" }, { "cc", "dd", "aa" }, { "ee" } })
+        );
+    }
+
+    public void testMultivaluedLongLookupKey() throws IOException {
+        runLookup(DataType.LONG, new UsingMultivaluedLookupTable(new Object[][] { { 12L, 33L }, { 1L }, { 33L, 1L, 7L } }));
+    }
+
     interface PopulateIndices {
         void populate(int docCount, List<String> expected) throws IOException;
     }
@@ -126,6 +146,39 @@ public class LookupFromIndexIT extends AbstractEsqlIntegTestCase {
         }
     }
 
+    class UsingMultivaluedLookupTable implements PopulateIndices {
+        private final Object[][] lookupData;
+        private final List<Object> keys;
+
+        UsingMultivaluedLookupTable(Object[][] lookupData) {
+            this.lookupData = lookupData;
+            this.keys = Arrays.stream(lookupData).flatMap(Arrays::stream).distinct().toList();
+        }
+
+        @Override
+        public void populate(int docCount, List<String> expected) {
+            List<IndexRequestBuilder> docs = new ArrayList<>();
+            for (int i = 0; i < docCount; i++) {
+                Object key = keys.get(i % keys.size());
+                docs.add(client().prepareIndex("source").setSource(Map.of("key", key)));
+                for (int l = 0; l < lookupData.length; l++) {
+                    if (Arrays.asList(lookupData[l]).contains(key)) {
+                        expected.add(key + ":" + l);
+                    }
+                }
+            }
+            for (int l = 0; l < lookupData.length; l++) {
+                docs.add(client().prepareIndex("lookup").setSource(Map.of("key", List.of(lookupData[l]), "l", l)));
+            }
+            Collections.sort(expected);
+            indexRandom(true, true, docs);
+        }
+    }
+
+    /**
+     * Run the lookup with both {@link LookupFromIndexOperator} and {@link HashJoinOperator}
+     * and assert that they produce the same results.
+     */
     private void runLookup(DataType keyType, PopulateIndices populateIndices) throws IOException {
         client().admin()
             .indices()
@@ -170,7 +223,6 @@ public class LookupFromIndexIT extends AbstractEsqlIntegTestCase {
             throw new IllegalStateException("couldn't find any copy of source index");
         }
 
-        List<String> results = new CopyOnWriteArrayList<>();
         /*
          * Run the Driver.
          */
@@ -180,33 +232,6 @@ public class LookupFromIndexIT extends AbstractEsqlIntegTestCase {
                 SearchService.NO_TIMEOUT
             )
         ) {
-            ShardContext esqlContext = new EsPhysicalOperationProviders.DefaultShardContext(
-                0,
-                searchContext.getSearchExecutionContext(),
-                AliasFilter.EMPTY
-            );
-            LuceneSourceOperator.Factory source = new LuceneSourceOperator.Factory(
-                List.of(esqlContext),
-                ctx -> new MatchAllDocsQuery(),
-                DataPartitioning.SEGMENT,
-                1,
-                10000,
-                DocIdSetIterator.NO_MORE_DOCS,
-                false // no scoring
-            );
-            ValuesSourceReaderOperator.Factory reader = new ValuesSourceReaderOperator.Factory(
-                List.of(
-                    new ValuesSourceReaderOperator.FieldInfo(
-                        "key",
-                        PlannerUtils.toElementType(keyType),
-                        shard -> searchContext.getSearchExecutionContext().getFieldType("key").blockLoader(blContext())
-                    )
-                ),
-                List.of(new ValuesSourceReaderOperator.ShardContext(searchContext.getSearchExecutionContext().getIndexReader(), () -> {
-                    throw new IllegalStateException("can't load source here");
-                })),
-                0
-            );
             CancellableTask parentTask = new EsqlQueryTask(
                 1,
                 "test",
@@ -218,64 +243,123 @@ public class LookupFromIndexIT extends AbstractEsqlIntegTestCase {
                 new AsyncExecutionId("test", TaskId.EMPTY_TASK_ID),
                 TEST_REQUEST_TIMEOUT
             );
-            final String finalNodeWithShard = nodeWithShard;
+            LookupFromIndexService lookupService = internalCluster().getInstance(TransportEsqlQueryAction.class, nodeWithShard)
+                .getLookupFromIndexService();
+            Alias loaded = new Alias(Source.EMPTY, "l", new ReferenceAttribute(Source.EMPTY, "l", DataType.LONG));
             LookupFromIndexOperator.Factory lookup = new LookupFromIndexOperator.Factory(
                 "test",
                 parentTask,
                 QueryPragmas.ENRICH_MAX_WORKERS.get(Settings.EMPTY),
                 1,
-                ctx -> internalCluster().getInstance(TransportEsqlQueryAction.class, finalNodeWithShard).getLookupFromIndexService(),
+                ctx -> lookupService,
                 keyType,
                 "lookup",
                 "key",
-                List.of(new Alias(Source.EMPTY, "l", new ReferenceAttribute(Source.EMPTY, "l", DataType.LONG))),
+                List.of(loaded),
                 Source.EMPTY
             );
-            DriverContext driverContext = driverContext();
-            try (
-                var driver = TestDriverFactory.create(
-                    driverContext,
-                    source.get(driverContext),
-                    List.of(reader.get(driverContext), lookup.get(driverContext)),
-                    new PageConsumerOperator(page -> {
-                        try {
-                            Block keyBlock = page.getBlock(1);
-                            LongVector loadedBlock = page.<LongBlock>getBlock(2).asVector();
-                            for (int p = 0; p < page.getPositionCount(); p++) {
-                                List<Object> key = BlockTestUtils.valuesAtPositions(keyBlock, p, p + 1).get(0);
-                                assertThat(key, hasSize(1));
-                                Object keyValue = key.get(0);
-                                if (keyValue instanceof BytesRef b) {
-                                    keyValue = b.utf8ToString();
-                                }
-                                results.add(keyValue + ":" + loadedBlock.getLong(p));
+            List<String> lookupResults = runJoin(nodeWithShard, searchContext, keyType, lookup);
+            assertMap(lookupResults, matchesList(expected));
+
+            HashJoinOperator.Factory hashJoin = new HashJoinOperator.Factory(
+                List.of(ElementType.DOC, PlannerUtils.toElementType(keyType)),
+                1,
+                List.of(ElementType.LONG),
+                listener -> lookupService.scanAsync(
+                    "test",
+                    "lookup",
+                    new ReferenceAttribute(Source.EMPTY, "key", keyType),
+                    List.of(loaded),
+                    Source.EMPTY,
+                    parentTask,
+                    listener
+                ),
+                ctx -> Warnings.NOOP_WARNINGS,
+                1000,
+                null
+            );
+            List<String> hashJoinResults = runJoin(nodeWithShard, searchContext, keyType, hashJoin);
+            assertMap(hashJoinResults, matchesList(lookupResults));
+        }
+    }
+
+    /**
+     * Read {@code key} from every document in the {@code source} index, join it
+     * with {@code join}, and return the sorted {@code key:l} pairs.
+     */
+    private List<String> runJoin(String nodeWithShard, SearchContext searchContext, DataType keyType, Operator.OperatorFactory join) {
+        ShardContext esqlContext = new EsPhysicalOperationProviders.DefaultShardContext(
+            0,
+            searchContext.getSearchExecutionContext(),
+            AliasFilter.EMPTY
+        );
+        LuceneSourceOperator.Factory source = new LuceneSourceOperator.Factory(
+            List.of(esqlContext),
+            ctx -> new MatchAllDocsQuery(),
+            DataPartitioning.SEGMENT,
+            1,
+            10000,
+            DocIdSetIterator.NO_MORE_DOCS,
+            false // no scoring
+        );
+        ValuesSourceReaderOperator.Factory reader = new ValuesSourceReaderOperator.Factory(
+            List.of(
+                new ValuesSourceReaderOperator.FieldInfo(
+                    "key",
+                    PlannerUtils.toElementType(keyType),
+                    shard -> searchContext.getSearchExecutionContext().getFieldType("key").blockLoader(blContext())
+                )
+            ),
+            List.of(new ValuesSourceReaderOperator.ShardContext(searchContext.getSearchExecutionContext().getIndexReader(), () -> {
+                throw new IllegalStateException("can't load source here");
+            })),
+            0
+        );
+        List<String> results = new CopyOnWriteArrayList<>();
+        DriverContext driverContext = driverContext();
+        try (
+            var driver = TestDriverFactory.create(
+                driverContext,
+                source.get(driverContext),
+                List.of(reader.get(driverContext), join.get(driverContext)),
+                new PageConsumerOperator(page -> {
+                    try {
+                        Block keyBlock = page.getBlock(1);
+                        LongVector loadedBlock = page.<LongBlock>getBlock(2).asVector();
+                        for (int p = 0; p < page.getPositionCount(); p++) {
+                            List<Object> key = BlockTestUtils.valuesAtPositions(keyBlock, p, p + 1).get(0);
+                            assertThat(key, hasSize(1));
+                            Object keyValue = key.get(0);
+                            if (keyValue instanceof BytesRef b) {
+                                keyValue = b.utf8ToString();
                             }
-                        } finally {
-                            page.releaseBlocks();
+                            results.add(keyValue + ":" + loadedBlock.getLong(p));
                         }
-                    })
-                )
-            ) {
-                PlainActionFuture<Void> future = new PlainActionFuture<>();
-                ThreadPool threadPool = internalCluster().getInstance(ThreadPool.class, nodeWithShard);
-                var driverRunner = new DriverRunner(threadPool.getThreadContext()) {
-                    @Override
-                    protected void start(Driver driver, ActionListener<Void> driverListener) {
-                        Driver.start(
-                            threadPool.getThreadContext(),
-                            threadPool.executor(EsqlPlugin.ESQL_WORKER_THREAD_POOL_NAME),
-                            driver,
-                            between(1, 10000),
-                            driverListener
-                        );
+                    } finally {
+                        page.releaseBlocks();
                     }
-                };
-                driverRunner.runToCompletion(List.of(driver), future);
-                future.actionGet(TimeValue.timeValueSeconds(30));
-                assertMap(results.stream().sorted().toList(), matchesList(expected));
-            }
-            assertDriverContext(driverContext);
+                })
+            )
+        ) {
+            PlainActionFuture<Void> future = new PlainActionFuture<>();
+            ThreadPool threadPool = internalCluster().getInstance(ThreadPool.class, nodeWithShard);
+            var driverRunner = new DriverRunner(threadPool.getThreadContext()) {
+                @Override
+                protected void start(Driver driver, ActionListener<Void> driverListener) {
+                    Driver.start(
+                        threadPool.getThreadContext(),
+                        threadPool.executor(EsqlPlugin.ESQL_WORKER_THREAD_POOL_NAME),
+                        driver,
+                        between(1, 10000),
+                        driverListener
+                    );
+                }
+            };
+            driverRunner.runToCompletion(List.of(driver), future);
+            future.actionGet(TimeValue.timeValueSeconds(30));
         }
+        assertDriverContext(driverContext);
+        return results.stream().sorted().toList();
     }
 
     /**
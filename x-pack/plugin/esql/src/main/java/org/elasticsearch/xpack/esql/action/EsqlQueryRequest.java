@@ -14,6 +14,7 @@ import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.query.QueryBuilder;
@@ -53,6 +54,10 @@ public class EsqlQueryRequest extends org.elasticsearch.xpack.core.esql.action.E
     private boolean onSnapshotBuild = Build.current().isSnapshot();
     private boolean acceptedPragmaRisks = false;
     private Boolean allowPartialResults = null;
+    /**
+     * Receives the pages of the result as they are computed. Only set by the REST layer and never serialized.
+     */
+    private StreamingPages streamingPages;
 
     /**
      * "Tables" provided in the request for use with things like {@code LOOKUP}.
@@ -241,6 +246,19 @@ public class EsqlQueryRequest extends org.elasticsearch.xpack.core.esql.action.E
         return this;
     }
 
+    /**
+     * Stream the pages of the result to {@code streamingPages} as they are computed
+     * instead of collecting them into the response.
+     */
+    public void streamingPages(StreamingPages streamingPages) {
+        this.streamingPages = streamingPages;
+    }
+
+    @Nullable
+    public StreamingPages streamingPages() {
+        return streamingPages;
+    }
+
     @Override
     public Task createTask(long id, String type, String action, TaskId parentTaskId, Map<String, String> headers) {
         // Pass the query as the description
@@ -9,6 +9,8 @@ package org.elasticsearch.xpack.esql.action;
 
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.TimeValue;
@@ -29,6 +31,7 @@ import org.elasticsearch.xpack.esql.formatter.TextFormat;
 import org.elasticsearch.xpack.esql.plugin.EsqlMediaTypeParser;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
@@ -95,35 +98,86 @@ public final class EsqlResponseListener extends RestRefCountedChunkedToXContentL
      * {@link EsqlResponseListener} might be used from different threads.
      */
     private final ThreadSafeStopWatch stopWatch = new ThreadSafeStopWatch();
+    /**
+     * Pages to send as they are computed or {@code null} if the response is sent once the query finishes.
+     */
+    @Nullable
+    private final StreamingPages streamingPages;
 
     /**
      * To correctly time the execution of a request, a {@link EsqlResponseListener} must be constructed immediately before execution begins.
      */
     public EsqlResponseListener(RestChannel channel, RestRequest restRequest, EsqlQueryRequest esqlRequest) {
-        this(channel, restRequest, esqlRequest.query(), EsqlMediaTypeParser.getResponseMediaType(restRequest, esqlRequest));
+        this(
+            channel,
+            restRequest,
+            esqlRequest.query(),
+            EsqlMediaTypeParser.getResponseMediaType(restRequest, esqlRequest),
+            esqlRequest.streamingPages()
+        );
+        if (streamingPages != null) {
+            streamingPages.nextPage(ActionListener.wrap(this::sendStreamingResponse, this::onFailure));
+        }
     }
 
     /**
      * Async query GET API does not have an EsqlQueryRequest.
      */
     public EsqlResponseListener(RestChannel channel, RestRequest getRequest) {
-        this(channel, getRequest, getRequest.param("id"), EsqlMediaTypeParser.getResponseMediaType(getRequest, XContentType.JSON));
+        this(channel, getRequest, getRequest.param("id"), EsqlMediaTypeParser.getResponseMediaType(getRequest, XContentType.JSON), null);
     }
 
-    private EsqlResponseListener(RestChannel channel, RestRequest restRequest, String esqlQueryOrId, MediaType mediaType) {
+    private EsqlResponseListener(
+        RestChannel channel,
+        RestRequest restRequest,
+        String esqlQueryOrId,
+        MediaType mediaType,
+        @Nullable StreamingPages streamingPages
+    ) {
         super(channel);
         this.channel = channel;
         this.restRequest = restRequest;
         this.esqlQueryOrId = esqlQueryOrId;
         this.mediaType = mediaType;
+        this.streamingPages = streamingPages;
         checkDelimiter();
     }
 
     @Override
     protected void processResponse(EsqlQueryResponse esqlQueryResponse) throws IOException {
+        if (streamingPages != null) {
+            // The pages have already been sent, or are on their way, so all that's left is to end the stream
+            streamingPages.finish(null);
+            return;
+        }
         channel.sendResponse(buildResponse(esqlQueryResponse));
     }
 
+    /**
+     * Start sending the response as soon as the first page arrives. The rest of the
+     * pages are pulled from {@link #streamingPages} as the client reads them.
+     */
+    private void sendStreamingResponse(@Nullable Page first) {
+        List<ArrowResponse.Column> columns = streamingPages.columns()
+            .stream()
+            .map(c -> new ArrowResponse.Column(c.outputType(), c.name()))
+            .toList();
+        ArrowResponse arrowResponse = null;
+        boolean success = false;
+        try {
+            arrowResponse = first == null ? new ArrowResponse(columns, List.of()) : new ArrowResponse(columns, first, streamingPages);
+            RestResponse restResponse = RestResponse.chunked(RestStatus.OK, arrowResponse, Releasables.wrap(arrowResponse, streamingPages));
+            success = true;
+            channel.sendResponse(restResponse);
+        } finally {
+            if (success == false) {
+                // Once the response is built it owns the first page
+                Releasable page = arrowResponse == null && first != null ? first::releaseBlocks : null;
+                Releasables.closeExpectNoException(arrowResponse, page, streamingPages);
+            }
+        }
+    }
+
     private RestResponse buildResponse(EsqlQueryResponse esqlResponse) throws IOException {
         boolean success = false;
         final Releasable releasable = releasableFromResponse(esqlResponse);
@@ -184,7 +238,12 @@ public final class EsqlResponseListener extends RestRefCountedChunkedToXContentL
     public ActionListener<EsqlQueryResponse> wrapWithLogging() {
         ActionListener<EsqlQueryResponse> listener = ActionListener.wrap(this::onResponse, ex -> {
             logOnFailure(ex);
-            onFailure(ex);
+            if (streamingPages != null) {
+                // Fails the response if it hasn't started yet, otherwise aborts it part way through
+                streamingPages.finish(ex);
+            } else {
+                onFailure(ex);
+            }
         });
         if (LOGGER.isDebugEnabled() == false) {
             return listener;
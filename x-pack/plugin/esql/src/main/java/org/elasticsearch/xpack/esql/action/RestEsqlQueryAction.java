@@ -16,6 +16,8 @@ import org.elasticsearch.rest.Scope;
 import org.elasticsearch.rest.ServerlessScope;
 import org.elasticsearch.rest.action.RestCancellableNodeClient;
 import org.elasticsearch.xcontent.XContentParser;
+import org.elasticsearch.xpack.esql.arrow.ArrowFormat;
+import org.elasticsearch.xpack.esql.plugin.EsqlMediaTypeParser;
 
 import java.io.IOException;
 import java.util.List;
@@ -27,6 +29,10 @@ import static org.elasticsearch.xpack.esql.formatter.TextFormat.URL_PARAM_DELIMI
 @ServerlessScope(Scope.PUBLIC)
 public class RestEsqlQueryAction extends BaseRestHandler {
     private static final Logger LOGGER = LogManager.getLogger(RestEsqlQueryAction.class);
+    /**
+     * Send the results in Arrow format as they are computed rather than once the query has finished.
+     */
+    static final String STREAM_PARAM = "stream";
 
     @Override
     public String getName() {
@@ -55,6 +61,18 @@ public class RestEsqlQueryAction extends BaseRestHandler {
         if (partialResults != null) {
             esqlRequest.allowPartialResults(partialResults);
         }
+        if (request.paramAsBoolean(STREAM_PARAM, false)) {
+            if (esqlRequest.async()) {
+                throw new IllegalArgumentException("[" + STREAM_PARAM + "] is not supported by async queries");
+            }
+            if (esqlRequest.profile()) {
+                throw new IllegalArgumentException("[" + STREAM_PARAM + "] can't be combined with [profile]");
+            }
+            if (EsqlMediaTypeParser.getResponseMediaType(request, esqlRequest) != ArrowFormat.INSTANCE) {
+                throw new IllegalArgumentException("[" + STREAM_PARAM + "] is only supported with [format=arrow]");
+            }
+            esqlRequest.streamingPages(new StreamingPages(esqlRequest.pragmas().exchangeBufferSize()));
+        }
         LOGGER.debug("Beginning execution of ESQL query.\nQuery string: [{}]", esqlRequest.query());
 
         return channel -> {
@@ -0,0 +1,182 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.esql.action;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.SubscribableListener;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.IsBlockedResult;
+import org.elasticsearch.compute.operator.Operator;
+import org.elasticsearch.compute.operator.OutputOperator;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.tasks.TaskCancelledException;
+import org.elasticsearch.xpack.esql.arrow.ArrowResponse;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Hands the pages of the final result of a query to the REST layer as soon as
+ * the coordinating node's driver produces them, rather than collecting them all
+ * in memory first. Buffers at most {@code maxBufferedPages} pages and blocks
+ * the driver until the client has read some.
+ */
+public final class StreamingPages implements OutputOperator.BlockingPageConsumer, ArrowResponse.PageStream, Releasable {
+    private final int maxBufferedPages;
+    private final Queue<Page> pages = new ArrayDeque<>();
+
+    private volatile List<ColumnInfoImpl> columns = List.of();
+    private ActionListener<Page> pendingRead;
+    private SubscribableListener<Void> notFull;
+    private boolean finished;
+    private Exception failure;
+    private boolean closed;
+
+    public StreamingPages(int maxBufferedPages) {
+        if (maxBufferedPages < 1) {
+            throw new IllegalArgumentException("max buffered pages must be at least one; got=" + maxBufferedPages);
+        }
+        this.maxBufferedPages = maxBufferedPages;
+    }
+
+    /**
+     * Called before the plan that produces the final result starts.
+     */
+    public void start(List<ColumnInfoImpl> columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * The columns of the pages. Empty if the query finished without running a plan.
+     */
+    public List<ColumnInfoImpl> columns() {
+        return columns;
+    }
+
+    @Override
+    public void accept(Page page) {
+        ActionListener<Page> toNotify;
+        synchronized (this) {
+            if (closed) {
+                page.releaseBlocks();
+                return;
+            }
+            toNotify = pendingRead;
+            pendingRead = null;
+            if (toNotify == null) {
+                pages.add(page);
+                return;
+            }
+        }
+        toNotify.onResponse(page);
+    }
+
+    @Override
+    public IsBlockedResult waitForWriting() {
+        synchronized (this) {
+            if (pages.size() < maxBufferedPages || closed) {
+                return Operator.NOT_BLOCKED;
+            }
+            if (notFull == null) {
+                notFull = new SubscribableListener<>();
+            }
+            return new IsBlockedResult(notFull, "waiting for client to read");
+        }
+    }
+
+    @Override
+    public void nextPage(ActionListener<Page> listener) {
+        Page page;
+        SubscribableListener<Void> unblock = null;
+        Exception e;
+        synchronized (this) {
+            assert pendingRead == null : "only one read at a time";
+            page = pages.poll();
+            if (page == null && finished == false) {
+                pendingRead = listener;
+                return;
+            }
+            if (notFull != null && pages.size() < maxBufferedPages) {
+                unblock = notFull;
+                notFull = null;
+            }
+            e = failure;
+        }
+        if (unblock != null) {
+            unblock.onResponse(null);
+        }
+        if (page != null) {
+            listener.onResponse(page);
+        } else if (e != null) {
+            listener.onFailure(e);
+        } else {
+            listener.onResponse(null);
+        }
+    }
+
+    /**
+     * Signal that no more pages are coming, either because the query
+     * finished or because it failed with {@code e}.
+     */
+    public void finish(@Nullable Exception e) {
+        ActionListener<Page> toNotify;
+        synchronized (this) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            failure = e;
+            toNotify = pendingRead;
+            pendingRead = null;
+        }
+        if (toNotify != null) {
+            if (e != null) {
+                toNotify.onFailure(e);
+            } else {
+                toNotify.onResponse(null);
+            }
+        }
+    }
+
+    /**
+     * Release all buffered pages and drop any pages that arrive later. Called
+     * once the response is sent or the client goes away.
+     */
+    @Override
+    public void close() {
+        ActionListener<Page> toNotify;
+        SubscribableListener<Void> unblock;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            finished = true;
+            toNotify = pendingRead;
+            pendingRead = null;
+            unblock = notFull;
+            notFull = null;
+        }
+        Page page;
+        while ((page = pollClosed()) != null) {
+            page.releaseBlocks();
+        }
+        if (unblock != null) {
+            unblock.onResponse(null);
+        }
+        if (toNotify != null) {
+            toNotify.onFailure(new TaskCancelledException("response closed"));
+        }
+    }
+
+    private synchronized Page pollClosed() {
+        return pages.poll();
+    }
+}
@@ -124,7 +124,7 @@ public abstract class AbstractLookupService<R extends AbstractLookupService.Requ
     protected final TransportService transportService;
     protected final Executor executor;
     private final BigArrays bigArrays;
-    private final BlockFactory blockFactory;
+    protected final BlockFactory blockFactory;
     private final LocalCircuitBreaker.SizeSettings localBreakerSettings;
     /**
      * Should output {@link Page pages} be combined into a single resulting page?
@@ -231,6 +231,30 @@ public abstract class AbstractLookupService<R extends AbstractLookupService.Requ
         sendChildRequest(parentTask, outListener, targetNode, transportRequest);
     }
 
+    /**
+     * The number of live documents in the lookup {@code index} if its only shard
+     * is allocated to this node, otherwise {@code -1}.
+     */
+    public final long localShardDocCount(String index) throws IOException {
+        ClusterState clusterState = clusterService.state();
+        List<ShardIterator> shardIterators = clusterService.operationRouting()
+            .searchShards(clusterState.projectState(), new String[] { index }, Map.of(), "_local");
+        if (shardIterators.size() != 1) {
+            return -1;
+        }
+        ShardIterator shardIt = shardIterators.get(0);
+        ShardRouting shardRouting = shardIt.nextOrNull();
+        if (shardRouting == null || clusterState.nodes().getLocalNodeId().equals(shardRouting.currentNodeId()) == false) {
+            return -1;
+        }
+        LookupShardContext shardContext = lookupShardContextFactory.create(shardIt.shardId());
+        try {
+            return shardContext.context().searcher().getIndexReader().numDocs();
+        } finally {
+            Releasables.close(shardContext.release());
+        }
+    }
+
     protected void sendChildRequest(
         CancellableTask parentTask,
         ActionListener<List<Page>> delegate,
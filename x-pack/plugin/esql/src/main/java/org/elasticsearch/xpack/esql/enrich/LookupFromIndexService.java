@@ -8,6 +8,7 @@
 package org.elasticsearch.xpack.esql.enrich;
 
 import org.elasticsearch.TransportVersions;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.collect.Iterators;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -22,6 +23,7 @@ import org.elasticsearch.compute.operator.lookup.QueryList;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.index.query.SearchExecutionContext;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.tasks.CancellableTask;
 import org.elasticsearch.tasks.TaskId;
 import org.elasticsearch.transport.TransportService;
 import org.elasticsearch.xpack.esql.action.EsqlQueryAction;
@@ -30,10 +32,13 @@ import org.elasticsearch.xpack.esql.core.tree.Source;
 import org.elasticsearch.xpack.esql.core.type.DataType;
 import org.elasticsearch.xpack.esql.io.stream.PlanStreamInput;
 import org.elasticsearch.xpack.esql.io.stream.PlanStreamOutput;
+import org.elasticsearch.xpack.esql.plugin.EsqlPlugin;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.IntStream;
 
 import static java.lang.System.in;
 
@@ -74,10 +79,62 @@ public class LookupFromIndexService extends AbstractLookupService<LookupFromInde
             null,
             request.extractFields,
             request.matchField,
-            request.source
+            request.source,
+            request.scan
         );
     }
 
+    /**
+     * The current value of {@link EsqlPlugin#LOOKUP_JOIN_HASH_JOIN_MAX_DOCS}.
+     */
+    public long hashJoinMaxDocs() {
+        return clusterService.getClusterSettings().get(EsqlPlugin.LOOKUP_JOIN_HASH_JOIN_MAX_DOCS);
+    }
+
+    /**
+     * Fetch every document in the lookup {@code index} as {@code [matchField, extractFields...]}
+     * pages. Used to load the build side of a hash join in a single request when the lookup
+     * index is small.
+     */
+    public void scanAsync(
+        String sessionId,
+        String index,
+        NamedExpression matchField,
+        List<NamedExpression> extractFields,
+        Source source,
+        CancellableTask parentTask,
+        ActionListener<List<Page>> listener
+    ) {
+        List<NamedExpression> fields = new ArrayList<>(extractFields.size() + 1);
+        fields.add(matchField);
+        fields.addAll(extractFields);
+        // A single non-null position runs the match_all query once
+        Block input = blockFactory.newConstantIntBlockWith(0, 1);
+        Request request = new Request(sessionId, index, DataType.INTEGER, matchField.name(), new Page(input), fields, source, true);
+        lookupAsync(request, parentTask, ActionListener.releaseAfter(listener.map(LookupFromIndexService::dropPositions), input));
+    }
+
+    /**
+     * Drop the {@code positions} block from the front of each lookup result.
+     */
+    private static List<Page> dropPositions(List<Page> pages) {
+        List<Page> result = new ArrayList<>(pages.size());
+        boolean success = false;
+        try {
+            for (Page page : pages) {
+                int[] projection = IntStream.range(1, page.getBlockCount()).toArray();
+                result.add(page.projectBlocks(projection));
+            }
+            success = true;
+            return result;
+        } finally {
+            Releasables.closeExpectNoException(Releasables.wrap(Iterators.map(pages.iterator(), page -> page::releaseBlocks)));
+            if (success == false) {
+                Releasables.closeExpectNoException(Releasables.wrap(Iterators.map(result.iterator(), page -> page::releaseBlocks)));
+            }
+        }
+    }
+
     @Override
     protected QueryList queryList(
         TransportRequest request,
@@ -86,6 +143,9 @@ public class LookupFromIndexService extends AbstractLookupService<LookupFromInde
         DataType inputDataType,
         Warnings warnings
     ) {
+        if (request.scan) {
+            return QueryList.matchAllQueryList(inputBlock);
+        }
         return termQueryList(context.getFieldType(request.matchField), context, inputBlock, inputDataType).onlySingleValues(
             warnings,
             "LOOKUP JOIN encountered multi-value"
@@ -104,6 +164,10 @@ public class LookupFromIndexService extends AbstractLookupService<LookupFromInde
 
     public static class Request extends AbstractLookupService.Request {
         private final String matchField;
+        /**
+         * Match every document in the index rather than running term queries on {@link #matchField}.
+         */
+        private final boolean scan;
 
         Request(
             String sessionId,
@@ -113,14 +177,29 @@ public class LookupFromIndexService extends AbstractLookupService<LookupFromInde
             Page inputPage,
             List<NamedExpression> extractFields,
             Source source
+        ) {
+            this(sessionId, index, inputDataType, matchField, inputPage, extractFields, source, false);
+        }
+
+        Request(
+            String sessionId,
+            String index,
+            DataType inputDataType,
+            String matchField,
+            Page inputPage,
+            List<NamedExpression> extractFields,
+            Source source,
+            boolean scan
         ) {
             super(sessionId, index, inputDataType, inputPage, extractFields, source);
             this.matchField = matchField;
+            this.scan = scan;
         }
     }
 
     protected static class TransportRequest extends AbstractLookupService.TransportRequest {
         private final String matchField;
+        private final boolean scan;
 
         TransportRequest(
             String sessionId,
@@ -130,10 +209,12 @@ public class LookupFromIndexService extends AbstractLookupService<LookupFromInde
             Page toRelease,
             List<NamedExpression> extractFields,
             String matchField,
-            Source source
+            Source source,
+            boolean scan
         ) {
             super(sessionId, shardId, inputDataType, inputPage, toRelease, extractFields, source);
             this.matchField = matchField;
+            this.scan = scan;
         }
 
         static TransportRequest readFrom(StreamInput in, BlockFactory blockFactory) throws IOException {
@@ -158,6 +239,10 @@ public class LookupFromIndexService extends AbstractLookupService<LookupFromInde
                 String sourceText = in.readString();
                 source = new Source(source.source(), sourceText);
             }
+            boolean scan = false;
+            if (in.getTransportVersion().onOrAfter(TransportVersions.ESQL_LOOKUP_JOIN_SCAN)) {
+                scan = in.readBoolean();
+            }
             TransportRequest result = new TransportRequest(
                 sessionId,
                 shardId,
@@ -166,7 +251,8 @@ public class LookupFromIndexService extends AbstractLookupService<LookupFromInde
                 inputPage,
                 extractFields,
                 matchField,
-                source
+                source,
+                scan
             );
             result.setParentTask(parentTaskId);
             return result;
@@ -188,11 +274,18 @@ public class LookupFromIndexService extends AbstractLookupService<LookupFromInde
             if (out.getTransportVersion().onOrAfter(TransportVersions.ESQL_LOOKUP_JOIN_SOURCE_TEXT)) {
                 out.writeString(source.text());
             }
+            if (out.getTransportVersion().onOrAfter(TransportVersions.ESQL_LOOKUP_JOIN_SCAN)) {
+                out.writeBoolean(scan);
+            } else if (scan) {
+                throw new IllegalArgumentException(
+                    "scanning a lookup index is not supported on nodes before [" + TransportVersions.ESQL_LOOKUP_JOIN_SCAN + "]"
+                );
+            }
         }
 
         @Override
         protected String extraDescription() {
-            return " ,match_field=" + matchField;
+            return " ,match_field=" + matchField + (scan ? " ,scan" : "");
         }
     }
 
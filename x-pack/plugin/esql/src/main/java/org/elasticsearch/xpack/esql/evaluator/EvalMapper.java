@@ -14,19 +14,23 @@ import org.elasticsearch.compute.data.BlockUtils;
 import org.elasticsearch.compute.data.BooleanBlock;
 import org.elasticsearch.compute.data.BooleanVector;
 import org.elasticsearch.compute.data.ElementType;
+import org.elasticsearch.compute.data.OrdinalBytesRefBlock;
 import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.compute.data.Vector;
+import org.elasticsearch.compute.operator.DictionaryEvaluator;
 import org.elasticsearch.compute.operator.DriverContext;
 import org.elasticsearch.compute.operator.EvalOperator;
 import org.elasticsearch.compute.operator.EvalOperator.ExpressionEvaluator;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.xpack.esql.core.QlIllegalArgumentException;
 import org.elasticsearch.xpack.esql.core.expression.Attribute;
+import org.elasticsearch.xpack.esql.core.expression.AttributeSet;
 import org.elasticsearch.xpack.esql.core.expression.Expression;
 import org.elasticsearch.xpack.esql.core.expression.FoldContext;
 import org.elasticsearch.xpack.esql.core.expression.Literal;
 import org.elasticsearch.xpack.esql.evaluator.mapper.EvaluatorMapper;
 import org.elasticsearch.xpack.esql.evaluator.mapper.ExpressionMapper;
+import org.elasticsearch.xpack.esql.expression.function.fulltext.FullTextFunction;
 import org.elasticsearch.xpack.esql.expression.predicate.logical.BinaryLogic;
 import org.elasticsearch.xpack.esql.expression.predicate.logical.Not;
 import org.elasticsearch.xpack.esql.expression.predicate.nulls.IsNotNull;
@@ -34,6 +38,7 @@ import org.elasticsearch.xpack.esql.expression.predicate.nulls.IsNull;
 import org.elasticsearch.xpack.esql.expression.predicate.operator.comparison.InsensitiveEqualsMapper;
 import org.elasticsearch.xpack.esql.planner.EsPhysicalOperationProviders.ShardContext;
 import org.elasticsearch.xpack.esql.planner.Layout;
+import org.elasticsearch.xpack.esql.planner.PlannerUtils;
 
 import java.util.List;
 
@@ -96,6 +101,36 @@ public final class EvalMapper {
         throw new QlIllegalArgumentException("Unsupported expression [{}]", exp);
     }
 
+    /**
+     * Provides an ExpressionEvaluator factory for the top level of an {@code EVAL} or {@code WHERE}. Expressions
+     * that only read a single string field run once per distinct value when that field's values are
+     * {@link OrdinalBytesRefBlock dictionary encoded}, like keywords loaded from doc values often are.
+     */
+    public static ExpressionEvaluator.Factory toDictionaryAwareEvaluator(
+        FoldContext foldCtx,
+        Expression exp,
+        Layout layout,
+        List<ShardContext> shardContexts
+    ) {
+        ExpressionEvaluator.Factory evaluator = toEvaluator(foldCtx, exp, layout, shardContexts);
+        if (exp instanceof Attribute || exp.foldable() || exp.anyMatch(e -> e instanceof FullTextFunction)) {
+            return evaluator;
+        }
+        AttributeSet references = exp.references();
+        if (references.size() != 1) {
+            return evaluator;
+        }
+        Attribute field = references.iterator().next();
+        if (PlannerUtils.toElementType(field.dataType()) != ElementType.BYTES_REF) {
+            return evaluator;
+        }
+        Layout.ChannelAndType channel = layout.get(field.id());
+        if (channel == null) {
+            return evaluator;
+        }
+        return new DictionaryEvaluator.Factory(channel.channel(), evaluator);
+    }
+
     static class BooleanLogic extends ExpressionMapper<BinaryLogic> {
         @Override
         public ExpressionEvaluator.Factory map(FoldContext foldCtx, BinaryLogic bc, Layout layout, List<ShardContext> shardContexts) {
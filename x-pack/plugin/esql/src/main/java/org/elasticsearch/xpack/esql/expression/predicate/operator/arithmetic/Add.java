@@ -12,6 +12,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.time.DateUtils;
 import org.elasticsearch.compute.ann.Evaluator;
 import org.elasticsearch.compute.ann.Fixed;
+import org.elasticsearch.compute.data.VectorKernels;
 import org.elasticsearch.xpack.esql.core.expression.Expression;
 import org.elasticsearch.xpack.esql.core.tree.NodeInfo;
 import org.elasticsearch.xpack.esql.core.tree.Source;
@@ -59,9 +60,9 @@ public class Add extends DateTimeArithmeticOperation implements BinaryComparison
             right,
             ADD,
             AddIntsEvaluator.Factory::new,
-            AddLongsEvaluator.Factory::new,
+            BinaryEvaluator.vectorized(VectorKernels.ADD_LONGS, AddLongsEvaluator.Factory::new),
             AddUnsignedLongsEvaluator.Factory::new,
-            AddDoublesEvaluator.Factory::new,
+            BinaryEvaluator.vectorized(VectorKernels.ADD_DOUBLES, AddDoublesEvaluator.Factory::new),
             AddDatetimesEvaluator.Factory::new,
             AddDateNanosEvaluator.Factory::new
         );
@@ -72,9 +73,9 @@ public class Add extends DateTimeArithmeticOperation implements BinaryComparison
             in,
             ADD,
             AddIntsEvaluator.Factory::new,
-            AddLongsEvaluator.Factory::new,
+            BinaryEvaluator.vectorized(VectorKernels.ADD_LONGS, AddLongsEvaluator.Factory::new),
             AddUnsignedLongsEvaluator.Factory::new,
-            AddDoublesEvaluator.Factory::new,
+            BinaryEvaluator.vectorized(VectorKernels.ADD_DOUBLES, AddDoublesEvaluator.Factory::new),
             AddDatetimesEvaluator.Factory::new,
             AddDateNanosEvaluator.Factory::new
         );
@@ -9,7 +9,9 @@ package org.elasticsearch.xpack.esql.expression.predicate.operator.arithmetic;
 
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.compute.data.VectorKernels;
 import org.elasticsearch.compute.operator.EvalOperator.ExpressionEvaluator;
+import org.elasticsearch.compute.operator.VectorizedEvaluator;
 import org.elasticsearch.xpack.esql.EsqlIllegalArgumentException;
 import org.elasticsearch.xpack.esql.core.expression.Expression;
 import org.elasticsearch.xpack.esql.core.expression.FoldContext;
@@ -74,6 +76,13 @@ public abstract class EsqlArithmeticOperation extends ArithmeticOperation implem
     @FunctionalInterface
     public interface BinaryEvaluator {
         ExpressionEvaluator.Factory apply(Source source, ExpressionEvaluator.Factory lhs, ExpressionEvaluator.Factory rhs);
+
+        /**
+         * Run {@code kernel} over whole vectors when it can and fall back to {@code evaluator} otherwise.
+         */
+        static BinaryEvaluator vectorized(VectorKernels.Kernel kernel, BinaryEvaluator evaluator) {
+            return (source, lhs, rhs) -> new VectorizedEvaluator.Factory(kernel, lhs, rhs, (l, r) -> evaluator.apply(source, l, r));
+        }
     }
 
     private final BinaryEvaluator ints;
@@ -10,6 +10,7 @@ package org.elasticsearch.xpack.esql.expression.predicate.operator.arithmetic;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.compute.ann.Evaluator;
+import org.elasticsearch.compute.data.VectorKernels;
 import org.elasticsearch.xpack.esql.core.expression.Expression;
 import org.elasticsearch.xpack.esql.core.tree.NodeInfo;
 import org.elasticsearch.xpack.esql.core.tree.Source;
@@ -44,7 +45,7 @@ public class Mul extends EsqlArithmeticOperation implements BinaryComparisonInve
             MulIntsEvaluator.Factory::new,
             MulLongsEvaluator.Factory::new,
             MulUnsignedLongsEvaluator.Factory::new,
-            MulDoublesEvaluator.Factory::new
+            BinaryEvaluator.vectorized(VectorKernels.MUL_DOUBLES, MulDoublesEvaluator.Factory::new)
         );
     }
 
@@ -55,7 +56,7 @@ public class Mul extends EsqlArithmeticOperation implements BinaryComparisonInve
             MulIntsEvaluator.Factory::new,
             MulLongsEvaluator.Factory::new,
             MulUnsignedLongsEvaluator.Factory::new,
-            MulDoublesEvaluator.Factory::new
+            BinaryEvaluator.vectorized(VectorKernels.MUL_DOUBLES, MulDoublesEvaluator.Factory::new)
         );
     }
 
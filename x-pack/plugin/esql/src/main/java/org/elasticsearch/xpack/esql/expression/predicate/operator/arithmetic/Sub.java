@@ -12,6 +12,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.time.DateUtils;
 import org.elasticsearch.compute.ann.Evaluator;
 import org.elasticsearch.compute.ann.Fixed;
+import org.elasticsearch.compute.data.VectorKernels;
 import org.elasticsearch.xpack.esql.core.expression.Expression;
 import org.elasticsearch.xpack.esql.core.tree.NodeInfo;
 import org.elasticsearch.xpack.esql.core.tree.Source;
@@ -62,9 +63,9 @@ public class Sub extends DateTimeArithmeticOperation implements BinaryComparison
             right,
             SUB,
             SubIntsEvaluator.Factory::new,
-            SubLongsEvaluator.Factory::new,
+            BinaryEvaluator.vectorized(VectorKernels.SUB_LONGS, SubLongsEvaluator.Factory::new),
             SubUnsignedLongsEvaluator.Factory::new,
-            SubDoublesEvaluator.Factory::new,
+            BinaryEvaluator.vectorized(VectorKernels.SUB_DOUBLES, SubDoublesEvaluator.Factory::new),
             SubDatetimesEvaluator.Factory::new,
             SubDateNanosEvaluator.Factory::new
         );
@@ -75,9 +76,9 @@ public class Sub extends DateTimeArithmeticOperation implements BinaryComparison
             in,
             SUB,
             SubIntsEvaluator.Factory::new,
-            SubLongsEvaluator.Factory::new,
+            BinaryEvaluator.vectorized(VectorKernels.SUB_LONGS, SubLongsEvaluator.Factory::new),
             SubUnsignedLongsEvaluator.Factory::new,
-            SubDoublesEvaluator.Factory::new,
+            BinaryEvaluator.vectorized(VectorKernels.SUB_DOUBLES, SubDoublesEvaluator.Factory::new),
             SubDatetimesEvaluator.Factory::new,
             SubDateNanosEvaluator.Factory::new
         );
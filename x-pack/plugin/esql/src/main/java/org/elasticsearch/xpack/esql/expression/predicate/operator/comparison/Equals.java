@@ -10,6 +10,7 @@ import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.time.DateUtils;
 import org.elasticsearch.compute.ann.Evaluator;
+import org.elasticsearch.compute.data.VectorKernels;
 import org.elasticsearch.xpack.esql.core.expression.Expression;
 import org.elasticsearch.xpack.esql.core.expression.predicate.Negatable;
 import org.elasticsearch.xpack.esql.core.tree.NodeInfo;
@@ -29,14 +30,23 @@ public class Equals extends EsqlBinaryComparison implements Negatable<EsqlBinary
         EsqlBinaryComparison::readFrom
     );
 
+    private static final EsqlArithmeticOperation.BinaryEvaluator LONGS = EsqlArithmeticOperation.BinaryEvaluator.vectorized(
+        VectorKernels.EQ_LONGS,
+        EqualsLongsEvaluator.Factory::new
+    );
+    private static final EsqlArithmeticOperation.BinaryEvaluator DOUBLES = EsqlArithmeticOperation.BinaryEvaluator.vectorized(
+        VectorKernels.EQ_DOUBLES,
+        EqualsDoublesEvaluator.Factory::new
+    );
+
     private static final Map<DataType, EsqlArithmeticOperation.BinaryEvaluator> evaluatorMap = Map.ofEntries(
         Map.entry(DataType.BOOLEAN, EqualsBoolsEvaluator.Factory::new),
         Map.entry(DataType.INTEGER, EqualsIntsEvaluator.Factory::new),
-        Map.entry(DataType.DOUBLE, EqualsDoublesEvaluator.Factory::new),
-        Map.entry(DataType.LONG, EqualsLongsEvaluator.Factory::new),
-        Map.entry(DataType.UNSIGNED_LONG, EqualsLongsEvaluator.Factory::new),
-        Map.entry(DataType.DATETIME, EqualsLongsEvaluator.Factory::new),
-        Map.entry(DataType.DATE_NANOS, EqualsLongsEvaluator.Factory::new),
+        Map.entry(DataType.DOUBLE, DOUBLES),
+        Map.entry(DataType.LONG, LONGS),
+        Map.entry(DataType.UNSIGNED_LONG, LONGS),
+        Map.entry(DataType.DATETIME, LONGS),
+        Map.entry(DataType.DATE_NANOS, LONGS),
         Map.entry(DataType.GEO_POINT, EqualsGeometriesEvaluator.Factory::new),
         Map.entry(DataType.CARTESIAN_POINT, EqualsGeometriesEvaluator.Factory::new),
         Map.entry(DataType.GEO_SHAPE, EqualsGeometriesEvaluator.Factory::new),
@@ -10,6 +10,7 @@ import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.time.DateUtils;
 import org.elasticsearch.compute.ann.Evaluator;
+import org.elasticsearch.compute.data.VectorKernels;
 import org.elasticsearch.xpack.esql.core.expression.Expression;
 import org.elasticsearch.xpack.esql.core.expression.predicate.Negatable;
 import org.elasticsearch.xpack.esql.core.tree.NodeInfo;
@@ -29,13 +30,22 @@ public class LessThan extends EsqlBinaryComparison implements Negatable<EsqlBina
         EsqlBinaryComparison::readFrom
     );
 
+    private static final EsqlArithmeticOperation.BinaryEvaluator LONGS = EsqlArithmeticOperation.BinaryEvaluator.vectorized(
+        VectorKernels.LT_LONGS,
+        LessThanLongsEvaluator.Factory::new
+    );
+    private static final EsqlArithmeticOperation.BinaryEvaluator DOUBLES = EsqlArithmeticOperation.BinaryEvaluator.vectorized(
+        VectorKernels.LT_DOUBLES,
+        LessThanDoublesEvaluator.Factory::new
+    );
+
     private static final Map<DataType, EsqlArithmeticOperation.BinaryEvaluator> evaluatorMap = Map.ofEntries(
         Map.entry(DataType.INTEGER, LessThanIntsEvaluator.Factory::new),
-        Map.entry(DataType.DOUBLE, LessThanDoublesEvaluator.Factory::new),
-        Map.entry(DataType.LONG, LessThanLongsEvaluator.Factory::new),
-        Map.entry(DataType.UNSIGNED_LONG, LessThanLongsEvaluator.Factory::new),
-        Map.entry(DataType.DATETIME, LessThanLongsEvaluator.Factory::new),
-        Map.entry(DataType.DATE_NANOS, LessThanLongsEvaluator.Factory::new),
+        Map.entry(DataType.DOUBLE, DOUBLES),
+        Map.entry(DataType.LONG, LONGS),
+        Map.entry(DataType.UNSIGNED_LONG, LONGS),
+        Map.entry(DataType.DATETIME, LONGS),
+        Map.entry(DataType.DATE_NANOS, LONGS),
         Map.entry(DataType.KEYWORD, LessThanKeywordsEvaluator.Factory::new),
         Map.entry(DataType.TEXT, LessThanKeywordsEvaluator.Factory::new),
         Map.entry(DataType.SEMANTIC_TEXT, LessThanKeywordsEvaluator.Factory::new),
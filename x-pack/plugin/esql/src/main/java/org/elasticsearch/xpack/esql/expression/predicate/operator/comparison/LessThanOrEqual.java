@@ -10,6 +10,7 @@ import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.time.DateUtils;
 import org.elasticsearch.compute.ann.Evaluator;
+import org.elasticsearch.compute.data.VectorKernels;
 import org.elasticsearch.xpack.esql.core.expression.Expression;
 import org.elasticsearch.xpack.esql.core.expression.predicate.Negatable;
 import org.elasticsearch.xpack.esql.core.tree.NodeInfo;
@@ -29,13 +30,22 @@ public class LessThanOrEqual extends EsqlBinaryComparison implements Negatable<E
         EsqlBinaryComparison::readFrom
     );
 
+    private static final EsqlArithmeticOperation.BinaryEvaluator LONGS = EsqlArithmeticOperation.BinaryEvaluator.vectorized(
+        VectorKernels.LTE_LONGS,
+        LessThanOrEqualLongsEvaluator.Factory::new
+    );
+    private static final EsqlArithmeticOperation.BinaryEvaluator DOUBLES = EsqlArithmeticOperation.BinaryEvaluator.vectorized(
+        VectorKernels.LTE_DOUBLES,
+        LessThanOrEqualDoublesEvaluator.Factory::new
+    );
+
     private static final Map<DataType, EsqlArithmeticOperation.BinaryEvaluator> evaluatorMap = Map.ofEntries(
         Map.entry(DataType.INTEGER, LessThanOrEqualIntsEvaluator.Factory::new),
-        Map.entry(DataType.DOUBLE, LessThanOrEqualDoublesEvaluator.Factory::new),
-        Map.entry(DataType.LONG, LessThanOrEqualLongsEvaluator.Factory::new),
-        Map.entry(DataType.UNSIGNED_LONG, LessThanOrEqualLongsEvaluator.Factory::new),
-        Map.entry(DataType.DATETIME, LessThanOrEqualLongsEvaluator.Factory::new),
-        Map.entry(DataType.DATE_NANOS, LessThanOrEqualLongsEvaluator.Factory::new),
+        Map.entry(DataType.DOUBLE, DOUBLES),
+        Map.entry(DataType.LONG, LONGS),
+        Map.entry(DataType.UNSIGNED_LONG, LONGS),
+        Map.entry(DataType.DATETIME, LONGS),
+        Map.entry(DataType.DATE_NANOS, LONGS),
         Map.entry(DataType.KEYWORD, LessThanOrEqualKeywordsEvaluator.Factory::new),
         Map.entry(DataType.TEXT, LessThanOrEqualKeywordsEvaluator.Factory::new),
         Map.entry(DataType.SEMANTIC_TEXT, LessThanOrEqualKeywordsEvaluator.Factory::new),
@@ -22,6 +22,7 @@ import org.elasticsearch.core.Nullable;
 import org.elasticsearch.xpack.esql.Column;
 import org.elasticsearch.xpack.esql.core.InvalidArgumentException;
 import org.elasticsearch.xpack.esql.core.expression.Attribute;
+import org.elasticsearch.xpack.esql.core.expression.NameId;
 import org.elasticsearch.xpack.esql.core.type.EsField;
 import org.elasticsearch.xpack.esql.session.Configuration;
 
@@ -76,12 +77,29 @@ public final class PlanStreamOutput extends StreamOutput implements org.elastics
 
     private final int maxSerializedAttributes;
 
+    /**
+     * Maps each {@link NameId} to the order it was first written or {@code null}
+     * if we should write the ids themselves.
+     */
+    @Nullable
+    private final Map<Long, Long> canonicalNameIds;
+
     public PlanStreamOutput(StreamOutput delegate, @Nullable Configuration configuration) throws IOException {
         this(delegate, configuration, MAX_SERIALIZED_ATTRIBUTES);
     }
 
     public PlanStreamOutput(StreamOutput delegate, @Nullable Configuration configuration, int maxSerializedAttributes) throws IOException {
+        this(delegate, configuration, maxSerializedAttributes, false);
+    }
+
+    private PlanStreamOutput(
+        StreamOutput delegate,
+        @Nullable Configuration configuration,
+        int maxSerializedAttributes,
+        boolean canonicalNameIds
+    ) throws IOException {
         this.delegate = delegate;
+        this.canonicalNameIds = canonicalNameIds ? new HashMap<>() : null;
         if (configuration != null) {
             for (Map.Entry<String, Map<String, Column>> table : configuration.tables().entrySet()) {
                 for (Map.Entry<String, Column> column : table.getValue().entrySet()) {
@@ -92,6 +110,16 @@ public final class PlanStreamOutput extends StreamOutput implements org.elastics
         this.maxSerializedAttributes = maxSerializedAttributes;
     }
 
+    /**
+     * Build a {@linkplain PlanStreamOutput} that writes each {@link NameId} as the order
+     * it was first seen rather than its actual value. {@linkplain NameId}s are unique
+     * per query so this is how we get the same bytes when the same query is planned
+     * twice, making the output useful as a cache key. The output can't be read back.
+     */
+    public static PlanStreamOutput withCanonicalNameIds(StreamOutput delegate, Configuration configuration) throws IOException {
+        return new PlanStreamOutput(delegate, configuration, MAX_SERIALIZED_ATTRIBUTES, true);
+    }
+
     @Override
     public void writeByte(byte b) throws IOException {
         delegate.writeByte(b);
@@ -107,6 +135,19 @@ public final class PlanStreamOutput extends StreamOutput implements org.elastics
         delegate.flush();
     }
 
+    @Override
+    public long mapNameId(long id) {
+        if (canonicalNameIds == null) {
+            return id;
+        }
+        Long mapped = canonicalNameIds.get(id);
+        if (mapped == null) {
+            mapped = (long) canonicalNameIds.size();
+            canonicalNameIds.put(id, mapped);
+        }
+        return mapped;
+    }
+
     @Override
     public void close() throws IOException {
         delegate.close();
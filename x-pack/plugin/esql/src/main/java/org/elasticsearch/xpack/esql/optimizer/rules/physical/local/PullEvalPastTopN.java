@@ -0,0 +1,87 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.esql.optimizer.rules.physical.local;
+
+import org.elasticsearch.xpack.esql.core.expression.Alias;
+import org.elasticsearch.xpack.esql.core.expression.AttributeSet;
+import org.elasticsearch.xpack.esql.optimizer.PhysicalOptimizerRules;
+import org.elasticsearch.xpack.esql.plan.physical.EvalExec;
+import org.elasticsearch.xpack.esql.plan.physical.PhysicalPlan;
+import org.elasticsearch.xpack.esql.plan.physical.TopNExec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Late materialization for queries like {@code FROM index | EVAL x = CONCAT(a, b) | SORT @timestamp | LIMIT 100}
+ * when the {@code SORT} can't be pushed to Lucene. Evaluating {@code x} before the {@code TopN} loads {@code a}
+ * and {@code b} for every matching document only to throw almost all of them away. Instead, we move every
+ * {@link EvalExec} field that the sort doesn't need above the {@link TopNExec}. The {@code TopN} then only
+ * carries the doc ids and the sort keys and {@link InsertFieldExtraction} loads the remaining fields for the
+ * surviving rows. This has to run before {@link InsertFieldExtraction} and after {@link PushTopNToSource}
+ * has had a chance to push the sort to Lucene.
+ * <p>
+ *     Fewer rows are evaluated so expressions that emit warnings emit them only for the rows that survive.
+ * </p>
+ */
+public class PullEvalPastTopN extends PhysicalOptimizerRules.OptimizerRule<TopNExec> {
+    @Override
+    protected PhysicalPlan rule(TopNExec topN) {
+        List<EvalExec> pulled = new ArrayList<>();
+        PhysicalPlan child = topN.child();
+        while (child instanceof EvalExec eval) {
+            Split split = split(topN, eval);
+            if (split.above.isEmpty()) {
+                break;
+            }
+            pulled.add(eval);
+            if (split.below.isEmpty() == false) {
+                child = new EvalExec(eval.source(), eval.child(), split.below);
+                break;
+            }
+            child = eval.child();
+        }
+        if (pulled.isEmpty()) {
+            return topN;
+        }
+        // Evals that were further from the TopN may define fields the closer ones need so they go first
+        PhysicalPlan plan = topN.replaceChild(child);
+        for (int i = pulled.size() - 1; i >= 0; i--) {
+            EvalExec eval = pulled.get(i);
+            plan = new EvalExec(eval.source(), plan, split(topN, eval).above);
+        }
+        return plan;
+    }
+
+    private record Split(List<Alias> below, List<Alias> above) {}
+
+    /**
+     * Split the fields of {@code eval} into those the {@code TopN} needs, directly or through another
+     * field, and those that can be evaluated afterwards. Fields may only refer to fields defined before
+     * them so walking backwards sees every field that needs a given field before the field itself.
+     */
+    private static Split split(TopNExec topN, EvalExec eval) {
+        AttributeSet needed = topN.references();
+        List<Alias> below = new ArrayList<>();
+        List<Alias> above = new ArrayList<>();
+        List<Alias> fields = eval.fields();
+        for (int i = fields.size() - 1; i >= 0; i--) {
+            Alias field = fields.get(i);
+            if (needed.contains(field.toAttribute())) {
+                below.add(field);
+                needed = needed.combine(field.references());
+            } else {
+                above.add(field);
+            }
+        }
+        Collections.reverse(below);
+        Collections.reverse(above);
+        return new Split(below, above);
+    }
+}
@@ -16,6 +16,7 @@ import org.elasticsearch.compute.aggregation.blockhash.BlockHash;
 import org.elasticsearch.compute.data.ElementType;
 import org.elasticsearch.compute.operator.AggregationOperator;
 import org.elasticsearch.compute.operator.EvalOperator;
+import org.elasticsearch.compute.operator.HashAggregationOperator;
 import org.elasticsearch.compute.operator.HashAggregationOperator.HashAggregationOperatorFactory;
 import org.elasticsearch.compute.operator.Operator;
 import org.elasticsearch.index.analysis.AnalysisRegistry;
@@ -37,11 +38,13 @@ import org.elasticsearch.xpack.esql.plan.physical.ExchangeSourceExec;
 import org.elasticsearch.xpack.esql.planner.LocalExecutionPlanner.LocalExecutionPlannerContext;
 import org.elasticsearch.xpack.esql.planner.LocalExecutionPlanner.PhysicalOperation;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 import static java.util.Collections.emptyList;
 
@@ -164,13 +167,17 @@ public abstract class AbstractPhysicalOperationProviders implements PhysicalOper
             }
 
             // create the agg factories
+            List<AggFunctionSupplierContext> suppliers = new ArrayList<>();
             aggregatesToFactory(
                 aggregates,
                 aggregatorMode,
                 sourceLayout,
                 true, // grouping
-                s -> aggregatorFactories.add(s.supplier.groupingAggregatorFactory(s.mode, s.channels))
+                suppliers::add
             );
+            for (AggFunctionSupplierContext s : suppliers) {
+                aggregatorFactories.add(s.supplier.groupingAggregatorFactory(s.mode, s.channels));
+            }
 
             if (groupSpecs.size() == 1 && groupSpecs.get(0).channel == null) {
                 operatorFactory = ordinalGroupingOperatorFactory(
@@ -182,12 +189,19 @@ public abstract class AbstractPhysicalOperationProviders implements PhysicalOper
                     context
                 );
             } else {
+                Path spillDirectory = context.spillDirectory();
                 operatorFactory = new HashAggregationOperatorFactory(
                     groupSpecs.stream().map(GroupSpec::toHashGroupSpec).toList(),
                     aggregatorMode,
                     aggregatorFactories,
                     context.pageSize(aggregateExec.estimatedRowSize()),
-                    analysisRegistry
+                    analysisRegistry,
+                    spillDirectory == null
+                        ? null
+                        : HashAggregationOperator.Spill.withDefaults(
+                            spillDirectory,
+                            spillMergeAggregators(suppliers, groupSpecs.size(), aggregatorMode)
+                        )
                 );
             }
         }
@@ -251,6 +265,27 @@ public abstract class AbstractPhysicalOperationProviders implements PhysicalOper
         return attrs;
     }
 
+    /**
+     * Aggregators that merge the intermediate state the {@link HashAggregationOperator} spills to disk.
+     * Spilled pages contain the grouping keys followed by each aggregator's intermediate state.
+     */
+    private static List<GroupingAggregator.Factory> spillMergeAggregators(
+        List<AggFunctionSupplierContext> suppliers,
+        int keyCount,
+        AggregatorMode aggregatorMode
+    ) {
+        AggregatorMode mergeMode = aggregatorMode.isOutputPartial() ? AggregatorMode.INTERMEDIATE : AggregatorMode.FINAL;
+        List<GroupingAggregator.Factory> mergeAggregators = new ArrayList<>(suppliers.size());
+        int channel = keyCount;
+        for (AggFunctionSupplierContext s : suppliers) {
+            int intermediateChannels = s.supplier.groupingIntermediateStateDesc().size();
+            List<Integer> channels = IntStream.range(channel, channel + intermediateChannels).boxed().toList();
+            mergeAggregators.add(s.supplier.groupingAggregatorFactory(mergeMode, channels));
+            channel += intermediateChannels;
+        }
+        return mergeAggregators;
+    }
+
     private record AggFunctionSupplierContext(AggregatorFunctionSupplier supplier, List<Integer> channels, AggregatorMode mode) {}
 
     private void aggregatesToFactory(
@@ -42,13 +42,16 @@ import org.elasticsearch.compute.operator.SinkOperator.SinkOperatorFactory;
 import org.elasticsearch.compute.operator.SourceOperator;
 import org.elasticsearch.compute.operator.SourceOperator.SourceOperatorFactory;
 import org.elasticsearch.compute.operator.StringExtractOperator;
+import org.elasticsearch.compute.operator.Warnings;
 import org.elasticsearch.compute.operator.exchange.ExchangeSink;
 import org.elasticsearch.compute.operator.exchange.ExchangeSinkOperator.ExchangeSinkOperatorFactory;
 import org.elasticsearch.compute.operator.exchange.ExchangeSource;
 import org.elasticsearch.compute.operator.exchange.ExchangeSourceOperator.ExchangeSourceOperatorFactory;
+import org.elasticsearch.compute.operator.lookup.HashJoinOperator;
 import org.elasticsearch.compute.operator.topn.TopNEncoder;
 import org.elasticsearch.compute.operator.topn.TopNOperator;
 import org.elasticsearch.compute.operator.topn.TopNOperator.TopNOperatorFactory;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.index.IndexMode;
@@ -109,6 +112,9 @@ import org.elasticsearch.xpack.esql.plugin.QueryPragmas;
 import org.elasticsearch.xpack.esql.score.ScoreMapper;
 import org.elasticsearch.xpack.esql.session.Configuration;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -139,6 +145,7 @@ public class LocalExecutionPlanner {
     private final BigArrays bigArrays;
     private final BlockFactory blockFactory;
     private final Settings settings;
+    private final Path tmpDir;
     private final Configuration configuration;
     private final Supplier<ExchangeSource> exchangeSourceSupplier;
     private final Supplier<ExchangeSink> exchangeSinkSupplier;
@@ -154,6 +161,7 @@ public class LocalExecutionPlanner {
         BigArrays bigArrays,
         BlockFactory blockFactory,
         Settings settings,
+        Path tmpDir,
         Configuration configuration,
         Supplier<ExchangeSource> exchangeSourceSupplier,
         Supplier<ExchangeSink> exchangeSinkSupplier,
@@ -169,6 +177,7 @@ public class LocalExecutionPlanner {
         this.bigArrays = bigArrays;
         this.blockFactory = blockFactory;
         this.settings = settings;
+        this.tmpDir = tmpDir;
         this.configuration = configuration;
         this.exchangeSourceSupplier = exchangeSourceSupplier;
         this.exchangeSinkSupplier = exchangeSinkSupplier;
@@ -189,7 +198,8 @@ public class LocalExecutionPlanner {
             bigArrays,
             blockFactory,
             foldCtx,
-            settings
+            settings,
+            tmpDir
         );
 
         // workaround for https://github.com/elastic/elasticsearch/issues/99782
@@ -444,8 +454,16 @@ public class LocalExecutionPlanner {
         } else {
             throw new EsqlIllegalArgumentException("limit only supported with literal values");
         }
+        Path spillDirectory = context.spillDirectory();
         return source.with(
-            new TopNOperatorFactory(limit, asList(elementTypes), asList(encoders), orders, context.pageSize(rowSize)),
+            new TopNOperatorFactory(
+                limit,
+                asList(elementTypes),
+                asList(encoders),
+                orders,
+                context.pageSize(rowSize),
+                spillDirectory == null ? null : TopNOperator.Spill.withDefaults(spillDirectory)
+            ),
             source.layout
         );
     }
@@ -454,7 +472,7 @@ public class LocalExecutionPlanner {
         PhysicalOperation source = plan(eval.child(), context);
 
         for (Alias field : eval.fields()) {
-            var evaluatorSupplier = EvalMapper.toEvaluator(context.foldCtx(), field.child(), source.layout);
+            var evaluatorSupplier = EvalMapper.toDictionaryAwareEvaluator(context.foldCtx(), field.child(), source.layout, List.of());
             Layout.Builder layout = source.layout.builder();
             layout.append(field.toAttribute());
             source = source.with(new EvalOperatorFactory(evaluatorSupplier), layout.build());
@@ -647,6 +665,10 @@ public class LocalExecutionPlanner {
         // TODO support multiple match fields, and support more than equality predicates
         MatchConfig matchConfig = matchFields.getFirst();
 
+        FieldAttribute right = (FieldAttribute) join.rightFields().getFirst();
+        if (useHashJoin(indexName, matchConfig, right, context)) {
+            return source.with(planHashLookupJoin(join, source, indexName, matchConfig, right, layout, context), layout);
+        }
         return source.with(
             new LookupFromIndexOperator.Factory(
                 sessionId,
@@ -664,6 +686,79 @@ public class LocalExecutionPlanner {
         );
     }
 
+    /**
+     * Should we load the whole lookup index and hash join against it? That's only
+     * worth it if the index is small and its only shard is on this node. And we
+     * only support it if the keys on both sides are loaded into the same kind of block.
+     */
+    private boolean useHashJoin(String indexName, MatchConfig matchConfig, FieldAttribute right, LocalExecutionPlannerContext context) {
+        if (lookupFromIndexService == null) {
+            return false;
+        }
+        long maxDocs = context.queryPragmas().lookupJoinHashMaxDocs();
+        if (maxDocs < 0) {
+            maxDocs = lookupFromIndexService.hashJoinMaxDocs();
+        }
+        if (maxDocs == 0) {
+            return false;
+        }
+        if (PlannerUtils.toElementType(matchConfig.type()) != PlannerUtils.toElementType(right.exactAttribute().dataType())) {
+            return false;
+        }
+        long docCount;
+        try {
+            docCount = lookupFromIndexService.localShardDocCount(indexName);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to count documents in [" + indexName + "]", e);
+        }
+        return docCount >= 0 && docCount <= maxDocs;
+    }
+
+    private OperatorFactory planHashLookupJoin(
+        LookupJoinExec join,
+        PhysicalOperation source,
+        String indexName,
+        MatchConfig matchConfig,
+        FieldAttribute right,
+        Layout layout,
+        LocalExecutionPlannerContext context
+    ) {
+        List<ElementType> inputTypes = new ArrayList<>(source.layout.numberOfChannels());
+        boolean hasDocs = false;
+        for (Layout.ChannelSet channel : source.layout.inverse()) {
+            inputTypes.add(PlannerUtils.toElementType(channel.type()));
+            hasDocs |= channel.type() == DataType.DOC_DATA_TYPE;
+        }
+        List<NamedExpression> loadFields = join.addedFields().stream().map(f -> (NamedExpression) f).toList();
+        List<ElementType> valueTypes = loadFields.stream().map(f -> PlannerUtils.toElementType(f.dataType())).toList();
+        Source joinSource = join.source();
+        // Doc blocks can't be written to disk so don't bother spilling if the left side has them
+        Path spillDirectory = hasDocs ? null : context.spillDirectory();
+        return new HashJoinOperator.Factory(
+            inputTypes,
+            matchConfig.channel(),
+            valueTypes,
+            listener -> lookupFromIndexService.scanAsync(
+                sessionId,
+                indexName,
+                right.exactAttribute(),
+                loadFields,
+                joinSource,
+                parentTask,
+                listener
+            ),
+            ctx -> Warnings.createWarnings(
+                ctx.warningsMode(),
+                joinSource.source().getLineNumber(),
+                joinSource.source().getColumnNumber(),
+                joinSource.text()
+            ),
+            // Lookup joins don't carry a row size estimate so assume every column is a long
+            context.pageSize(layout.numberOfChannels() * Long.BYTES),
+            spillDirectory == null ? null : HashJoinOperator.Spill.withDefaults(spillDirectory)
+        );
+    }
+
     private record MatchConfig(String fieldName, int channel, DataType type) {
         private MatchConfig(FieldAttribute match, Layout.ChannelAndType input) {
             // Note, this handles TEXT fields with KEYWORD subfields
@@ -726,7 +821,9 @@ public class LocalExecutionPlanner {
         PhysicalOperation source = plan(filter.child(), context);
         // TODO: should this be extracted into a separate eval block?
         PhysicalOperation filterOperation = source.with(
-            new FilterOperatorFactory(EvalMapper.toEvaluator(context.foldCtx(), filter.condition(), source.layout, shardContexts)),
+            new FilterOperatorFactory(
+                EvalMapper.toDictionaryAwareEvaluator(context.foldCtx(), filter.condition(), source.layout, shardContexts)
+            ),
             source.layout
         );
         if (PlannerUtils.usesScoring(filter)) {
@@ -895,7 +992,8 @@ public class LocalExecutionPlanner {
         BigArrays bigArrays,
         BlockFactory blockFactory,
         FoldContext foldCtx,
-        Settings settings
+        Settings settings,
+        Path tmpDir
     ) {
         void addDriverFactory(DriverFactory driverFactory) {
             driverFactories.add(driverFactory);
@@ -917,6 +1015,14 @@ public class LocalExecutionPlanner {
             }
             return Math.max(SourceOperator.MIN_TARGET_PAGE_SIZE, SourceOperator.TARGET_PAGE_SIZE / estimatedRowSize);
         }
+
+        /**
+         * The directory operators may spill to or {@code null} if this query shouldn't spill.
+         */
+        @Nullable
+        Path spillDirectory() {
+            return queryPragmas.spillToDisk() ? tmpDir : null;
+        }
     }
 
     record DriverSupplier(
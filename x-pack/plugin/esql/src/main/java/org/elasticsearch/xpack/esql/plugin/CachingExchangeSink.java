@@ -0,0 +1,100 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.esql.plugin;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.IsBlockedResult;
+import org.elasticsearch.compute.operator.exchange.ExchangeSink;
+import org.elasticsearch.core.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link ExchangeSink} that serializes a copy of each {@link Page} before
+ * passing it along so the pages can be stored in the {@link EsqlResultCache}.
+ */
+final class CachingExchangeSink implements ExchangeSink {
+    private final ExchangeSink delegate;
+    private final Captured captured;
+
+    CachingExchangeSink(ExchangeSink delegate, Captured captured) {
+        this.delegate = delegate;
+        this.captured = captured;
+    }
+
+    @Override
+    public void addPage(Page page) {
+        captured.add(page);
+        delegate.addPage(page);
+    }
+
+    @Override
+    public void finish() {
+        delegate.finish();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return delegate.isFinished();
+    }
+
+    @Override
+    public void addCompletionListener(ActionListener<Void> listener) {
+        delegate.addCompletionListener(listener);
+    }
+
+    @Override
+    public IsBlockedResult waitForWriting() {
+        return delegate.waitForWriting();
+    }
+
+    /**
+     * The pages captured by all sinks for a single shard. Stops capturing once
+     * the pages get larger than {@code maxBytes} because they'd never fit in the cache.
+     */
+    static final class Captured {
+        private final long maxBytes;
+        private List<BytesReference> pages = new ArrayList<>();
+        private long bytes;
+
+        Captured(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized void add(Page page) {
+            if (pages == null) {
+                return;
+            }
+            try (BytesStreamOutput out = new BytesStreamOutput()) {
+                page.writeTo(out);
+                bytes += out.size();
+                if (bytes > maxBytes) {
+                    pages = null;
+                    return;
+                }
+                pages.add(out.bytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException("failed to serialize page for the result cache", e);
+            }
+        }
+
+        /**
+         * The captured pages or {@code null} if they grew too large to cache.
+         */
+        @Nullable
+        synchronized List<BytesReference> pages() {
+            return pages;
+        }
+    }
+}
@@ -21,10 +21,12 @@ import org.elasticsearch.compute.operator.DriverProfile;
 import org.elasticsearch.compute.operator.DriverTaskRunner;
 import org.elasticsearch.compute.operator.exchange.ExchangeService;
 import org.elasticsearch.compute.operator.exchange.ExchangeSourceHandler;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.core.Tuple;
+import org.elasticsearch.env.Environment;
 import org.elasticsearch.index.query.SearchExecutionContext;
 import org.elasticsearch.logging.LogManager;
 import org.elasticsearch.logging.Logger;
@@ -40,8 +42,10 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.RemoteClusterAware;
 import org.elasticsearch.transport.TransportRequest;
 import org.elasticsearch.transport.TransportService;
+import org.elasticsearch.xpack.esql.action.ColumnInfoImpl;
 import org.elasticsearch.xpack.esql.action.EsqlExecutionInfo;
 import org.elasticsearch.xpack.esql.action.EsqlQueryAction;
+import org.elasticsearch.xpack.esql.action.StreamingPages;
 import org.elasticsearch.xpack.esql.core.expression.Attribute;
 import org.elasticsearch.xpack.esql.core.expression.FoldContext;
 import org.elasticsearch.xpack.esql.enrich.EnrichLookupService;
@@ -123,6 +127,7 @@ public class ComputeService {
     private final EnrichLookupService enrichLookupService;
     private final LookupFromIndexService lookupFromIndexService;
     private final ClusterService clusterService;
+    private final Environment environment;
     private final AtomicLong childSessionIdGenerator = new AtomicLong();
     private final DataNodeComputeHandler dataNodeComputeHandler;
     private final ClusterComputeHandler clusterComputeHandler;
@@ -136,9 +141,11 @@ public class ComputeService {
         EnrichLookupService enrichLookupService,
         LookupFromIndexService lookupFromIndexService,
         ClusterService clusterService,
+        Environment environment,
         ThreadPool threadPool,
         BigArrays bigArrays,
-        BlockFactory blockFactory
+        BlockFactory blockFactory,
+        EsqlResultCache resultCache
     ) {
         this.searchService = searchService;
         this.transportService = transportService;
@@ -149,7 +156,16 @@ public class ComputeService {
         this.enrichLookupService = enrichLookupService;
         this.lookupFromIndexService = lookupFromIndexService;
         this.clusterService = clusterService;
-        this.dataNodeComputeHandler = new DataNodeComputeHandler(this, searchService, transportService, exchangeService, esqlExecutor);
+        this.environment = environment;
+        this.dataNodeComputeHandler = new DataNodeComputeHandler(
+            this,
+            searchService,
+            transportService,
+            exchangeService,
+            esqlExecutor,
+            blockFactory,
+            resultCache
+        );
         this.clusterComputeHandler = new ClusterComputeHandler(
             this,
             exchangeService,
@@ -167,6 +183,7 @@ public class ComputeService {
         Configuration configuration,
         FoldContext foldContext,
         EsqlExecutionInfo execInfo,
+        @Nullable StreamingPages streamingPages,
         ActionListener<Result> listener
     ) {
         Tuple<PhysicalPlan, PhysicalPlan> coordinatorAndDataNodePlan = PlannerUtils.breakPlanBetweenCoordinatorAndDataNode(
@@ -178,7 +195,16 @@ public class ComputeService {
             collectedPages.forEach(p -> Releasables.closeExpectNoException(p::releaseBlocks));
             l.onFailure(e);
         });
-        PhysicalPlan coordinatorPlan = new OutputExec(coordinatorAndDataNodePlan.v1(), collectedPages::add);
+        PhysicalPlan coordinatorPlan;
+        if (streamingPages == null) {
+            coordinatorPlan = new OutputExec(coordinatorAndDataNodePlan.v1(), collectedPages::add);
+        } else {
+            // The pages go straight to the client so the result we return has none
+            streamingPages.start(
+                physicalPlan.output().stream().map(c -> new ColumnInfoImpl(c.name(), c.dataType().outputType())).toList()
+            );
+            coordinatorPlan = new OutputExec(coordinatorAndDataNodePlan.v1(), streamingPages);
+        }
         PhysicalPlan dataNodePlan = coordinatorAndDataNodePlan.v2();
         if (dataNodePlan != null && dataNodePlan instanceof ExchangeSinkExec == false) {
             assert false : "expected data node plan starts with an ExchangeSink; got " + dataNodePlan;
@@ -379,7 +405,16 @@ public class ComputeService {
     }
 
     void runCompute(CancellableTask task, ComputeContext context, PhysicalPlan plan, ActionListener<List<DriverProfile>> listener) {
-        listener = ActionListener.runBefore(listener, () -> Releasables.close(context.searchContexts()));
+        List<SearchExecutionContext> searchExecutionContexts = new ArrayList<>(context.searchContexts().size());
+        listener = ActionListener.runBefore(listener, () -> {
+            // Copy anything that made the query uncacheable, like reading "now", back onto the shard's own context
+            for (int i = 0; i < searchExecutionContexts.size(); i++) {
+                if (searchExecutionContexts.get(i).isCacheable() == false) {
+                    context.searchContexts().get(i).getSearchExecutionContext().disableCache();
+                }
+            }
+            Releasables.close(context.searchContexts());
+        });
         List<EsPhysicalOperationProviders.ShardContext> contexts = new ArrayList<>(context.searchContexts().size());
         for (int i = 0; i < context.searchContexts().size(); i++) {
             SearchContext searchContext = context.searchContexts().get(i);
@@ -392,6 +427,7 @@ public class ComputeService {
 
                 }
             };
+            searchExecutionContexts.add(searchExecutionContext);
             contexts.add(
                 new EsPhysicalOperationProviders.DefaultShardContext(i, searchExecutionContext, searchContext.request().getAliasFilter())
             );
@@ -405,6 +441,7 @@ public class ComputeService {
                 bigArrays,
                 blockFactory,
                 clusterService.getSettings(),
+                environment.tmpDir(),
                 context.configuration(),
                 context.exchangeSourceSupplier(),
                 context.exchangeSinkSupplier(),
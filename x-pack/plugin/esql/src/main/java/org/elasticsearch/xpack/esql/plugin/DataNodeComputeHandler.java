@@ -14,14 +14,21 @@ import org.elasticsearch.action.ActionListenerResponseHandler;
 import org.elasticsearch.action.ActionRunnable;
 import org.elasticsearch.action.OriginalIndices;
 import org.elasticsearch.action.support.ChannelActionListener;
+import org.elasticsearch.action.support.RefCountingListener;
 import org.elasticsearch.action.support.RefCountingRunnable;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.BlockStreamInput;
+import org.elasticsearch.compute.data.Page;
 import org.elasticsearch.compute.operator.DriverProfile;
 import org.elasticsearch.compute.operator.exchange.ExchangeService;
 import org.elasticsearch.compute.operator.exchange.ExchangeSink;
 import org.elasticsearch.compute.operator.exchange.ExchangeSinkHandler;
 import org.elasticsearch.compute.operator.exchange.ExchangeSourceHandler;
 import org.elasticsearch.core.IOUtils;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.IndexShard;
@@ -39,12 +46,21 @@ import org.elasticsearch.transport.TransportChannel;
 import org.elasticsearch.transport.TransportRequestHandler;
 import org.elasticsearch.transport.TransportRequestOptions;
 import org.elasticsearch.transport.TransportService;
+import org.elasticsearch.xpack.core.security.authz.AuthorizationServiceField;
+import org.elasticsearch.xpack.core.security.authz.accesscontrol.IndicesAccessControl;
 import org.elasticsearch.xpack.esql.core.expression.FoldContext;
+import org.elasticsearch.xpack.esql.io.stream.PlanStreamOutput;
+import org.elasticsearch.xpack.esql.plan.logical.Aggregate;
+import org.elasticsearch.xpack.esql.plan.logical.Enrich;
+import org.elasticsearch.xpack.esql.plan.logical.join.Join;
 import org.elasticsearch.xpack.esql.plan.physical.ExchangeSinkExec;
+import org.elasticsearch.xpack.esql.plan.physical.FragmentExec;
 import org.elasticsearch.xpack.esql.plan.physical.PhysicalPlan;
 import org.elasticsearch.xpack.esql.planner.PlannerUtils;
 import org.elasticsearch.xpack.esql.session.Configuration;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -69,13 +85,17 @@ final class DataNodeComputeHandler implements TransportRequestHandler<DataNodeRe
     private final ExchangeService exchangeService;
     private final Executor esqlExecutor;
     private final ThreadPool threadPool;
+    private final BlockFactory blockFactory;
+    private final EsqlResultCache resultCache;
 
     DataNodeComputeHandler(
         ComputeService computeService,
         SearchService searchService,
         TransportService transportService,
         ExchangeService exchangeService,
-        Executor esqlExecutor
+        Executor esqlExecutor,
+        BlockFactory blockFactory,
+        EsqlResultCache resultCache
     ) {
         this.computeService = computeService;
         this.searchService = searchService;
@@ -83,6 +103,8 @@ final class DataNodeComputeHandler implements TransportRequestHandler<DataNodeRe
         this.exchangeService = exchangeService;
         this.esqlExecutor = esqlExecutor;
         this.threadPool = transportService.getThreadPool();
+        this.blockFactory = blockFactory;
+        this.resultCache = resultCache;
         transportService.registerRequestHandler(ComputeService.DATA_ACTION_NAME, esqlExecutor, DataNodeRequest::new, this);
     }
 
@@ -214,6 +236,14 @@ final class DataNodeComputeHandler implements TransportRequestHandler<DataNodeRe
         private final ExchangeSink blockingSink; // block until we have completed on all shards or the coordinator has enough data
         private final boolean failFastOnShardFailure;
         private final Map<ShardId, Exception> shardLevelFailures;
+        /**
+         * The plan serialized as a key for the {@link EsqlResultCache} or {@code null}
+         * if we can't cache this request's results.
+         */
+        @Nullable
+        private final BytesReference cacheablePlan;
+        @Nullable
+        private final IndicesAccessControl indicesAccessControl;
 
         DataNodeRequestExecutor(
             DataNodeRequest request,
@@ -232,6 +262,8 @@ final class DataNodeComputeHandler implements TransportRequestHandler<DataNodeRe
             this.failFastOnShardFailure = failFastOnShardFailure;
             this.shardLevelFailures = shardLevelFailures;
             this.blockingSink = exchangeSink.createExchangeSink(() -> {});
+            this.cacheablePlan = planCacheKey(request);
+            this.indicesAccessControl = threadPool.getThreadContext().getTransient(AuthorizationServiceField.INDICES_PERMISSIONS_KEY);
         }
 
         void start() {
@@ -283,6 +315,10 @@ final class DataNodeComputeHandler implements TransportRequestHandler<DataNodeRe
                     batchListener.onResponse(List.of());
                     return;
                 }
+                if (cacheablePlan != null) {
+                    runBatchWithCache(searchContexts, pagesProduced, batchListener);
+                    return;
+                }
                 var computeContext = new ComputeContext(
                     sessionId,
                     "data",
@@ -297,6 +333,99 @@ final class DataNodeComputeHandler implements TransportRequestHandler<DataNodeRe
             }, batchListener::onFailure));
         }
 
+        /**
+         * Run each shard on its own so we can cache its output, serving shards from
+         * the {@link EsqlResultCache} when we can.
+         */
+        private void runBatchWithCache(
+            List<SearchContext> searchContexts,
+            AtomicInteger pagesProduced,
+            ActionListener<List<DriverProfile>> listener
+        ) {
+            final List<EsqlResultCache.Key> keys = new ArrayList<>(searchContexts.size());
+            try {
+                for (SearchContext searchContext : searchContexts) {
+                    keys.add(cacheKey(searchContext));
+                }
+            } catch (Exception e) {
+                IOUtils.closeWhileHandlingException(searchContexts);
+                listener.onFailure(e);
+                return;
+            }
+            // We don't cache profiled requests so there aren't any profiles to return
+            try (RefCountingListener refs = new RefCountingListener(listener.map(ignored -> List.of()))) {
+                for (int i = 0; i < searchContexts.size(); i++) {
+                    SearchContext searchContext = searchContexts.get(i);
+                    EsqlResultCache.Key key = keys.get(i);
+                    List<BytesReference> cached = key == null ? null : resultCache.get(key);
+                    if (cached == null) {
+                        runShard(searchContext, key, pagesProduced, refs.acquire());
+                        continue;
+                    }
+                    ActionListener.run(refs.acquire(), l -> {
+                        searchContext.close();
+                        sendCachedPages(cached, pagesProduced);
+                        l.onResponse(null);
+                    });
+                }
+            }
+        }
+
+        @Nullable
+        private EsqlResultCache.Key cacheKey(SearchContext searchContext) throws IOException {
+            if (EsqlResultCache.sharedBetweenUsers(indicesAccessControl, searchContext.indexShard().shardId().getIndexName()) == false) {
+                // The reader is filtered for this user so the results can't be shared
+                return null;
+            }
+            try (BytesStreamOutput out = new BytesStreamOutput()) {
+                out.writeBytesReference(cacheablePlan);
+                searchContext.request().getAliasFilter().writeTo(out);
+                return resultCache.key(searchContext, out.bytes());
+            }
+        }
+
+        private void runShard(
+            SearchContext searchContext,
+            @Nullable EsqlResultCache.Key key,
+            AtomicInteger pagesProduced,
+            ActionListener<Void> listener
+        ) {
+            final var captured = key == null ? null : new CachingExchangeSink.Captured(resultCache.maxEntryBytes());
+            var computeContext = new ComputeContext(
+                request.sessionId(),
+                "data",
+                request.clusterAlias(),
+                List.of(searchContext),
+                request.configuration(),
+                request.configuration().newFoldContext(),
+                null,
+                () -> {
+                    ExchangeSink sink = exchangeSink.createExchangeSink(pagesProduced::incrementAndGet);
+                    return captured == null ? sink : new CachingExchangeSink(sink, captured);
+                }
+            );
+            computeService.runCompute(parentTask, computeContext, request.plan(), listener.map(ignored -> {
+                // Don't cache if we stopped early
+                if (captured != null && exchangeSink.isFinished() == false && captured.pages() != null) {
+                    resultCache.put(key, searchContext.getSearchExecutionContext(), captured.pages());
+                }
+                return null;
+            }));
+        }
+
+        private void sendCachedPages(List<BytesReference> pages, AtomicInteger pagesProduced) throws IOException {
+            ExchangeSink sink = exchangeSink.createExchangeSink(pagesProduced::incrementAndGet);
+            try {
+                for (BytesReference bytes : pages) {
+                    try (BlockStreamInput in = new BlockStreamInput(bytes.streamInput(), blockFactory)) {
+                        sink.addPage(new Page(in));
+                    }
+                }
+            } finally {
+                sink.finish();
+            }
+        }
+
         private void acquireSearchContexts(
             String clusterAlias,
             List<ShardId> shardIds,
@@ -485,6 +614,35 @@ final class DataNodeComputeHandler implements TransportRequestHandler<DataNodeRe
         runComputeOnDataNode((CancellableTask) task, sessionId, reductionPlan, request, failFastOnShardFailures, listener);
     }
 
+    /**
+     * The plan serialized as a key for the {@link EsqlResultCache} or {@code null} if
+     * we can't cache its results. We only cache aggregations because their output is
+     * small and doesn't depend on how many rows the coordinator wants. And we don't
+     * cache anything that reads from enrich or lookup indices because those can change
+     * without changing the shard we're reading.
+     */
+    @Nullable
+    private BytesReference planCacheKey(DataNodeRequest request) {
+        if (resultCache.enabled() == false || request.configuration().profile()) {
+            return null;
+        }
+        if (request.plan() instanceof ExchangeSinkExec sink == false
+            || sink.child() instanceof FragmentExec fragment == false
+            || fragment.fragment() instanceof Aggregate == false
+            || fragment.fragment().anyMatch(p -> p instanceof Enrich || p instanceof Join)) {
+            return null;
+        }
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            PlanStreamOutput planOut = PlanStreamOutput.withCanonicalNameIds(out, request.configuration());
+            planOut.writeNamedWriteable(request.plan());
+            out.writeZoneId(request.configuration().zoneId());
+            out.writeString(request.configuration().locale().toLanguageTag());
+            return out.bytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to serialize plan", e);
+        }
+    }
+
     static boolean supportShardLevelRetryFailure(TransportVersion transportVersion) {
         return transportVersion.onOrAfter(TransportVersions.ESQL_RETRY_ON_SHARD_LEVEL_FAILURE)
             || transportVersion.isPatchFrom(TransportVersions.ESQL_RETRY_ON_SHARD_LEVEL_FAILURE_BACKPORT_8_19);
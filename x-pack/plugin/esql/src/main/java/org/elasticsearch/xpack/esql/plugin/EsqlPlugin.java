@@ -153,6 +153,18 @@ public class EsqlPlugin extends Plugin implements ActionPlugin {
         Setting.Property.Dynamic
     );
 
+    /**
+     * The largest lookup index, in documents, that {@code LOOKUP JOIN} will load into memory
+     * and hash join against. {@code 0}, the default, always looks up per page.
+     */
+    public static final Setting<Long> LOOKUP_JOIN_HASH_JOIN_MAX_DOCS = Setting.longSetting(
+        "esql.lookup_join.hash_join_max_docs",
+        0,
+        0,
+        Setting.Property.NodeScope,
+        Setting.Property.Dynamic
+    );
+
     @Override
     public Collection<?> createComponents(PluginServices services) {
         CircuitBreaker circuitBreaker = services.indicesService().getBigArrays().breakerService().getBreaker("request");
@@ -178,7 +190,8 @@ public class EsqlPlugin extends Plugin implements ActionPlugin {
                 ThreadPool.Names.SEARCH,
                 blockFactoryProvider.blockFactory()
             ),
-            blockFactoryProvider
+            blockFactoryProvider,
+            new EsqlResultCache(settings)
         );
     }
 
@@ -215,7 +228,9 @@ public class EsqlPlugin extends Plugin implements ActionPlugin {
             ESQL_QUERYLOG_THRESHOLD_DEBUG_SETTING,
             ESQL_QUERYLOG_THRESHOLD_INFO_SETTING,
             ESQL_QUERYLOG_THRESHOLD_WARN_SETTING,
-            ESQL_QUERYLOG_INCLUDE_USER_SETTING
+            ESQL_QUERYLOG_INCLUDE_USER_SETTING,
+            LOOKUP_JOIN_HASH_JOIN_MAX_DOCS,
+            EsqlResultCache.SIZE_SETTING
         );
     }
 
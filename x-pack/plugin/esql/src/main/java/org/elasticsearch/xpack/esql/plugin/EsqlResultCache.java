@@ -0,0 +1,200 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.esql.plugin;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.index.mapper.MappingLookup;
+import org.elasticsearch.index.query.SearchExecutionContext;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.ESCacheHelper;
+import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.xpack.core.security.authz.accesscontrol.IndicesAccessControl;
+import org.elasticsearch.xpack.core.watcher.common.stats.Counters;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Caches the output of data node fragments, per shard, so dashboards that re-run the
+ * same aggregation against indices that aren't changing don't recompute it every time.
+ * Like the {@link org.elasticsearch.indices.IndicesRequestCache}, entries are keyed on
+ * the shard's reader cache key, so a refresh that changes the shard can never hit a stale
+ * entry. Entries for closed readers are dropped as soon as the reader closes.
+ * <p>
+ *     Pages are stored serialized. That's compact and lets each hit deserialize fresh
+ *     blocks that are tracked by the circuit breaker like any other page.
+ * </p>
+ */
+public final class EsqlResultCache {
+    /**
+     * The maximum size of the cache. Defaults to {@code 0}, disabling the cache.
+     */
+    public static final Setting<ByteSizeValue> SIZE_SETTING = Setting.memorySizeSetting(
+        "esql.result_cache.size",
+        "0b",
+        Setting.Property.NodeScope
+    );
+
+    @Nullable
+    private final Cache<Key, Value> cache;
+    private final long maxEntryBytes;
+    private final Set<Object> registeredClosedListeners = ConcurrentCollections.newConcurrentSet();
+
+    public EsqlResultCache(Settings settings) {
+        long size = SIZE_SETTING.get(settings).getBytes();
+        // A single entry can't push out more than a tenth of the cache
+        this.maxEntryBytes = size / 10;
+        this.cache = size <= 0
+            ? null
+            : CacheBuilder.<Key, Value>builder().setMaximumWeight(size).weigher((k, v) -> k.ramBytesUsed() + v.ramBytesUsed()).build();
+    }
+
+    /**
+     * Is the cache enabled on this node?
+     */
+    public boolean enabled() {
+        return cache != null;
+    }
+
+    /**
+     * The largest result, in serialized bytes, that we'll bother caching.
+     */
+    long maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /**
+     * Can results read from {@code index} be shared between users? They can't if document or
+     * field level security filters the reader for the user running the query.
+     */
+    static boolean sharedBetweenUsers(@Nullable IndicesAccessControl indicesAccessControl, String index) {
+        if (indicesAccessControl == null) {
+            return true;
+        }
+        IndicesAccessControl.IndexAccessControl indexAccessControl = indicesAccessControl.getIndexPermissions(index);
+        return indexAccessControl == null
+            || (indexAccessControl.getFieldPermissions().hasFieldLevelSecurity() == false
+                && indexAccessControl.getDocumentPermissions().hasDocumentLevelPermissions() == false);
+    }
+
+    /**
+     * Build the key for running {@code plan} against a shard or {@code null} if its results can't be cached.
+     */
+    @Nullable
+    Key key(SearchContext context, BytesReference plan) {
+        return key(
+            context.shardTarget().getShardId(),
+            context.getSearchExecutionContext().mappingCacheKey(),
+            context.searcher().getDirectoryReader(),
+            plan
+        );
+    }
+
+    @Nullable
+    Key key(ShardId shardId, MappingLookup.CacheKey mappingCacheKey, DirectoryReader reader, BytesReference plan) {
+        if (cache == null) {
+            return null;
+        }
+        ESCacheHelper cacheHelper = ElasticsearchDirectoryReader.getESReaderCacheHelper(reader);
+        if (cacheHelper == null) {
+            return null;
+        }
+        Object readerCacheKey = cacheHelper.getKey();
+        if (registeredClosedListeners.add(readerCacheKey)) {
+            cacheHelper.addClosedListener(this::onReaderClosed);
+        }
+        return new Key(shardId, mappingCacheKey, readerCacheKey, plan);
+    }
+
+    /**
+     * The serialized pages cached for {@code key} or {@code null} if there aren't any.
+     */
+    @Nullable
+    List<BytesReference> get(Key key) {
+        Value value = cache.get(key);
+        return value == null ? null : value.pages;
+    }
+
+    /**
+     * Cache the {@code pages} computed for {@code key} unless computing them read something
+     * that changes from one request to the next, like {@code now}.
+     */
+    void put(Key key, SearchExecutionContext context, List<BytesReference> pages) {
+        if (context.isCacheable() == false) {
+            return;
+        }
+        if (registeredClosedListeners.contains(key.readerCacheKey) == false) {
+            // The reader closed while we were computing the result, no one could hit it
+            return;
+        }
+        cache.put(key, new Value(pages));
+    }
+
+    private void onReaderClosed(Object readerCacheKey) {
+        registeredClosedListeners.remove(readerCacheKey);
+        for (Iterator<Key> itr = cache.keys().iterator(); itr.hasNext();) {
+            if (itr.next().readerCacheKey.equals(readerCacheKey)) {
+                itr.remove();
+            }
+        }
+    }
+
+    /**
+     * Add the cache's hit, miss, and memory statistics to {@code counters}.
+     * Does nothing if the cache is disabled.
+     */
+    public void addStats(Counters counters) {
+        if (cache == null) {
+            return;
+        }
+        Cache.CacheStats stats = cache.stats();
+        counters.inc("result_cache.hits", stats.getHits());
+        counters.inc("result_cache.misses", stats.getMisses());
+        counters.inc("result_cache.evictions", stats.getEvictions());
+        counters.inc("result_cache.entries", cache.count());
+        counters.inc("result_cache.memory_size_in_bytes", cache.weight());
+    }
+
+    record Key(ShardId shardId, MappingLookup.CacheKey mappingCacheKey, Object readerCacheKey, BytesReference plan) implements Accountable {
+        private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(Key.class);
+
+        @Override
+        public long ramBytesUsed() {
+            return BASE_RAM_BYTES_USED + plan.length();
+        }
+    }
+
+    record Value(List<BytesReference> pages) implements Accountable {
+        private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(Value.class);
+
+        Value {
+            pages = List.copyOf(pages);
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            long bytes = BASE_RAM_BYTES_USED + (long) pages.size() * RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+            for (BytesReference page : pages) {
+                bytes += page.ramBytesUsed();
+            }
+            return bytes;
+        }
+    }
+}
@@ -71,6 +71,18 @@ public final class QueryPragmas implements Writeable {
         MappedFieldType.FieldExtractPreference.NONE
     );
 
+    /**
+     * Allow operators that support it to spill to the node's temporary directory
+     * rather than trip the circuit breaker.
+     */
+    public static final Setting<Boolean> SPILL_TO_DISK = Setting.boolSetting("spill_to_disk", false);
+
+    /**
+     * Plan {@code LOOKUP JOIN} as a hash join against the whole lookup index when it has
+     * at most this many documents. {@code 0} disables the hash join.
+     */
+    public static final Setting<Long> LOOKUP_JOIN_HASH_MAX_DOCS = Setting.longSetting("lookup_join_hash_max_docs", -1, -1);
+
     public static final QueryPragmas EMPTY = new QueryPragmas(Settings.EMPTY);
 
     private final Settings settings;
@@ -176,6 +188,22 @@ public final class QueryPragmas implements Writeable {
         return FIELD_EXTRACT_PREFERENCE.get(settings);
     }
 
+    /**
+     * Should operators that support it spill to disk rather than trip the circuit breaker?
+     * Defaults to {@code false}.
+     */
+    public boolean spillToDisk() {
+        return SPILL_TO_DISK.get(settings);
+    }
+
+    /**
+     * Overrides {@code esql.lookup_join.hash_join_max_docs} for this query. {@code -1},
+     * the default, uses the cluster setting.
+     */
+    public long lookupJoinHashMaxDocs() {
+        return LOOKUP_JOIN_HASH_MAX_DOCS.get(settings);
+    }
+
     public boolean isEmpty() {
         return settings.isEmpty();
     }
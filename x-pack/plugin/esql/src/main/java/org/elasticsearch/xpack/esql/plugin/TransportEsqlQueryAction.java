@@ -23,6 +23,7 @@ import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.compute.data.BlockFactoryProvider;
 import org.elasticsearch.compute.operator.exchange.ExchangeService;
 import org.elasticsearch.core.Nullable;
+import org.elasticsearch.env.Environment;
 import org.elasticsearch.injection.guice.Inject;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.tasks.CancellableTask;
@@ -49,6 +50,7 @@ import org.elasticsearch.xpack.esql.enrich.EnrichLookupService;
 import org.elasticsearch.xpack.esql.enrich.EnrichPolicyResolver;
 import org.elasticsearch.xpack.esql.enrich.LookupFromIndexService;
 import org.elasticsearch.xpack.esql.execution.PlanExecutor;
+import org.elasticsearch.xpack.esql.plan.physical.PhysicalPlan;
 import org.elasticsearch.xpack.esql.session.Configuration;
 import org.elasticsearch.xpack.esql.session.EsqlSession.PlanRunner;
 import org.elasticsearch.xpack.esql.session.Result;
@@ -91,13 +93,15 @@ public class TransportEsqlQueryAction extends HandledTransportAction<EsqlQueryRe
         SearchService searchService,
         ExchangeService exchangeService,
         ClusterService clusterService,
+        Environment environment,
         ThreadPool threadPool,
         BigArrays bigArrays,
         BlockFactoryProvider blockFactoryProvider,
         Client client,
         NamedWriteableRegistry registry,
         IndexNameExpressionResolver indexNameExpressionResolver,
-        UsageService usageService
+        UsageService usageService,
+        EsqlResultCache resultCache
     ) {
         // TODO replace SAME when removing workaround for https://github.com/elastic/elasticsearch/issues/97916
         super(EsqlQueryAction.NAME, transportService, actionFilters, EsqlQueryRequest::new, EsExecutors.DIRECT_EXECUTOR_SERVICE);
@@ -131,9 +135,11 @@ public class TransportEsqlQueryAction extends HandledTransportAction<EsqlQueryRe
             enrichLookupService,
             lookupFromIndexService,
             clusterService,
+            environment,
             threadPool,
             bigArrays,
-            blockFactoryProvider.blockFactory()
+            blockFactoryProvider.blockFactory(),
+            resultCache
         );
         this.asyncTaskManagementService = new AsyncTaskManagementService<>(
             XPackPlugin.ASYNC_RESULTS_INDEX,
@@ -221,15 +227,35 @@ public class TransportEsqlQueryAction extends HandledTransportAction<EsqlQueryRe
         // sync query uses CancellableTask which does not have EsqlExecutionInfo, so create one
         EsqlExecutionInfo executionInfo = getOrCreateExecutionInfo(task, request);
         FoldContext foldCtx = configuration.newFoldContext();
-        PlanRunner planRunner = (plan, resultListener) -> computeService.execute(
-            sessionId,
-            (CancellableTask) task,
-            plan,
-            configuration,
-            foldCtx,
-            executionInfo,
-            resultListener
-        );
+        PlanRunner planRunner = new PlanRunner() {
+            @Override
+            public void run(PhysicalPlan plan, ActionListener<Result> resultListener) {
+                computeService.execute(
+                    sessionId,
+                    (CancellableTask) task,
+                    plan,
+                    configuration,
+                    foldCtx,
+                    executionInfo,
+                    null,
+                    resultListener
+                );
+            }
+
+            @Override
+            public void runFinal(PhysicalPlan plan, ActionListener<Result> resultListener) {
+                computeService.execute(
+                    sessionId,
+                    (CancellableTask) task,
+                    plan,
+                    configuration,
+                    foldCtx,
+                    executionInfo,
+                    request.streamingPages(),
+                    resultListener
+                );
+            }
+        };
         planExecutor.esql(
             request,
             sessionId,
@@ -17,6 +17,7 @@ import org.elasticsearch.injection.guice.Inject;
 import org.elasticsearch.tasks.Task;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
+import org.elasticsearch.xpack.core.watcher.common.stats.Counters;
 import org.elasticsearch.xpack.esql.execution.PlanExecutor;
 
 import java.io.IOException;
@@ -34,6 +35,7 @@ public class TransportEsqlStatsAction extends TransportNodesAction<
 
     // the plan executor holds the metrics
     private final PlanExecutor planExecutor;
+    private final EsqlResultCache resultCache;
 
     @Inject
     public TransportEsqlStatsAction(
@@ -41,7 +43,8 @@ public class TransportEsqlStatsAction extends TransportNodesAction<
         ClusterService clusterService,
         ThreadPool threadPool,
         ActionFilters actionFilters,
-        PlanExecutor planExecutor
+        PlanExecutor planExecutor,
+        EsqlResultCache resultCache
     ) {
         super(
             EsqlStatsAction.NAME,
@@ -52,6 +55,7 @@ public class TransportEsqlStatsAction extends TransportNodesAction<
             threadPool.executor(ThreadPool.Names.MANAGEMENT)
         );
         this.planExecutor = planExecutor;
+        this.resultCache = resultCache;
     }
 
     @Override
@@ -81,7 +85,9 @@ public class TransportEsqlStatsAction extends TransportNodesAction<
     @Override
     protected EsqlStatsResponse.NodeStatsResponse nodeOperation(EsqlStatsRequest.NodeStatsRequest request, Task task) {
         EsqlStatsResponse.NodeStatsResponse statsResponse = new EsqlStatsResponse.NodeStatsResponse(clusterService.localNode());
-        statsResponse.setStats(planExecutor.metrics().stats());
+        Counters stats = planExecutor.metrics().stats();
+        resultCache.addStats(stats);
+        statsResponse.setStats(stats);
         return statsResponse;
     }
 }
@@ -103,6 +103,14 @@ public class EsqlSession {
      */
     public interface PlanRunner {
         void run(PhysicalPlan plan, ActionListener<Result> listener);
+
+        /**
+         * Run the plan that produces the final result of the query. Unlike the
+         * results of sub-plans, its pages may be streamed rather than collected.
+         */
+        default void runFinal(PhysicalPlan plan, ActionListener<Result> listener) {
+            run(plan, listener);
+        }
     }
 
     private final String sessionId;
@@ -244,7 +252,7 @@ public class EsqlSession {
             executeSubPlan(new ArrayList<>(), physicalPlan, iterator, executionInfo, runner, listener);
         } else {
             // execute main plan
-            runner.run(physicalPlan, listener);
+            runner.runFinal(physicalPlan, listener);
         }
     }
 
@@ -295,7 +303,7 @@ public class EsqlSession {
                 });
 
                 if (subPlanIterator.hasNext() == false) {
-                    runner.run(newPlan, next.delegateFailureAndWrap((finalListener, finalResult) -> {
+                    runner.runFinal(newPlan, next.delegateFailureAndWrap((finalListener, finalResult) -> {
                         profileAccumulator.addAll(finalResult.profiles());
                         finalListener.onResponse(new Result(finalResult.schema(), finalResult.pages(), profileAccumulator, executionInfo));
                     }));
@@ -649,6 +649,7 @@ public class CsvTests extends ESTestCase {
             bigArrays,
             blockFactory,
             randomNodeSettings(),
+            createTempDir(),
             configuration,
             exchangeSource::createExchangeSource,
             () -> exchangeSink.createExchangeSink(() -> {}),
@@ -0,0 +1,107 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.esql.action;
+
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.MockBigArrays;
+import org.elasticsearch.common.util.PageCacheRecycler;
+import org.elasticsearch.compute.data.BlockFactory;
+import org.elasticsearch.compute.data.Page;
+import org.elasticsearch.compute.operator.IsBlockedResult;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
+import org.elasticsearch.tasks.TaskCancelledException;
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class StreamingPagesTests extends ESTestCase {
+    private final BlockFactory blockFactory = BlockFactory.getInstance(
+        newLimitedBreaker(ByteSizeValue.ofMb(1)),
+        new MockBigArrays(PageCacheRecycler.NON_RECYCLING_INSTANCE, new NoneCircuitBreakerService())
+    );
+
+    public void testReadBeforeWrite() {
+        try (StreamingPages stream = new StreamingPages(1)) {
+            PlainActionFuture<Page> read = new PlainActionFuture<>();
+            stream.nextPage(read);
+            assertFalse(read.isDone());
+
+            Page page = page();
+            stream.accept(page);
+            assertThat(read.actionGet(), sameInstance(page));
+            page.releaseBlocks();
+
+            PlainActionFuture<Page> end = new PlainActionFuture<>();
+            stream.nextPage(end);
+            stream.finish(null);
+            assertThat(end.actionGet(), nullValue());
+        }
+    }
+
+    public void testBlocksWhenFull() {
+        int max = between(1, 10);
+        try (StreamingPages stream = new StreamingPages(max)) {
+            for (int i = 0; i < max; i++) {
+                assertTrue(stream.waitForWriting().listener().isDone());
+                stream.accept(page());
+            }
+            IsBlockedResult blocked = stream.waitForWriting();
+            assertFalse(blocked.listener().isDone());
+
+            PlainActionFuture<Page> read = new PlainActionFuture<>();
+            stream.nextPage(read);
+            read.actionGet().releaseBlocks();
+            assertTrue(blocked.listener().isDone());
+        }
+        assertThat(blockFactory.breaker().getUsed(), equalTo(0L));
+    }
+
+    public void testFailureAfterBufferedPages() {
+        try (StreamingPages stream = new StreamingPages(2)) {
+            stream.accept(page());
+            stream.finish(new IllegalStateException("test"));
+
+            PlainActionFuture<Page> read = new PlainActionFuture<>();
+            stream.nextPage(read);
+            read.actionGet().releaseBlocks();
+
+            PlainActionFuture<Page> failed = new PlainActionFuture<>();
+            stream.nextPage(failed);
+            expectThrows(IllegalStateException.class, failed::actionGet);
+        }
+    }
+
+    public void testCloseReleasesPages() {
+        StreamingPages stream = new StreamingPages(1);
+        stream.accept(page());
+        IsBlockedResult blocked = stream.waitForWriting();
+        assertFalse(blocked.listener().isDone());
+        stream.close();
+        assertTrue(blocked.listener().isDone());
+
+        // Pages that show up after the client is gone are dropped
+        stream.accept(page());
+        assertTrue(stream.waitForWriting().listener().isDone());
+        assertThat(blockFactory.breaker().getUsed(), equalTo(0L));
+    }
+
+    public void testCloseFailsPendingRead() {
+        StreamingPages stream = new StreamingPages(1);
+        PlainActionFuture<Page> read = new PlainActionFuture<>();
+        stream.nextPage(read);
+        stream.close();
+        expectThrows(TaskCancelledException.class, read::actionGet);
+    }
+
+    private Page page() {
+        return new Page(blockFactory.newConstantIntBlockWith(randomInt(), between(1, 100)));
+    }
+}
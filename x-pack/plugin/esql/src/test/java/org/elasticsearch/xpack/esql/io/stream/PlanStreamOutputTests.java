@@ -216,6 +216,36 @@ public class PlanStreamOutputTests extends ESTestCase {
         }
     }
 
+    public void testCanonicalNameIds() throws IOException {
+        Configuration configuration = randomConfiguration();
+        Attribute one = randomAttribute();
+        Attribute two = randomAttribute();
+        BytesStreamOutput original = new BytesStreamOutput();
+        try (PlanStreamOutput planStream = PlanStreamOutput.withCanonicalNameIds(original, configuration)) {
+            planStream.writeNamedWriteable(one);
+            planStream.writeNamedWriteable(two);
+            planStream.writeNamedWriteable(one);
+        }
+        // The same attributes planned again get new ids
+        BytesStreamOutput replanned = new BytesStreamOutput();
+        try (PlanStreamOutput planStream = PlanStreamOutput.withCanonicalNameIds(replanned, configuration)) {
+            Attribute newOne = one.withId(new NameId());
+            planStream.writeNamedWriteable(newOne);
+            planStream.writeNamedWriteable(two.withId(new NameId()));
+            planStream.writeNamedWriteable(newOne);
+        }
+        assertThat(replanned.bytes(), equalTo(original.bytes()));
+
+        // Swapping the ids makes a different plan
+        BytesStreamOutput swapped = new BytesStreamOutput();
+        try (PlanStreamOutput planStream = PlanStreamOutput.withCanonicalNameIds(swapped, configuration)) {
+            planStream.writeNamedWriteable(one);
+            planStream.writeNamedWriteable(two.withId(one.id()));
+            planStream.writeNamedWriteable(one);
+        }
+        assertThat(swapped.bytes(), not(equalTo(original.bytes())));
+    }
+
     public void testWriteMultipleEsFields() throws IOException {
         Configuration configuration = randomConfiguration();
         try (BytesStreamOutput out = new BytesStreamOutput(); PlanStreamOutput planStream = new PlanStreamOutput(out, configuration)) {
@@ -1244,6 +1244,45 @@ public class PhysicalPlanOptimizerTests extends ESTestCase {
         assertThat(source.estimatedRowSize(), equalTo(Integer.BYTES * 2));
     }
 
+    /**
+     * The part of the eval the sort doesn't need moves after the TopN on the data node so
+     * first_name and last_name are only loaded for the rows that survive it.
+     * <pre>{@code
+     * TopNExec[[Order[y{r}#3,ASC,LAST]],5[INTEGER]]
+     * \_ExchangeExec[]
+     *   \_ProjectExec[[_meta_field{f}#11, emp_no{f}#5, first_name{f}#6, !gender, ..., y{r}#3, x{r}#4]]
+     *     \_FieldExtractExec[_meta_field{f}#11, emp_no{f}#5, !g..]
+     *       \_EvalExec[[CONCAT(first_name{f}#6,last_name{f}#9) AS x]]
+     *         \_FieldExtractExec[first_name{f}#6, last_name{f}#9]
+     *           \_TopNExec[[Order[y{r}#3,ASC,LAST]],5[INTEGER]]
+     *             \_EvalExec[[emp_no{f}#5 + 1[INTEGER] AS y]]
+     *               \_FieldExtractExec[emp_no{f}#5]
+     *                 \_EsQueryExec[test], query[][_doc{f}#12], limit[], sort[]
+     * }</pre>
+     */
+    public void testEvalNotNeededBySortAfterTopN() {
+        var optimized = optimizedPlan(physicalPlan("""
+            from test
+            | eval y = emp_no + 1, x = concat(first_name, last_name)
+            | sort y
+            | limit 5
+            """));
+        var topN = as(optimized, TopNExec.class);
+        var exchange = asRemoteExchange(topN.child());
+        var project = as(exchange.child(), ProjectExec.class);
+        var extract = as(project.child(), FieldExtractExec.class);
+        var lateEval = as(extract.child(), EvalExec.class);
+        assertThat(names(lateEval.fields()), contains("x"));
+        extract = as(lateEval.child(), FieldExtractExec.class);
+        assertThat(names(extract.attributesToExtract()), containsInAnyOrder("first_name", "last_name"));
+        var topNLocal = as(extract.child(), TopNExec.class);
+        var eval = as(topNLocal.child(), EvalExec.class);
+        assertThat(names(eval.fields()), contains("y"));
+        extract = as(eval.child(), FieldExtractExec.class);
+        assertThat(names(extract.attributesToExtract()), contains("emp_no"));
+        source(extract.child());
+    }
+
     public void testProjectAfterTopN() throws Exception {
         var optimized = optimizedPlan(physicalPlan("""
             from test
@@ -7668,6 +7707,7 @@ public class PhysicalPlanOptimizerTests extends ESTestCase {
             BigArrays.NON_RECYCLING_INSTANCE,
             TestBlockFactory.getNonBreakingInstance(),
             Settings.EMPTY,
+            createTempDir(),
             config,
             new ExchangeSourceHandler(10, null)::createExchangeSource,
             () -> exchangeSinkHandler.createExchangeSink(() -> {}),
@@ -208,6 +208,7 @@ public class LocalExecutionPlannerTests extends MapperServiceTestCase {
                 .put(ClusterName.CLUSTER_NAME_SETTING.getKey(), "dev-cluster")
                 .put(Node.NODE_NAME_SETTING.getKey(), "node-1")
                 .build(),
+            createTempDir(),
             config(),
             null,
             null,
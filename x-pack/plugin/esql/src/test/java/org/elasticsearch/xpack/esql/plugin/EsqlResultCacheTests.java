@@ -0,0 +1,172 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.esql.plugin;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.mapper.MappingLookup;
+import org.elasticsearch.index.query.SearchExecutionContext;
+import org.elasticsearch.index.query.SearchExecutionContextHelper;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.IndexSettingsModule;
+import org.elasticsearch.xcontent.XContentParserConfiguration;
+import org.elasticsearch.xpack.core.security.authz.accesscontrol.IndicesAccessControl;
+import org.elasticsearch.xpack.core.security.authz.permission.DocumentPermissions;
+import org.elasticsearch.xpack.core.security.authz.permission.FieldPermissions;
+import org.elasticsearch.xpack.core.security.authz.permission.FieldPermissionsDefinition;
+import org.elasticsearch.xpack.core.watcher.common.stats.Counters;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public class EsqlResultCacheTests extends ESTestCase {
+    private static final ShardId SHARD_ID = new ShardId("test", "_na_", 0);
+    private static final List<BytesReference> PAGES = List.of(new BytesArray("page1"), new BytesArray("page2"));
+
+    public void testDisabledByDefault() throws IOException {
+        EsqlResultCache cache = new EsqlResultCache(Settings.EMPTY);
+        assertFalse(cache.enabled());
+        try (Directory dir = newDirectory(); IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig())) {
+            addDocument(writer, "1");
+            try (DirectoryReader reader = open(writer)) {
+                assertThat(cache.key(SHARD_ID, MappingLookup.EMPTY.cacheKey(), reader, plan("a")), nullValue());
+            }
+        }
+    }
+
+    public void testHitAndMiss() throws IOException {
+        EsqlResultCache cache = enabledCache();
+        try (Directory dir = newDirectory(); IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig())) {
+            addDocument(writer, "1");
+            try (DirectoryReader reader = open(writer)) {
+                EsqlResultCache.Key key = cache.key(SHARD_ID, MappingLookup.EMPTY.cacheKey(), reader, plan("a"));
+                assertThat(cache.get(key), nullValue());
+                cache.put(key, searchExecutionContext(), PAGES);
+                assertThat(cache.get(cache.key(SHARD_ID, MappingLookup.EMPTY.cacheKey(), reader, plan("a"))), equalTo(PAGES));
+
+                // Another plan against the same reader misses
+                assertThat(cache.get(cache.key(SHARD_ID, MappingLookup.EMPTY.cacheKey(), reader, plan("b"))), nullValue());
+
+                // As does the same plan against a reader that sees new documents
+                addDocument(writer, "2");
+                try (DirectoryReader newReader = DirectoryReader.openIfChanged(reader)) {
+                    assertNotNull(newReader);
+                    assertThat(cache.get(cache.key(SHARD_ID, MappingLookup.EMPTY.cacheKey(), newReader, plan("a"))), nullValue());
+                }
+
+                Counters stats = stats(cache);
+                assertThat(stats.get("result_cache.hits"), equalTo(1L));
+                assertThat(stats.get("result_cache.misses"), equalTo(3L));
+                assertThat(stats.get("result_cache.entries"), equalTo(1L));
+            }
+        }
+    }
+
+    public void testInvalidatedWhenReaderCloses() throws IOException {
+        EsqlResultCache cache = enabledCache();
+        try (Directory dir = newDirectory(); IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig())) {
+            addDocument(writer, "1");
+            DirectoryReader reader = open(writer);
+            EsqlResultCache.Key key = cache.key(SHARD_ID, MappingLookup.EMPTY.cacheKey(), reader, plan("a"));
+            cache.put(key, searchExecutionContext(), PAGES);
+            assertThat(stats(cache).get("result_cache.entries"), equalTo(1L));
+
+            reader.close();
+            assertThat(stats(cache).get("result_cache.entries"), equalTo(0L));
+            assertThat(cache.get(key), nullValue());
+
+            // A result that finishes computing after its reader closed is dropped
+            cache.put(key, searchExecutionContext(), PAGES);
+            assertThat(stats(cache).get("result_cache.entries"), equalTo(0L));
+        }
+    }
+
+    public void testResultsThatReadNowAreNotCached() throws IOException {
+        EsqlResultCache cache = enabledCache();
+        try (Directory dir = newDirectory(); IndexWriter writer = new IndexWriter(dir, newIndexWriterConfig())) {
+            addDocument(writer, "1");
+            try (DirectoryReader reader = open(writer)) {
+                EsqlResultCache.Key key = cache.key(SHARD_ID, MappingLookup.EMPTY.cacheKey(), reader, plan("a"));
+                SearchExecutionContext context = searchExecutionContext();
+                context.nowInMillis();
+                assertFalse(context.isCacheable());
+                cache.put(key, context, PAGES);
+                assertThat(cache.get(key), nullValue());
+                assertThat(stats(cache).get("result_cache.entries"), equalTo(0L));
+            }
+        }
+    }
+
+    public void testResultsFilteredByDocumentOrFieldLevelSecurityAreNotShared() {
+        assertTrue(EsqlResultCache.sharedBetweenUsers(null, "test"));
+        IndicesAccessControl unrestricted = accessControl("test", FieldPermissions.DEFAULT, DocumentPermissions.allowAll());
+        assertTrue(EsqlResultCache.sharedBetweenUsers(unrestricted, "test"));
+
+        FieldPermissions fls = new FieldPermissions(new FieldPermissionsDefinition(new String[] { "visible" }, null));
+        assertFalse(EsqlResultCache.sharedBetweenUsers(accessControl("test", fls, DocumentPermissions.allowAll()), "test"));
+
+        DocumentPermissions dls = DocumentPermissions.filteredBy(Set.of(new BytesArray("{\"term\": {\"field\": \"1\"}}")));
+        assertFalse(EsqlResultCache.sharedBetweenUsers(accessControl("test", FieldPermissions.DEFAULT, dls), "test"));
+
+        // Security on one index doesn't stop us from sharing the results of another
+        assertTrue(EsqlResultCache.sharedBetweenUsers(accessControl("other", FieldPermissions.DEFAULT, dls), "test"));
+    }
+
+    private static EsqlResultCache enabledCache() {
+        EsqlResultCache cache = new EsqlResultCache(Settings.builder().put(EsqlResultCache.SIZE_SETTING.getKey(), "1mb").build());
+        assertTrue(cache.enabled());
+        return cache;
+    }
+
+    private static void addDocument(IndexWriter writer, String id) throws IOException {
+        Document doc = new Document();
+        doc.add(new StringField("id", id, Field.Store.NO));
+        writer.addDocument(doc);
+    }
+
+    private static DirectoryReader open(IndexWriter writer) throws IOException {
+        return ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), SHARD_ID);
+    }
+
+    private static BytesReference plan(String plan) {
+        return new BytesArray(plan);
+    }
+
+    private static SearchExecutionContext searchExecutionContext() {
+        return SearchExecutionContextHelper.createSimple(
+            IndexSettingsModule.newIndexSettings("test", Settings.EMPTY),
+            XContentParserConfiguration.EMPTY,
+            new NamedWriteableRegistry(List.of())
+        );
+    }
+
+    private static IndicesAccessControl accessControl(String index, FieldPermissions fields, DocumentPermissions documents) {
+        return new IndicesAccessControl(true, Map.of(index, new IndicesAccessControl.IndexAccessControl(fields, documents)));
+    }
+
+    private static Counters stats(EsqlResultCache cache) {
+        Counters counters = new Counters();
+        cache.addStats(counters);
+        return counters;
+    }
+}